@@ -0,0 +1,88 @@
+package com.iyalynnyi.taskmanager.converter.binary;
+
+import com.iyalynnyi.taskmanager.dto.TaskDto;
+import com.iyalynnyi.taskmanager.dto.TaskEvent;
+import com.iyalynnyi.taskmanager.dto.TaskEventFormat;
+import com.iyalynnyi.taskmanager.dto.TaskEventType;
+import com.iyalynnyi.taskmanager.dto.TaskPriority;
+import com.iyalynnyi.taskmanager.dto.TaskStatus;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the JSON and the binary format of task events, as written and read by the Kafka clients.
+ * Run with {@code ./gradlew jmh}; the size of a message in either format is printed before the measurements.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TaskEventSerializationBenchmark {
+
+  private static final String JSON_TOPIC = "json_topic";
+  private static final String BINARY_TOPIC = "binary_topic";
+
+  private TaskEventSerializer serializer;
+  private TaskEventDeserializer deserializer;
+  private TaskEvent event;
+  private byte[] jsonMessage;
+  private byte[] binaryMessage;
+
+  @Setup
+  public void setUp() {
+    TaskBinaryCodec codec = new TaskBinaryCodec(new TaskSchemaRegistry());
+    serializer = new TaskEventSerializer(Map.of(BINARY_TOPIC, TaskEventFormat.BINARY), TaskEventFormat.JSON, codec);
+    deserializer = new TaskEventDeserializer(codec);
+    event = new TaskEvent(TaskEventType.UPDATED, TaskDto.builder()
+        .id(7_234_567_890_123_456L)
+        .title("Prepare the quarterly report")
+        .description("Collect the figures of all departments and summarize them for the board.")
+        .status(TaskStatus.IN_PROGRESS)
+        .priority(TaskPriority.HIGH)
+        .createdDate(LocalDateTime.of(2024, 11, 4, 9, 30, 15, 123_456_000))
+        .dueDate(LocalDateTime.of(2024, 11, 29, 17, 0))
+        .assignee("j.doe")
+        .reporter("a.smith")
+        .version(3L)
+        .build());
+    jsonMessage = serializer.serialize(JSON_TOPIC, event);
+    binaryMessage = serializer.serialize(BINARY_TOPIC, event);
+    System.out.printf("Task event size: JSON %d bytes, binary %d bytes%n", jsonMessage.length, binaryMessage.length);
+  }
+
+  @TearDown
+  public void tearDown() {
+    serializer.close();
+    deserializer.close();
+  }
+
+  @Benchmark
+  public byte[] serializeJson() {
+    return serializer.serialize(JSON_TOPIC, event);
+  }
+
+  @Benchmark
+  public byte[] serializeBinary() {
+    return serializer.serialize(BINARY_TOPIC, event);
+  }
+
+  @Benchmark
+  public TaskEvent deserializeJson() {
+    return deserializer.deserialize(JSON_TOPIC, jsonMessage);
+  }
+
+  @Benchmark
+  public TaskEvent deserializeBinary() {
+    return deserializer.deserialize(BINARY_TOPIC, binaryMessage);
+  }
+}
@@ -2,20 +2,29 @@ package com.iyalynnyi.taskmanager.config;
 
 import com.iyalynnyi.taskmanager.config.properties.H2DataSourceProperties;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
 import lombok.extern.slf4j.Slf4j;
 
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import java.util.HashMap;
+import java.util.Map;
 
 import javax.sql.DataSource;
 
@@ -32,15 +41,18 @@ import jakarta.persistence.EntityManagerFactory;
 public class H2JpaConfig {
 
   @Bean(name = "h2DataSource")
-  public DataSource h2DataSource(H2DataSourceProperties h2DataSourceProperties) {
-
-    DriverManagerDataSource dataSource = new DriverManagerDataSource();
-    dataSource.setDriverClassName(h2DataSourceProperties.getDriverClassName());
-    dataSource.setUrl(h2DataSourceProperties.getUrl());
-    dataSource.setUsername(h2DataSourceProperties.getUsername());
-    dataSource.setPassword(h2DataSourceProperties.getPassword());
+  public HikariDataSource h2DataSource(H2DataSourceProperties h2DataSourceProperties,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    HikariConfig config = new HikariConfig();
+    config.setPoolName("h2-pool");
+    config.setDriverClassName(h2DataSourceProperties.getDriverClassName());
+    config.setJdbcUrl(h2DataSourceProperties.getUrl());
+    config.setUsername(h2DataSourceProperties.getUsername());
+    config.setPassword(h2DataSourceProperties.getPassword());
+    h2DataSourceProperties.getPool().applyTo(config);
+    meterRegistry.ifAvailable(registry -> config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
 
-    return dataSource;
+    return new HikariDataSource(config);
   }
 
   @Bean(name = "h2EntityManagerFactory")
@@ -59,9 +71,20 @@ public class H2JpaConfig {
     return new JpaTransactionManager(entityManagerFactory);
   }
 
+  /**
+   * Shared by both persistence units. Inserts and updates are ordered by entity and sent as JDBC batches,
+   * which works because task IDs are allocated by the application instead of an identity column.
+   *
+   * @param batchSize the number of statements sent in one JDBC batch
+   * @return the entity manager factory builder
+   */
   @Bean
-  public EntityManagerFactoryBuilder entityManagerFactoryBuilder() {
-    return new EntityManagerFactoryBuilder(new HibernateJpaVendorAdapter(), new HashMap<>(), null);
+  public EntityManagerFactoryBuilder entityManagerFactoryBuilder(@Value("${task.jpa.batch-size:50}") int batchSize) {
+    Map<String, Object> jpaProperties = new HashMap<>();
+    jpaProperties.put(AvailableSettings.STATEMENT_BATCH_SIZE, batchSize);
+    jpaProperties.put(AvailableSettings.ORDER_INSERTS, true);
+    jpaProperties.put(AvailableSettings.ORDER_UPDATES, true);
+    return new EntityManagerFactoryBuilder(new HibernateJpaVendorAdapter(), jpaProperties, null);
   }
 }
 
@@ -0,0 +1,84 @@
+package com.iyalynnyi.taskmanager.config;
+
+import com.iyalynnyi.taskmanager.config.properties.KafkaConsumerProperties;
+import com.iyalynnyi.taskmanager.converter.binary.TaskBinaryCodec;
+import com.iyalynnyi.taskmanager.converter.binary.TaskDtoDeserializer;
+import com.iyalynnyi.taskmanager.dto.TaskDto;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@EnableKafka
+@Configuration
+public class KafkaConsumerConfig {
+
+  @Value("${kafka.bootstrap-servers}")
+  private String bootstrapServers;
+
+  /**
+   * Creates the consumer factory of the task ingestion. Offsets are never committed automatically, and a new
+   * consumer group starts from the earliest record. A record which cannot be read is handed to the listener
+   * with a null value rather than failing the poll.
+   *
+   * @param properties the ingestion settings
+   * @param codec      the codec of the binary format of tasks
+   * @return the consumer factory
+   */
+  @Bean
+  public ConsumerFactory<String, TaskDto> taskIngestConsumerFactory(KafkaConsumerProperties properties,
+      TaskBinaryCodec codec) {
+    Map<String, Object> configProps = new HashMap<>();
+    configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+    configProps.put(ConsumerConfig.GROUP_ID_CONFIG, properties.getGroupId());
+    configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+    configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+    configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, properties.getMaxPollRecords());
+    configProps.put(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG, (int) properties.getMaxPollInterval().toMillis());
+    return new DefaultKafkaConsumerFactory<>(configProps, new StringDeserializer(),
+        new ErrorHandlingDeserializer<>(new TaskDtoDeserializer(codec)));
+  }
+
+  /**
+   * Creates the container factory of the task ingestion listener. Every poll is handed to the listener as one
+   * batch, and its offsets are committed once the listener has returned, i.e. once the batch is committed to
+   * the database. A batch the listener fails on because a database is unavailable is handed to it again after
+   * the retry backoff, as long as it keeps failing, so no offset is committed past tasks which are not stored.
+   * Errors caused by the records themselves, which would fail the same way on every attempt, are not retried:
+   * the records of the batch are logged and skipped, so they cannot block the partition.
+   *
+   * @param taskIngestConsumerFactory the consumer factory of the task ingestion
+   * @param properties                the ingestion settings
+   * @return the container factory
+   */
+  @Bean
+  public ConcurrentKafkaListenerContainerFactory<String, TaskDto> taskIngestListenerContainerFactory(
+      ConsumerFactory<String, TaskDto> taskIngestConsumerFactory, KafkaConsumerProperties properties) {
+    ConcurrentKafkaListenerContainerFactory<String, TaskDto> factory = new ConcurrentKafkaListenerContainerFactory<>();
+    factory.setConsumerFactory(taskIngestConsumerFactory);
+    factory.setBatchListener(true);
+    factory.setConcurrency(properties.getConcurrency());
+    factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+    DefaultErrorHandler errorHandler = new DefaultErrorHandler(
+        new FixedBackOff(properties.getRetryBackoff().toMillis(), FixedBackOff.UNLIMITED_ATTEMPTS));
+    errorHandler.addNotRetryableExceptions(DataIntegrityViolationException.class,
+        InvalidDataAccessApiUsageException.class, IllegalArgumentException.class);
+    factory.setCommonErrorHandler(errorHandler);
+    return factory;
+  }
+}
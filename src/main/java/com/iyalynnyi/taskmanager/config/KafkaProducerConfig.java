@@ -1,6 +1,11 @@
 package com.iyalynnyi.taskmanager.config;
 
-import com.iyalynnyi.taskmanager.dto.TaskDto;
+import com.iyalynnyi.taskmanager.config.properties.KafkaProducerProperties;
+import com.iyalynnyi.taskmanager.converter.binary.TaskBinaryCodec;
+import com.iyalynnyi.taskmanager.converter.binary.TaskEventSerializer;
+import com.iyalynnyi.taskmanager.dto.TaskEvent;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
@@ -9,8 +14,8 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -21,17 +26,36 @@ public class KafkaProducerConfig {
   @Value("${kafka.bootstrap-servers}")
   private String bootstrapServers;
 
+  /**
+   * Creates the producer factory. Records are batched per partition up to the batch size or the linger time
+   * and compressed per batch. The producer is idempotent, so retried batches neither duplicate nor reorder the
+   * events of a task within its partition. The task events of every topic are written in the format configured for it,
+   * see {@link TaskEventSerializer}. The metrics of the producer, such as the average batch size, the record error
+   * rate and the request latency, are published as {@code kafka.producer.*} meters.
+   *
+   * @param properties    the batching and compression settings
+   * @param meterRegistry the registry the producer metrics are published in
+   * @param codec         the codec of the binary format of task events
+   * @return the producer factory
+   */
   @Bean
-  public ProducerFactory<String, TaskDto> producerFactory() {
+  public ProducerFactory<String, TaskEvent> producerFactory(KafkaProducerProperties properties,
+      MeterRegistry meterRegistry, TaskBinaryCodec codec) {
     Map<String, Object> configProps = new HashMap<>();
     configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-    configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-    configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-    return new DefaultKafkaProducerFactory<>(configProps);
+    configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, properties.getBatchSize());
+    configProps.put(ProducerConfig.LINGER_MS_CONFIG, (int) properties.getLinger().toMillis());
+    configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, properties.getCompression());
+    configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, properties.getMaxBlock().toMillis());
+    configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+    DefaultKafkaProducerFactory<String, TaskEvent> producerFactory = new DefaultKafkaProducerFactory<>(configProps,
+        new StringSerializer(), new TaskEventSerializer(properties.getTopicFormats(), properties.getFormat(), codec));
+    producerFactory.addListener(new MicrometerProducerListener<>(meterRegistry));
+    return producerFactory;
   }
 
   @Bean
-  public KafkaTemplate<String, TaskDto> kafkaTemplate() {
-    return new KafkaTemplate<>(producerFactory());
+  public KafkaTemplate<String, TaskEvent> kafkaTemplate(ProducerFactory<String, TaskEvent> producerFactory) {
+    return new KafkaTemplate<>(producerFactory);
   }
 }
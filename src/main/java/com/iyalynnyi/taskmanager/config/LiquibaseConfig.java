@@ -1,10 +1,13 @@
 package com.iyalynnyi.taskmanager.config;
 
+import com.iyalynnyi.taskmanager.config.properties.H2DataSourceProperties;
+import com.iyalynnyi.taskmanager.config.properties.PostgresDataSourceProperties;
+
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 
 import javax.sql.DataSource;
 
@@ -14,8 +17,9 @@ import liquibase.integration.spring.SpringLiquibase;
 @Configuration
 public class LiquibaseConfig {
   @Bean
-  public SpringLiquibase liquibaseH2(DataSource h2DataSource) {
-    log.info("Url for connection to h2 is: [{}]", ((DriverManagerDataSource)h2DataSource).getUrl());
+  public SpringLiquibase liquibaseH2(@Qualifier("h2DataSource") DataSource h2DataSource,
+      H2DataSourceProperties h2DataSourceProperties) {
+    log.info("Url for connection to h2 is: [{}]", h2DataSourceProperties.getUrl());
     SpringLiquibase liquibase = new SpringLiquibase();
     liquibase.setDataSource(h2DataSource);
     liquibase.setChangeLog("classpath:db/changelog/db.changelog-master.sql");
@@ -23,8 +27,9 @@ public class LiquibaseConfig {
   }
 
   @Bean
-  public SpringLiquibase liquibasePostgres(DataSource postgresDataSource) {
-    log.info("Url for connection to postgres is: [{}]", ((DriverManagerDataSource)postgresDataSource).getUrl());
+  public SpringLiquibase liquibasePostgres(@Qualifier("postgresDataSource") DataSource postgresDataSource,
+      PostgresDataSourceProperties postgresDataSourceProperties) {
+    log.info("Url for connection to postgres is: [{}]", postgresDataSourceProperties.getUrl());
     SpringLiquibase liquibase = new SpringLiquibase();
     liquibase.setDataSource(postgresDataSource);
     liquibase.setChangeLog("classpath:db/changelog/db.changelog-master.sql");
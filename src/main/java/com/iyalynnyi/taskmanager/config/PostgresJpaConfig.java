@@ -2,14 +2,20 @@ package com.iyalynnyi.taskmanager.config;
 
 import com.iyalynnyi.taskmanager.config.properties.PostgresDataSourceProperties;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
@@ -29,14 +35,18 @@ import jakarta.persistence.EntityManagerFactory;
 public class PostgresJpaConfig {
 
   @Bean(name = "postgresDataSource")
-  public DataSource postgresDataSource(PostgresDataSourceProperties postgresDataSourceProperties) {
-    DriverManagerDataSource dataSource = new DriverManagerDataSource();
-    dataSource.setDriverClassName(postgresDataSourceProperties.getDriverClassName());
-    dataSource.setUrl(postgresDataSourceProperties.getUrl());
-    dataSource.setUsername(postgresDataSourceProperties.getUsername());
-    dataSource.setPassword(postgresDataSourceProperties.getPassword());
-
-    return dataSource;
+  public HikariDataSource postgresDataSource(PostgresDataSourceProperties postgresDataSourceProperties,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    HikariConfig config = new HikariConfig();
+    config.setPoolName("postgres-pool");
+    config.setDriverClassName(postgresDataSourceProperties.getDriverClassName());
+    config.setJdbcUrl(postgresDataSourceProperties.getUrl());
+    config.setUsername(postgresDataSourceProperties.getUsername());
+    config.setPassword(postgresDataSourceProperties.getPassword());
+    postgresDataSourceProperties.getPool().applyTo(config);
+    meterRegistry.ifAvailable(registry -> config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+
+    return new HikariDataSource(config);
   }
 
   @Bean(name = "postgresEntityManagerFactory")
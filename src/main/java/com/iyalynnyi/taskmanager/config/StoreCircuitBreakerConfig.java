@@ -0,0 +1,82 @@
+package com.iyalynnyi.taskmanager.config;
+
+import com.iyalynnyi.taskmanager.config.properties.StoreCircuitBreakerProperties;
+import com.iyalynnyi.taskmanager.dto.TaskStore;
+import com.iyalynnyi.taskmanager.service.event.TaskStoreCircuitStateChangedEvent;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.persistence.PersistenceException;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.TransactionException;
+
+import java.sql.SQLException;
+
+/**
+ * Circuit breakers of the task stores. While the circuit of a store is open, calls to it fail immediately
+ * with a {@link io.github.resilience4j.circuitbreaker.CallNotPermittedException} instead of waiting
+ * for a connection failure.
+ */
+@Slf4j
+@Configuration
+public class StoreCircuitBreakerConfig {
+
+  @Bean
+  public CircuitBreakerRegistry storeCircuitBreakerRegistry(StoreCircuitBreakerProperties properties,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+        .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+        .slidingWindowSize(properties.getSlidingWindowSize())
+        .minimumNumberOfCalls(properties.getMinimumNumberOfCalls())
+        .failureRateThreshold(properties.getFailureRateThreshold())
+        .slowCallDurationThreshold(properties.getSlowCallDurationThreshold())
+        .slowCallRateThreshold(properties.getSlowCallRateThreshold())
+        .waitDurationInOpenState(properties.getWaitDurationInOpenState())
+        .permittedNumberOfCallsInHalfOpenState(properties.getPermittedNumberOfCallsInHalfOpenState())
+        .automaticTransitionFromOpenToHalfOpenEnabled(true)
+        .recordExceptions(DataAccessException.class, TransactionException.class, PersistenceException.class,
+            SQLException.class)
+        .ignoreExceptions(DataIntegrityViolationException.class, ConcurrencyFailureException.class)
+        .writableStackTraceEnabled(false)
+        .build();
+    CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+    meterRegistry.ifAvailable(TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry)::bindTo);
+    return registry;
+  }
+
+  @Bean
+  public CircuitBreaker h2CircuitBreaker(CircuitBreakerRegistry storeCircuitBreakerRegistry,
+      ApplicationEventPublisher eventPublisher) {
+    return storeCircuitBreaker(storeCircuitBreakerRegistry, TaskStore.H2, eventPublisher);
+  }
+
+  @Bean
+  public CircuitBreaker postgresCircuitBreaker(CircuitBreakerRegistry storeCircuitBreakerRegistry,
+      ApplicationEventPublisher eventPublisher) {
+    return storeCircuitBreaker(storeCircuitBreakerRegistry, TaskStore.POSTGRES, eventPublisher);
+  }
+
+  static CircuitBreaker storeCircuitBreaker(CircuitBreakerRegistry registry, TaskStore store,
+      ApplicationEventPublisher eventPublisher) {
+    CircuitBreaker circuitBreaker = registry.circuitBreaker(store.name().toLowerCase());
+    circuitBreaker.getEventPublisher().onStateTransition(event -> {
+      log.warn("Circuit breaker of {} changed state: {}.", store, event.getStateTransition());
+      eventPublisher.publishEvent(new TaskStoreCircuitStateChangedEvent(store,
+          event.getStateTransition().getFromState(), event.getStateTransition().getToState()));
+    });
+    return circuitBreaker;
+  }
+}
@@ -0,0 +1,71 @@
+package com.iyalynnyi.taskmanager.config.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings of the incremental synchronization of tasks from PostgreSQL to H2.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "task.sync")
+public class DataSyncProperties {
+  /**
+   * Delay between the end of a run and the start of the next one while the backlog is small.
+   */
+  private Duration interval = Duration.ofMinutes(5);
+  /**
+   * Delay between two checks whether a run is due, which also refresh the backlog metrics.
+   */
+  private Duration checkInterval = Duration.ofSeconds(10);
+  /**
+   * Number of changes waiting in the PostgreSQL change log from which runs follow each other after
+   * {@link #backlogInterval}.
+   */
+  private long backlogThreshold = 10_000;
+  /**
+   * Delay between the end of a run and the start of the next one while the backlog is large.
+   */
+  private Duration backlogInterval = Duration.ofSeconds(30);
+  /**
+   * Share of the connections of the busier connection pool in use by requests from which a due run is
+   * deferred, so the synchronization does not compete with a heavy request load.
+   */
+  private double loadThreshold = 0.75;
+  /**
+   * Longest time a due run is deferred because of the request load.
+   */
+  private Duration maxDeferral = Duration.ofMinutes(15);
+  /**
+   * Number of tasks read, written to H2, deleted from PostgreSQL and checkpointed together.
+   */
+  private int chunkSize = 1000;
+  /**
+   * Maximum number of chunks read from PostgreSQL but not yet written to H2. The reader waits while
+   * this many chunks are pending, which bounds the memory used by a run.
+   */
+  private int maxInFlightChunks = 2;
+  /**
+   * Number of partitions a run splits the backlog into, each drained by its own worker. A worker holds
+   * a PostgreSQL connection for its cursor and another one, with an H2 connection, while writing a chunk,
+   * so the workers must leave room in both connection pools for the requests served meanwhile.
+   */
+  private int workers = 2;
+  /**
+   * Time the synchronization lease is held for unless renewed. The node running the synchronization renews
+   * it three times per period, and another node takes over about this long after the holder died.
+   */
+  private Duration leaseTtl = Duration.ofSeconds(30);
+  /**
+   * Longest time a run waits for the PostgreSQL transactions in flight when it starts to complete, as their
+   * changes may still commit below the last logged one. A run whose wait runs out applies no change and
+   * leaves them for the next run.
+   */
+  private Duration inFlightWait = Duration.ofMinutes(1);
+}
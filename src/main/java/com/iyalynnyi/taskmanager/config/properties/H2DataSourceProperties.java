@@ -15,4 +15,5 @@ public class H2DataSourceProperties {
   private String driverClassName;
   private String username;
   private String password;
+  private PoolProperties pool = new PoolProperties();
 }
@@ -0,0 +1,46 @@
+package com.iyalynnyi.taskmanager.config.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings of the ingestion of tasks pushed by upstream systems to Kafka.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "task.kafka.consumer")
+public class KafkaConsumerProperties {
+  /**
+   * Topic the tasks to create are read from, as JSON documents or in the binary format.
+   */
+  private String topic = "tasks_ingest_topic";
+  /**
+   * Consumer group of the ingestion, shared by all application instances.
+   */
+  private String groupId = "task-manager-ingest";
+  /**
+   * Number of consumer threads per application instance; partitions beyond it are shared, threads beyond
+   * the number of partitions stay idle.
+   */
+  private int concurrency = 1;
+  /**
+   * Upper bound of the records returned by one poll, and so of the tasks written by one batched insert.
+   */
+  private int maxPollRecords = 500;
+  /**
+   * Time a poll batch may take to be written before the consumer is considered failed and its partitions
+   * are reassigned.
+   */
+  private Duration maxPollInterval = Duration.ofMinutes(5);
+  /**
+   * Time waited before a poll batch which could not be written to either database, because they are
+   * unavailable, is written again. Such a batch is retried until it is written.
+   */
+  private Duration retryBackoff = Duration.ofSeconds(5);
+}
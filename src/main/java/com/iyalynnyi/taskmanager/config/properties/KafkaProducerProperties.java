@@ -0,0 +1,57 @@
+package com.iyalynnyi.taskmanager.config.properties;
+
+import com.iyalynnyi.taskmanager.dto.TaskEventFormat;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings of the publishing of task events to Kafka.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "task.kafka.producer")
+public class KafkaProducerProperties {
+  /**
+   * Upper bound of the bytes of records sent to a partition in one request.
+   */
+  private int batchSize = 64 * 1024;
+  /**
+   * Time the producer waits for more records before sending a batch which is not full.
+   */
+  private Duration linger = Duration.ofMillis(20);
+  /**
+   * Compression of the batches: none, gzip, snappy, lz4 or zstd.
+   */
+  private String compression = "lz4";
+  /**
+   * Maximum number of events handed over to the publisher but not yet acknowledged by the broker.
+   */
+  private int maxInFlight = 10_000;
+  /**
+   * Time the outbox relay waits for room among the in-flight events before its batch is rejected and
+   * left in the outbox for the next run. Zero rejects it right away.
+   */
+  private Duration enqueueTimeout = Duration.ZERO;
+  /**
+   * Time the publisher thread waits for topic metadata or room in the producer buffer before a send fails.
+   */
+  private Duration maxBlock = Duration.ofSeconds(5);
+  /**
+   * Format of the task events of the topics not listed in {@link #topicFormats}.
+   */
+  private TaskEventFormat format = TaskEventFormat.JSON;
+  /**
+   * Format of the task events per topic, overriding {@link #format}. Empty by default, so a topic is switched
+   * to the binary format only once its consumers read it.
+   */
+  private Map<String, TaskEventFormat> topicFormats = new HashMap<>();
+}
@@ -0,0 +1,48 @@
+package com.iyalynnyi.taskmanager.config.properties;
+
+import com.zaxxer.hikari.HikariConfig;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+
+/**
+ * Connection pool settings shared by both data sources, bound under {@code <prefix>.pool}.
+ */
+@Getter
+@Setter
+public class PoolProperties {
+  private int maximumPoolSize = 10;
+  private int minimumIdle = 2;
+  private Duration connectionTimeout = Duration.ofSeconds(3);
+  private Duration validationTimeout = Duration.ofSeconds(1);
+  private Duration idleTimeout = Duration.ofMinutes(10);
+  private Duration maxLifetime = Duration.ofMinutes(30);
+  private Duration keepaliveTime = Duration.ZERO;
+  /**
+   * Time a connection may be out of the pool before a possible leak is logged, zero disables leak detection.
+   */
+  private Duration leakDetectionThreshold = Duration.ZERO;
+  /**
+   * Query used to validate connections, only needed for drivers without JDBC4 {@code isValid()} support.
+   */
+  private String connectionTestQuery;
+
+  /**
+   * Copies the pool settings to a Hikari configuration.
+   *
+   * @param config the configuration to apply the settings to
+   */
+  public void applyTo(HikariConfig config) {
+    config.setMaximumPoolSize(maximumPoolSize);
+    config.setMinimumIdle(minimumIdle);
+    config.setConnectionTimeout(connectionTimeout.toMillis());
+    config.setValidationTimeout(validationTimeout.toMillis());
+    config.setIdleTimeout(idleTimeout.toMillis());
+    config.setMaxLifetime(maxLifetime.toMillis());
+    config.setKeepaliveTime(keepaliveTime.toMillis());
+    config.setLeakDetectionThreshold(leakDetectionThreshold.toMillis());
+    config.setConnectionTestQuery(connectionTestQuery);
+  }
+}
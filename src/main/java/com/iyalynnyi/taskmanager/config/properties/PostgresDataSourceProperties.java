@@ -15,4 +15,5 @@ public class PostgresDataSourceProperties {
   private String driverClassName;
   private String username;
   private String password;
+  private PoolProperties pool = new PoolProperties();
 }
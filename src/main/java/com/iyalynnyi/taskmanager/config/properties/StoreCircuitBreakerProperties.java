@@ -0,0 +1,35 @@
+package com.iyalynnyi.taskmanager.config.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings of the circuit breakers guarding the task stores, applied to both H2 and PostgreSQL.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "task.store.circuit-breaker")
+public class StoreCircuitBreakerProperties {
+  /**
+   * Number of most recent calls the failure rate is computed over.
+   */
+  private int slidingWindowSize = 20;
+  private int minimumNumberOfCalls = 10;
+  /**
+   * Failure rate in percent at which the circuit opens.
+   */
+  private float failureRateThreshold = 50;
+  private Duration slowCallDurationThreshold = Duration.ofSeconds(2);
+  private float slowCallRateThreshold = 100;
+  /**
+   * Time the circuit stays open before probe calls are let through.
+   */
+  private Duration waitDurationInOpenState = Duration.ofSeconds(10);
+  private int permittedNumberOfCallsInHalfOpenState = 3;
+}
@@ -0,0 +1,36 @@
+package com.iyalynnyi.taskmanager.config.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings of the relay of the task outbox to Kafka.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "task.outbox")
+public class TaskOutboxProperties {
+  /**
+   * Delay between the end of a relay run, which drains the outbox of both databases, and the start of the next one.
+   */
+  private Duration pollInterval = Duration.ofSeconds(1);
+  /**
+   * Maximum number of messages read, sent and marked as sent as one batch. May not exceed
+   * {@code task.kafka.producer.max-in-flight}, since a batch is handed over to the producer as a whole.
+   */
+  private int batchSize = 500;
+  /**
+   * Time the relay waits for Kafka to acknowledge a batch before the batch is left for the next run.
+   */
+  private Duration sendTimeout = Duration.ofSeconds(30);
+  /**
+   * Time sent messages are kept in the outbox before they are purged.
+   */
+  private Duration retention = Duration.ofHours(1);
+}
@@ -0,0 +1,32 @@
+package com.iyalynnyi.taskmanager.config.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings of the reconciliation of the tasks stored in both H2 and PostgreSQL.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "task.reconciliation")
+public class TaskReconciliationProperties {
+  /**
+   * Delay between the end of a scheduled reconciliation and the start of the next one.
+   */
+  private Duration interval = Duration.ofHours(1);
+  /**
+   * Number of subranges a range of IDs is split into on every level of the digest tree.
+   */
+  private int fanOut = 16;
+  /**
+   * Number of tasks of a range, in the store holding fewer of them, from which the range is split further
+   * instead of reading the IDs and versions of its tasks.
+   */
+  private int leafRows = 1000;
+}
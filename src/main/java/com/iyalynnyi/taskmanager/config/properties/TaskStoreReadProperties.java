@@ -0,0 +1,41 @@
+package com.iyalynnyi.taskmanager.config.properties;
+
+import com.iyalynnyi.taskmanager.dto.ReadStrategy;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "task.store.read")
+public class TaskStoreReadProperties {
+  private ReadStrategy strategy = ReadStrategy.HEDGED;
+  /**
+   * Percentile of the recent H2 lookup latencies after which PostgreSQL is queried as well.
+   */
+  private double hedgePercentile = 0.95;
+  /**
+   * Hedge delay used until enough H2 lookups have been measured.
+   */
+  private Duration initialHedgeDelay = Duration.ofMillis(50);
+  private Duration minHedgeDelay = Duration.ofMillis(5);
+  private Duration maxHedgeDelay = Duration.ofMillis(500);
+  /**
+   * Time a listing waits for H2 before returning without its tasks.
+   */
+  private Duration h2FetchTimeout = Duration.ofSeconds(2);
+  /**
+   * Time a listing waits for PostgreSQL before returning without its tasks.
+   */
+  private Duration postgresFetchTimeout = Duration.ofSeconds(5);
+  /**
+   * Number of threads running the lookups of hedged and parallel reads and the fetches of listings.
+   */
+  private int threads = 16;
+}
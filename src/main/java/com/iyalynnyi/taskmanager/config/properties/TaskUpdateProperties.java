@@ -0,0 +1,27 @@
+package com.iyalynnyi.taskmanager.config.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings of the retries of task updates that lose a write-write conflict to a concurrent update.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "task.update")
+public class TaskUpdateProperties {
+  /**
+   * Maximum number of attempts of a status change, including the first one.
+   */
+  private int maxStatusAttempts = 3;
+  /**
+   * Base delay before a retry, multiplied by the attempt number and randomized by up to the same amount.
+   */
+  private Duration retryBackoff = Duration.ofMillis(20);
+}
@@ -2,12 +2,21 @@ package com.iyalynnyi.taskmanager.controller;
 
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
+import com.iyalynnyi.taskmanager.dto.TaskBatchRequest;
+import com.iyalynnyi.taskmanager.dto.TaskBatchResultDto;
 import com.iyalynnyi.taskmanager.dto.TaskDto;
+import com.iyalynnyi.taskmanager.dto.TaskFilter;
+import com.iyalynnyi.taskmanager.dto.TaskPageDto;
 import com.iyalynnyi.taskmanager.dto.TaskStatus;
+import com.iyalynnyi.taskmanager.exception.ApiResponseException;
+import com.iyalynnyi.taskmanager.service.TaskExportService;
 import com.iyalynnyi.taskmanager.service.TaskService;
 
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -17,12 +26,16 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import java.net.URI;
 import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
 import jakarta.validation.Valid;
 
 @Validated
@@ -32,15 +45,47 @@ import jakarta.validation.Valid;
 public class TaskController {
 
   private final TaskService taskService;
+  private final TaskExportService taskExportService;
 
   /**
-   * Retrieves all tasks.
+   * Retrieves a page of tasks matching the given filter.
    *
-   * @return a ResponseEntity containing a list of TaskDto objects
+   * @param filter the optional status, priority, assignee and due date range criteria
+   * @param cursor the cursor returned with the previous page, omitted for the first page
+   * @param limit  the maximum number of tasks in the page
+   * @return a ResponseEntity containing the page of TaskDto objects and the cursor of the next page
    */
   @GetMapping
-  public ResponseEntity<List<TaskDto>> getAll() {
-    return ResponseEntity.ok(taskService.getTasks());
+  public ResponseEntity<TaskPageDto> getAll(TaskFilter filter,
+      @RequestParam(name = "cursor", required = false) String cursor,
+      @RequestParam(name = "limit", defaultValue = "50") int limit) {
+    return ResponseEntity.ok(taskService.getTasks(filter, cursor, limit));
+  }
+
+  /**
+   * Exports all tasks as newline-delimited JSON. The response is streamed while the tasks are read,
+   * and it is gzip-compressed if the client accepts gzip encoding with a quality value above zero, either by name
+   * or through the {@code *} wildcard.
+   *
+   * @param acceptEncoding the Accept-Encoding header of the request
+   * @return a ResponseEntity streaming one TaskDto JSON document per line
+   */
+  @GetMapping(path = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> exportTasks(
+      @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+    if (!acceptsGzip(acceptEncoding)) {
+      StreamingResponseBody body = taskExportService::exportTasks;
+      return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+    StreamingResponseBody body = outputStream -> {
+      GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream, 8192);
+      taskExportService.exportTasks(gzipOutputStream);
+      gzipOutputStream.finish();
+    };
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+        .body(body);
   }
 
   /**
@@ -59,6 +104,17 @@ public class TaskController {
     return ResponseEntity.created(location).body(taskId);
   }
 
+  /**
+   * Creates, updates and deletes tasks in bulk.
+   *
+   * @param batchRequest the tasks to create and update and the IDs of the tasks to delete
+   * @return a ResponseEntity containing the result of every item of the batch
+   */
+  @PostMapping("/batch")
+  public ResponseEntity<TaskBatchResultDto> processBatch(@Valid @RequestBody TaskBatchRequest batchRequest) {
+    return ResponseEntity.ok(taskService.processBatch(batchRequest));
+  }
+
   /**
    * Deletes a task by its ID.
    *
@@ -71,30 +127,108 @@ public class TaskController {
   }
 
   /**
-   * Updates an existing task.
+   * Deletes the tasks with the given IDs.
+   *
+   * @param ids the IDs of the tasks to delete
+   * @return a ResponseEntity containing the result of every ID
+   */
+  @DeleteMapping
+  public ResponseEntity<TaskBatchResultDto> deleteTasks(@RequestParam(name = "ids") List<Long> ids) {
+    return ResponseEntity.ok(taskService.deleteTasksByIds(ids));
+  }
+
+  /**
+   * Updates an existing task. If the request carries an If-Match header, the task is only updated
+   * while it still has the version of the given ETag.
    *
    * @param id      the ID of the task to update
+   * @param ifMatch the ETag of the version the client has read, optional
    * @param taskDto the task data transfer object containing updated task details
-   * @return a ResponseEntity containing a success message
+   * @return a ResponseEntity containing a success message and the ETag of the new version
    */
   @PatchMapping("/{id}")
   public ResponseEntity<String> updateTask(@PathVariable(required = true) Long id,
+      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
       @Valid @RequestBody TaskDto taskDto) {
     taskDto.setId(id);
-    return ResponseEntity.ok(taskService.updateTask(taskDto));
+    Long version = taskService.updateTask(taskDto, parseIfMatch(ifMatch));
+    return ResponseEntity.ok().eTag(String.valueOf(version)).body("Task updated successfully.");
   }
 
   /**
-   * Updates the status of a task by its ID.
+   * Updates the status of a task by its ID. If the request carries an If-Match header, the status is only
+   * updated while the task still has the version of the given ETag.
    *
    * @param id         the ID of the task to update
+   * @param ifMatch    the ETag of the version the client has read, optional
    * @param taskStatus the new status to set for the task
-   * @return a ResponseEntity containing a success message
+   * @return a ResponseEntity containing a success message and the ETag of the new version
    */
   @PutMapping("/{id}")
   public ResponseEntity<String> updateStatus(@PathVariable(required = true) Long id,
+      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
       @Valid @RequestParam(name = "status", required = true) TaskStatus taskStatus) {
-    return ResponseEntity.ok(taskService.updateStatus(id, taskStatus));
+    Long version = taskService.updateStatus(id, taskStatus, parseIfMatch(ifMatch));
+    return ResponseEntity.ok().eTag(String.valueOf(version)).body("Status updated successfully.");
   }
-}
 
+  /**
+   * Parses the version out of an If-Match header holding a single, strong or weak, ETag.
+   *
+   * @param ifMatch the If-Match header, may be null
+   * @return the expected version, or null if the header is absent or matches any version
+   * @throws ApiResponseException if the header is not an ETag issued by this API
+   */
+  static Long parseIfMatch(String ifMatch) {
+    if (ifMatch == null || ifMatch.isBlank() || ifMatch.strip().equals("*")) {
+      return null;
+    }
+    String eTag = ifMatch.strip();
+    if (eTag.startsWith("W/")) {
+      eTag = eTag.substring(2);
+    }
+    if (eTag.length() > 1 && eTag.startsWith("\"") && eTag.endsWith("\"")) {
+      eTag = eTag.substring(1, eTag.length() - 1);
+    }
+    try {
+      return Long.parseLong(eTag);
+    } catch (NumberFormatException e) {
+      throw new ApiResponseException("If-Match header should contain a single task ETag.", HttpStatus.BAD_REQUEST);
+    }
+  }
+
+  /**
+   * Checks whether an Accept-Encoding header allows gzip. A coding listed by name takes precedence over the
+   * {@code *} wildcard, and a coding with the quality value 0, or with a quality value which cannot be parsed,
+   * is not acceptable.
+   */
+  private static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    Double gzipQuality = null;
+    Double wildcardQuality = null;
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parameters = coding.split(";");
+      String name = parameters[0].trim().toLowerCase(Locale.ROOT);
+      double quality = 1;
+      for (int i = 1; i < parameters.length; i++) {
+        String parameter = parameters[i].trim();
+        if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+          try {
+            quality = Double.parseDouble(parameter.substring(2).trim());
+          } catch (NumberFormatException e) {
+            quality = 0;
+          }
+        }
+      }
+      if (name.equals("gzip") || name.equals("x-gzip")) {
+        gzipQuality = quality;
+      } else if (name.equals("*")) {
+        wildcardQuality = quality;
+      }
+    }
+    Double quality = gzipQuality != null ? gzipQuality : wildcardQuality;
+    return quality != null && quality > 0;
+  }
+}
@@ -0,0 +1,37 @@
+package com.iyalynnyi.taskmanager.controller;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+import com.iyalynnyi.taskmanager.dto.TaskReconciliationReportDto;
+import com.iyalynnyi.taskmanager.exception.ApiResponseException;
+import com.iyalynnyi.taskmanager.service.TaskReconciliationService;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping(produces = APPLICATION_JSON_VALUE, path = "api/v1/admin/reconciliation")
+public class TaskReconciliationController {
+
+  private final TaskReconciliationService taskReconciliationService;
+
+  /**
+   * Reconciles H2 and PostgreSQL right away and reports what differed.
+   *
+   * @return a ResponseEntity containing the numbers of ranges and tasks compared, differing and repaired
+   * @throws ApiResponseException with status 409 if another node is synchronizing or reconciling the databases
+   */
+  @PostMapping
+  public ResponseEntity<TaskReconciliationReportDto> reconcile() {
+    return taskReconciliationService.reconcile()
+        .map(ResponseEntity::ok)
+        .orElseThrow(() -> new ApiResponseException(
+            "Another node is synchronizing or reconciling the databases, try again later.", HttpStatus.CONFLICT));
+  }
+}
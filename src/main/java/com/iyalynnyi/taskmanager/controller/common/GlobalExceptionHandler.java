@@ -3,11 +3,14 @@ package com.iyalynnyi.taskmanager.controller.common;
 import com.fasterxml.jackson.databind.exc.InvalidFormatException;
 import com.iyalynnyi.taskmanager.exception.ApiResponseException;
 
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.TypeMismatchException;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -40,6 +43,32 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
     return new ResponseEntity<>(ex.getErrorMessage(), ex.getHttpStatus());
   }
 
+  /**
+   * Handles {@link CallNotPermittedException}, thrown when the circuit of the failover database is open
+   * after the primary database has already failed, so the task cannot be served by either database.
+   *
+   * @param ex the {@link CallNotPermittedException} to handle
+   * @return response with HTTP status 503
+   */
+  @ExceptionHandler(value = {CallNotPermittedException.class})
+  public ResponseEntity<String> handleCallNotPermitted(CallNotPermittedException ex) {
+    log.warn("Call rejected by circuit breaker: {}", ex.getMessage());
+    return new ResponseEntity<>("Task storage is temporarily unavailable.", HttpStatus.SERVICE_UNAVAILABLE);
+  }
+
+  /**
+   * Handles {@link ConcurrencyFailureException}, thrown when an update keeps losing to concurrent updates
+   * of the same task, so the client should retry it.
+   *
+   * @param ex the {@link ConcurrencyFailureException} to handle
+   * @return response with HTTP status 409
+   */
+  @ExceptionHandler(value = {ConcurrencyFailureException.class})
+  public ResponseEntity<String> handleConcurrencyFailure(ConcurrencyFailureException ex) {
+    log.warn("Concurrent update conflict: {}", ex.getMessage());
+    return new ResponseEntity<>("Task is being modified by another request, please retry.", HttpStatus.CONFLICT);
+  }
+
   /**
    * Handles validation errors when method arguments are not valid.
    *
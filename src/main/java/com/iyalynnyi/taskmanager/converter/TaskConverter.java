@@ -1,15 +1,22 @@
 package com.iyalynnyi.taskmanager.converter;
 
 import com.iyalynnyi.taskmanager.dao.model.TaskEntity;
+import com.iyalynnyi.taskmanager.dto.TaskCursor;
 import com.iyalynnyi.taskmanager.dto.TaskDto;
+import com.iyalynnyi.taskmanager.exception.ApiResponseException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
 
 @Component
 public class TaskConverter {
 
+  private static final String CURSOR_SEPARATOR = "|";
+
   public TaskEntity toEntity(TaskDto task) {
     return TaskEntity.builder()
         .title(task.getTitle())
@@ -35,8 +42,9 @@ public class TaskConverter {
         .reporter(task.getReporter())
         .priority(task.getPriority())
         .status(task.getStatus())
-        .createdDate(LocalDateTime.now())
+        .createdDate(task.getCreatedDate())
         .dueDate(task.getDueDate())
+        .version(task.getVersion())
         .build();
   }
 
@@ -64,4 +72,36 @@ public class TaskConverter {
 
     return taskEntity;
   }
+
+  /**
+   * Encodes the keyset position of the given task into an opaque cursor string.
+   *
+   * @param task the last task of a page
+   * @return the URL-safe cursor pointing right after the task
+   */
+  public String encodeCursor(TaskEntity task) {
+    String position = task.getCreatedDate() + CURSOR_SEPARATOR + task.getId();
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Decodes a cursor previously produced by {@link #encodeCursor(TaskEntity)}.
+   *
+   * @param cursor the opaque cursor, may be null or blank for the first page
+   * @return the decoded keyset position, or null if no cursor was given
+   * @throws ApiResponseException if the cursor is malformed
+   */
+  public TaskCursor decodeCursor(String cursor) {
+    if (cursor == null || cursor.isBlank()) {
+      return null;
+    }
+    try {
+      String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int separatorIndex = position.lastIndexOf(CURSOR_SEPARATOR);
+      return new TaskCursor(LocalDateTime.parse(position.substring(0, separatorIndex)),
+          Long.parseLong(position.substring(separatorIndex + 1)));
+    } catch (RuntimeException e) {
+      throw new ApiResponseException("Invalid cursor!", HttpStatus.BAD_REQUEST);
+    }
+  }
 }
@@ -0,0 +1,299 @@
+package com.iyalynnyi.taskmanager.converter.binary;
+
+import com.iyalynnyi.taskmanager.dto.TaskDto;
+import com.iyalynnyi.taskmanager.dto.TaskEvent;
+import com.iyalynnyi.taskmanager.dto.TaskEventType;
+import com.iyalynnyi.taskmanager.dto.TaskPriority;
+import com.iyalynnyi.taskmanager.dto.TaskStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact binary format of task events. A message is laid out as
+ * <pre>
+ *   magic byte 0x00 | varint schema ID | varint presence bitmap | present fields in schema order
+ * </pre>
+ * where bit {@code i} of the bitmap is set if the {@code i}-th field of the schema is present. Field names are
+ * never written, numbers are varints, enums are ordinals and timestamps are microseconds since the epoch,
+ * see {@link TaskField}, so a message is a fraction of the size of its JSON document. The magic byte cannot
+ * start a JSON document, so readers tell both formats apart by the first byte. Timestamps keep the
+ * microsecond precision of the databases, finer fractions are truncated.
+ */
+@Component
+@RequiredArgsConstructor
+public class TaskBinaryCodec {
+
+  /**
+   * First byte of every message in the binary format.
+   */
+  public static final byte MAGIC = 0x00;
+
+  private static final TaskStatus[] STATUSES = TaskStatus.values();
+  private static final TaskPriority[] PRIORITIES = TaskPriority.values();
+  private static final TaskEventType[] EVENT_TYPES = TaskEventType.values();
+  private static final int MICROS_PER_SECOND = 1_000_000;
+  private static final int NANOS_PER_MICRO = 1_000;
+
+  private final TaskSchemaRegistry schemaRegistry;
+
+  /**
+   * Tells whether the data is a message in the binary format rather than a JSON document.
+   *
+   * @param data the serialized task event
+   * @return true if the data starts with the magic byte
+   */
+  public static boolean isBinary(byte[] data) {
+    return data.length > 0 && data[0] == MAGIC;
+  }
+
+  /**
+   * Writes the task event with the latest schema.
+   *
+   * @param event the task event to write
+   * @return the message
+   */
+  public byte[] encode(TaskEvent event) {
+    return encode(event.getType(), event.getTask());
+  }
+
+  /**
+   * Writes the task with the latest schema, without an event type.
+   *
+   * @param task the task to write
+   * @return the message
+   */
+  public byte[] encode(TaskDto task) {
+    return encode(null, task);
+  }
+
+  /**
+   * Reads a task event written with any registered schema, or with a newer one, whose fields unknown to this
+   * reader are ignored.
+   *
+   * @param data the message
+   * @return the task event, whose type is null if the message has none
+   * @throws IllegalArgumentException if the data is not a valid message
+   */
+  public TaskEvent decodeEvent(byte[] data) {
+    if (!isBinary(data)) {
+      throw new IllegalArgumentException("Task event does not start with the magic byte of the binary format.");
+    }
+    Input input = new Input(data, 1);
+    int schemaId = (int) input.readVarLong();
+    TaskSchema schema = schemaRegistry.find(schemaId)
+        .orElseGet(() -> newerSchema(schemaId));
+    long presence = input.readVarLong();
+    TaskEvent event = new TaskEvent();
+    TaskDto.TaskDtoBuilder task = TaskDto.builder();
+    List<TaskField> fields = schema.fields();
+    for (int i = 0; i < fields.size(); i++) {
+      if ((presence & 1L << i) != 0) {
+        readField(input, event, task, fields.get(i));
+      }
+    }
+    event.setTask(task.build());
+    return event;
+  }
+
+  /**
+   * Reads the task of a message, ignoring its event type.
+   *
+   * @param data the message
+   * @return the task
+   * @throws IllegalArgumentException if the data is not a valid message
+   */
+  public TaskDto decode(byte[] data) {
+    return decodeEvent(data).getTask();
+  }
+
+  private byte[] encode(TaskEventType type, TaskDto task) {
+    TaskSchema schema = schemaRegistry.latest();
+    List<TaskField> fields = schema.fields();
+    long presence = 0;
+    for (int i = 0; i < fields.size(); i++) {
+      if (isPresent(type, task, fields.get(i))) {
+        presence |= 1L << i;
+      }
+    }
+    Output output = new Output();
+    output.writeByte(MAGIC);
+    output.writeVarLong(schema.id());
+    output.writeVarLong(presence);
+    for (int i = 0; i < fields.size(); i++) {
+      if ((presence & 1L << i) != 0) {
+        writeField(output, type, task, fields.get(i));
+      }
+    }
+    return output.toByteArray();
+  }
+
+  private TaskSchema newerSchema(int schemaId) {
+    TaskSchema latest = schemaRegistry.latest();
+    if (schemaId < latest.id()) {
+      throw new IllegalArgumentException("Task event has the unknown schema " + schemaId + ".");
+    }
+    return latest;
+  }
+
+  private static boolean isPresent(TaskEventType type, TaskDto task, TaskField field) {
+    return switch (field) {
+      case ID -> task.getId() != null;
+      case TITLE -> task.getTitle() != null;
+      case DESCRIPTION -> task.getDescription() != null;
+      case STATUS -> task.getStatus() != null;
+      case PRIORITY -> task.getPriority() != null;
+      case CREATED_DATE -> task.getCreatedDate() != null;
+      case DUE_DATE -> task.getDueDate() != null;
+      case ASSIGNEE -> task.getAssignee() != null;
+      case REPORTER -> task.getReporter() != null;
+      case VERSION -> task.getVersion() != null;
+      case EVENT_TYPE -> type != null;
+    };
+  }
+
+  private static void writeField(Output output, TaskEventType type, TaskDto task, TaskField field) {
+    switch (field) {
+      case ID -> output.writeVarLong(task.getId());
+      case TITLE -> output.writeString(task.getTitle());
+      case DESCRIPTION -> output.writeString(task.getDescription());
+      case STATUS -> output.writeVarLong(task.getStatus().ordinal());
+      case PRIORITY -> output.writeVarLong(task.getPriority().ordinal());
+      case CREATED_DATE -> output.writeVarLong(zigzag(toEpochMicros(task.getCreatedDate())));
+      case DUE_DATE -> output.writeVarLong(zigzag(toEpochMicros(task.getDueDate())));
+      case ASSIGNEE -> output.writeString(task.getAssignee());
+      case REPORTER -> output.writeString(task.getReporter());
+      case VERSION -> output.writeVarLong(task.getVersion());
+      case EVENT_TYPE -> output.writeVarLong(type.ordinal());
+    }
+  }
+
+  private static void readField(Input input, TaskEvent event, TaskDto.TaskDtoBuilder task, TaskField field) {
+    switch (field) {
+      case ID -> task.id(input.readVarLong());
+      case TITLE -> task.title(input.readString());
+      case DESCRIPTION -> task.description(input.readString());
+      case STATUS -> task.status(constant(STATUSES, input.readVarLong()));
+      case PRIORITY -> task.priority(constant(PRIORITIES, input.readVarLong()));
+      case CREATED_DATE -> task.createdDate(fromEpochMicros(unzigzag(input.readVarLong())));
+      case DUE_DATE -> task.dueDate(fromEpochMicros(unzigzag(input.readVarLong())));
+      case ASSIGNEE -> task.assignee(input.readString());
+      case REPORTER -> task.reporter(input.readString());
+      case VERSION -> task.version(input.readVarLong());
+      case EVENT_TYPE -> event.setType(constant(EVENT_TYPES, input.readVarLong()));
+    }
+  }
+
+  private static <E extends Enum<E>> E constant(E[] constants, long ordinal) {
+    if (ordinal < 0 || ordinal >= constants.length) {
+      throw new IllegalArgumentException("Task event has the unknown ordinal " + ordinal + " of "
+          + constants.getClass().getComponentType().getSimpleName() + ".");
+    }
+    return constants[(int) ordinal];
+  }
+
+  private static long toEpochMicros(LocalDateTime dateTime) {
+    return dateTime.toEpochSecond(ZoneOffset.UTC) * MICROS_PER_SECOND + dateTime.getNano() / NANOS_PER_MICRO;
+  }
+
+  private static LocalDateTime fromEpochMicros(long micros) {
+    return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, MICROS_PER_SECOND),
+        (int) Math.floorMod(micros, MICROS_PER_SECOND) * NANOS_PER_MICRO, ZoneOffset.UTC);
+  }
+
+  private static long zigzag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  private static long unzigzag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  /**
+   * Growing byte buffer writing varints and strings.
+   */
+  private static final class Output {
+
+    private byte[] buffer = new byte[128];
+    private int position;
+
+    void writeByte(int value) {
+      ensureCapacity(1);
+      buffer[position++] = (byte) value;
+    }
+
+    void writeVarLong(long value) {
+      ensureCapacity(10);
+      while ((value & ~0x7FL) != 0) {
+        buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      buffer[position++] = (byte) value;
+    }
+
+    void writeString(String value) {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      writeVarLong(bytes.length);
+      ensureCapacity(bytes.length);
+      System.arraycopy(bytes, 0, buffer, position, bytes.length);
+      position += bytes.length;
+    }
+
+    byte[] toByteArray() {
+      return Arrays.copyOf(buffer, position);
+    }
+
+    private void ensureCapacity(int bytes) {
+      if (position + bytes > buffer.length) {
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + bytes));
+      }
+    }
+  }
+
+  /**
+   * Reader of varints and strings, failing on truncated data.
+   */
+  private static final class Input {
+
+    private final byte[] data;
+    private int position;
+
+    Input(byte[] data, int position) {
+      this.data = data;
+      this.position = position;
+    }
+
+    long readVarLong() {
+      long value = 0;
+      for (int shift = 0; shift < Long.SIZE; shift += 7) {
+        byte b = readByte();
+        value |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+      }
+      throw new IllegalArgumentException("Task event has a varint longer than 10 bytes.");
+    }
+
+    String readString() {
+      long length = readVarLong();
+      if (length < 0 || length > data.length - position) {
+        throw new IllegalArgumentException("Task event is truncated.");
+      }
+      String value = new String(data, position, (int) length, StandardCharsets.UTF_8);
+      position += (int) length;
+      return value;
+    }
+
+    private byte readByte() {
+      if (position >= data.length) {
+        throw new IllegalArgumentException("Task event is truncated.");
+      }
+      return data[position++];
+    }
+  }
+}
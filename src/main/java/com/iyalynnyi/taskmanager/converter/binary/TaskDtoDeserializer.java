@@ -0,0 +1,52 @@
+package com.iyalynnyi.taskmanager.converter.binary;
+
+import com.iyalynnyi.taskmanager.dto.TaskDto;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+/**
+ * Kafka deserializer of plain tasks, without an event type, reading both the JSON and the binary format like
+ * {@link TaskEventDeserializer}.
+ */
+public class TaskDtoDeserializer implements Deserializer<TaskDto> {
+
+  private final TaskBinaryCodec codec;
+  private final JsonDeserializer<TaskDto> jsonDeserializer = new JsonDeserializer<>(TaskDto.class, false);
+
+  /**
+   * Constructs a TaskDtoDeserializer.
+   *
+   * @param codec the codec of the binary format
+   */
+  public TaskDtoDeserializer(TaskBinaryCodec codec) {
+    this.codec = codec;
+    jsonDeserializer.addTrustedPackages(TaskDto.class.getPackageName());
+  }
+
+  @Override
+  public TaskDto deserialize(String topic, byte[] data) {
+    return deserialize(topic, null, data);
+  }
+
+  @Override
+  public TaskDto deserialize(String topic, Headers headers, byte[] data) {
+    if (data == null) {
+      return null;
+    }
+    if (!TaskBinaryCodec.isBinary(data)) {
+      return jsonDeserializer.deserialize(topic, data);
+    }
+    try {
+      return codec.decode(data);
+    } catch (IllegalArgumentException e) {
+      throw new SerializationException("Could not read the task event of topic '" + topic + "'.", e);
+    }
+  }
+
+  @Override
+  public void close() {
+    jsonDeserializer.close();
+  }
+}
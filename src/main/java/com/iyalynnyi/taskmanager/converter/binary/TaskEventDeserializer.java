@@ -0,0 +1,52 @@
+package com.iyalynnyi.taskmanager.converter.binary;
+
+import com.iyalynnyi.taskmanager.dto.TaskEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+/**
+ * Kafka deserializer of task events reading both the JSON and the binary format, told apart by the first byte,
+ * so a topic can be switched from one format to the other while records of both are still retained.
+ */
+public class TaskEventDeserializer implements Deserializer<TaskEvent> {
+
+  private final TaskBinaryCodec codec;
+  private final JsonDeserializer<TaskEvent> jsonDeserializer = new JsonDeserializer<>(TaskEvent.class, false);
+
+  /**
+   * Constructs a TaskEventDeserializer.
+   *
+   * @param codec the codec of the binary format
+   */
+  public TaskEventDeserializer(TaskBinaryCodec codec) {
+    this.codec = codec;
+    jsonDeserializer.addTrustedPackages(TaskEvent.class.getPackageName());
+  }
+
+  @Override
+  public TaskEvent deserialize(String topic, byte[] data) {
+    return deserialize(topic, null, data);
+  }
+
+  @Override
+  public TaskEvent deserialize(String topic, Headers headers, byte[] data) {
+    if (data == null) {
+      return null;
+    }
+    if (!TaskBinaryCodec.isBinary(data)) {
+      return jsonDeserializer.deserialize(topic, data);
+    }
+    try {
+      return codec.decodeEvent(data);
+    } catch (IllegalArgumentException e) {
+      throw new SerializationException("Could not read the task event of topic '" + topic + "'.", e);
+    }
+  }
+
+  @Override
+  public void close() {
+    jsonDeserializer.close();
+  }
+}
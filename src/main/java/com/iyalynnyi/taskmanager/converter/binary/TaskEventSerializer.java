@@ -0,0 +1,70 @@
+package com.iyalynnyi.taskmanager.converter.binary;
+
+import com.iyalynnyi.taskmanager.dto.TaskEvent;
+import com.iyalynnyi.taskmanager.dto.TaskEventFormat;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import java.util.Map;
+
+/**
+ * Kafka serializer of task events writing every topic in the format configured for it, JSON or the compact
+ * binary format of {@link TaskBinaryCodec}. {@link TaskEventDeserializer} reads both.
+ */
+public class TaskEventSerializer implements Serializer<TaskEvent> {
+
+  private final Map<String, TaskEventFormat> topicFormats;
+  private final TaskEventFormat defaultFormat;
+  private final TaskBinaryCodec codec;
+  private final JsonSerializer<TaskEvent> jsonSerializer = new JsonSerializer<>();
+
+  /**
+   * Constructs a TaskEventSerializer.
+   *
+   * @param topicFormats  the format of every topic not written in the default format
+   * @param defaultFormat the format of the other topics
+   * @param codec         the codec of the binary format
+   */
+  public TaskEventSerializer(Map<String, TaskEventFormat> topicFormats, TaskEventFormat defaultFormat,
+      TaskBinaryCodec codec) {
+    this.topicFormats = Map.copyOf(topicFormats);
+    this.defaultFormat = defaultFormat;
+    this.codec = codec;
+  }
+
+  @Override
+  public void configure(Map<String, ?> configs, boolean isKey) {
+    jsonSerializer.configure(configs, isKey);
+  }
+
+  @Override
+  public byte[] serialize(String topic, TaskEvent data) {
+    return serialize(topic, null, data);
+  }
+
+  @Override
+  public byte[] serialize(String topic, Headers headers, TaskEvent data) {
+    if (data == null) {
+      return null;
+    }
+    if (formatOf(topic) == TaskEventFormat.BINARY) {
+      return codec.encode(data);
+    }
+    return jsonSerializer.serialize(topic, headers, data);
+  }
+
+  /**
+   * Returns the format the topic is written in.
+   *
+   * @param topic the topic
+   * @return the configured format of the topic, or the default format
+   */
+  public TaskEventFormat formatOf(String topic) {
+    return topicFormats.getOrDefault(topic, defaultFormat);
+  }
+
+  @Override
+  public void close() {
+    jsonSerializer.close();
+  }
+}
@@ -0,0 +1,40 @@
+package com.iyalynnyi.taskmanager.converter.binary;
+
+/**
+ * Field of a task event in the binary format. Which fields a message carries, and in which order, is defined
+ * by the {@link TaskSchema} the message was written with, not by the order of the constants.
+ */
+public enum TaskField {
+  /**
+   * Unsigned varint.
+   */
+  ID,
+  /**
+   * Varint byte length followed by the UTF-8 bytes.
+   */
+  TITLE,
+  DESCRIPTION,
+  /**
+   * Varint ordinal of the {@link com.iyalynnyi.taskmanager.dto.TaskStatus} constant.
+   */
+  STATUS,
+  /**
+   * Varint ordinal of the {@link com.iyalynnyi.taskmanager.dto.TaskPriority} constant.
+   */
+  PRIORITY,
+  /**
+   * Zigzag varint of the microseconds since the epoch, the timestamp read as UTC.
+   */
+  CREATED_DATE,
+  DUE_DATE,
+  ASSIGNEE,
+  REPORTER,
+  /**
+   * Unsigned varint.
+   */
+  VERSION,
+  /**
+   * Varint ordinal of the {@link com.iyalynnyi.taskmanager.dto.TaskEventType} constant, absent for a plain task.
+   */
+  EVENT_TYPE
+}
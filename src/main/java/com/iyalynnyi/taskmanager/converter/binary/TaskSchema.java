@@ -0,0 +1,16 @@
+package com.iyalynnyi.taskmanager.converter.binary;
+
+import java.util.List;
+
+/**
+ * Version of the binary task event format: the fields a message carries, in the order they are written.
+ *
+ * @param id     the ID written in the header of every message
+ * @param fields the fields, in wire order
+ */
+public record TaskSchema(int id, List<TaskField> fields) {
+
+  public TaskSchema {
+    fields = List.copyOf(fields);
+  }
+}
@@ -0,0 +1,106 @@
+package com.iyalynnyi.taskmanager.converter.binary;
+
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Local stand-in for a schema registry of the binary task event format. Every message carries the ID of the
+ * schema it was written with, and readers look the schema up here, so producers and consumers can be upgraded
+ * independently as long as every new schema follows the evolution rules enforced by {@link #register}:
+ * <ul>
+ *   <li>a new schema has a higher ID than every registered one and is the one written from then on;</li>
+ *   <li>it starts with all fields of the latest schema, in the same order, and only appends new fields,
+ *       so a reader knowing an older schema reads the prefix it knows and ignores the rest;</li>
+ *   <li>a field is never removed or reused, a field no longer filled is written as absent;</li>
+ *   <li>enum constants are only appended, since enums are written as ordinals.</li>
+ * </ul>
+ * A message written with a schema unknown to the reader, which by these rules is a newer one, is read with
+ * the latest schema the reader knows.
+ */
+@Component
+public class TaskSchemaRegistry {
+
+  /**
+   * The fields of the first version of the format.
+   */
+  public static final TaskSchema V1 = new TaskSchema(1, List.of(TaskField.ID, TaskField.TITLE,
+      TaskField.DESCRIPTION, TaskField.STATUS, TaskField.PRIORITY, TaskField.CREATED_DATE, TaskField.DUE_DATE,
+      TaskField.ASSIGNEE, TaskField.REPORTER, TaskField.VERSION));
+
+  /**
+   * The fields of the first version followed by the type of the task event.
+   */
+  public static final TaskSchema V2 = new TaskSchema(2, append(V1, TaskField.EVENT_TYPE));
+
+  /**
+   * Upper bound of the fields of a schema, the width of the presence bitmap of a message.
+   */
+  static final int MAX_FIELDS = Long.SIZE;
+
+  private final NavigableMap<Integer, TaskSchema> schemas = new ConcurrentSkipListMap<>();
+
+  /**
+   * Constructs a registry knowing every version of the format shipped with the application.
+   */
+  public TaskSchemaRegistry() {
+    register(V1);
+    register(V2);
+  }
+
+  /**
+   * Registers a new version of the format, which becomes the latest one.
+   *
+   * @param schema the schema to register
+   * @throws IllegalArgumentException if the schema breaks the evolution rules
+   */
+  public synchronized void register(TaskSchema schema) {
+    if (schema.fields().size() > MAX_FIELDS || Set.copyOf(schema.fields()).size() != schema.fields().size()) {
+      throw new IllegalArgumentException("Schema " + schema.id() + " must have at most " + MAX_FIELDS
+          + " distinct fields.");
+    }
+    Map.Entry<Integer, TaskSchema> latest = schemas.lastEntry();
+    if (latest != null) {
+      List<TaskField> latestFields = latest.getValue().fields();
+      if (schema.id() <= latest.getKey()) {
+        throw new IllegalArgumentException("Schema " + schema.id() + " must have an ID above " + latest.getKey() + ".");
+      }
+      if (schema.fields().size() < latestFields.size()
+          || !schema.fields().subList(0, latestFields.size()).equals(latestFields)) {
+        throw new IllegalArgumentException("Schema " + schema.id() + " must start with the fields of schema "
+            + latest.getKey() + " and only append new ones.");
+      }
+    }
+    schemas.put(schema.id(), schema);
+  }
+
+  /**
+   * Returns the schema new messages are written with.
+   *
+   * @return the schema with the highest ID
+   */
+  public TaskSchema latest() {
+    return schemas.lastEntry().getValue();
+  }
+
+  /**
+   * Looks a schema up by its ID.
+   *
+   * @param id the ID read from a message
+   * @return the schema, or empty if it is not registered
+   */
+  public Optional<TaskSchema> find(int id) {
+    return Optional.ofNullable(schemas.get(id));
+  }
+
+  private static List<TaskField> append(TaskSchema schema, TaskField... fields) {
+    List<TaskField> appended = new ArrayList<>(schema.fields());
+    appended.addAll(List.of(fields));
+    return List.copyOf(appended);
+  }
+}
@@ -0,0 +1,24 @@
+package com.iyalynnyi.taskmanager.dao.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Entry of the {@code task_change_log} table, appended by a PostgreSQL trigger whenever a task is inserted,
+ * updated or deleted outside of the synchronization.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class TaskChange {
+  /**
+   * Position of the change in the log, increasing in the order the changes were logged.
+   */
+  private final long seq;
+  private final long taskId;
+  /**
+   * Whether the task was deleted, rather than inserted or updated.
+   */
+  private final boolean delete;
+}
@@ -7,15 +7,18 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.springframework.data.domain.Persistable;
 import java.time.LocalDateTime;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
 
 @Getter
 @Setter
@@ -24,10 +27,13 @@ import jakarta.persistence.Table;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class TaskEntity {
+public class TaskEntity implements Persistable<Long> {
 
+  /**
+   * Allocated by {@link com.iyalynnyi.taskmanager.service.TaskIdAllocator} before the task is saved,
+   * so Hibernate can batch inserts and IDs are unique across both databases.
+   */
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
 
   @Column(nullable = false, length = 100)
@@ -59,4 +65,29 @@ public class TaskEntity {
   @Column(length = 50)
   private String reporter;
 
+  /**
+   * Incremented by every update, so concurrent writers detect each other's changes instead of
+   * overwriting them. Exposed to clients as the ETag of the task.
+   */
+  @Version
+  @Column(nullable = false)
+  private Long version;
+
+  /**
+   * Whether the task is known to be stored in a database. New tasks are persisted without
+   * the select Spring Data would otherwise issue for entities with an assigned ID.
+   */
+  @Transient
+  private boolean persisted;
+
+  @Override
+  public boolean isNew() {
+    return !persisted;
+  }
+
+  @PostLoad
+  @PostPersist
+  void markPersisted() {
+    this.persisted = true;
+  }
 }
@@ -0,0 +1,26 @@
+package com.iyalynnyi.taskmanager.dao.model;
+
+import com.iyalynnyi.taskmanager.dto.TaskEventType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Entry of the {@code task_outbox} table, written in the transaction which changes the task and relayed to
+ * Kafka afterwards.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class TaskOutboxMessage {
+  /**
+   * Position of the message in the outbox, assigned by the database on insert and increasing in insert order.
+   */
+  private final long seq;
+  private final long taskId;
+  private final TaskEventType eventType;
+  /**
+   * The fields of the task carried by the event, as a JSON document.
+   */
+  private final String payload;
+}
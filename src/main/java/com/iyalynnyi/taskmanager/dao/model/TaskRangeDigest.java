@@ -0,0 +1,22 @@
+package com.iyalynnyi.taskmanager.dao.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Digest of the tasks of one store within a range of IDs, computed by the database so the rows do not have
+ * to be read. The digest is the sum of a hash of the ID and version of every task, so it is the same in both
+ * stores for the same tasks and changes whenever a task of the range is inserted, updated or deleted.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class TaskRangeDigest {
+  /**
+   * Index of the range among the ranges of equal width its parent range was split into.
+   */
+  private final long range;
+  private final long rowCount;
+  private final long digest;
+}
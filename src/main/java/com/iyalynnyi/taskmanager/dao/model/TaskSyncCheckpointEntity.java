@@ -0,0 +1,50 @@
+package com.iyalynnyi.taskmanager.dao.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import java.time.LocalDateTime;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Progress of the synchronization of tasks from PostgreSQL to H2. Every task with an ID up to
+ * {@link #lastId} has been moved to H2, so the next run only reads tasks past it. A checkpoint of
+ * a partition of a run also has the {@link #maxId} the partition ends at.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "task_sync_checkpoint")
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskSyncCheckpointEntity {
+
+  @Id
+  @Column(length = 50)
+  private String name;
+
+  @Column(name = "last_id", nullable = false)
+  private long lastId;
+
+  @Column(name = "max_id")
+  private Long maxId;
+
+  @Column(name = "moved_count", nullable = false)
+  private long movedCount;
+
+  /**
+   * Fencing token of the synchronization lease of the node which wrote the checkpoint last. A node holding
+   * an older token must not write it anymore.
+   */
+  @Column(name = "fencing_token", nullable = false)
+  private long fencingToken;
+
+  @Column(name = "updated_date", nullable = false)
+  private LocalDateTime updatedDate;
+}
@@ -0,0 +1,549 @@
+package com.iyalynnyi.taskmanager.dao.repository;
+
+import com.iyalynnyi.taskmanager.dao.model.TaskEntity;
+import com.iyalynnyi.taskmanager.dao.model.TaskOutboxMessage;
+import com.iyalynnyi.taskmanager.dao.model.TaskRangeDigest;
+import com.iyalynnyi.taskmanager.dto.TaskEventType;
+import com.iyalynnyi.taskmanager.dto.TaskPriority;
+import com.iyalynnyi.taskmanager.dto.TaskStatus;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import javax.sql.DataSource;
+
+/**
+ * Plain JDBC access to the {@code task} table and the {@code task_outbox} table for operations that do not fit
+ * the JPA repositories, such as cursor based streaming. Every store has its own subclass bound to its own data source,
+ * so the statements join the transaction started by the store's transaction manager.
+ */
+public abstract class TaskJdbcRepository {
+
+  protected static final String TASK_COLUMNS =
+      "id, title, description, status, priority, created_date, updated_date, due_date, assignee, reporter, version";
+
+  protected static final RowMapper<TaskEntity> TASK_ROW_MAPPER = (resultSet, rowNum) -> TaskEntity.builder()
+      .id(resultSet.getLong("id"))
+      .title(resultSet.getString("title"))
+      .description(resultSet.getString("description"))
+      .status(TaskStatus.valueOf(resultSet.getString("status")))
+      .priority(TaskPriority.valueOf(resultSet.getString("priority")))
+      .createdDate(resultSet.getObject("created_date", LocalDateTime.class))
+      .updatedDate(resultSet.getObject("updated_date", LocalDateTime.class))
+      .dueDate(resultSet.getObject("due_date", LocalDateTime.class))
+      .assignee(resultSet.getString("assignee"))
+      .reporter(resultSet.getString("reporter"))
+      .version(resultSet.getLong("version"))
+      .build();
+
+  private static final RowMapper<Long> VERSION_ROW_MAPPER = (resultSet, rowNum) -> resultSet.getLong(1);
+
+  private static final String UPDATE_TASK = """
+      UPDATE task
+      SET title = :title, description = :description, status = :status, priority = :priority,
+          updated_date = :updatedDate, due_date = :dueDate, assignee = :assignee, reporter = :reporter,
+          version = version + 1
+      WHERE id = :id
+      """;
+
+  private static final String UPDATE_TASK_STATUS =
+      "UPDATE task SET status = :status, updated_date = :updatedDate, version = version + 1 WHERE id = :id";
+
+  private static final String VERSION_CONDITION = " AND version = :expectedVersion";
+
+  private static final String SELECT_VERSION = "SELECT version FROM task WHERE id = :id";
+
+  private static final String DELETE_TASK = "DELETE FROM task WHERE id = :id";
+
+  private static final String DELETE_TASK_VERSION = "DELETE FROM task WHERE id = :id AND version = :version";
+
+  private static final String SELECT_TASKS_BY_IDS = "SELECT " + TASK_COLUMNS + " FROM task WHERE id IN (:ids)";
+
+  private static final String SELECT_VERSIONS = "SELECT id, version FROM task WHERE id IN (:ids)";
+
+  private static final String SELECT_VERSIONS_BETWEEN =
+      "SELECT id, version FROM task WHERE id BETWEEN :fromId AND :toId";
+
+  /**
+   * Row counts and digests of the subranges of a range of IDs. The hash of a row is computed on residues
+   * modulo the prime 2^31 - 1, so every intermediate value fits a BIGINT and the databases compute the same
+   * hash without a common hash function. The subrange is computed in a derived table, since the databases
+   * do not match a grouping expression with parameters against the same expression in the select list.
+   */
+  private static final String SELECT_RANGE_DIGESTS = """
+      SELECT range_index, count(*) AS row_count, mod(sum(row_hash), 2147483647) AS digest
+      FROM (
+        SELECT (id - :fromId) / :width AS range_index,
+            mod(mod(id, 2147483647) * 1103515245 + mod(version, 2147483647) * 12345 + 1, 2147483647) AS row_hash
+        FROM task
+        WHERE id BETWEEN :fromId AND :toId
+      ) ranges
+      GROUP BY range_index""";
+
+  private static final RowMapper<TaskRangeDigest> RANGE_DIGEST_ROW_MAPPER = (resultSet, rowNum) ->
+      new TaskRangeDigest(resultSet.getLong("range_index"), resultSet.getLong("row_count"),
+          resultSet.getLong("digest"));
+
+  private static final String INSERT_OUTBOX_MESSAGE =
+      "INSERT INTO task_outbox (task_id, event_type, payload) VALUES (:taskId, :eventType, :payload)";
+
+  private static final String SELECT_UNSENT_OUTBOX_MESSAGES = """
+      SELECT seq, task_id, event_type, payload FROM task_outbox
+      WHERE sent_at IS NULL
+      ORDER BY seq
+      LIMIT :limit""";
+
+  private static final String SELECT_TASK_IDS_WITH_UNSENT_OUTBOX_MESSAGES =
+      "SELECT DISTINCT task_id FROM task_outbox WHERE sent_at IS NULL AND task_id IN (:taskIds)";
+
+  private static final String MARK_OUTBOX_MESSAGES_SENT =
+      "UPDATE task_outbox SET sent_at = :sentAt WHERE seq IN (:seqs) AND sent_at IS NULL";
+
+  private static final String DELETE_SENT_OUTBOX_MESSAGES = "DELETE FROM task_outbox WHERE sent_at < :sentBefore";
+
+  private static final RowMapper<TaskOutboxMessage> OUTBOX_MESSAGE_ROW_MAPPER = (resultSet, rowNum) ->
+      new TaskOutboxMessage(resultSet.getLong("seq"), resultSet.getLong("task_id"),
+          TaskEventType.valueOf(resultSet.getString("event_type")), resultSet.getString("payload"));
+
+  /**
+   * One row of a multi-row upsert, its parameters suffixed with the index of the row. The casts give the
+   * parameters a type even where the row is used as a derived table.
+   */
+  private static final String UPSERT_ROW = """
+      (CAST(:id%1$d AS BIGINT), CAST(:title%1$d AS VARCHAR), CAST(:description%1$d AS VARCHAR),
+          CAST(:status%1$d AS VARCHAR), CAST(:priority%1$d AS VARCHAR), CAST(:createdDate%1$d AS TIMESTAMP),
+          CAST(:updatedDate%1$d AS TIMESTAMP), CAST(:dueDate%1$d AS TIMESTAMP), CAST(:assignee%1$d AS VARCHAR),
+          CAST(:reporter%1$d AS VARCHAR), CAST(:version%1$d AS BIGINT))""";
+
+  private static final String INSERT_TASKS = "INSERT INTO task (" + TASK_COLUMNS + ") VALUES\n%s";
+
+  /**
+   * Rows per upsert statement, which keeps the bind parameters of a statement well below the limits of the
+   * drivers and the statements cached by the databases few.
+   */
+  private static final int UPSERT_ROWS_PER_STATEMENT = 500;
+
+  protected final NamedParameterJdbcTemplate jdbcTemplate;
+
+  protected TaskJdbcRepository(DataSource dataSource) {
+    this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+  }
+
+  /**
+   * Reads every task through a forward-only cursor and hands the rows over one by one,
+   * so at most {@code fetchSize} rows are held in memory at a time.
+   * Must be called within a transaction, otherwise PostgreSQL ignores the fetch size and loads the whole result.
+   *
+   * @param fetchSize the number of rows fetched from the database per round trip
+   * @param consumer  the consumer receiving each task
+   */
+  public void forEach(int fetchSize, Consumer<TaskEntity> consumer) {
+    PreparedStatementCreator statementCreator = connection -> {
+      PreparedStatement statement = connection.prepareStatement("SELECT " + TASK_COLUMNS + " FROM task",
+          ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+      statement.setFetchSize(fetchSize);
+      return statement;
+    };
+    RowCallbackHandler rowCallbackHandler = resultSet -> consumer.accept(TASK_ROW_MAPPER.mapRow(resultSet, 0));
+    jdbcTemplate.getJdbcOperations().query(statementCreator, rowCallbackHandler);
+  }
+
+  /**
+   * Reads the ID of every task through a forward-only cursor, without loading the rows.
+   * Must be called within a transaction for the fetch size to take effect on PostgreSQL.
+   *
+   * @param fetchSize the number of IDs fetched from the database per round trip
+   * @param consumer  the consumer receiving each ID
+   */
+  public void forEachId(int fetchSize, LongConsumer consumer) {
+    PreparedStatementCreator statementCreator = connection -> {
+      PreparedStatement statement = connection.prepareStatement("SELECT id FROM task",
+          ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+      statement.setFetchSize(fetchSize);
+      return statement;
+    };
+    RowCallbackHandler rowCallbackHandler = resultSet -> consumer.accept(resultSet.getLong(1));
+    jdbcTemplate.getJdbcOperations().query(statementCreator, rowCallbackHandler);
+  }
+
+  /**
+   * Reads the tasks with the given IDs.
+   *
+   * @param ids the IDs to look up
+   * @return the stored tasks, in no particular order
+   */
+  public List<TaskEntity> findAllById(Collection<Long> ids) {
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    return jdbcTemplate.query(SELECT_TASKS_BY_IDS, new MapSqlParameterSource("ids", ids), TASK_ROW_MAPPER);
+  }
+
+  /**
+   * Reads the versions of the tasks with the given IDs.
+   *
+   * @param ids the IDs to look up
+   * @return the version of every stored task by its ID
+   */
+  public Map<Long, Long> findVersions(Collection<Long> ids) {
+    Map<Long, Long> versions = new HashMap<>();
+    if (ids.isEmpty()) {
+      return versions;
+    }
+    jdbcTemplate.query(SELECT_VERSIONS, new MapSqlParameterSource("ids", ids),
+        (RowCallbackHandler) resultSet -> versions.put(resultSet.getLong(1), resultSet.getLong(2)));
+    return versions;
+  }
+
+  /**
+   * Reads the versions of the tasks within a range of IDs.
+   *
+   * @param fromId the lowest ID of the range
+   * @param toId   the highest ID of the range
+   * @return the version of every stored task of the range by its ID
+   */
+  public Map<Long, Long> findVersionsBetween(long fromId, long toId) {
+    Map<Long, Long> versions = new HashMap<>();
+    jdbcTemplate.query(SELECT_VERSIONS_BETWEEN, rangeParameters(fromId, toId),
+        (RowCallbackHandler) resultSet -> versions.put(resultSet.getLong(1), resultSet.getLong(2)));
+    return versions;
+  }
+
+  /**
+   * Splits a range of IDs into subranges of equal width and computes the row count and digest of the tasks
+   * of every subrange in the database, in a single scan of the range.
+   *
+   * @param fromId the lowest ID of the range
+   * @param toId   the highest ID of the range
+   * @param width  the number of IDs per subrange
+   * @return the digest of every subrange holding tasks, indexed from {@code fromId} on
+   */
+  public List<TaskRangeDigest> findRangeDigests(long fromId, long toId, long width) {
+    return jdbcTemplate.query(SELECT_RANGE_DIGESTS, rangeParameters(fromId, toId).addValue("width", width),
+        RANGE_DIGEST_ROW_MAPPER);
+  }
+
+  /**
+   * Inserts new tasks with multi-row INSERT statements of up to {@value #UPSERT_ROWS_PER_STATEMENT} rows.
+   * Unlike {@link #upsertAll}, a task whose ID is already stored is not skipped: the statement fails, so a task
+   * is never reported as created while another one keeps its ID. The tasks must already have their IDs allocated.
+   *
+   * @param tasks the tasks to insert
+   * @return the number of inserted rows, the number of tasks
+   * @throws org.springframework.dao.DuplicateKeyException if a task with one of the IDs is already stored
+   */
+  public int insertAll(List<TaskEntity> tasks) {
+    return writeAll(tasks, INSERT_TASKS::formatted);
+  }
+
+  /**
+   * Inserts the tasks, or overwrites all columns of the stored ones including their versions, with multi-row
+   * upsert statements of up to {@value #UPSERT_ROWS_PER_STATEMENT} rows. A stored task is only overwritten while
+   * its version is lower than the given one, so writing the same tasks again changes nothing and a batch
+   * which failed part way can be retried as a whole. The tasks must already have their IDs allocated, and
+   * every ID may appear only once.
+   *
+   * @param tasks the tasks to write
+   * @return the number of inserted or overwritten rows
+   */
+  public int upsertAll(List<TaskEntity> tasks) {
+    return writeAll(tasks, this::upsert);
+  }
+
+  /**
+   * Appends messages to the outbox of this database as a single JDBC batch. Called within the transaction
+   * which writes the tasks, so a message is stored if and only if the change it announces is.
+   *
+   * @param messages the messages to append, their sequence numbers are ignored and assigned by the database
+   */
+  public void insertOutboxMessages(List<TaskOutboxMessage> messages) {
+    SqlParameterSource[] parameters = messages.stream()
+        .map(message -> new MapSqlParameterSource()
+            .addValue("taskId", message.getTaskId())
+            .addValue("eventType", message.getEventType().name())
+            .addValue("payload", message.getPayload()))
+        .toArray(SqlParameterSource[]::new);
+    jdbcTemplate.batchUpdate(INSERT_OUTBOX_MESSAGE, parameters);
+  }
+
+  /**
+   * Reads the oldest unsent messages of the outbox in insert order, without locking them: the outbox is read
+   * by the node holding its relay lease only.
+   *
+   * @param limit the maximum number of messages to read
+   * @return the messages, in insert order
+   */
+  public List<TaskOutboxMessage> findUnsentOutboxMessages(int limit) {
+    return jdbcTemplate.query(SELECT_UNSENT_OUTBOX_MESSAGES, new MapSqlParameterSource("limit", limit),
+        OUTBOX_MESSAGE_ROW_MAPPER);
+  }
+
+  /**
+   * Finds which of the given tasks have messages in the outbox not sent yet.
+   *
+   * @param taskIds the IDs of the tasks
+   * @return the IDs of the tasks with unsent messages
+   */
+  public Set<Long> findTaskIdsWithUnsentOutboxMessages(Collection<Long> taskIds) {
+    if (taskIds.isEmpty()) {
+      return Set.of();
+    }
+    return new HashSet<>(jdbcTemplate.queryForList(SELECT_TASK_IDS_WITH_UNSENT_OUTBOX_MESSAGES,
+        new MapSqlParameterSource("taskIds", taskIds), Long.class));
+  }
+
+  /**
+   * Marks the messages of the outbox as sent, keeping the time of the messages already marked.
+   *
+   * @param seqs   the sequence numbers of the messages
+   * @param sentAt the time the messages were acknowledged
+   * @return the number of marked messages
+   */
+  public int markOutboxMessagesSent(List<Long> seqs, LocalDateTime sentAt) {
+    if (seqs.isEmpty()) {
+      return 0;
+    }
+    return jdbcTemplate.update(MARK_OUTBOX_MESSAGES_SENT, new MapSqlParameterSource()
+        .addValue("seqs", seqs)
+        .addValue("sentAt", sentAt, Types.TIMESTAMP));
+  }
+
+  /**
+   * Deletes the messages of the outbox sent before the given time in a single statement.
+   *
+   * @param sentBefore the time before which the messages were sent
+   * @return the number of deleted messages
+   */
+  public int deleteSentOutboxMessages(LocalDateTime sentBefore) {
+    return jdbcTemplate.update(DELETE_SENT_OUTBOX_MESSAGES,
+        new MapSqlParameterSource().addValue("sentBefore", sentBefore, Types.TIMESTAMP));
+  }
+
+  /**
+   * Updates all columns but the creation date of the task in a single statement, without reading it first,
+   * and increments its version.
+   *
+   * @param task            the task to update, identified by its ID
+   * @param expectedVersion the version the task must still have to be updated, or null to update any version
+   * @return the new version of the task, or null if no task with the ID and the expected version
+   *     is stored in this database
+   */
+  public Long update(TaskEntity task, Long expectedVersion) {
+    return updateReturningVersion(UPDATE_TASK, toParameters(task), expectedVersion);
+  }
+
+  /**
+   * Updates only the status and the update date of the task in a single statement and increments its version.
+   *
+   * @param id              the ID of the task to update
+   * @param status          the new status
+   * @param updatedDate     the time of the update
+   * @param expectedVersion the version the task must still have to be updated, or null to update any version
+   * @return the new version of the task, or null if no task with the ID and the expected version
+   *     is stored in this database
+   */
+  public Long updateStatus(Long id, TaskStatus status, LocalDateTime updatedDate, Long expectedVersion) {
+    return updateReturningVersion(UPDATE_TASK_STATUS, new MapSqlParameterSource()
+        .addValue("id", id)
+        .addValue("status", status.name())
+        .addValue("updatedDate", updatedDate, Types.TIMESTAMP), expectedVersion);
+  }
+
+  /**
+   * Reads the current version of the task.
+   *
+   * @param id the ID of the task
+   * @return the version of the task, or null if it is not stored in this database
+   */
+  public Long findVersion(Long id) {
+    return jdbcTemplate.query(SELECT_VERSION, new MapSqlParameterSource("id", id), VERSION_ROW_MAPPER)
+        .stream()
+        .findFirst()
+        .orElse(null);
+  }
+
+  /**
+   * Updates all columns but the creation date of the tasks as a single JDBC batch.
+   *
+   * @param tasks the tasks to update, identified by their IDs
+   * @return the number of updated rows per task, zero for tasks not stored in this database
+   */
+  public int[] updateAll(List<TaskEntity> tasks) {
+    return jdbcTemplate.batchUpdate(UPDATE_TASK, toParameters(tasks));
+  }
+
+  /**
+   * Deletes the task in a single statement, without reading it first.
+   *
+   * @param id the ID of the task to delete
+   * @return the number of deleted rows, zero if the task is not stored in this database
+   */
+  public int deleteById(Long id) {
+    return jdbcTemplate.update(DELETE_TASK, new MapSqlParameterSource("id", id));
+  }
+
+  /**
+   * Deletes the tasks with the given IDs as a single JDBC batch.
+   *
+   * @param ids the IDs of the tasks to delete
+   * @return the number of deleted rows per ID, zero for tasks not stored in this database
+   */
+  public int[] deleteAllById(List<Long> ids) {
+    SqlParameterSource[] parameters = ids.stream()
+        .map(id -> new MapSqlParameterSource("id", id))
+        .toArray(SqlParameterSource[]::new);
+    return jdbcTemplate.batchUpdate(DELETE_TASK, parameters);
+  }
+
+  /**
+   * Wraps a single-row UPDATE statement of the {@code task} table so that executing it returns
+   * the {@code version} column of the updated row, in the SQL dialect of the store.
+   *
+   * @param update the UPDATE statement
+   * @return the statement returning the new version
+   */
+  protected abstract String returningVersion(String update);
+
+  /**
+   * Builds the multi-row upsert statement of the {@code task} table in the SQL dialect of the store. A row is
+   * inserted if no task has its ID, and overwrites the stored task, including its version, only while the
+   * stored version is lower.
+   *
+   * @param rows the rows to write, each a parenthesized list of the values of {@link #TASK_COLUMNS}
+   * @return the upsert statement
+   */
+  protected abstract String upsert(String rows);
+
+  private int writeAll(List<TaskEntity> tasks, Function<String, String> statement) {
+    int written = 0;
+    for (int from = 0; from < tasks.size(); from += UPSERT_ROWS_PER_STATEMENT) {
+      List<TaskEntity> rows = tasks.subList(from, Math.min(from + UPSERT_ROWS_PER_STATEMENT, tasks.size()));
+      MapSqlParameterSource parameters = new MapSqlParameterSource();
+      StringJoiner values = new StringJoiner(",\n");
+      for (int i = 0; i < rows.size(); i++) {
+        values.add(UPSERT_ROW.formatted(i));
+        addParameters(parameters, rows.get(i), String.valueOf(i));
+      }
+      written += jdbcTemplate.update(statement.apply(values.toString()), parameters);
+    }
+    return written;
+  }
+
+  private Long updateReturningVersion(String update, MapSqlParameterSource parameters, Long expectedVersion) {
+    String sql = update.strip();
+    if (expectedVersion != null) {
+      sql += VERSION_CONDITION;
+      parameters.addValue("expectedVersion", expectedVersion);
+    }
+    return jdbcTemplate.query(returningVersion(sql), parameters, VERSION_ROW_MAPPER)
+        .stream()
+        .findFirst()
+        .orElse(null);
+  }
+
+  /**
+   * Deletes the tasks as a single JDBC batch, each only while it still has the given version.
+   *
+   * @param ids      the IDs of the tasks to delete
+   * @param versions the version of every task, in the order of the IDs
+   * @return the number of deleted rows per ID, zero for tasks missing or updated since they were read
+   */
+  public int[] deleteAllByIdAndVersion(List<Long> ids, List<Long> versions) {
+    SqlParameterSource[] parameters = new SqlParameterSource[ids.size()];
+    for (int i = 0; i < ids.size(); i++) {
+      parameters[i] = new MapSqlParameterSource()
+          .addValue("id", ids.get(i))
+          .addValue("version", versions.get(i));
+    }
+    return jdbcTemplate.batchUpdate(DELETE_TASK_VERSION, parameters);
+  }
+
+  /**
+   * Collects the rows into chunks of a fixed size and hands every full chunk over as soon as it is read.
+   * The last chunk is handed over by {@link #flush()} once the query has completed.
+   *
+   * @param <T> the type the rows are mapped to
+   */
+  protected static final class ChunkingRowCallbackHandler<T> implements RowCallbackHandler {
+
+    private final int chunkSize;
+    private final RowMapper<T> rowMapper;
+    private final Consumer<List<T>> consumer;
+    private List<T> chunk;
+
+    public ChunkingRowCallbackHandler(int chunkSize, RowMapper<T> rowMapper, Consumer<List<T>> consumer) {
+      this.chunkSize = chunkSize;
+      this.rowMapper = rowMapper;
+      this.consumer = consumer;
+      this.chunk = new ArrayList<>(chunkSize);
+    }
+
+    @Override
+    public void processRow(ResultSet resultSet) throws SQLException {
+      chunk.add(rowMapper.mapRow(resultSet, chunk.size()));
+      if (chunk.size() == chunkSize) {
+        flush();
+      }
+    }
+
+    /**
+     * Hands the rows read since the last full chunk over, if any.
+     */
+    public void flush() {
+      if (!chunk.isEmpty()) {
+        consumer.accept(chunk);
+        chunk = new ArrayList<>(chunkSize);
+      }
+    }
+  }
+
+  private static MapSqlParameterSource rangeParameters(long fromId, long toId) {
+    return new MapSqlParameterSource()
+        .addValue("fromId", fromId)
+        .addValue("toId", toId);
+  }
+
+  protected static SqlParameterSource[] toParameters(List<TaskEntity> tasks) {
+    return tasks.stream()
+        .map(TaskJdbcRepository::toParameters)
+        .toArray(SqlParameterSource[]::new);
+  }
+
+  protected static MapSqlParameterSource toParameters(TaskEntity task) {
+    return addParameters(new MapSqlParameterSource(), task, "");
+  }
+
+  private static MapSqlParameterSource addParameters(MapSqlParameterSource parameters, TaskEntity task,
+      String suffix) {
+    return parameters
+        .addValue("id" + suffix, task.getId())
+        .addValue("title" + suffix, task.getTitle())
+        .addValue("description" + suffix, task.getDescription())
+        .addValue("status" + suffix, task.getStatus() == null ? null : task.getStatus().name())
+        .addValue("priority" + suffix, task.getPriority() == null ? null : task.getPriority().name())
+        .addValue("createdDate" + suffix, task.getCreatedDate(), Types.TIMESTAMP)
+        .addValue("updatedDate" + suffix, task.getUpdatedDate(), Types.TIMESTAMP)
+        .addValue("dueDate" + suffix, task.getDueDate(), Types.TIMESTAMP)
+        .addValue("assignee" + suffix, task.getAssignee())
+        .addValue("reporter" + suffix, task.getReporter())
+        .addValue("version" + suffix, task.getVersion() == null ? 0L : task.getVersion());
+  }
+}
@@ -0,0 +1,101 @@
+package com.iyalynnyi.taskmanager.dao.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import javax.sql.DataSource;
+import java.util.Optional;
+
+/**
+ * Leases held by one node of the cluster at a time, such as the lease of the synchronization from PostgreSQL
+ * to H2 or of the relay of a task outbox. Every statement runs on its own and compares against the database
+ * clock, so the nodes need neither a transaction nor synchronized clocks. Every store has its own subclass bound
+ * to its own data source, which provides the SQL its dialect writes differently.
+ */
+public abstract class TaskSyncLeaseRepository {
+
+  private static final String ACQUIRE_LEASE = """
+      UPDATE task_sync_lease SET owner = :owner, fencing_token = fencing_token + 1, expires_at = %s
+      WHERE name = :name AND expires_at < LOCALTIMESTAMP""";
+
+  private static final String RENEW_LEASE = """
+      UPDATE task_sync_lease SET expires_at = %s
+      WHERE name = :name AND owner = :owner AND fencing_token = :fencingToken""";
+
+  private static final String RELEASE_LEASE = """
+      UPDATE task_sync_lease SET expires_at = LOCALTIMESTAMP
+      WHERE name = :name AND owner = :owner AND fencing_token = :fencingToken""";
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+  private final String acquireLease;
+  private final String renewLease;
+
+  protected TaskSyncLeaseRepository(DataSource dataSource) {
+    this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    this.acquireLease = returningFencingToken(ACQUIRE_LEASE.formatted(expiresAt()));
+    this.renewLease = RENEW_LEASE.formatted(expiresAt());
+  }
+
+  /**
+   * Wraps an update of the lease row so that it returns the updated fencing token.
+   *
+   * @param update the update statement
+   * @return the statement returning the fencing token of the updated row
+   */
+  protected abstract String returningFencingToken(String update);
+
+  /**
+   * The expression of the time a lease taken or renewed now expires at, {@code :ttlMillis} from now.
+   *
+   * @return the SQL expression
+   */
+  protected abstract String expiresAt();
+
+  /**
+   * Takes the lease over if it has expired, incrementing its fencing token.
+   *
+   * @param name      the name of the lease
+   * @param owner     the node taking the lease
+   * @param ttlMillis the time the lease is held for unless renewed
+   * @return the new fencing token, empty if another node holds the lease
+   */
+  public Optional<Long> acquire(String name, String owner, long ttlMillis) {
+    MapSqlParameterSource parameters = new MapSqlParameterSource()
+        .addValue("name", name)
+        .addValue("owner", owner)
+        .addValue("ttlMillis", ttlMillis);
+    return jdbcTemplate.query(acquireLease, parameters, (resultSet, rowNum) -> resultSet.getLong(1))
+        .stream()
+        .findFirst();
+  }
+
+  /**
+   * Extends the lease if the node still holds it with the given fencing token.
+   *
+   * @param name         the name of the lease
+   * @param owner        the node holding the lease
+   * @param fencingToken the fencing token the lease was acquired with
+   * @param ttlMillis    the time the lease is held for from now on unless renewed again
+   * @return true if the lease was extended, false if another node has taken it over
+   */
+  public boolean renew(String name, String owner, long fencingToken, long ttlMillis) {
+    return jdbcTemplate.update(renewLease, parameters(name, owner, fencingToken).addValue("ttlMillis", ttlMillis)) > 0;
+  }
+
+  /**
+   * Lets the lease expire right away, so another node can take it without waiting for its time to live.
+   *
+   * @param name         the name of the lease
+   * @param owner        the node holding the lease
+   * @param fencingToken the fencing token the lease was acquired with
+   */
+  public void release(String name, String owner, long fencingToken) {
+    jdbcTemplate.update(RELEASE_LEASE, parameters(name, owner, fencingToken));
+  }
+
+  private static MapSqlParameterSource parameters(String name, String owner, long fencingToken) {
+    return new MapSqlParameterSource()
+        .addValue("name", name)
+        .addValue("owner", owner)
+        .addValue("fencingToken", fencingToken);
+  }
+}
@@ -0,0 +1,82 @@
+package com.iyalynnyi.taskmanager.dao.repository.h2;
+
+import com.iyalynnyi.taskmanager.dao.repository.TaskJdbcRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import javax.sql.DataSource;
+
+@Repository
+public class H2TaskJdbcRepository extends TaskJdbcRepository {
+
+  private static final String UPSERT = """
+      MERGE INTO task t
+      USING (VALUES
+      %s) AS s (id, title, description, status, priority, created_date, updated_date, due_date, assignee, reporter,
+          version)
+      ON t.id = s.id
+      WHEN MATCHED AND t.version < s.version THEN UPDATE
+      SET title = s.title, description = s.description, status = s.status, priority = s.priority,
+          created_date = s.created_date, updated_date = s.updated_date, due_date = s.due_date, assignee = s.assignee,
+          reporter = s.reporter, version = s.version
+      WHEN NOT MATCHED THEN INSERT (id, title, description, status, priority, created_date, updated_date, due_date,
+          assignee, reporter, version)
+      VALUES (s.id, s.title, s.description, s.status, s.priority, s.created_date, s.updated_date, s.due_date,
+          s.assignee, s.reporter, s.version)""";
+
+  private static final String SELECT_LEGACY_IDS =
+      "SELECT legacy_id, task_id FROM task_legacy_id WHERE legacy_id IN (:legacyIds)";
+
+  private static final String INSERT_LEGACY_ID =
+      "INSERT INTO task_legacy_id (legacy_id, task_id) VALUES (:legacyId, :taskId)";
+
+  public H2TaskJdbcRepository(@Qualifier("h2DataSource") DataSource dataSource) {
+    super(dataSource);
+  }
+
+  /**
+   * Reads the IDs given in H2 to the tasks moved from PostgreSQL with IDs from a database sequence.
+   *
+   * @param legacyIds the sequence IDs the tasks have in PostgreSQL
+   * @return the H2 ID of every task moved before by its sequence ID
+   */
+  public Map<Long, Long> findLegacyIdMappings(Collection<Long> legacyIds) {
+    Map<Long, Long> taskIds = new HashMap<>();
+    if (legacyIds.isEmpty()) {
+      return taskIds;
+    }
+    jdbcTemplate.query(SELECT_LEGACY_IDS, new MapSqlParameterSource("legacyIds", legacyIds),
+        (RowCallbackHandler) resultSet -> taskIds.put(resultSet.getLong(1), resultSet.getLong(2)));
+    return taskIds;
+  }
+
+  /**
+   * Records the IDs given in H2 to tasks moved from PostgreSQL with IDs from a database sequence, as a single
+   * JDBC batch.
+   *
+   * @param taskIds the H2 ID of every task by its sequence ID
+   */
+  public void insertLegacyIdMappings(Map<Long, Long> taskIds) {
+    SqlParameterSource[] parameters = taskIds.entrySet().stream()
+        .map(entry -> new MapSqlParameterSource()
+            .addValue("legacyId", entry.getKey())
+            .addValue("taskId", entry.getValue()))
+        .toArray(SqlParameterSource[]::new);
+    jdbcTemplate.batchUpdate(INSERT_LEGACY_ID, parameters);
+  }
+
+  @Override
+  protected String returningVersion(String update) {
+    return "SELECT version FROM FINAL TABLE (" + update + ")";
+  }
+
+  @Override
+  protected String upsert(String rows) {
+    return UPSERT.formatted(rows);
+  }
+}
@@ -0,0 +1,20 @@
+package com.iyalynnyi.taskmanager.dao.repository.h2;
+
+import com.iyalynnyi.taskmanager.dao.model.TaskSyncCheckpointEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface H2TaskSyncCheckpointRepository extends JpaRepository<TaskSyncCheckpointEntity, String> {
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  List<TaskSyncCheckpointEntity> findByNameStartingWithOrderByMaxId(String prefix);
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  Optional<TaskSyncCheckpointEntity> findForUpdateByName(String name);
+}
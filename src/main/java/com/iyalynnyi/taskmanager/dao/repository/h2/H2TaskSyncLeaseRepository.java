@@ -0,0 +1,27 @@
+package com.iyalynnyi.taskmanager.dao.repository.h2;
+
+import com.iyalynnyi.taskmanager.dao.repository.TaskSyncLeaseRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Repository;
+import javax.sql.DataSource;
+
+/**
+ * Leases held in H2: the lease of the relay of the H2 outbox, so it does not depend on PostgreSQL.
+ */
+@Repository
+public class H2TaskSyncLeaseRepository extends TaskSyncLeaseRepository {
+
+  public H2TaskSyncLeaseRepository(@Qualifier("h2DataSource") DataSource dataSource) {
+    super(dataSource);
+  }
+
+  @Override
+  protected String returningFencingToken(String update) {
+    return "SELECT fencing_token FROM FINAL TABLE (" + update + ")";
+  }
+
+  @Override
+  protected String expiresAt() {
+    return "DATEADD(MILLISECOND, :ttlMillis, LOCALTIMESTAMP)";
+  }
+}
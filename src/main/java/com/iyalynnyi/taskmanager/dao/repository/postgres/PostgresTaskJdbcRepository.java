@@ -0,0 +1,193 @@
+package com.iyalynnyi.taskmanager.dao.repository.postgres;
+
+import com.iyalynnyi.taskmanager.dao.model.TaskChange;
+import com.iyalynnyi.taskmanager.dao.repository.TaskJdbcRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.stereotype.Repository;
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+@Repository
+public class PostgresTaskJdbcRepository extends TaskJdbcRepository {
+
+  private static final RowMapper<TaskChange> CHANGE_ROW_MAPPER = (resultSet, rowNum) -> new TaskChange(
+      resultSet.getLong("seq"), resultSet.getLong("task_id"), "D".equals(resultSet.getString("operation")));
+
+  private static final String UPSERT = """
+      INSERT INTO task (id, title, description, status, priority, created_date, updated_date, due_date, assignee, reporter,
+          version)
+      VALUES
+      %s
+      ON CONFLICT (id) DO UPDATE
+      SET title = EXCLUDED.title, description = EXCLUDED.description, status = EXCLUDED.status,
+          priority = EXCLUDED.priority, created_date = EXCLUDED.created_date, updated_date = EXCLUDED.updated_date,
+          due_date = EXCLUDED.due_date, assignee = EXCLUDED.assignee, reporter = EXCLUDED.reporter,
+          version = EXCLUDED.version
+      WHERE task.version < EXCLUDED.version""";
+
+  private static final String SELECT_CHANGES = """
+      SELECT seq, task_id, operation FROM task_change_log
+      WHERE seq > ? AND seq <= ? AND mod(task_id, ?) = ?
+      ORDER BY seq""";
+
+  /**
+   * The last position handed out by the sequence of the change log, including positions of changes whose
+   * transaction has not committed yet. Sequences are not transactional, so it is read as is.
+   */
+  private static final String SELECT_LAST_ALLOCATED_CHANGE_SEQ =
+      "SELECT COALESCE(pg_sequence_last_value(pg_get_serial_sequence('task_change_log', 'seq')::regclass), 0)";
+
+  private static final String SELECT_NEXT_XID = "SELECT pg_snapshot_xmax(pg_current_snapshot())::text::bigint";
+
+  private static final String SELECT_OLDEST_RUNNING_XID =
+      "SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint";
+
+  private static final String DELETE_CHANGES = "DELETE FROM task_change_log WHERE seq <= :seq";
+
+  private static final String SELECT_CHANGED_TASK_IDS =
+      "SELECT DISTINCT task_id FROM task_change_log WHERE task_id IN (:ids)";
+
+  private static final String COUNT_CHANGES = "SELECT count(*) FROM task_change_log";
+
+  private static final String SELECT_OLDEST_CHANGE_AGE =
+      "SELECT COALESCE(EXTRACT(EPOCH FROM LOCALTIMESTAMP - min(changed_at)) * 1000, 0) FROM task_change_log";
+
+  /**
+   * Transaction-local setting which makes the change log trigger skip the statements of the synchronization.
+   */
+  private static final String SUPPRESS_CHANGE_LOG = "SELECT set_config('taskmanager.sync', 'on', true)";
+
+  public PostgresTaskJdbcRepository(@Qualifier("postgresDataSource") DataSource dataSource) {
+    super(dataSource);
+  }
+
+  @Override
+  protected String returningVersion(String update) {
+    return update + " RETURNING version";
+  }
+
+  @Override
+  protected String upsert(String rows) {
+    return UPSERT.formatted(rows);
+  }
+
+  /**
+   * Reads the changes in the given range of the change log of one partition, the tasks whose ID modulo
+   * {@code partitions} is {@code partition}, in log order through a forward-only cursor, and hands them over
+   * in chunks. Every change of a task belongs to the same partition, so a partition sees them in order.
+   * Must be called within a transaction for the fetch size to take effect.
+   *
+   * @param afterSeq   the position the changes should be past
+   * @param maxSeq     the position the changes should not be past
+   * @param partition  the partition of the tasks
+   * @param partitions the number of partitions
+   * @param chunkSize  the number of changes per chunk, also used as the fetch size
+   * @param consumer   the consumer receiving each chunk, the last one possibly smaller
+   */
+  public void forEachChangeChunk(long afterSeq, long maxSeq, int partition, int partitions, int chunkSize,
+      Consumer<List<TaskChange>> consumer) {
+    PreparedStatementCreator statementCreator = connection -> {
+      PreparedStatement statement = connection.prepareStatement(SELECT_CHANGES,
+          ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+      statement.setFetchSize(chunkSize);
+      statement.setLong(1, afterSeq);
+      statement.setLong(2, maxSeq);
+      statement.setInt(3, partitions);
+      statement.setInt(4, partition);
+      return statement;
+    };
+    ChunkingRowCallbackHandler<TaskChange> rowCallbackHandler =
+        new ChunkingRowCallbackHandler<>(chunkSize, CHANGE_ROW_MAPPER, consumer);
+    jdbcTemplate.getJdbcOperations().query(statementCreator, rowCallbackHandler);
+    rowCallbackHandler.flush();
+  }
+
+  /**
+   * Finds the last position handed out to the change log, whether the transaction logging it has committed,
+   * is still in flight or has rolled back.
+   *
+   * @return the position, 0 if no change was ever logged
+   */
+  public long findLastAllocatedChangeSeq() {
+    return jdbcTemplate.getJdbcOperations().queryForObject(SELECT_LAST_ALLOCATED_CHANGE_SEQ, Long.class);
+  }
+
+  /**
+   * Finds the transaction ID the next transaction writing to PostgreSQL will get: every transaction which
+   * has written so far has a lower one.
+   *
+   * @return the next transaction ID
+   */
+  public long findNextTransactionId() {
+    return jdbcTemplate.getJdbcOperations().queryForObject(SELECT_NEXT_XID, Long.class);
+  }
+
+  /**
+   * Finds the ID of the oldest transaction still running: every transaction with a lower ID has committed
+   * or rolled back.
+   *
+   * @return the oldest running transaction ID, the next transaction ID if none is running
+   */
+  public long findOldestRunningTransactionId() {
+    return jdbcTemplate.getJdbcOperations().queryForObject(SELECT_OLDEST_RUNNING_XID, Long.class);
+  }
+
+  /**
+   * Removes the changes up to the given position from the change log.
+   *
+   * @param seq the position of the last change to remove
+   * @return the number of changes removed
+   */
+  public int deleteChangesUpTo(long seq) {
+    return jdbcTemplate.update(DELETE_CHANGES, new MapSqlParameterSource("seq", seq));
+  }
+
+  /**
+   * Finds which of the given tasks have changes in the change log, still to be applied by the synchronization.
+   *
+   * @param ids the IDs of the tasks
+   * @return the IDs of the tasks with logged changes
+   */
+  public Set<Long> findChangedTaskIds(Collection<Long> ids) {
+    if (ids.isEmpty()) {
+      return Set.of();
+    }
+    return new HashSet<>(jdbcTemplate.queryForList(SELECT_CHANGED_TASK_IDS, new MapSqlParameterSource("ids", ids),
+        Long.class));
+  }
+
+  /**
+   * Counts the changes in the change log.
+   *
+   * @return the number of changes
+   */
+  public long countChanges() {
+    return jdbcTemplate.getJdbcOperations().queryForObject(COUNT_CHANGES, Long.class);
+  }
+
+  /**
+   * Measures the age of the oldest change in the change log.
+   *
+   * @return the age in milliseconds, 0 if the change log is empty
+   */
+  public long findOldestChangeAgeMillis() {
+    return jdbcTemplate.getJdbcOperations().queryForObject(SELECT_OLDEST_CHANGE_AGE, Number.class).longValue();
+  }
+
+  /**
+   * Keeps the statements of the current transaction out of the change log, so tasks deleted after being moved
+   * to H2 are not deleted from H2 again. Must be called within a transaction.
+   */
+  public void suppressChangeLog() {
+    jdbcTemplate.getJdbcOperations().queryForObject(SUPPRESS_CHANGE_LOG, String.class);
+  }
+}
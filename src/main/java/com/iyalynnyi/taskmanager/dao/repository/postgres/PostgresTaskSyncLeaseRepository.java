@@ -0,0 +1,28 @@
+package com.iyalynnyi.taskmanager.dao.repository.postgres;
+
+import com.iyalynnyi.taskmanager.dao.repository.TaskSyncLeaseRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Repository;
+import javax.sql.DataSource;
+
+/**
+ * Leases held in PostgreSQL: the lease of the synchronization from PostgreSQL to H2 and the lease of the relay
+ * of the PostgreSQL outbox.
+ */
+@Repository
+public class PostgresTaskSyncLeaseRepository extends TaskSyncLeaseRepository {
+
+  public PostgresTaskSyncLeaseRepository(@Qualifier("postgresDataSource") DataSource dataSource) {
+    super(dataSource);
+  }
+
+  @Override
+  protected String returningFencingToken(String update) {
+    return update + " RETURNING fencing_token";
+  }
+
+  @Override
+  protected String expiresAt() {
+    return "LOCALTIMESTAMP + :ttlMillis * INTERVAL '1 millisecond'";
+  }
+}
@@ -0,0 +1,75 @@
+package com.iyalynnyi.taskmanager.dao.specification;
+
+import com.iyalynnyi.taskmanager.dao.model.TaskEntity;
+import com.iyalynnyi.taskmanager.dto.TaskCursor;
+import com.iyalynnyi.taskmanager.dto.TaskFilter;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import jakarta.persistence.criteria.Predicate;
+
+/**
+ * Specifications used to push task filtering and keyset pagination down to the database.
+ */
+public final class TaskSpecifications {
+
+  /**
+   * Keyset order of task pages. Must stay in line with {@link #after(TaskCursor)} and the
+   * {@code idx_task_created_date_id} index.
+   */
+  public static final Sort KEYSET_SORT = Sort.by(Sort.Order.asc("createdDate"), Sort.Order.asc("id"));
+
+  private TaskSpecifications() {
+  }
+
+  /**
+   * Builds a specification that matches the non-null criteria of the given filter.
+   *
+   * @param filter the filter to apply, may be null
+   * @return the specification matching the filter
+   */
+  public static Specification<TaskEntity> matching(TaskFilter filter) {
+    return (root, query, criteriaBuilder) -> {
+      List<Predicate> predicates = new ArrayList<>();
+      if (filter != null) {
+        if (filter.getStatus() != null) {
+          predicates.add(criteriaBuilder.equal(root.get("status"), filter.getStatus()));
+        }
+        if (filter.getPriority() != null) {
+          predicates.add(criteriaBuilder.equal(root.get("priority"), filter.getPriority()));
+        }
+        if (filter.getAssignee() != null) {
+          predicates.add(criteriaBuilder.equal(root.get("assignee"), filter.getAssignee()));
+        }
+        if (filter.getDueFrom() != null) {
+          predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.<LocalDateTime>get("dueDate"), filter.getDueFrom()));
+        }
+        if (filter.getDueTo() != null) {
+          predicates.add(criteriaBuilder.lessThanOrEqualTo(root.<LocalDateTime>get("dueDate"), filter.getDueTo()));
+        }
+      }
+      return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+    };
+  }
+
+  /**
+   * Builds a specification that matches tasks positioned strictly after the given cursor in {@link #KEYSET_SORT} order.
+   *
+   * @param cursor the position of the last task already returned, or null for the first page
+   * @return the keyset specification
+   */
+  public static Specification<TaskEntity> after(TaskCursor cursor) {
+    return (root, query, criteriaBuilder) -> {
+      if (cursor == null) {
+        return criteriaBuilder.conjunction();
+      }
+      return criteriaBuilder.or(
+          criteriaBuilder.greaterThan(root.<LocalDateTime>get("createdDate"), cursor.getCreatedDate()),
+          criteriaBuilder.and(
+              criteriaBuilder.equal(root.get("createdDate"), cursor.getCreatedDate()),
+              criteriaBuilder.greaterThan(root.<Long>get("id"), cursor.getId())));
+    };
+  }
+}
@@ -0,0 +1,19 @@
+package com.iyalynnyi.taskmanager.dto;
+
+/**
+ * How a lookup by ID queries the primary (H2) and the failover (PostgreSQL) database.
+ */
+public enum ReadStrategy {
+  /**
+   * Query H2 and, only after it missed or failed, PostgreSQL.
+   */
+  SEQUENTIAL,
+  /**
+   * Query H2 and also query PostgreSQL once H2 missed, failed or has not answered within the hedge delay.
+   */
+  HEDGED,
+  /**
+   * Query both databases right away and take the first hit.
+   */
+  PARALLEL
+}
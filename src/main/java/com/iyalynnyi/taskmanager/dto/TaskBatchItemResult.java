@@ -0,0 +1,39 @@
+package com.iyalynnyi.taskmanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Outcome of a single create, update or delete of a batch request.
+ * {@code index} is the position of the item in its list of the request.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskBatchItemResult {
+
+  private Operation operation;
+  private int index;
+  private Long id;
+  private Status status;
+  private String message;
+
+  public enum Operation {
+    CREATE,
+    UPDATE,
+    DELETE
+  }
+
+  public enum Status {
+    CREATED,
+    UPDATED,
+    DELETED,
+    NOT_FOUND,
+    FAILED
+  }
+}
@@ -0,0 +1,26 @@
+package com.iyalynnyi.taskmanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import java.util.ArrayList;
+import java.util.List;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskBatchRequest {
+
+  @Builder.Default
+  private List<@Valid @NotNull TaskDto> create = new ArrayList<>();
+  @Builder.Default
+  private List<@Valid @NotNull TaskDto> update = new ArrayList<>();
+  @Builder.Default
+  private List<@NotNull Long> delete = new ArrayList<>();
+}
@@ -0,0 +1,18 @@
+package com.iyalynnyi.taskmanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskBatchResultDto {
+
+  private List<TaskBatchItemResult> results;
+}
@@ -0,0 +1,17 @@
+package com.iyalynnyi.taskmanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.time.LocalDateTime;
+
+/**
+ * Keyset position of the last task returned in a page. Tasks are ordered by creation date and then by ID,
+ * so the next page starts strictly after this pair.
+ */
+@Getter
+@AllArgsConstructor
+public class TaskCursor {
+
+  private final LocalDateTime createdDate;
+  private final Long id;
+}
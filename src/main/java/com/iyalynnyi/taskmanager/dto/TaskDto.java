@@ -8,6 +8,7 @@ import lombok.Setter;
 import java.time.LocalDateTime;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 
 @Getter
 @Setter
@@ -18,6 +19,7 @@ public class TaskDto {
 
   private Long id;
   @NotBlank(message = "Title should not be blank.")
+  @Size(max = 100, message = "Title should be at most 100 characters long.")
   private String title;
   private String description;
   @NotNull(message = "Status should not be null.")
@@ -26,6 +28,9 @@ public class TaskDto {
   private TaskPriority priority;
   private LocalDateTime createdDate;
   private LocalDateTime dueDate;
+  @Size(max = 50, message = "Assignee should be at most 50 characters long.")
   private String assignee;
+  @Size(max = 50, message = "Reporter should be at most 50 characters long.")
   private String reporter;
+  private Long version;
 }
@@ -0,0 +1,23 @@
+package com.iyalynnyi.taskmanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Change of a task, published to Kafka keyed by the task ID, so all events of a task land in the same
+ * partition in the order they were committed.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskEvent {
+
+  private TaskEventType type;
+  /**
+   * The fields of the task the event carries, see {@link TaskEventType}; always holds the ID.
+   */
+  private TaskDto task;
+}
@@ -0,0 +1,16 @@
+package com.iyalynnyi.taskmanager.dto;
+
+/**
+ * Wire format of the task events sent to a Kafka topic.
+ */
+public enum TaskEventFormat {
+  /**
+   * JSON documents written by Spring's {@code JsonSerializer}, readable without any schema.
+   */
+  JSON,
+  /**
+   * The compact binary format of {@link com.iyalynnyi.taskmanager.converter.binary.TaskBinaryCodec},
+   * versioned by the schemas of the {@link com.iyalynnyi.taskmanager.converter.binary.TaskSchemaRegistry}.
+   */
+  BINARY
+}
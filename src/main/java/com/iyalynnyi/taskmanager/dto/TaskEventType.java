@@ -0,0 +1,24 @@
+package com.iyalynnyi.taskmanager.dto;
+
+/**
+ * Kind of change a task event announces. Written as an ordinal by the binary format, so constants are only
+ * ever appended.
+ */
+public enum TaskEventType {
+  /**
+   * The task was created; the event carries all of its fields.
+   */
+  CREATED,
+  /**
+   * All fields but the creation date were overwritten; the event carries them.
+   */
+  UPDATED,
+  /**
+   * Only the status was changed; the event carries the ID, the status and the new version.
+   */
+  STATUS_CHANGED,
+  /**
+   * The task was deleted; the event carries its ID only.
+   */
+  DELETED
+}
@@ -0,0 +1,25 @@
+package com.iyalynnyi.taskmanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskPageDto {
+
+  private List<TaskDto> items;
+  private String nextCursor;
+  /**
+   * Databases which failed or did not answer in time; their tasks are missing from this page.
+   */
+  @Builder.Default
+  private List<TaskStore> unavailableStores = new ArrayList<>();
+}
@@ -0,0 +1,33 @@
+package com.iyalynnyi.taskmanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskReconciliationReportDto {
+
+  /**
+   * Number of ID ranges whose digests were compared.
+   */
+  private long rangesCompared;
+  /**
+   * Number of ID ranges holding tasks stored in both databases.
+   */
+  private long rangesDiffering;
+  /**
+   * Number of tasks stored in both databases.
+   */
+  private long rowsDiffering;
+  /**
+   * Number of tasks stored in both databases whose PostgreSQL copy was removed, after the H2 copy was
+   * brought up to date if it was older.
+   */
+  private long rowsRepaired;
+}
@@ -0,0 +1,6 @@
+package com.iyalynnyi.taskmanager.dto;
+
+public enum TaskStore {
+  H2,
+  POSTGRES
+}
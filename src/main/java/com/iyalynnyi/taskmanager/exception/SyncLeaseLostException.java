@@ -0,0 +1,17 @@
+package com.iyalynnyi.taskmanager.exception;
+
+/**
+ * Exception thrown when a node synchronizing PostgreSQL to H2 no longer holds the synchronization lease,
+ * because it could not renew it in time or a node with a newer fencing token has taken over.
+ */
+public class SyncLeaseLostException extends RuntimeException {
+
+  /**
+   * Constructs a new SyncLeaseLostException with the specified message.
+   *
+   * @param message the detail message explaining which write was rejected.
+   */
+  public SyncLeaseLostException(String message) {
+    super(message);
+  }
+}
@@ -1,39 +1,221 @@
 package com.iyalynnyi.taskmanager.job;
 
+import com.iyalynnyi.taskmanager.config.properties.DataSyncProperties;
 import com.iyalynnyi.taskmanager.dao.model.TaskEntity;
+import com.iyalynnyi.taskmanager.dao.model.TaskSyncCheckpointEntity;
+import com.iyalynnyi.taskmanager.exception.SyncLeaseLostException;
+import com.iyalynnyi.taskmanager.service.DataSyncLeaseService;
 import com.iyalynnyi.taskmanager.service.DataSyncService;
+import com.iyalynnyi.taskmanager.service.SyncLease;
+import com.iyalynnyi.taskmanager.service.TaskChangeBatch;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class DataSyncJob {
 
+  /**
+   * Marks the end of the chunks read from PostgreSQL, compared by identity.
+   */
+  private static final TaskChangeBatch END_OF_STREAM = new TaskChangeBatch(0, List.of(), List.of());
+  private static final long ENQUEUE_POLL_MILLIS = 100;
+
   private final DataSyncService dataSyncService;
+  private final DataSyncLeaseService dataSyncLeaseService;
+  private final DataSyncProperties dataSyncProperties;
 
   /**
-   * Synchronizes data from the PostgreSQL database to the H2 database.
-   * This method is scheduled to run at a fixed rate of one hour.
+   * Applies the changes logged in the PostgreSQL database since the last run to the H2 database, unless
+   * another node of the cluster is doing so. The node takes the synchronization lease first and renews it while the
+   * run lasts; every checkpoint and chunk is written with the fencing token of the lease, so a node which
+   * lost the lease while paused cannot overwrite the progress of the node which took over.
+   * The changes past the persisted watermark are split by task ID into {@link DataSyncProperties#getWorkers()}
+   * partitions, each drained by its own worker with its own transactions and checkpoint. Every change of a
+   * task falls into the same partition, so the changes of a task are applied in the order they were logged.
+   * Once all partitions are drained the watermark advances, the partition checkpoints are removed and the
+   * applied changes are purged from the change log; a run interrupted before, on this or another node,
+   * resumes every partition from its own checkpoint instead. Runs are started by the {@link DataSyncScheduler}.
+   *
+   * @return whether the run completed, or was skipped because H2 is unavailable or another node holds the
+   *     synchronization lease
    */
-  @Scheduled(fixedRate = 3600000)
-  public void synchronize() {
+  public SyncOutcome synchronize() {
     log.info("Starting synchronization (PostgreSQL -> H2)...");
 
-    if (dataSyncService.isH2RepositoryAvailable()) {
-      log.info("H2 repository is available. Proceeding with data synchronization.");
+    if (!dataSyncService.isH2RepositoryAvailable()) {
+      log.warn("H2 repository not available. Data sync cancelled.");
+      return SyncOutcome.H2_UNAVAILABLE;
+    }
+    if (!dataSyncLeaseService.runWithLease(this::synchronize)) {
+      log.info("Another node holds the synchronization lease. Data sync skipped.");
+      return SyncOutcome.LEASE_HELD_ELSEWHERE;
+    }
+    return SyncOutcome.COMPLETED;
+  }
+
+  private void synchronize(SyncLease lease) {
+    List<SyncPartition> partitions = planPartitions(lease);
+    AtomicInteger workerNumber = new AtomicInteger();
+    ExecutorService workerExecutor = Executors.newFixedThreadPool(
+        Math.min(dataSyncProperties.getWorkers(), partitions.size()),
+        runnable -> new Thread(runnable, "task-sync-worker-" + workerNumber.incrementAndGet()));
+    try {
+      CompletableFuture.allOf(partitions.stream()
+              .map(partition -> CompletableFuture.runAsync(() -> drain(partition), workerExecutor))
+              .toArray(CompletableFuture[]::new))
+          .join();
+    } finally {
+      workerExecutor.shutdownNow();
+    }
+    long watermark = partitions.get(0).maxSeq;
+    dataSyncService.completePartitions(watermark, lease.getFencingToken());
+    dataSyncService.purgeChanges(watermark);
+    log.info("Finished synchronization (PostgreSQL -> H2), moved {} tasks in {} partitions, watermark {}.",
+        partitions.stream().mapToLong(partition -> partition.movedCount).sum(), partitions.size(), watermark);
+  }
 
-      List<TaskEntity> tasks = dataSyncService.fetchDataFromPostgres();
-      dataSyncService.saveDataToH2(tasks);
-      dataSyncService.deleteDataFromPostgres();
-      log.info("Finished synchronization (PostgreSQL -> H2).");
+  /**
+   * Resumes the partitions of an interrupted run, or splits the changes past the watermark into new partitions
+   * and checkpoints them before any change is applied.
+   */
+  private List<SyncPartition> planPartitions(SyncLease lease) {
+    List<TaskSyncCheckpointEntity> checkpoints = dataSyncService.claimPartitions(lease.getFencingToken());
+    if (!checkpoints.isEmpty()) {
+      log.info("Resuming {} partitions of an interrupted synchronization.", checkpoints.size());
     } else {
-      log.warn("H2 repository not available. Data sync cancelled.");
+      long watermark = dataSyncService.loadWatermark();
+      long maxSeq = Math.max(watermark, dataSyncService.findChangeHorizon(dataSyncProperties.getInFlightWait()));
+      checkpoints = dataSyncService.startPartitions(dataSyncProperties.getWorkers(), watermark, maxSeq,
+          lease.getFencingToken());
     }
+    int partitionCount = checkpoints.size();
+    return checkpoints.stream().map(checkpoint -> new SyncPartition(checkpoint, partitionCount, lease)).toList();
+  }
+
+  /**
+   * Drains a partition: its changes are streamed from the PostgreSQL change log in chunks, in log order,
+   * while a writer thread applies the net effect of every chunk to H2, deletes the moved tasks from
+   * PostgreSQL by ID and version and then advances the partition checkpoint. At most
+   * {@link DataSyncProperties#getMaxInFlightChunks()} chunks wait for the writer; the reader blocks when
+   * they are all taken.
+   */
+  private void drain(SyncPartition partition) {
+    if (partition.watermark >= partition.maxSeq) {
+      return;
+    }
+    BlockingQueue<TaskChangeBatch> chunks = new ArrayBlockingQueue<>(dataSyncProperties.getMaxInFlightChunks());
+    ExecutorService writerExecutor = Executors.newSingleThreadExecutor(
+        runnable -> new Thread(runnable, "task-sync-writer-" + partition.index));
+    try {
+      CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> writeChunks(chunks, partition), writerExecutor);
+      RuntimeException readFailure = null;
+      try {
+        dataSyncService.streamChangesFromPostgres(partition.watermark, partition.maxSeq, partition.index,
+            partition.count, dataSyncProperties.getChunkSize(), chunk -> enqueue(chunks, chunk, writer));
+      } catch (RuntimeException e) {
+        readFailure = e;
+      }
+      if (!writer.isDone()) {
+        enqueue(chunks, END_OF_STREAM, writer);
+      }
+      writer.join();
+      if (readFailure != null) {
+        throw readFailure;
+      }
+    } finally {
+      writerExecutor.shutdownNow();
+    }
+    log.debug("Drained synchronization partition {}, moved {} tasks.", partition.name, partition.movedCount);
   }
-}
 
+  private void writeChunks(BlockingQueue<TaskChangeBatch> chunks, SyncPartition partition) {
+    try {
+      for (TaskChangeBatch chunk = chunks.take(); chunk != END_OF_STREAM; chunk = chunks.take()) {
+        writeChunk(chunk, partition);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void writeChunk(TaskChangeBatch chunk, SyncPartition partition) {
+    List<Long> ids = chunk.getTasks().stream().map(TaskEntity::getId).toList();
+    List<Long> versions = chunk.getTasks().stream().map(TaskEntity::getVersion).toList();
+    if (partition.lease.isLost()) {
+      throw new SyncLeaseLostException("Synchronization lease with fencing token "
+          + partition.lease.getFencingToken() + " was lost, stopping " + partition.name + ".");
+    }
+    dataSyncService.saveDataToH2(chunk, partition.name, partition.lease.getFencingToken());
+    int movedCount = 0;
+    if (!ids.isEmpty()) {
+      boolean[] deleted = dataSyncService.deleteDataFromPostgres(ids, versions);
+      for (int i = 0; i < deleted.length; i++) {
+        if (deleted[i]) {
+          movedCount++;
+        } else {
+          log.debug("Task with id {} was changed in PostgreSQL while being moved, its change is applied later.",
+              ids.get(i));
+        }
+      }
+    }
+    partition.watermark = chunk.getLastSeq();
+    partition.movedCount += movedCount;
+    dataSyncService.saveWatermark(partition.name, partition.watermark, movedCount, partition.lease.getFencingToken());
+  }
+
+  /**
+   * Hands a chunk over to the writer, waiting while the pipeline is full. Fails if the writer has stopped,
+   * so the reader does not wait forever for a writer which failed.
+   */
+  private static void enqueue(BlockingQueue<TaskChangeBatch> chunks, TaskChangeBatch chunk,
+      CompletableFuture<Void> writer) {
+    try {
+      while (!chunks.offer(chunk, ENQUEUE_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+        if (writer.isDone()) {
+          throw new IllegalStateException("Synchronization writer stopped.");
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Synchronization was interrupted.", e);
+    }
+  }
+
+  /**
+   * Progress of a partition of a run, updated by its writer thread and read once the writer has completed.
+   */
+  private static final class SyncPartition {
+
+    private final String name;
+    /**
+     * Remainder of the IDs of the tasks of the partition divided by {@link #count}.
+     */
+    private final int index;
+    private final int count;
+    private final long maxSeq;
+    private final SyncLease lease;
+    private long watermark;
+    private long movedCount;
+
+    private SyncPartition(TaskSyncCheckpointEntity checkpoint, int count, SyncLease lease) {
+      this.name = checkpoint.getName();
+      this.index = DataSyncService.partitionOf(checkpoint);
+      this.count = count;
+      this.maxSeq = checkpoint.getMaxId();
+      this.lease = lease;
+      this.watermark = checkpoint.getLastId();
+    }
+  }
+}
@@ -0,0 +1,208 @@
+package com.iyalynnyi.taskmanager.job;
+
+import com.iyalynnyi.taskmanager.config.properties.DataSyncProperties;
+import com.iyalynnyi.taskmanager.dto.TaskStore;
+import com.iyalynnyi.taskmanager.service.DataSyncService;
+import com.iyalynnyi.taskmanager.service.SyncBacklog;
+import com.iyalynnyi.taskmanager.service.event.TaskStoreCircuitStateChangedEvent;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Decides when the {@link DataSyncJob} runs. A run starts as soon as the circuit of H2 closes again,
+ * follows the previous one after {@link DataSyncProperties#getInterval()}, or after the shorter
+ * {@link DataSyncProperties#getBacklogInterval()} while the backlog in PostgreSQL is large, and is deferred
+ * while the request load is heavy. A due run which found the synchronization lease held by another node
+ * stays due and is retried once the lease could have expired, so the run of a node which died is taken over.
+ * A run which failed or was skipped because H2 is unavailable stays due as well and is retried at the next
+ * check; only a completed run resets the schedule.
+ * The backlog size and the sync lag, the age of the oldest change waiting in the PostgreSQL change log,
+ * are published as metrics.
+ */
+@Slf4j
+@Component
+public class DataSyncScheduler {
+
+  static final String BACKLOG_GAUGE = "task.sync.backlog";
+  static final String LAG_GAUGE = "task.sync.lag";
+
+  private final DataSyncJob dataSyncJob;
+  private final DataSyncService dataSyncService;
+  private final DataSyncProperties properties;
+  private final TaskScheduler taskScheduler;
+  private final DoubleSupplier requestLoad;
+  private final LongSupplier clock;
+
+  private final ReentrantLock runLock = new ReentrantLock();
+  private final AtomicBoolean runRequested = new AtomicBoolean(true);
+  private final AtomicLong backlogSize = new AtomicLong();
+  private final AtomicLong lagMillis = new AtomicLong();
+  private long lastRunMillis;
+  /**
+   * Time before which a due run is not retried, because another node held the synchronization lease.
+   */
+  private long retryAtMillis;
+  private long deferredSinceMillis = -1;
+
+  /**
+   * Constructs a DataSyncScheduler measuring the request load as the share of the busier connection pool
+   * in use.
+   *
+   * @param dataSyncJob        the synchronization job
+   * @param dataSyncService    the service measuring the backlog
+   * @param properties         the synchronization settings
+   * @param taskScheduler      the scheduler a run requested by a recovery of H2 is started on
+   * @param meterRegistry      the registry the backlog metrics are published in
+   * @param h2DataSource       the connection pool of H2
+   * @param postgresDataSource the connection pool of PostgreSQL
+   */
+  @Autowired
+  public DataSyncScheduler(DataSyncJob dataSyncJob, DataSyncService dataSyncService, DataSyncProperties properties,
+      TaskScheduler taskScheduler, MeterRegistry meterRegistry,
+      @Qualifier("h2DataSource") HikariDataSource h2DataSource,
+      @Qualifier("postgresDataSource") HikariDataSource postgresDataSource) {
+    this(dataSyncJob, dataSyncService, properties, taskScheduler, meterRegistry,
+        () -> Math.max(poolUsage(h2DataSource), poolUsage(postgresDataSource)), System::currentTimeMillis);
+  }
+
+  DataSyncScheduler(DataSyncJob dataSyncJob, DataSyncService dataSyncService, DataSyncProperties properties,
+      TaskScheduler taskScheduler, MeterRegistry meterRegistry, DoubleSupplier requestLoad, LongSupplier clock) {
+    this.dataSyncJob = dataSyncJob;
+    this.dataSyncService = dataSyncService;
+    this.properties = properties;
+    this.taskScheduler = taskScheduler;
+    this.requestLoad = requestLoad;
+    this.clock = clock;
+    Gauge.builder(BACKLOG_GAUGE, backlogSize, AtomicLong::get)
+        .description("Number of changes waiting in PostgreSQL to be applied to H2")
+        .register(meterRegistry);
+    TimeGauge.builder(LAG_GAUGE, lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+        .description("Age of the oldest change waiting in PostgreSQL to be applied to H2")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Requests a run as soon as the circuit of H2 closes again, so the tasks written to PostgreSQL during the
+   * outage do not make reads fall back to PostgreSQL until the next regular run.
+   *
+   * @param event the state change of a circuit breaker
+   */
+  @EventListener
+  public void onStoreCircuitStateChanged(TaskStoreCircuitStateChangedEvent event) {
+    if (event.getStore() == TaskStore.H2 && event.getToState() == CircuitBreaker.State.CLOSED) {
+      log.info("H2 is available again, requesting synchronization.");
+      runRequested.set(true);
+      taskScheduler.schedule(this::checkAndRun, Instant.now());
+    }
+  }
+
+  /**
+   * Refreshes the backlog metrics and runs the synchronization when it is due and the request load allows it.
+   * A check arriving while a run is in progress is skipped.
+   */
+  @Scheduled(fixedDelayString = "${task.sync.check-interval:PT10S}")
+  public void checkAndRun() {
+    if (!runLock.tryLock()) {
+      return;
+    }
+    try {
+      SyncBacklog backlog = measureBacklog();
+      if (backlog == null || !isDue(backlog) || isDeferred()) {
+        return;
+      }
+      try {
+        SyncOutcome outcome = dataSyncJob.synchronize();
+        if (outcome == SyncOutcome.COMPLETED) {
+          runRequested.set(false);
+          lastRunMillis = clock.getAsLong();
+        } else if (outcome == SyncOutcome.LEASE_HELD_ELSEWHERE) {
+          retryAtMillis = clock.getAsLong() + properties.getLeaseTtl().toMillis();
+        }
+      } finally {
+        measureBacklog();
+      }
+    } finally {
+      runLock.unlock();
+    }
+  }
+
+  private SyncBacklog measureBacklog() {
+    try {
+      SyncBacklog backlog = dataSyncService.measureBacklog();
+      backlogSize.set(backlog.getSize());
+      lagMillis.set(backlog.getLagMillis());
+      return backlog;
+    } catch (DataAccessException e) {
+      log.warn("Could not measure the synchronization backlog, PostgreSQL is not available.", e);
+      return null;
+    }
+  }
+
+  private boolean isDue(SyncBacklog backlog) {
+    if (backlog.getSize() == 0) {
+      runRequested.set(false);
+      return false;
+    }
+    long now = clock.getAsLong();
+    if (now < retryAtMillis) {
+      return false;
+    }
+    if (runRequested.get()) {
+      return true;
+    }
+    long interval = (backlog.getSize() >= properties.getBacklogThreshold()
+        ? properties.getBacklogInterval() : properties.getInterval()).toMillis();
+    return now - lastRunMillis >= interval;
+  }
+
+  /**
+   * Defers a due run while the request load is above the threshold, but not longer than
+   * {@link DataSyncProperties#getMaxDeferral()}.
+   */
+  private boolean isDeferred() {
+    long now = clock.getAsLong();
+    if (requestLoad.getAsDouble() < properties.getLoadThreshold()) {
+      deferredSinceMillis = -1;
+      return false;
+    }
+    if (deferredSinceMillis < 0) {
+      deferredSinceMillis = now;
+    }
+    if (now - deferredSinceMillis >= properties.getMaxDeferral().toMillis()) {
+      log.warn("Running synchronization under heavy request load, it was deferred for {} ms.", now - deferredSinceMillis);
+      deferredSinceMillis = -1;
+      return false;
+    }
+    log.debug("Deferring synchronization because of heavy request load.");
+    return true;
+  }
+
+  private static double poolUsage(HikariDataSource dataSource) {
+    HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+    return pool == null ? 0 : (double) pool.getActiveConnections() / dataSource.getMaximumPoolSize();
+  }
+}
@@ -0,0 +1,19 @@
+package com.iyalynnyi.taskmanager.job;
+
+/**
+ * Outcome of a {@link DataSyncJob} run, telling the {@link DataSyncScheduler} whether the run is still due.
+ */
+public enum SyncOutcome {
+  /**
+   * The changes up to the horizon were applied to H2.
+   */
+  COMPLETED,
+  /**
+   * Another node holds the synchronization lease, nothing was applied.
+   */
+  LEASE_HELD_ELSEWHERE,
+  /**
+   * H2 is not available, nothing was applied.
+   */
+  H2_UNAVAILABLE
+}
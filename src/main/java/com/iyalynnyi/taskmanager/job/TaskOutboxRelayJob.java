@@ -0,0 +1,113 @@
+package com.iyalynnyi.taskmanager.job;
+
+import com.iyalynnyi.taskmanager.config.properties.DataSyncProperties;
+import com.iyalynnyi.taskmanager.dto.TaskStore;
+import com.iyalynnyi.taskmanager.service.DataSyncLeaseService;
+import com.iyalynnyi.taskmanager.service.SyncLease;
+import com.iyalynnyi.taskmanager.service.TaskOutboxService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+public class TaskOutboxRelayJob {
+
+  static final String LEASE_NAME = "task-outbox-relay";
+
+  /**
+   * Tasks only move from PostgreSQL to H2, so the outbox of PostgreSQL holds the older events and goes first.
+   */
+  private static final List<TaskStore> RELAY_ORDER = List.of(TaskStore.POSTGRES, TaskStore.H2);
+
+  private final TaskOutboxService taskOutboxService;
+  private final DataSyncLeaseService dataSyncLeaseService;
+  private final Map<TaskStore, SyncLease> leases = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService leaseRenewer = Executors.newSingleThreadScheduledExecutor(
+      runnable -> new Thread(runnable, "task-outbox-relay-lease"));
+
+  /**
+   * Constructs a TaskOutboxRelayJob, whose leases are renewed three times per time to live for as long as
+   * they are held.
+   *
+   * @param taskOutboxService    the outbox relayed
+   * @param dataSyncLeaseService the service taking and renewing the relay leases
+   * @param dataSyncProperties   the settings holding the time to live of the leases
+   */
+  public TaskOutboxRelayJob(TaskOutboxService taskOutboxService, DataSyncLeaseService dataSyncLeaseService,
+      DataSyncProperties dataSyncProperties) {
+    this.taskOutboxService = taskOutboxService;
+    this.dataSyncLeaseService = dataSyncLeaseService;
+    long renewalMillis = dataSyncProperties.getLeaseTtl().toMillis() / 3;
+    leaseRenewer.scheduleAtFixedRate(this::renewLeases, renewalMillis, renewalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Drains the outbox of both databases to Kafka and purges the messages sent longer than the retention ago,
+   * every {@code task.outbox.poll-interval}. The outbox of a database is relayed by the node holding the relay
+   * lease in that database only, so no two nodes publish it concurrently. A lease is kept across runs until it
+   * is lost. A database which cannot be relayed does not hold up the other, its messages stay in its outbox
+   * until a later run. The scheduler pool has a thread per job ({@code spring.task.scheduling.pool.size}),
+   * so a long synchronization or reconciliation does not delay it.
+   */
+  @Scheduled(fixedDelayString = "${task.outbox.poll-interval:PT1S}")
+  public void relay() {
+    for (TaskStore store : RELAY_ORDER) {
+      Optional<SyncLease> lease = holdLease(store);
+      if (lease.isEmpty()) {
+        continue;
+      }
+      try {
+        taskOutboxService.relay(store, lease.get());
+        taskOutboxService.purge(store);
+      } catch (Exception e) {
+        log.warn("Could not relay the task outbox of {}: {}", store, e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Stops renewing the leases and releases them, so another node takes the relay over right away.
+   */
+  @PreDestroy
+  public void stop() {
+    leaseRenewer.shutdownNow();
+    leases.values().forEach(dataSyncLeaseService::release);
+    leases.clear();
+  }
+
+  private Optional<SyncLease> holdLease(TaskStore store) {
+    SyncLease held = leases.get(store);
+    if (held != null && !held.isLost()) {
+      return Optional.of(held);
+    }
+    leases.remove(store);
+    try {
+      Optional<SyncLease> acquired = dataSyncLeaseService.tryAcquire(store, LEASE_NAME);
+      acquired.ifPresent(lease -> leases.put(store, lease));
+      return acquired;
+    } catch (DataAccessException e) {
+      log.warn("Could not acquire the outbox relay lease in {}: {}", store, e.getMessage());
+      return Optional.empty();
+    }
+  }
+
+  private void renewLeases() {
+    for (SyncLease lease : leases.values()) {
+      try {
+        dataSyncLeaseService.renew(lease);
+      } catch (RuntimeException e) {
+        log.warn("Could not renew the outbox relay lease in {}: {}", lease.getStore(), e.getMessage());
+      }
+    }
+  }
+}
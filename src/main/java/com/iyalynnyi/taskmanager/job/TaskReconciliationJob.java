@@ -0,0 +1,31 @@
+package com.iyalynnyi.taskmanager.job;
+
+import com.iyalynnyi.taskmanager.service.DataSyncService;
+import com.iyalynnyi.taskmanager.service.TaskReconciliationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TaskReconciliationJob {
+
+  private final TaskReconciliationService taskReconciliationService;
+  private final DataSyncService dataSyncService;
+
+  /**
+   * Reconciles H2 and PostgreSQL every {@code task.reconciliation.interval}, unless H2 is unavailable, since the
+   * tasks stored in both databases are then being written to PostgreSQL only.
+   */
+  @Scheduled(initialDelayString = "${task.reconciliation.interval:PT1H}",
+      fixedDelayString = "${task.reconciliation.interval:PT1H}")
+  public void reconcile() {
+    if (!dataSyncService.isH2RepositoryAvailable()) {
+      log.warn("H2 repository not available. Reconciliation cancelled.");
+      return;
+    }
+    taskReconciliationService.reconcile();
+  }
+}
@@ -0,0 +1,136 @@
+package com.iyalynnyi.taskmanager.service;
+
+import com.iyalynnyi.taskmanager.config.properties.DataSyncProperties;
+import com.iyalynnyi.taskmanager.dao.repository.TaskSyncLeaseRepository;
+import com.iyalynnyi.taskmanager.dao.repository.h2.H2TaskSyncLeaseRepository;
+import com.iyalynnyi.taskmanager.dao.repository.postgres.PostgresTaskSyncLeaseRepository;
+import com.iyalynnyi.taskmanager.dto.TaskStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Elects the node of the cluster which runs the synchronization from PostgreSQL to H2, or the reconciliation
+ * of both databases, through a lease row in PostgreSQL. The relay of the outbox of each database is elected
+ * the same way through a lease row in that database, so the relay of H2 does not depend on PostgreSQL. A lease
+ * expires unless its holder renews it, so another node takes over soon after the holder dies.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DataSyncLeaseService {
+
+  static final String LEASE_NAME = DataSyncService.CHECKPOINT_NAME;
+
+  private final PostgresTaskSyncLeaseRepository postgresTaskSyncLeaseRepository;
+  private final H2TaskSyncLeaseRepository h2TaskSyncLeaseRepository;
+  private final DataSyncProperties dataSyncProperties;
+  private final String owner = UUID.randomUUID().toString();
+
+  /**
+   * Runs the action while holding the synchronization lease, which is renewed three times per time to live
+   * in the background and released once the action has completed or failed.
+   *
+   * @param action the action, receiving the lease to check whether it was lost meanwhile
+   * @return false if another node holds the lease and the action was not run, true otherwise
+   */
+  public boolean runWithLease(Consumer<SyncLease> action) {
+    Optional<SyncLease> acquired = tryAcquire();
+    if (acquired.isEmpty()) {
+      return false;
+    }
+    SyncLease lease = acquired.get();
+    long renewalMillis = dataSyncProperties.getLeaseTtl().toMillis() / 3;
+    ScheduledExecutorService leaseRenewer = Executors.newSingleThreadScheduledExecutor(
+        runnable -> new Thread(runnable, "task-sync-lease"));
+    try {
+      leaseRenewer.scheduleAtFixedRate(() -> renew(lease), renewalMillis, renewalMillis, TimeUnit.MILLISECONDS);
+      action.accept(lease);
+    } finally {
+      leaseRenewer.shutdownNow();
+      release(lease);
+    }
+    return true;
+  }
+
+  /**
+   * Takes the synchronization lease if no other node holds it.
+   *
+   * @return the lease with a fencing token higher than that of any previous holder, empty if another node
+   *     holds the lease
+   */
+  public Optional<SyncLease> tryAcquire() {
+    return tryAcquire(TaskStore.POSTGRES, LEASE_NAME);
+  }
+
+  /**
+   * Takes the named lease held in a database if no other node holds it.
+   *
+   * @param store the database holding the lease
+   * @param name  the name of the lease
+   * @return the lease with a fencing token higher than that of any previous holder, empty if another node
+   *     holds the lease
+   */
+  public Optional<SyncLease> tryAcquire(TaskStore store, String name) {
+    Optional<SyncLease> lease = repository(store)
+        .acquire(name, owner, dataSyncProperties.getLeaseTtl().toMillis())
+        .map(fencingToken -> new SyncLease(store, name, owner, fencingToken));
+    lease.ifPresent(acquired -> log.info("Acquired lease {} in {} with fencing token {}.", name, store,
+        acquired.getFencingToken()));
+    return lease;
+  }
+
+  /**
+   * Extends the lease. A lease taken over by another node is marked as lost, as is a lease which could not
+   * be renewed for its whole time to live.
+   *
+   * @param lease the lease held by this node
+   * @return true if the lease is still held
+   */
+  public boolean renew(SyncLease lease) {
+    long ttlMillis = dataSyncProperties.getLeaseTtl().toMillis();
+    try {
+      if (repository(lease.getStore()).renew(lease.getName(), lease.getOwner(), lease.getFencingToken(), ttlMillis)) {
+        lease.markRenewed();
+        return true;
+      }
+      log.warn("Lease {} with fencing token {} was taken over by another node.", lease.getName(),
+          lease.getFencingToken());
+    } catch (DataAccessException e) {
+      if (TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lease.getRenewedAtNanos()) < ttlMillis) {
+        log.warn("Could not renew lease {} with fencing token {}, retrying.", lease.getName(),
+            lease.getFencingToken(), e);
+        return true;
+      }
+      log.warn("Could not renew lease {} with fencing token {} before it expired.", lease.getName(),
+          lease.getFencingToken(), e);
+    }
+    lease.markLost();
+    return false;
+  }
+
+  /**
+   * Releases the lease, so another node can take it right away.
+   *
+   * @param lease the lease held by this node
+   */
+  public void release(SyncLease lease) {
+    try {
+      repository(lease.getStore()).release(lease.getName(), lease.getOwner(), lease.getFencingToken());
+    } catch (DataAccessException e) {
+      log.warn("Could not release lease {} with fencing token {}, it expires on its own.", lease.getName(),
+          lease.getFencingToken(), e);
+    }
+  }
+
+  private TaskSyncLeaseRepository repository(TaskStore store) {
+    return store == TaskStore.H2 ? h2TaskSyncLeaseRepository : postgresTaskSyncLeaseRepository;
+  }
+}
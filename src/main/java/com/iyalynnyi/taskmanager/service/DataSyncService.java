@@ -1,57 +1,357 @@
 package com.iyalynnyi.taskmanager.service;
 
+import com.iyalynnyi.taskmanager.dao.model.TaskChange;
 import com.iyalynnyi.taskmanager.dao.model.TaskEntity;
+import com.iyalynnyi.taskmanager.dao.model.TaskSyncCheckpointEntity;
+import com.iyalynnyi.taskmanager.dao.repository.h2.H2TaskJdbcRepository;
 import com.iyalynnyi.taskmanager.dao.repository.h2.H2TaskRepository;
-import com.iyalynnyi.taskmanager.dao.repository.postgres.PostgresTaskRepository;
+import com.iyalynnyi.taskmanager.dao.repository.h2.H2TaskSyncCheckpointRepository;
+import com.iyalynnyi.taskmanager.dao.repository.postgres.PostgresTaskJdbcRepository;
+import com.iyalynnyi.taskmanager.dto.TaskStore;
+import com.iyalynnyi.taskmanager.exception.SyncLeaseLostException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class DataSyncService {
 
-  private final PostgresTaskRepository postgresTaskRepository;
+  private final PostgresTaskJdbcRepository postgresTaskJdbcRepository;
   private final H2TaskRepository h2TaskRepository;
+  private final H2TaskJdbcRepository h2TaskJdbcRepository;
+  private final H2TaskSyncCheckpointRepository h2TaskSyncCheckpointRepository;
+  private final TaskIdAllocator taskIdAllocator;
+  private final TaskLocationDirectory taskLocationDirectory;
+
+  static final String CHECKPOINT_NAME = "postgres-to-h2";
+  static final String PARTITION_NAME_PREFIX = CHECKPOINT_NAME + "/";
+  private static final long IN_FLIGHT_POLL_MILLIS = 50;
 
   /**
-   * Fetches all task entities from the PostgreSQL database.
+   * Reads the watermark of the synchronization: every change logged in PostgreSQL up to it has already been
+   * applied to H2.
    *
-   * @return a list of task entities fetched from PostgreSQL
+   * @return the position of the last applied change in the change log, 0 if no run has completed yet
    */
-  @Transactional(transactionManager = "postgresTransactionManager")
-  public List<TaskEntity> fetchDataFromPostgres() {
-    log.trace("Fetching data from PostgreSQL...");
-    List<TaskEntity> tasks = postgresTaskRepository.findAll();
-    log.trace("Fetched {} tasks from PostgreSQL.", tasks.size());
-    return tasks;
+  @Transactional(transactionManager = "h2TransactionManager", readOnly = true)
+  public long loadWatermark() {
+    return h2TaskSyncCheckpointRepository.findById(CHECKPOINT_NAME)
+        .map(TaskSyncCheckpointEntity::getLastId)
+        .orElse(0L);
+  }
+
+  /**
+   * Claims the checkpoints of the partitions of an unfinished run, left behind when a run was interrupted,
+   * for the holder of the given fencing token.
+   *
+   * @param fencingToken the fencing token of the synchronization lease held by this node
+   * @return the checkpoints of the partitions in ascending order of range, empty if the last run finished
+   * @throws SyncLeaseLostException if a node with a newer fencing token has written a checkpoint
+   */
+  @Transactional(transactionManager = "h2TransactionManager")
+  public List<TaskSyncCheckpointEntity> claimPartitions(long fencingToken) {
+    List<TaskSyncCheckpointEntity> partitions =
+        h2TaskSyncCheckpointRepository.findByNameStartingWithOrderByMaxId(PARTITION_NAME_PREFIX);
+    partitions.forEach(partition -> checkFencingToken(partition, fencingToken));
+    return partitions;
+  }
+
+  /**
+   * Persists the checkpoints of the partitions of a new run before any change is applied, so an interrupted run
+   * is resumed with the same partitions. The partitions share the range of the change log and split the tasks
+   * by ID.
+   *
+   * @param partitions   the number of partitions
+   * @param afterSeq     the watermark
+   * @param maxSeq       the position of the last change the run applies
+   * @param fencingToken the fencing token of the synchronization lease held by this node
+   * @return the checkpoints of the partitions
+   * @throws SyncLeaseLostException if a node with a newer fencing token has written a checkpoint
+   */
+  @Transactional(transactionManager = "h2TransactionManager")
+  public List<TaskSyncCheckpointEntity> startPartitions(int partitions, long afterSeq, long maxSeq, long fencingToken) {
+    LocalDateTime now = LocalDateTime.now();
+    List<TaskSyncCheckpointEntity> checkpoints = new ArrayList<>(partitions);
+    for (int i = 0; i < partitions; i++) {
+      TaskSyncCheckpointEntity checkpoint = fence(PARTITION_NAME_PREFIX + i, fencingToken);
+      checkpoint.setLastId(afterSeq);
+      checkpoint.setMaxId(maxSeq);
+      checkpoint.setMovedCount(0);
+      checkpoint.setUpdatedDate(now);
+      checkpoints.add(checkpoint);
+    }
+    return h2TaskSyncCheckpointRepository.saveAll(checkpoints);
+  }
+
+  /**
+   * Returns the partition of the tasks a partition checkpoint stands for.
+   *
+   * @param checkpoint the checkpoint of a partition
+   * @return the remainder of the IDs of the tasks of the partition divided by the number of partitions
+   */
+  public static int partitionOf(TaskSyncCheckpointEntity checkpoint) {
+    return Integer.parseInt(checkpoint.getName().substring(PARTITION_NAME_PREFIX.length()));
+  }
+
+  /**
+   * Persists the progress of a partition after a chunk has been moved.
+   *
+   * @param name         the name of the partition checkpoint
+   * @param lastId       the position up to which every change of the partition has been applied to H2
+   * @param movedCount   the number of tasks moved by the chunk
+   * @param fencingToken the fencing token of the synchronization lease held by this node
+   * @throws SyncLeaseLostException if a node with a newer fencing token has written the checkpoint
+   */
+  @Transactional(transactionManager = "h2TransactionManager")
+  public void saveWatermark(String name, long lastId, int movedCount, long fencingToken) {
+    TaskSyncCheckpointEntity checkpoint = fence(name, fencingToken);
+    checkpoint.setLastId(lastId);
+    checkpoint.setMovedCount(checkpoint.getMovedCount() + movedCount);
+    checkpoint.setUpdatedDate(LocalDateTime.now());
+    h2TaskSyncCheckpointRepository.save(checkpoint);
+    log.trace("Saved synchronization watermark {} of {}.", lastId, name);
+  }
+
+  /**
+   * Finishes a run: advances the watermark of the synchronization, adds the tasks moved by all partitions
+   * to its count and removes the partition checkpoints, in one transaction.
+   *
+   * @param watermark    the position up to which every change has been applied to H2
+   * @param fencingToken the fencing token of the synchronization lease held by this node
+   * @throws SyncLeaseLostException if a node with a newer fencing token has written a checkpoint
+   */
+  @Transactional(transactionManager = "h2TransactionManager")
+  public void completePartitions(long watermark, long fencingToken) {
+    TaskSyncCheckpointEntity checkpoint = fence(CHECKPOINT_NAME, fencingToken);
+    List<TaskSyncCheckpointEntity> partitions = claimPartitions(fencingToken);
+    checkpoint.setLastId(watermark);
+    checkpoint.setMovedCount(checkpoint.getMovedCount()
+        + partitions.stream().mapToLong(TaskSyncCheckpointEntity::getMovedCount).sum());
+    checkpoint.setUpdatedDate(LocalDateTime.now());
+    h2TaskSyncCheckpointRepository.save(checkpoint);
+    h2TaskSyncCheckpointRepository.deleteAllInBatch(partitions);
+    log.trace("Saved synchronization watermark {}.", watermark);
+  }
+
+  /**
+   * Locks a checkpoint for the rest of the transaction and stamps it with the fencing token, after checking
+   * that no node with a newer fencing token has written it.
+   */
+  private TaskSyncCheckpointEntity fence(String name, long fencingToken) {
+    TaskSyncCheckpointEntity checkpoint = h2TaskSyncCheckpointRepository.findForUpdateByName(name)
+        .orElseGet(() -> TaskSyncCheckpointEntity.builder().name(name).build());
+    checkFencingToken(checkpoint, fencingToken);
+    return checkpoint;
+  }
+
+  private static void checkFencingToken(TaskSyncCheckpointEntity checkpoint, long fencingToken) {
+    if (checkpoint.getFencingToken() > fencingToken) {
+      throw new SyncLeaseLostException("Synchronization checkpoint " + checkpoint.getName()
+          + " was written with the newer fencing token " + checkpoint.getFencingToken() + ".");
+    }
+    checkpoint.setFencingToken(fencingToken);
+  }
+
+  /**
+   * Finds the position of the last change in the PostgreSQL change log a run may apply. A position is handed
+   * out when a change is logged, not when its transaction commits, so a transaction still in flight may hold
+   * a position below changes already visible. The last position handed out is read first, then the next
+   * transaction ID; once every transaction below that ID has completed, no change up to the position can
+   * still commit, so a watermark past it skips nothing. A transaction which is still running after the
+   * given time leaves the horizon where it is, and the next run tries again.
+   *
+   * @param inFlightWait the longest time waited for the transactions in flight to complete
+   * @return the position of the last change which cannot be committed later, 0 if there is none or the
+   *     transactions in flight did not complete in time
+   */
+  public long findChangeHorizon(Duration inFlightWait) {
+    long lastSeq = postgresTaskJdbcRepository.findLastAllocatedChangeSeq();
+    long nextTransactionId = postgresTaskJdbcRepository.findNextTransactionId();
+    long deadline = System.nanoTime() + inFlightWait.toNanos();
+    while (postgresTaskJdbcRepository.findOldestRunningTransactionId() < nextTransactionId) {
+      if (System.nanoTime() >= deadline) {
+        log.info("PostgreSQL transactions in flight for over {}, leaving their changes for the next run.",
+            inFlightWait);
+        return 0;
+      }
+      try {
+        Thread.sleep(IN_FLIGHT_POLL_MILLIS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return 0;
+      }
+    }
+    return lastSeq;
   }
 
   /**
-   * Saves a list of task entities to the H2 database.
-   * The IDs of the tasks will be set to null to ensure new entries are created.
+   * Streams the changes of one partition past its checkpoint from the PostgreSQL change log in chunks, in log
+   * order, through a forward-only cursor, and hands over the net effect of every chunk: the last change of
+   * a task wins, and the current row of every inserted or updated task is read in the same transaction.
+   * Only a task whose last change in the chunk is a delete is handed over as deleted. An inserted or updated task
+   * without a row is skipped: either it was already moved to H2 by an earlier run, whose delete is not logged,
+   * or it was deleted later, and that delete is applied with a later chunk. The read-only
+   * transaction stays open until the last chunk has been handed over, so a consumer blocking on a full
+   * pipeline holds the cursor without reading further rows.
    *
-   * @param tasks the list of task entities to save in H2
+   * @param afterSeq   the checkpoint of the partition
+   * @param maxSeq     the position of the last change to read
+   * @param partition  the partition of the tasks
+   * @param partitions the number of partitions
+   * @param chunkSize  the number of changes per chunk
+   * @param consumer   the consumer receiving the net effect of each chunk
+   */
+  @Transactional(transactionManager = "postgresTransactionManager", readOnly = true)
+  public void streamChangesFromPostgres(long afterSeq, long maxSeq, int partition, int partitions, int chunkSize,
+      Consumer<TaskChangeBatch> consumer) {
+    log.trace("Streaming changes of partition {} after {} from PostgreSQL in chunks of {}...", partition, afterSeq,
+        chunkSize);
+    postgresTaskJdbcRepository.forEachChangeChunk(afterSeq, maxSeq, partition, partitions, chunkSize,
+        changes -> consumer.accept(toBatch(changes)));
+    log.trace("Finished streaming changes of partition {} from PostgreSQL.", partition);
+  }
+
+  private TaskChangeBatch toBatch(List<TaskChange> changes) {
+    Map<Long, Boolean> deletedById = new LinkedHashMap<>();
+    for (TaskChange change : changes) {
+      deletedById.put(change.getTaskId(), change.isDelete());
+    }
+    List<Long> changedIds = deletedById.entrySet().stream()
+        .filter(entry -> !entry.getValue())
+        .map(Map.Entry::getKey)
+        .toList();
+    List<TaskEntity> tasks = postgresTaskJdbcRepository.findAllById(changedIds);
+    List<Long> deletedIds = deletedById.entrySet().stream()
+        .filter(Map.Entry::getValue)
+        .map(Map.Entry::getKey)
+        .toList();
+    return new TaskChangeBatch(changes.get(changes.size() - 1).getSeq(), tasks, deletedIds);
+  }
+
+  /**
+   * Applies the net effect of a chunk of changes to the H2 database in one transaction.
+   * Changed tasks keep their IDs and versions and are written by multi-row MERGE statements: tasks already
+   * present in H2 (e.g. left over by an interrupted synchronization) are overwritten unless the H2 copy has
+   * the same or a higher version, all other tasks are inserted, so a chunk applied twice leaves H2 unchanged.
+   * Tasks written before IDs were allocated by the application get a new ID, since their sequence IDs may clash
+   * with H2 rows. The new ID is recorded in H2 in the same transaction and reused whenever the task is applied
+   * again, so a retried chunk or a task updated in PostgreSQL while being moved is not copied twice.
+   * Deleted tasks are deleted from H2 too, those with a sequence ID under the ID recorded for them, if any.
+   * The {@link TaskLocationDirectory} is updated accordingly.
+   * No entity is loaded into a persistence context, so the memory used does not grow with the backlog.
+   * The checkpoint of the partition stays locked until the chunk is committed, so the chunk is only written
+   * while no node with a newer fencing token has taken the partition over.
+   *
+   * @param batch         the net effect of a chunk of changes
+   * @param partitionName the name of the checkpoint of the partition the chunk belongs to
+   * @param fencingToken  the fencing token of the synchronization lease held by this node
+   * @throws SyncLeaseLostException if a node with a newer fencing token has written the checkpoint
    */
   @Transactional(transactionManager = "h2TransactionManager")
-  public void saveDataToH2(List<TaskEntity> tasks) {
+  public void saveDataToH2(TaskChangeBatch batch, String partitionName, long fencingToken) {
+    List<TaskEntity> tasks = batch.getTasks();
     log.trace("Saving {} tasks to H2...", tasks.size());
-    tasks.forEach(task -> task.setId(null));
-    h2TaskRepository.saveAll(tasks);
-    log.trace("Saved {} tasks to H2.", tasks.size());
+    fence(partitionName, fencingToken);
+    assignLegacyIds(tasks);
+    int upserted = h2TaskJdbcRepository.upsertAll(tasks);
+    Map<Long, Long> deletedLegacyIds = h2TaskJdbcRepository.findLegacyIdMappings(batch.getDeletedIds().stream()
+        .filter(id -> !taskIdAllocator.isAllocated(id))
+        .toList());
+    List<Long> deletedIds = batch.getDeletedIds().stream()
+        .map(id -> taskIdAllocator.isAllocated(id) ? id : deletedLegacyIds.get(id))
+        .filter(Objects::nonNull)
+        .toList();
+    if (!deletedIds.isEmpty()) {
+      h2TaskJdbcRepository.deleteAllById(deletedIds);
+      deletedIds.forEach(taskLocationDirectory::remove);
+    }
+    taskLocationDirectory.recordAll(tasks.stream().map(TaskEntity::getId).toList(), TaskStore.H2);
+    log.trace("Inserted or overwrote {}, skipped {} up to date and deleted {} tasks in H2.", upserted,
+        tasks.size() - upserted, deletedIds.size());
   }
 
   /**
-   * Deletes all task entities from the PostgreSQL database.
+   * Gives every task with a sequence ID the ID recorded for it in H2, or allocates a new one and records it.
+   */
+  private void assignLegacyIds(List<TaskEntity> tasks) {
+    List<Long> legacyIds = tasks.stream()
+        .map(TaskEntity::getId)
+        .filter(id -> !taskIdAllocator.isAllocated(id))
+        .toList();
+    if (legacyIds.isEmpty()) {
+      return;
+    }
+    Map<Long, Long> taskIds = h2TaskJdbcRepository.findLegacyIdMappings(legacyIds);
+    Map<Long, Long> newTaskIds = new LinkedHashMap<>();
+    for (TaskEntity task : tasks) {
+      if (!taskIdAllocator.isAllocated(task.getId())) {
+        Long taskId = taskIds.get(task.getId());
+        if (taskId == null) {
+          taskId = taskIdAllocator.nextId();
+          newTaskIds.put(task.getId(), taskId);
+        }
+        task.setId(taskId);
+      }
+    }
+    if (!newTaskIds.isEmpty()) {
+      log.debug("Recording new IDs of {} tasks with sequence IDs moved to H2.", newTaskIds.size());
+      h2TaskJdbcRepository.insertLegacyIdMappings(newTaskIds);
+    }
+  }
+
+  /**
+   * Deletes the moved task entities from the PostgreSQL database, without logging the deletes as changes.
+   * A task updated in PostgreSQL after it was fetched keeps its row, and its update is applied with the rest
+   * of the change log.
+   *
+   * @param ids      the IDs the tasks had in PostgreSQL
+   * @param versions the versions the tasks had when they were fetched
+   * @return for every ID, whether the task was deleted
+   */
+  @Transactional(transactionManager = "postgresTransactionManager")
+  public boolean[] deleteDataFromPostgres(List<Long> ids, List<Long> versions) {
+    log.trace("Deleting {} moved tasks from PostgreSQL...", ids.size());
+    postgresTaskJdbcRepository.suppressChangeLog();
+    int[] counts = postgresTaskJdbcRepository.deleteAllByIdAndVersion(ids, versions);
+    boolean[] deleted = new boolean[counts.length];
+    for (int i = 0; i < counts.length; i++) {
+      deleted[i] = counts[i] > 0;
+    }
+    log.trace("Deleted moved tasks from PostgreSQL.");
+    return deleted;
+  }
+
+  /**
+   * Removes the changes applied by a completed run from the PostgreSQL change log.
+   *
+   * @param watermark the position up to which every change has been applied to H2
    */
   @Transactional(transactionManager = "postgresTransactionManager")
-  public void deleteDataFromPostgres() {
-    log.trace("Deleting all data from PostgreSQL...");
-    postgresTaskRepository.deleteAll();
-    log.trace("All tasks deleted from PostgreSQL.");
+  public void purgeChanges(long watermark) {
+    int purged = postgresTaskJdbcRepository.deleteChangesUpTo(watermark);
+    log.trace("Purged {} applied changes from the change log.", purged);
+  }
+
+  /**
+   * Measures the backlog of the synchronization: the changes logged in PostgreSQL and not yet purged.
+   *
+   * @return the number of changes and the age of the oldest one
+   */
+  @Transactional(transactionManager = "postgresTransactionManager", readOnly = true)
+  public SyncBacklog measureBacklog() {
+    return new SyncBacklog(postgresTaskJdbcRepository.countChanges(),
+        postgresTaskJdbcRepository.findOldestChangeAgeMillis());
   }
 
   /**
@@ -0,0 +1,264 @@
+package com.iyalynnyi.taskmanager.service;
+
+import com.iyalynnyi.taskmanager.config.properties.TaskStoreReadProperties;
+import com.iyalynnyi.taskmanager.dto.ReadStrategy;
+import com.iyalynnyi.taskmanager.dto.TaskStore;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+import jakarta.annotation.PreDestroy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs lookups against the primary and the failover database according to a {@link ReadStrategy}.
+ * The hedge delay follows the configured percentile of the recently measured primary lookup latencies,
+ * so PostgreSQL is only queried early for the slowest primary lookups.
+ */
+@Slf4j
+@Service
+public class HedgedReadService {
+
+  static final String PRIMARY_READ_TIMER = "task.store.read.primary";
+
+  private final TaskStoreReadProperties properties;
+  private final Executor executor;
+  private final Timer primaryReadTimer;
+
+  /**
+   * Constructs a HedgedReadService running the lookups on its own bounded thread pool. When the pool and its
+   * queue are full, a hedged or parallel read queries the databases one after the other on the calling thread
+   * instead of hedging, and a fetch of a listing fails, so a saturated pool never runs extra queries on the
+   * request threads.
+   *
+   * @param properties    the read settings
+   * @param meterRegistry the registry the primary lookup latencies are recorded in
+   */
+  @Autowired
+  public HedgedReadService(TaskStoreReadProperties properties, MeterRegistry meterRegistry) {
+    this(properties, newReadExecutor(properties.getThreads()), meterRegistry);
+  }
+
+  HedgedReadService(TaskStoreReadProperties properties, Executor executor, MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.executor = executor;
+    this.primaryReadTimer = Timer.builder(PRIMARY_READ_TIMER)
+        .description("Latency of lookups by ID in the primary database")
+        .publishPercentiles(properties.getHedgePercentile())
+        .register(meterRegistry);
+  }
+
+  /**
+   * Returns the strategy used when the caller does not choose one.
+   *
+   * @return the configured read strategy
+   */
+  public ReadStrategy getDefaultStrategy() {
+    return properties.getStrategy();
+  }
+
+  /**
+   * Reads a value using the configured strategy.
+   *
+   * @param primary   the lookup in the primary database
+   * @param secondary the lookup in the failover database
+   * @param <T>       the type of the value
+   * @return the first value found, or empty if neither database has it
+   */
+  public <T> Optional<T> read(Supplier<Optional<T>> primary, Supplier<Optional<T>> secondary) {
+    return read(primary, secondary, properties.getStrategy());
+  }
+
+  /**
+   * Reads a value using the given strategy. A failure of the primary lookup is treated as a miss,
+   * a failure of the secondary lookup is rethrown unless the primary lookup found the value.
+   *
+   * @param primary   the lookup in the primary database
+   * @param secondary the lookup in the failover database
+   * @param strategy  how the two databases are queried
+   * @param <T>       the type of the value
+   * @return the first value found, or empty if neither database has it
+   */
+  public <T> Optional<T> read(Supplier<Optional<T>> primary, Supplier<Optional<T>> secondary, ReadStrategy strategy) {
+    Supplier<Optional<T>> timedPrimary = () -> primaryReadTimer.record(primary);
+    return switch (strategy) {
+      case SEQUENTIAL -> readSequentially(timedPrimary, secondary);
+      case HEDGED -> readHedged(timedPrimary, secondary);
+      case PARALLEL -> readInParallel(timedPrimary, secondary);
+    };
+  }
+
+  /**
+   * Starts a read from one database on the read thread pool. The returned future completes exceptionally
+   * with a {@link TimeoutException} if the database has not answered within its fetch timeout, which the read
+   * should also apply to its queries (see {@link #fetchTimeout(TaskStore)}) so they are cancelled in the
+   * database, or with a {@link RejectedExecutionException} if the pool is saturated.
+   *
+   * @param read  the read to run
+   * @param store the database the read queries
+   * @param <T>   the type of the result
+   * @return the future result of the read
+   */
+  public <T> CompletableFuture<T> readAsync(Supplier<T> read, TaskStore store) {
+    CompletableFuture<T> result = submit(read);
+    if (result == null) {
+      return CompletableFuture.failedFuture(new RejectedExecutionException("The read thread pool is saturated."));
+    }
+    return result.orTimeout(fetchTimeout(store).toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Returns the time a listing waits for a database.
+   *
+   * @param store the database
+   * @return the fetch timeout of the database
+   */
+  public Duration fetchTimeout(TaskStore store) {
+    return store == TaskStore.H2 ? properties.getH2FetchTimeout() : properties.getPostgresFetchTimeout();
+  }
+
+  /**
+   * Returns the delay after which a hedged read queries the failover database, i.e. the configured percentile
+   * of the recent primary lookup latencies bounded by the minimum and maximum hedge delay.
+   *
+   * @return the hedge delay in milliseconds
+   */
+  public long hedgeDelayMillis() {
+    double delay = properties.getInitialHedgeDelay().toMillis();
+    if (primaryReadTimer.count() > 0) {
+      for (ValueAtPercentile percentile : primaryReadTimer.takeSnapshot().percentileValues()) {
+        if (!Double.isNaN(percentile.value())) {
+          delay = percentile.value(TimeUnit.MILLISECONDS);
+        }
+      }
+    }
+    return Math.max(properties.getMinHedgeDelay().toMillis(),
+        Math.min(properties.getMaxHedgeDelay().toMillis(), (long) Math.ceil(delay)));
+  }
+
+  @PreDestroy
+  void shutdown() {
+    if (executor instanceof ExecutorService executorService) {
+      executorService.shutdown();
+    }
+  }
+
+  private <T> Optional<T> readSequentially(Supplier<Optional<T>> primary, Supplier<Optional<T>> secondary) {
+    try {
+      Optional<T> value = primary.get();
+      if (value.isPresent()) {
+        return value;
+      }
+    } catch (Exception e) {
+      log.trace("Primary lookup failed, reading from the failover database.", e);
+    }
+    return secondary.get();
+  }
+
+  private <T> Optional<T> readHedged(Supplier<Optional<T>> primary, Supplier<Optional<T>> secondary) {
+    CompletableFuture<Optional<T>> primaryFuture = submit(primary);
+    if (primaryFuture == null) {
+      log.trace("Read thread pool is saturated, reading the databases one after the other.");
+      return readSequentially(primary, secondary);
+    }
+    try {
+      Optional<T> value = primaryFuture.get(hedgeDelayMillis(), TimeUnit.MILLISECONDS);
+      if (value.isPresent()) {
+        return value;
+      }
+    } catch (TimeoutException e) {
+      CompletableFuture<Optional<T>> secondaryFuture = submit(secondary);
+      if (secondaryFuture == null) {
+        log.trace("Primary lookup exceeded the hedge delay, but the read thread pool is saturated, not hedging.");
+        return readSequentially(primaryFuture::join, secondary);
+      }
+      log.trace("Primary lookup exceeded the hedge delay, reading from the failover database as well.");
+      return firstHit(primaryFuture, secondaryFuture);
+    } catch (ExecutionException e) {
+      log.trace("Primary lookup failed, reading from the failover database.", e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while reading from the primary database.", e);
+    }
+    return secondary.get();
+  }
+
+  private <T> Optional<T> readInParallel(Supplier<Optional<T>> primary, Supplier<Optional<T>> secondary) {
+    CompletableFuture<Optional<T>> primaryFuture = submit(primary);
+    CompletableFuture<Optional<T>> secondaryFuture = primaryFuture == null ? null : submit(secondary);
+    if (secondaryFuture == null) {
+      log.trace("Read thread pool is saturated, reading the databases one after the other.");
+      return readSequentially(primaryFuture == null ? primary : primaryFuture::join, secondary);
+    }
+    return firstHit(primaryFuture, secondaryFuture);
+  }
+
+  /**
+   * Starts a lookup on the read thread pool, or returns null if the pool and its queue are full.
+   */
+  private <T> CompletableFuture<T> submit(Supplier<T> lookup) {
+    try {
+      return CompletableFuture.supplyAsync(lookup, executor);
+    } catch (RejectedExecutionException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Waits for the first lookup which finds the value. Completes empty when both missed,
+   * or with the failure of the secondary lookup when neither found the value and the secondary failed.
+   */
+  private static <T> Optional<T> firstHit(CompletableFuture<Optional<T>> primary,
+      CompletableFuture<Optional<T>> secondary) {
+    CompletableFuture<Optional<T>> firstHit = new CompletableFuture<>();
+    primary.thenAccept(value -> value.ifPresent(found -> firstHit.complete(value)));
+    secondary.thenAccept(value -> value.ifPresent(found -> firstHit.complete(value)));
+    CompletableFuture.allOf(primary.exceptionally(e -> Optional.empty()), secondary)
+        .whenComplete((ignored, e) -> {
+          if (e == null) {
+            firstHit.complete(Optional.empty());
+          } else {
+            firstHit.completeExceptionally(e instanceof CompletionException ? e.getCause() : e);
+          }
+        });
+    try {
+      return firstHit.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  private static ExecutorService newReadExecutor(int threads) {
+    AtomicInteger threadNumber = new AtomicInteger();
+    return new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(threads * 4),
+        runnable -> {
+          Thread thread = new Thread(runnable, "task-store-read-" + threadNumber.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        },
+        new ThreadPoolExecutor.AbortPolicy());
+  }
+}
@@ -1,5 +1,7 @@
 package com.iyalynnyi.taskmanager.service;
 
+import com.iyalynnyi.taskmanager.dto.ReadStrategy;
+
 import java.util.List;
 
 public interface RepositoryManagementService <ENTITY> {
@@ -8,11 +10,20 @@ public interface RepositoryManagementService <ENTITY> {
 
   ENTITY findByIdWithFallback(Long id);
 
+  ENTITY findByIdWithFallback(Long id, ReadStrategy strategy);
+
   List<ENTITY> findAllWithFallback();
 
   boolean existsById(Long id);
 
-  void deleteById(Long id);
+  boolean deleteById(Long id);
+
+  List<ENTITY> saveAllWithFallback(List<ENTITY> entities);
+
+  Long updateWithFallback(ENTITY entity, Long expectedVersion);
+
+  boolean[] updateAllWithFallback(List<ENTITY> entities);
 
+  boolean[] deleteAllByIdWithFallback(List<Long> ids);
 
 }
@@ -0,0 +1,17 @@
+package com.iyalynnyi.taskmanager.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Changes logged in PostgreSQL and waiting to be applied to H2 by the synchronization.
+ */
+@Getter
+@AllArgsConstructor
+public class SyncBacklog {
+  private final long size;
+  /**
+   * Age of the oldest waiting change in milliseconds, 0 if the backlog is empty.
+   */
+  private final long lagMillis;
+}
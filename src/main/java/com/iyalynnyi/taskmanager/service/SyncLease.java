@@ -0,0 +1,34 @@
+package com.iyalynnyi.taskmanager.service;
+
+import com.iyalynnyi.taskmanager.dto.TaskStore;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Lease held by this node in one of the databases, of the synchronization or of the relay of an outbox. Every write of the synchronization
+ * carries its fencing token, so writes of a node which lost the lease are rejected once a newer holder has written.
+ */
+@Getter
+@RequiredArgsConstructor
+public class SyncLease {
+  private final TaskStore store;
+  private final String name;
+  private final String owner;
+  private final long fencingToken;
+  private volatile boolean lost;
+  private volatile long renewedAtNanos = System.nanoTime();
+
+  /**
+   * Records a successful renewal.
+   */
+  public void markRenewed() {
+    renewedAtNanos = System.nanoTime();
+  }
+
+  /**
+   * Marks the lease as lost, so the run holding it stops before its next write.
+   */
+  public void markLost() {
+    lost = true;
+  }
+}
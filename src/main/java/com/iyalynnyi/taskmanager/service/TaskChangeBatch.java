@@ -0,0 +1,23 @@
+package com.iyalynnyi.taskmanager.service;
+
+import com.iyalynnyi.taskmanager.dao.model.TaskEntity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Net effect of a chunk of the PostgreSQL change log: the current rows of the tasks inserted or updated,
+ * and the IDs of the tasks deleted, each task appearing at most once.
+ */
+@Getter
+@AllArgsConstructor
+public class TaskChangeBatch {
+  /**
+   * Position of the last change of the chunk in the log.
+   */
+  private final long lastSeq;
+  private final List<TaskEntity> tasks;
+  private final List<Long> deletedIds;
+}
@@ -0,0 +1,92 @@
+package com.iyalynnyi.taskmanager.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.iyalynnyi.taskmanager.converter.TaskConverter;
+import com.iyalynnyi.taskmanager.dao.model.TaskEntity;
+import com.iyalynnyi.taskmanager.dto.TaskDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Service for exporting all tasks as newline-delimited JSON (NDJSON).
+ * Tasks are read from H2 and then from PostgreSQL through forward-only cursors and written out one by one,
+ * so memory use does not depend on the number of tasks.
+ */
+@Slf4j
+@Service
+public class TaskExportService {
+
+  private final TaskTransactionManagementService transactionManagementService;
+  private final TaskConverter taskConverter;
+  private final ObjectMapper objectMapper;
+  private final ObjectWriter taskWriter;
+  private final int fetchSize;
+
+  /**
+   * Constructs a TaskExportService.
+   *
+   * @param transactionManagementService the service providing transactional access to both databases
+   * @param taskConverter the converter used to map task entities to DTOs
+   * @param objectMapper the object mapper used to serialize tasks
+   * @param fetchSize the number of rows fetched from a database per round trip
+   */
+  public TaskExportService(TaskTransactionManagementService transactionManagementService, TaskConverter taskConverter,
+      ObjectMapper objectMapper, @Value("${task.export.fetch-size:500}") int fetchSize) {
+    this.transactionManagementService = transactionManagementService;
+    this.taskConverter = taskConverter;
+    this.objectMapper = objectMapper;
+    this.taskWriter = objectMapper.writerFor(TaskDto.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    this.fetchSize = fetchSize;
+  }
+
+  /**
+   * Writes all tasks from both databases to the given stream, one JSON document per line.
+   * If H2 is not available, only the tasks stored in PostgreSQL are written.
+   *
+   * @param outputStream the stream to write the tasks to, it is flushed but not closed
+   * @throws IOException if writing to the stream fails
+   */
+  public void exportTasks(OutputStream outputStream) throws IOException {
+    JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+    generator.setRootValueSeparator(null);
+    Consumer<TaskEntity> taskWriterConsumer = task -> writeTask(generator, task);
+    try {
+      transactionManagementService.executeInH2Jdbc(repository -> {
+        repository.forEach(fetchSize, taskWriterConsumer);
+        return null;
+      });
+      log.trace("Exported tasks from H2.");
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    } catch (Exception e) {
+      log.error("Error exporting tasks from H2. Continuing with PostgreSQL.", e);
+    }
+    try {
+      transactionManagementService.executeInPostgresJdbc(repository -> {
+        repository.forEach(fetchSize, taskWriterConsumer);
+        return null;
+      });
+      log.trace("Exported tasks from PostgreSQL.");
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    generator.flush();
+  }
+
+  private void writeTask(JsonGenerator generator, TaskEntity task) {
+    try {
+      taskWriter.writeValue(generator, taskConverter.toDto(task));
+      generator.writeRaw('\n');
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package com.iyalynnyi.taskmanager.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.function.LongSupplier;
+
+/**
+ * Allocates time-ordered 64-bit task IDs shared by both databases.
+ * An ID is composed of the milliseconds elapsed since {@link #EPOCH_MILLIS} (41 bits), the node ID (10 bits)
+ * and a per-millisecond sequence (12 bits), so IDs never collide between H2 and PostgreSQL nor between
+ * application instances, as long as every instance is configured with its own {@code task.id.node-id}.
+ */
+@Component
+public class TaskIdAllocator {
+
+  /**
+   * Custom epoch of the timestamp part, 2024-01-01T00:00:00Z.
+   */
+  static final long EPOCH_MILLIS = 1704067200000L;
+  static final int NODE_ID_BITS = 10;
+  static final int SEQUENCE_BITS = 12;
+  static final long MAX_NODE_ID = (1L << NODE_ID_BITS) - 1;
+  private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+  private static final int TIMESTAMP_SHIFT = NODE_ID_BITS + SEQUENCE_BITS;
+
+  private final long nodeId;
+  private final LongSupplier clock;
+  private long lastTimestamp = -1L;
+  private long sequence;
+
+  /**
+   * Constructs a TaskIdAllocator using the system clock.
+   *
+   * The node ID has no default, so an instance started without {@code task.id.node-id} fails instead of
+   * allocating the same IDs as another instance.
+   *
+   * @param nodeId the ID of this application instance, unique within the cluster
+   */
+  @Autowired
+  public TaskIdAllocator(@Value("${task.id.node-id}") long nodeId) {
+    this(nodeId, System::currentTimeMillis);
+  }
+
+  TaskIdAllocator(long nodeId, LongSupplier clock) {
+    if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+      throw new IllegalArgumentException(String.format("Node id should be between 0 and %d.", MAX_NODE_ID));
+    }
+    this.nodeId = nodeId;
+    this.clock = clock;
+  }
+
+  /**
+   * Allocates the next task ID. IDs allocated by one instance are strictly increasing,
+   * even if the system clock moves backwards or more than 4096 IDs are requested within a millisecond.
+   *
+   * @return the allocated ID
+   */
+  public synchronized long nextId() {
+    long timestamp = Math.max(clock.getAsLong() - EPOCH_MILLIS, lastTimestamp);
+    if (timestamp == lastTimestamp) {
+      sequence = (sequence + 1) & SEQUENCE_MASK;
+      if (sequence == 0) {
+        timestamp++;
+      }
+    } else {
+      sequence = 0;
+    }
+    lastTimestamp = timestamp;
+    return (timestamp << TIMESTAMP_SHIFT) | (nodeId << SEQUENCE_BITS) | sequence;
+  }
+
+  /**
+   * Checks whether the ID was allocated by this allocator rather than by a database sequence.
+   * Rows written before IDs were allocated by the application carry small sequence values
+   * which may exist in both databases.
+   *
+   * @param id the ID to check, may be null
+   * @return true if the ID was allocated by the application
+   */
+  public boolean isAllocated(Long id) {
+    return id != null && id >= (1L << TIMESTAMP_SHIFT);
+  }
+}
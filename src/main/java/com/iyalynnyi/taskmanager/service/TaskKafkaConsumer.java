@@ -0,0 +1,127 @@
+package com.iyalynnyi.taskmanager.service;
+
+import com.iyalynnyi.taskmanager.converter.TaskConverter;
+import com.iyalynnyi.taskmanager.dao.model.TaskEntity;
+import com.iyalynnyi.taskmanager.dto.TaskDto;
+import com.iyalynnyi.taskmanager.service.impl.TaskRepositoryManagementServiceImpl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Creates the tasks pushed by upstream systems to the ingest topic. Every poll is validated and its valid tasks
+ * are saved with one batched insert through {@link TaskRepositoryManagementServiceImpl#saveAllWithFallback},
+ * to H2 or, if H2 fails, to PostgreSQL, together with their CREATED events. The offsets of the poll are
+ * committed only after the insert is committed, and a poll which cannot be saved because a database is
+ * unavailable is retried, so a task is created at least once; a poll redelivered after its insert committed
+ * but before its offsets did creates its tasks again. Records which cannot be read or are not valid tasks are
+ * logged, counted and skipped. A batch the database rejects with a data integrity violation is saved task by
+ * task instead, so only the offending tasks are skipped rather than blocking the partition.
+ */
+@Slf4j
+@Service
+public class TaskKafkaConsumer {
+
+  static final String SAVED_COUNTER = "task.kafka.ingest.saved";
+  static final String REJECTED_COUNTER = "task.kafka.ingest.rejected";
+
+  private final TaskRepositoryManagementServiceImpl taskRepositoryManagementService;
+  private final TaskConverter taskConverter;
+  private final Validator validator;
+  private final Counter savedCounter;
+  private final Counter rejectedCounter;
+
+  /**
+   * Constructs a TaskKafkaConsumer.
+   *
+   * @param taskRepositoryManagementService the service the tasks are saved with.
+   * @param taskConverter                   the converter of the records to task entities.
+   * @param validator                       the validator of the records.
+   * @param meterRegistry                   the registry the ingestion metrics are recorded in.
+   */
+  public TaskKafkaConsumer(TaskRepositoryManagementServiceImpl taskRepositoryManagementService,
+      TaskConverter taskConverter, Validator validator, MeterRegistry meterRegistry) {
+    this.taskRepositoryManagementService = taskRepositoryManagementService;
+    this.taskConverter = taskConverter;
+    this.validator = validator;
+    this.savedCounter = Counter.builder(SAVED_COUNTER)
+        .description("Tasks created from the ingest topic")
+        .register(meterRegistry);
+    this.rejectedCounter = Counter.builder(REJECTED_COUNTER)
+        .description("Records of the ingest topic skipped because they are not valid tasks or the database rejected them")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Saves the valid tasks of one poll as one batch, or one by one if the batch violates data integrity.
+   *
+   * @param records the records of the poll, with a null value if they could not be read
+   */
+  @KafkaListener(id = "task-ingest", topics = "${task.kafka.consumer.topic:tasks_ingest_topic}",
+      containerFactory = "taskIngestListenerContainerFactory")
+  public void ingest(List<ConsumerRecord<String, TaskDto>> records) {
+    List<ConsumerRecord<String, TaskDto>> valid = records.stream().filter(this::isValid).toList();
+    if (valid.isEmpty()) {
+      return;
+    }
+    try {
+      taskRepositoryManagementService.saveAllWithFallback(toEntities(valid));
+    } catch (DataIntegrityViolationException e) {
+      log.warn("Could not create the {} tasks of a poll of the ingest topic as one batch, creating them one by one: {}",
+          valid.size(), e.getMessage());
+      valid.forEach(this::ingestOne);
+      return;
+    }
+    savedCounter.increment(valid.size());
+    log.debug("Created {} of {} tasks of a poll of the ingest topic.", valid.size(), records.size());
+  }
+
+  private void ingestOne(ConsumerRecord<String, TaskDto> record) {
+    try {
+      taskRepositoryManagementService.saveAllWithFallback(toEntities(List.of(record)));
+      savedCounter.increment();
+    } catch (DataIntegrityViolationException e) {
+      rejectedCounter.increment();
+      log.warn("Skipped record {}-{}@{}, the database rejected it: {}", record.topic(), record.partition(),
+          record.offset(), e.getMessage());
+    }
+  }
+
+  private List<TaskEntity> toEntities(List<ConsumerRecord<String, TaskDto>> records) {
+    List<TaskEntity> tasks = new ArrayList<>(records.size());
+    records.forEach(record -> tasks.add(taskConverter.toEntity(record.value())));
+    return tasks;
+  }
+
+  private boolean isValid(ConsumerRecord<String, TaskDto> record) {
+    if (record.value() == null) {
+      rejectedCounter.increment();
+      log.warn("Skipped record {}-{}@{}, it is not a readable task.", record.topic(), record.partition(),
+          record.offset());
+      return false;
+    }
+    Set<ConstraintViolation<TaskDto>> violations = validator.validate(record.value());
+    if (!violations.isEmpty()) {
+      rejectedCounter.increment();
+      log.warn("Skipped record {}-{}@{}, it is not a valid task: {}", record.topic(), record.partition(),
+          record.offset(), violations.stream().map(ConstraintViolation::getMessage).collect(Collectors.joining(" ")));
+      return false;
+    }
+    return true;
+  }
+}
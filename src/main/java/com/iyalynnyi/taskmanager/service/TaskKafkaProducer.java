@@ -1,35 +1,187 @@
 package com.iyalynnyi.taskmanager.service;
 
-import com.iyalynnyi.taskmanager.dto.TaskDto;
+import com.iyalynnyi.taskmanager.config.properties.KafkaProducerProperties;
+import com.iyalynnyi.taskmanager.dto.TaskEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import jakarta.annotation.PreDestroy;
+
 import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes task events to Kafka on behalf of the task outbox relay. Every event is keyed by the ID of its task,
+ * so all events of a task go to the same partition and are consumed in the order they were sent, while the
+ * tasks are spread over the partitions and consumed in parallel. The events are handed over
+ * to a publisher thread, which sends them to the producer; the producer batches and compresses them and
+ * acknowledges each one through a completion callback, and the returned future completes once the whole batch
+ * is acknowledged. At most {@link KafkaProducerProperties#getMaxInFlight()} events are handed over but
+ * not yet acknowledged; beyond that a caller waits up to {@link KafkaProducerProperties#getEnqueueTimeout()}
+ * for room and then the batch is rejected, so a slow or unavailable broker cannot exhaust the memory.
+ * The send latency, from the hand-over to the acknowledgement, is recorded per result, together with the
+ * number of rejected events and the number of events in flight.
+ */
 @Slf4j
 @Service
 public class TaskKafkaProducer {
 
-  private final KafkaTemplate<String, TaskDto> kafkaTemplate;
-  private static final String TOPIC = "tasks_topic";
+  static final String TOPIC = "tasks_topic";
+  static final String SEND_TIMER = "task.kafka.send";
+  static final String REJECTED_COUNTER = "task.kafka.send.rejected";
+  static final String IN_FLIGHT_GAUGE = "task.kafka.send.in.flight";
+
+  private final KafkaTemplate<String, TaskEvent> kafkaTemplate;
+  private final KafkaProducerProperties properties;
+  private final Executor publisher;
+  private final Semaphore inFlight;
+  private final Timer successTimer;
+  private final Timer failureTimer;
+  private final Counter rejectedCounter;
 
   /**
-   * Constructs a TaskKafkaProducer with the provided KafkaTemplate.
+   * Constructs a TaskKafkaProducer sending the events from its own publisher thread.
    *
    * @param kafkaTemplate the KafkaTemplate used to send messages to the Kafka topic.
+   * @param properties    the publishing settings.
+   * @param meterRegistry the registry the publishing metrics are recorded in.
    */
-  public TaskKafkaProducer(KafkaTemplate<String, TaskDto> kafkaTemplate) {
+  @Autowired
+  public TaskKafkaProducer(KafkaTemplate<String, TaskEvent> kafkaTemplate, KafkaProducerProperties properties,
+      MeterRegistry meterRegistry) {
+    this(kafkaTemplate, properties, meterRegistry,
+        Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "task-kafka-publisher")));
+  }
+
+  TaskKafkaProducer(KafkaTemplate<String, TaskEvent> kafkaTemplate, KafkaProducerProperties properties,
+      MeterRegistry meterRegistry, Executor publisher) {
     this.kafkaTemplate = kafkaTemplate;
+    this.properties = properties;
+    this.publisher = publisher;
+    this.inFlight = new Semaphore(properties.getMaxInFlight());
+    this.successTimer = sendTimer("success", meterRegistry);
+    this.failureTimer = sendTimer("failure", meterRegistry);
+    this.rejectedCounter = Counter.builder(REJECTED_COUNTER)
+        .description("Task events rejected because too many were waiting for Kafka")
+        .register(meterRegistry);
+    Gauge.builder(IN_FLIGHT_GAUGE, inFlight, semaphore -> properties.getMaxInFlight() - semaphore.availablePermits())
+        .description("Task events handed over for Kafka but not yet acknowledged")
+        .register(meterRegistry);
   }
 
   /**
-   * Sends a TaskDto message to the specified Kafka topic.
+   * Hands a task event over for sending to the Kafka topic.
    *
-   * @param taskDto the task data transfer object to be sent.
+   * @param event the task event to be sent.
+   * @return a future completed once Kafka has acknowledged the event, or failed if it was rejected or not sent.
    */
-  public void sendTask(TaskDto taskDto) {
-    log.info("Sending task to Kafka topic '{}': {}", TOPIC, taskDto);
-    kafkaTemplate.send(TOPIC, taskDto);
-    log.info("Task sent successfully to Kafka topic '{}'.", TOPIC);
+  public CompletableFuture<Void> sendEvent(TaskEvent event) {
+    return sendEvents(List.of(event));
+  }
+
+  /**
+   * Hands a batch of task events over for sending to the Kafka topic, in the given order.
+   * The events are handed over to the producer together, so they are sent in as few requests as possible.
+   * The batch is rejected as a whole if there is no room for it among the events in flight.
+   *
+   * @param events the task events to be sent.
+   * @return a future completed once Kafka has acknowledged every event, or failed if the batch was rejected
+   *     or any event was not sent.
+   */
+  public CompletableFuture<Void> sendEvents(List<TaskEvent> events) {
+    if (events.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+    if (!tryAcquire(events.size())) {
+      return CompletableFuture.failedFuture(new RejectedExecutionException(
+          "Too many task events are waiting for Kafka already."));
+    }
+    long handedOverNanos = System.nanoTime();
+    CompletableFuture<Void> acknowledged = new CompletableFuture<>();
+    try {
+      publisher.execute(() -> CompletableFuture.allOf(events.stream()
+              .map(event -> send(event, handedOverNanos))
+              .toArray(CompletableFuture[]::new))
+          .whenComplete((ignored, failure) -> {
+            if (failure == null) {
+              acknowledged.complete(null);
+            } else {
+              acknowledged.completeExceptionally(failure);
+            }
+          }));
+    } catch (RejectedExecutionException e) {
+      inFlight.release(events.size());
+      rejectedCounter.increment(events.size());
+      log.warn("Rejected {} task events, the publisher is shut down.", events.size());
+      acknowledged.completeExceptionally(e);
+    }
+    return acknowledged;
   }
-}
 
+  @PreDestroy
+  void shutdown() throws InterruptedException {
+    if (publisher instanceof ExecutorService executorService) {
+      executorService.shutdown();
+      executorService.awaitTermination(properties.getMaxBlock().toMillis(), TimeUnit.MILLISECONDS);
+    }
+    kafkaTemplate.flush();
+  }
+
+  private boolean tryAcquire(int permits) {
+    try {
+      if (inFlight.tryAcquire(permits, properties.getEnqueueTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+        return true;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    rejectedCounter.increment(permits);
+    log.warn("Rejected {} task events, {} events are waiting for Kafka already.", permits,
+        properties.getMaxInFlight() - inFlight.availablePermits());
+    return false;
+  }
+
+  private CompletableFuture<SendResult<String, TaskEvent>> send(TaskEvent event, long handedOverNanos) {
+    Long taskId = event.getTask().getId();
+    CompletableFuture<SendResult<String, TaskEvent>> result;
+    try {
+      result = kafkaTemplate.send(TOPIC, String.valueOf(taskId), event);
+    } catch (RuntimeException e) {
+      result = CompletableFuture.failedFuture(e);
+    }
+    return result.whenComplete((sendResult, failure) -> {
+      inFlight.release();
+      long latencyNanos = System.nanoTime() - handedOverNanos;
+      if (failure == null) {
+        successTimer.record(latencyNanos, TimeUnit.NANOSECONDS);
+        log.debug("Sent {} event of task {} to Kafka topic '{}'.", event.getType(), taskId, TOPIC);
+      } else {
+        failureTimer.record(latencyNanos, TimeUnit.NANOSECONDS);
+        log.warn("Could not send {} event of task {} to Kafka topic '{}'.", event.getType(), taskId, TOPIC, failure);
+      }
+    });
+  }
+
+  private static Timer sendTimer(String result, MeterRegistry meterRegistry) {
+    return Timer.builder(SEND_TIMER)
+        .description("Latency of task events from the hand-over to the acknowledgement by Kafka")
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,249 @@
+package com.iyalynnyi.taskmanager.service;
+
+import com.iyalynnyi.taskmanager.dto.TaskStore;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory directory of the database holding each task, so a task can be read or deleted in its database
+ * without probing the other one first. The directory is a hint only: other application instances write to the
+ * same databases, so a caller which misses in the located database still has to check the other one.
+ * <p>
+ * IDs are kept in an open-addressing hash table of primitive longs with linear probing and one byte per entry
+ * for the database, about 9 bytes per task at the maximum load factor, without boxing.
+ */
+@Slf4j
+@Component
+public class TaskLocationDirectory {
+
+  private static final long EMPTY = 0L;
+  private static final int INITIAL_CAPACITY = 1 << 10;
+  private static final float MAX_LOAD_FACTOR = 0.75f;
+  private static final TaskStore[] STORES = TaskStore.values();
+
+  private final TaskTransactionManagementService transactionManagementService;
+  private final int fetchSize;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private long[] ids = new long[INITIAL_CAPACITY];
+  private byte[] stores = new byte[INITIAL_CAPACITY];
+  private int size;
+
+  /**
+   * Constructs a TaskLocationDirectory.
+   *
+   * @param transactionManagementService the service used to scan the task IDs of both databases
+   * @param fetchSize                    the number of IDs fetched per round trip while rebuilding the directory
+   */
+  public TaskLocationDirectory(TaskTransactionManagementService transactionManagementService,
+      @Value("${task.location.fetch-size:5000}") int fetchSize) {
+    this.transactionManagementService = transactionManagementService;
+    this.fetchSize = fetchSize;
+  }
+
+  /**
+   * Rebuilds the directory from the IDs stored in both databases. A task found in both databases
+   * is located in H2, the primary database. Entries recorded meanwhile are kept as they are newer.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuild() {
+    rebuildFrom(TaskStore.H2);
+    rebuildFrom(TaskStore.POSTGRES);
+    log.info("Task location directory rebuilt with {} tasks.", size());
+  }
+
+  /**
+   * Returns the database holding the task.
+   *
+   * @param id the ID of the task
+   * @return the database holding the task, or null if the task is unknown
+   */
+  public TaskStore locate(Long id) {
+    if (id == null || id == EMPTY) {
+      return null;
+    }
+    lock.readLock().lock();
+    try {
+      int slot = slotOf(ids, id);
+      return ids[slot] == EMPTY ? null : STORES[stores[slot]];
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Records the database a task was written to.
+   *
+   * @param id    the ID of the task
+   * @param store the database holding the task
+   */
+  public void record(Long id, TaskStore store) {
+    if (id == null || id == EMPTY) {
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      put(id, store, true);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Records the database a batch of tasks was written to.
+   *
+   * @param taskIds the IDs of the tasks
+   * @param store   the database holding the tasks
+   */
+  public void recordAll(Collection<Long> taskIds, TaskStore store) {
+    lock.writeLock().lock();
+    try {
+      for (Long id : taskIds) {
+        if (id != null && id != EMPTY) {
+          put(id, store, true);
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Forgets a deleted task.
+   *
+   * @param id the ID of the task
+   */
+  public void remove(Long id) {
+    if (id == null || id == EMPTY) {
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      int slot = slotOf(ids, id);
+      if (ids[slot] == EMPTY) {
+        return;
+      }
+      ids[slot] = EMPTY;
+      size--;
+      shiftBack(slot);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the number of tasks in the directory.
+   *
+   * @return the number of located tasks
+   */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return size;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void rebuildFrom(TaskStore store) {
+    try {
+      if (store == TaskStore.H2) {
+        transactionManagementService.executeInH2Jdbc(repository -> {
+          repository.forEachId(fetchSize, id -> putIfAbsent(id, store));
+          return null;
+        });
+      } else {
+        transactionManagementService.executeInPostgresJdbc(repository -> {
+          repository.forEachId(fetchSize, id -> putIfAbsent(id, store));
+          return null;
+        });
+      }
+    } catch (Exception e) {
+      log.warn("Could not scan task IDs of {}, its tasks will be located by probing.", store, e);
+    }
+  }
+
+  private void putIfAbsent(long id, TaskStore store) {
+    lock.writeLock().lock();
+    try {
+      put(id, store, false);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void put(long id, TaskStore store, boolean overwrite) {
+    int slot = slotOf(ids, id);
+    if (ids[slot] == EMPTY) {
+      ids[slot] = id;
+      stores[slot] = (byte) store.ordinal();
+      if (++size > ids.length * MAX_LOAD_FACTOR) {
+        resize();
+      }
+    } else if (overwrite) {
+      stores[slot] = (byte) store.ordinal();
+    }
+  }
+
+  private void resize() {
+    long[] oldIds = ids;
+    byte[] oldStores = stores;
+    ids = new long[oldIds.length * 2];
+    stores = new byte[oldIds.length * 2];
+    for (int i = 0; i < oldIds.length; i++) {
+      if (oldIds[i] != EMPTY) {
+        int slot = slotOf(ids, oldIds[i]);
+        ids[slot] = oldIds[i];
+        stores[slot] = oldStores[i];
+      }
+    }
+  }
+
+  /**
+   * Moves the entries following a freed slot back, so every entry stays reachable from its home slot
+   * without tombstones.
+   */
+  private void shiftBack(int freed) {
+    int mask = ids.length - 1;
+    int slot = freed;
+    while (true) {
+      slot = (slot + 1) & mask;
+      if (ids[slot] == EMPTY) {
+        return;
+      }
+      int home = hash(ids[slot]) & mask;
+      boolean reachable = freed <= slot ? freed < home && home <= slot : freed < home || home <= slot;
+      if (!reachable) {
+        ids[freed] = ids[slot];
+        stores[freed] = stores[slot];
+        ids[slot] = EMPTY;
+        freed = slot;
+      }
+    }
+  }
+
+  /**
+   * Returns the slot holding the ID, or the empty slot where it would be inserted.
+   */
+  private static int slotOf(long[] table, long id) {
+    int mask = table.length - 1;
+    int slot = hash(id) & mask;
+    while (table[slot] != EMPTY && table[slot] != id) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private static int hash(long id) {
+    long h = id * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+}
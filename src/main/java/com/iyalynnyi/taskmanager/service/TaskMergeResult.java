@@ -0,0 +1,21 @@
+package com.iyalynnyi.taskmanager.service;
+
+import com.iyalynnyi.taskmanager.dao.model.TaskEntity;
+import com.iyalynnyi.taskmanager.dto.TaskStore;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tasks merged from both databases, together with the databases which failed or timed out
+ * and whose tasks are therefore missing from the result.
+ */
+@Getter
+@AllArgsConstructor
+public class TaskMergeResult {
+  private final List<TaskEntity> tasks;
+  private final Set<TaskStore> unavailableStores;
+}
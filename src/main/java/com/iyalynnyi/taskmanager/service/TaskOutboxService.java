@@ -0,0 +1,252 @@
+package com.iyalynnyi.taskmanager.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iyalynnyi.taskmanager.config.properties.KafkaProducerProperties;
+import com.iyalynnyi.taskmanager.config.properties.TaskOutboxProperties;
+import com.iyalynnyi.taskmanager.converter.TaskConverter;
+import com.iyalynnyi.taskmanager.dao.model.TaskEntity;
+import com.iyalynnyi.taskmanager.dao.model.TaskOutboxMessage;
+import com.iyalynnyi.taskmanager.dao.repository.TaskJdbcRepository;
+import com.iyalynnyi.taskmanager.dto.TaskDto;
+import com.iyalynnyi.taskmanager.dto.TaskEvent;
+import com.iyalynnyi.taskmanager.dto.TaskEventType;
+import com.iyalynnyi.taskmanager.dto.TaskStatus;
+import com.iyalynnyi.taskmanager.dto.TaskStore;
+import com.iyalynnyi.taskmanager.exception.SyncLeaseLostException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Transactional outbox of the task events. Every change of a task, its creation, update, status change or
+ * deletion, has its event appended to the {@code task_outbox} table of the database holding the task, in the
+ * same transaction, so the event is stored if and only if the change is, and changing a task never waits for
+ * Kafka. The outbox of each database
+ * is relayed to Kafka in batches of {@link TaskOutboxProperties#getBatchSize()} messages in insert order:
+ * a batch is read in one short transaction, sent outside of any transaction, and marked as sent in a second
+ * short transaction once Kafka has acknowledged all of it, so no connection or lock is held while waiting for
+ * Kafka. A batch which is not acknowledged stays unsent and is sent again by the next run, so an event is
+ * delivered at least once. The outbox of each database is relayed by one node at a time, under a lease held
+ * in that database, so the relay of H2 does not depend on PostgreSQL. A task only moves from PostgreSQL to H2,
+ * so its events still unsent in the PostgreSQL outbox are older than those in the H2 outbox: an H2 batch is cut
+ * before the first event of such a task, which is relayed once the PostgreSQL outbox has caught up. The events
+ * of a task are thus relayed in the order of its changes. While PostgreSQL is unreachable its pending events
+ * cannot be checked and the H2 outbox is relayed without holding any back. Sent messages are purged in bulk after {@link TaskOutboxProperties#getRetention()}.
+ */
+@Slf4j
+@Service
+public class TaskOutboxService {
+
+  private final TaskTransactionManagementService transactionManagementService;
+  private final TaskKafkaProducer taskKafkaProducer;
+  private final TaskConverter taskConverter;
+  private final ObjectMapper objectMapper;
+  private final TaskOutboxProperties properties;
+
+  /**
+   * Constructs a TaskOutboxService. A batch is handed over to the producer as a whole, so it must fit among
+   * the events the producer lets wait for an acknowledgement, otherwise it would be rejected on every run and
+   * the outbox would never drain.
+   *
+   * @param transactionManagementService the service running the outbox statements in the transaction of a store
+   * @param taskKafkaProducer            the producer the events are relayed to
+   * @param taskConverter                the converter of tasks to the payload of their events
+   * @param objectMapper                 the mapper writing and reading the payloads
+   * @param properties                   the outbox settings
+   * @param producerProperties           the producer settings, holding the maximum number of events in flight
+   * @throws IllegalArgumentException if the batch size exceeds the maximum number of events in flight
+   */
+  public TaskOutboxService(TaskTransactionManagementService transactionManagementService,
+      TaskKafkaProducer taskKafkaProducer, TaskConverter taskConverter, ObjectMapper objectMapper,
+      TaskOutboxProperties properties, KafkaProducerProperties producerProperties) {
+    if (properties.getBatchSize() > producerProperties.getMaxInFlight()) {
+      throw new IllegalArgumentException(String.format(
+          "Outbox batch size %d should not exceed the %d events the Kafka producer keeps in flight.",
+          properties.getBatchSize(), producerProperties.getMaxInFlight()));
+    }
+    this.transactionManagementService = transactionManagementService;
+    this.taskKafkaProducer = taskKafkaProducer;
+    this.taskConverter = taskConverter;
+    this.objectMapper = objectMapper;
+    this.properties = properties;
+  }
+
+  /**
+   * Builds the outbox messages announcing the creation of the given tasks, to be appended in the transaction
+   * saving them.
+   *
+   * @param tasks the tasks, with their IDs allocated
+   * @return the messages, in the order of the tasks
+   */
+  public List<TaskOutboxMessage> created(List<TaskEntity> tasks) {
+    return tasks.stream()
+        .map(task -> toMessage(TaskEventType.CREATED, taskConverter.toDto(task)))
+        .toList();
+  }
+
+  /**
+   * Builds the outbox message announcing the update of a task, to be appended in the transaction updating it.
+   *
+   * @param task    the task as written
+   * @param version the version of the task after the update, or null if it is not known
+   * @return the message
+   */
+  public TaskOutboxMessage updated(TaskEntity task, Long version) {
+    TaskDto taskDto = taskConverter.toDto(task);
+    taskDto.setVersion(version);
+    return toMessage(TaskEventType.UPDATED, taskDto);
+  }
+
+  /**
+   * Builds the outbox message announcing the status change of a task, to be appended in the transaction
+   * changing it.
+   *
+   * @param id      the ID of the task
+   * @param status  the new status
+   * @param version the version of the task after the change
+   * @return the message
+   */
+  public TaskOutboxMessage statusChanged(Long id, TaskStatus status, long version) {
+    return toMessage(TaskEventType.STATUS_CHANGED, TaskDto.builder().id(id).status(status).version(version).build());
+  }
+
+  /**
+   * Builds the outbox message announcing the deletion of a task, to be appended in the transaction deleting it.
+   *
+   * @param id the ID of the task
+   * @return the message
+   */
+  public TaskOutboxMessage deleted(Long id) {
+    return toMessage(TaskEventType.DELETED, TaskDto.builder().id(id).build());
+  }
+
+  /**
+   * Relays the unsent messages of the outbox of a database to Kafka, batch by batch, until the outbox is drained
+   * or, for H2, until an event of a task with unsent events in the PostgreSQL outbox is reached.
+   *
+   * @param store the database whose outbox is relayed
+   * @param lease the outbox relay lease held by this node
+   * @return the number of messages relayed
+   * @throws IllegalStateException  if Kafka did not acknowledge a batch, which stays unsent
+   * @throws SyncLeaseLostException if the lease was lost before a batch
+   */
+  public int relay(TaskStore store, SyncLease lease) {
+    int relayed = 0;
+    int batchSize;
+    do {
+      if (lease.isLost()) {
+        throw new SyncLeaseLostException("Outbox relay lease with fencing token " + lease.getFencingToken()
+            + " was lost, stopping the relay of " + store + ".");
+      }
+      batchSize = relayBatch(store);
+      relayed += batchSize;
+    } while (batchSize == properties.getBatchSize());
+    if (relayed > 0) {
+      log.debug("Relayed {} task events from the outbox of {}.", relayed, store);
+    }
+    return relayed;
+  }
+
+  /**
+   * Deletes the messages of the outbox of a database sent longer than the retention ago.
+   *
+   * @param store the database whose outbox is purged
+   * @return the number of deleted messages
+   */
+  public int purge(TaskStore store) {
+    LocalDateTime sentBefore = LocalDateTime.now().minus(properties.getRetention());
+    int purged = inStore(store, repository -> repository.deleteSentOutboxMessages(sentBefore));
+    if (purged > 0) {
+      log.debug("Purged {} sent task events from the outbox of {}.", purged, store);
+    }
+    return purged;
+  }
+
+  private int relayBatch(TaskStore store) {
+    List<TaskOutboxMessage> messages = inStore(store,
+        repository -> repository.findUnsentOutboxMessages(properties.getBatchSize()));
+    if (store == TaskStore.H2) {
+      messages = beforeEventsPendingInPostgres(messages);
+    }
+    if (messages.isEmpty()) {
+      return 0;
+    }
+    awaitAcknowledgement(taskKafkaProducer.sendEvents(messages.stream().map(this::toEvent).toList()));
+    List<Long> seqs = messages.stream().map(TaskOutboxMessage::getSeq).toList();
+    LocalDateTime sentAt = LocalDateTime.now();
+    inStore(store, repository -> repository.markOutboxMessagesSent(seqs, sentAt));
+    return messages.size();
+  }
+
+  private List<TaskOutboxMessage> beforeEventsPendingInPostgres(List<TaskOutboxMessage> messages) {
+    if (messages.isEmpty()) {
+      return messages;
+    }
+    List<Long> taskIds = messages.stream().map(TaskOutboxMessage::getTaskId).distinct().toList();
+    Set<Long> pending;
+    try {
+      pending = transactionManagementService.executeInPostgresJdbc(
+          repository -> repository.findTaskIdsWithUnsentOutboxMessages(taskIds));
+    } catch (DataAccessException | TransactionException e) {
+      log.debug("Could not check the pending events of Postgres, relaying the outbox of H2 as is: {}", e.getMessage());
+      return messages;
+    }
+    int end = 0;
+    while (end < messages.size() && !pending.contains(messages.get(end).getTaskId())) {
+      end++;
+    }
+    if (end < messages.size()) {
+      log.debug("Holding back task {} in the outbox of H2 until its events in Postgres are relayed.",
+          messages.get(end).getTaskId());
+    }
+    return messages.subList(0, end);
+  }
+
+  private void awaitAcknowledgement(CompletableFuture<Void> acknowledged) {
+    try {
+      acknowledged.get(properties.getSendTimeout().toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for Kafka to acknowledge task events.", e);
+    } catch (ExecutionException | TimeoutException e) {
+      throw new IllegalStateException("Kafka did not acknowledge the task events.", e);
+    }
+  }
+
+  private <T> T inStore(TaskStore store, Function<TaskJdbcRepository, T> action) {
+    return store == TaskStore.H2
+        ? transactionManagementService.executeInH2Jdbc(action::apply)
+        : transactionManagementService.executeInPostgresJdbc(action::apply);
+  }
+
+  private TaskOutboxMessage toMessage(TaskEventType type, TaskDto taskDto) {
+    return new TaskOutboxMessage(0, taskDto.getId(), type, writePayload(taskDto));
+  }
+
+  private String writePayload(TaskDto taskDto) {
+    try {
+      return objectMapper.writeValueAsString(taskDto);
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private TaskEvent toEvent(TaskOutboxMessage message) {
+    try {
+      return new TaskEvent(message.getEventType(), objectMapper.readValue(message.getPayload(), TaskDto.class));
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,207 @@
+package com.iyalynnyi.taskmanager.service;
+
+import com.iyalynnyi.taskmanager.config.properties.TaskReconciliationProperties;
+import com.iyalynnyi.taskmanager.dao.model.TaskEntity;
+import com.iyalynnyi.taskmanager.dao.model.TaskRangeDigest;
+import com.iyalynnyi.taskmanager.dao.repository.h2.H2TaskJdbcRepository;
+import com.iyalynnyi.taskmanager.dao.repository.postgres.PostgresTaskJdbcRepository;
+import com.iyalynnyi.taskmanager.dto.TaskReconciliationReportDto;
+import com.iyalynnyi.taskmanager.dto.TaskStore;
+import com.iyalynnyi.taskmanager.exception.SyncLeaseLostException;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Finds and repairs tasks stored in both H2 and PostgreSQL, which the synchronization is meant to prevent:
+ * once a task is moved to H2 its PostgreSQL copy is deleted, so every task lives in exactly one database.
+ * Both databases are compared through trees of digests over ranges of IDs. Each level splits the ranges of
+ * the level above into {@link TaskReconciliationProperties#getFanOut()} subranges, whose row counts and digests
+ * are computed by the databases, so the rows do not leave them. Only the subranges holding tasks in both
+ * databases are split further, and only the leaves among them have the IDs and versions of their tasks read.
+ * A leaf found to hold no task in both databases is not read again until the digest of one of its sides
+ * changes. Task IDs are time ordered, so the tasks written to PostgreSQL during an outage of H2 fall into
+ * few ranges and most of the tree is pruned after its first levels.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TaskReconciliationService {
+
+  private final H2TaskJdbcRepository h2TaskJdbcRepository;
+  private final PostgresTaskJdbcRepository postgresTaskJdbcRepository;
+  private final TaskTransactionManagementService transactionManagementService;
+  private final DataSyncService dataSyncService;
+  private final DataSyncLeaseService dataSyncLeaseService;
+  private final TaskIdAllocator taskIdAllocator;
+  private final TaskLocationDirectory taskLocationDirectory;
+  private final TaskReconciliationProperties properties;
+
+  /**
+   * Digests of the leaves found to hold no task in both databases by the last reconciliation.
+   */
+  private volatile Map<IdRange, LeafDigests> verifiedLeaves = Map.of();
+
+  /**
+   * Compares both databases and repairs the tasks stored in both: the H2 copy is brought up to date if the
+   * PostgreSQL copy is newer, then the PostgreSQL copy is deleted. Tasks with changes still waiting in the
+   * change log are left to the synchronization. The reconciliation holds the synchronization lease, so it
+   * never runs alongside a synchronization.
+   *
+   * @return the numbers of ranges and tasks compared, differing and repaired, empty if another node holds the
+   *     synchronization lease
+   * @throws SyncLeaseLostException if the lease was lost during the reconciliation
+   */
+  public Optional<TaskReconciliationReportDto> reconcile() {
+    log.info("Starting reconciliation of H2 and PostgreSQL...");
+    TaskReconciliationReportDto report = new TaskReconciliationReportDto();
+    if (!dataSyncLeaseService.runWithLease(lease -> reconcile(lease, report))) {
+      log.info("Another node holds the synchronization lease. Reconciliation skipped.");
+      return Optional.empty();
+    }
+    log.info("Finished reconciliation of H2 and PostgreSQL, compared {} ranges, {} tasks in {} ranges were stored "
+            + "in both databases, repaired {}.", report.getRangesCompared(), report.getRowsDiffering(),
+        report.getRangesDiffering(), report.getRowsRepaired());
+    return Optional.of(report);
+  }
+
+  private void reconcile(SyncLease lease, TaskReconciliationReportDto report) {
+    Map<IdRange, LeafDigests> verified = new HashMap<>();
+    Deque<IdRange> ranges = new ArrayDeque<>();
+    ranges.push(new IdRange(0, Long.MAX_VALUE));
+    while (!ranges.isEmpty()) {
+      if (lease.isLost()) {
+        throw new SyncLeaseLostException("Synchronization lease with fencing token " + lease.getFencingToken()
+            + " was lost, stopping reconciliation.");
+      }
+      IdRange range = ranges.pop();
+      long width = (range.getToId() - range.getFromId()) / properties.getFanOut() + 1;
+      Map<Long, TaskRangeDigest> h2Digests =
+          byRange(h2TaskJdbcRepository.findRangeDigests(range.getFromId(), range.getToId(), width));
+      Map<Long, TaskRangeDigest> postgresDigests =
+          byRange(postgresTaskJdbcRepository.findRangeDigests(range.getFromId(), range.getToId(), width));
+      Set<Long> compared = new HashSet<>(h2Digests.keySet());
+      compared.addAll(postgresDigests.keySet());
+      report.setRangesCompared(report.getRangesCompared() + compared.size());
+      for (TaskRangeDigest h2Digest : h2Digests.values()) {
+        TaskRangeDigest postgresDigest = postgresDigests.get(h2Digest.getRange());
+        if (postgresDigest == null) {
+          continue;
+        }
+        long fromId = range.getFromId() + h2Digest.getRange() * width;
+        IdRange subrange = new IdRange(fromId, fromId + Math.min(width - 1, range.getToId() - fromId));
+        if (width > 1 && Math.min(h2Digest.getRowCount(), postgresDigest.getRowCount()) > properties.getLeafRows()) {
+          ranges.push(subrange);
+          continue;
+        }
+        LeafDigests digests = new LeafDigests(h2Digest.getRowCount(), h2Digest.getDigest(),
+            postgresDigest.getRowCount(), postgresDigest.getDigest());
+        if (digests.equals(verifiedLeaves.get(subrange))
+            || reconcileLeaf(subrange, h2Digest.getRowCount() <= postgresDigest.getRowCount(), report)) {
+          verified.put(subrange, digests);
+        }
+      }
+    }
+    verifiedLeaves = verified;
+  }
+
+  /**
+   * Reads the IDs and versions of the tasks of a leaf from the database holding fewer of them, looks these
+   * IDs up in the other database and repairs the tasks found in both.
+   *
+   * @return true if no task of the leaf is stored in both databases
+   */
+  private boolean reconcileLeaf(IdRange range, boolean fewerInH2, TaskReconciliationReportDto report) {
+    Map<Long, Long> h2Versions;
+    Map<Long, Long> postgresVersions;
+    if (fewerInH2) {
+      h2Versions = h2TaskJdbcRepository.findVersionsBetween(range.getFromId(), range.getToId());
+      postgresVersions = postgresTaskJdbcRepository.findVersions(h2Versions.keySet());
+    } else {
+      postgresVersions = postgresTaskJdbcRepository.findVersionsBetween(range.getFromId(), range.getToId());
+      h2Versions = h2TaskJdbcRepository.findVersions(postgresVersions.keySet());
+    }
+    List<Long> ids = postgresVersions.keySet().stream()
+        .filter(h2Versions::containsKey)
+        .filter(taskIdAllocator::isAllocated)
+        .sorted()
+        .toList();
+    if (ids.isEmpty()) {
+      return true;
+    }
+    log.debug("Found {} tasks stored in both databases between IDs {} and {}.", ids.size(), range.getFromId(),
+        range.getToId());
+    report.setRangesDiffering(report.getRangesDiffering() + 1);
+    report.setRowsDiffering(report.getRowsDiffering() + ids.size());
+    report.setRowsRepaired(report.getRowsRepaired() + repair(ids, h2Versions, postgresVersions));
+    return false;
+  }
+
+  /**
+   * Keeps the newer copy of every task in H2 and deletes the PostgreSQL copy, as the synchronization would have.
+   * A PostgreSQL copy changed meanwhile is not deleted, its change is applied by the synchronization.
+   *
+   * @return the number of tasks repaired
+   */
+  private int repair(List<Long> ids, Map<Long, Long> h2Versions, Map<Long, Long> postgresVersions) {
+    Set<Long> changedIds = postgresTaskJdbcRepository.findChangedTaskIds(ids);
+    List<Long> repairableIds = ids.stream()
+        .filter(id -> !changedIds.contains(id))
+        .toList();
+    if (repairableIds.isEmpty()) {
+      return 0;
+    }
+    List<Long> newerInPostgres = repairableIds.stream()
+        .filter(id -> postgresVersions.get(id) > h2Versions.get(id))
+        .toList();
+    if (!newerInPostgres.isEmpty()) {
+      List<TaskEntity> tasks = postgresTaskJdbcRepository.findAllById(newerInPostgres);
+      transactionManagementService.executeInH2Jdbc(repository -> repository.upsertAll(tasks));
+    }
+    boolean[] deleted = dataSyncService.deleteDataFromPostgres(repairableIds,
+        repairableIds.stream().map(postgresVersions::get).toList());
+    int repaired = 0;
+    for (int i = 0; i < deleted.length; i++) {
+      if (deleted[i]) {
+        taskLocationDirectory.record(repairableIds.get(i), TaskStore.H2);
+        repaired++;
+      }
+    }
+    return repaired;
+  }
+
+  private static Map<Long, TaskRangeDigest> byRange(List<TaskRangeDigest> digests) {
+    return digests.stream().collect(Collectors.toMap(TaskRangeDigest::getRange, Function.identity()));
+  }
+
+  /**
+   * Range of task IDs, both ends included.
+   */
+  @Value
+  private static class IdRange {
+    long fromId;
+    long toId;
+  }
+
+  /**
+   * Row counts and digests of both sides of a leaf.
+   */
+  @Value
+  private static class LeafDigests {
+    long h2RowCount;
+    long h2Digest;
+    long postgresRowCount;
+    long postgresDigest;
+  }
+}
@@ -1,6 +1,10 @@
 package com.iyalynnyi.taskmanager.service;
 
+import com.iyalynnyi.taskmanager.dto.TaskBatchRequest;
+import com.iyalynnyi.taskmanager.dto.TaskBatchResultDto;
 import com.iyalynnyi.taskmanager.dto.TaskDto;
+import com.iyalynnyi.taskmanager.dto.TaskFilter;
+import com.iyalynnyi.taskmanager.dto.TaskPageDto;
 import com.iyalynnyi.taskmanager.dto.TaskStatus;
 import java.util.List;
 
@@ -8,11 +12,15 @@ public interface TaskService {
 
   Long createTask(TaskDto taskDto);
 
-  String updateTask(TaskDto taskDto);
+  Long updateTask(TaskDto taskDto, Long expectedVersion);
 
-  String updateStatus (Long id, TaskStatus taskStatus);
+  Long updateStatus(Long id, TaskStatus taskStatus, Long expectedVersion);
 
-  List<TaskDto> getTasks();
+  TaskPageDto getTasks(TaskFilter filter, String cursor, int limit);
 
   String deleteTaskById(Long id);
+
+  TaskBatchResultDto deleteTasksByIds(List<Long> ids);
+
+  TaskBatchResultDto processBatch(TaskBatchRequest batchRequest);
 }
@@ -1,21 +1,42 @@
 package com.iyalynnyi.taskmanager.service;
 
+import com.iyalynnyi.taskmanager.dao.repository.h2.H2TaskJdbcRepository;
 import com.iyalynnyi.taskmanager.dao.repository.h2.H2TaskRepository;
+import com.iyalynnyi.taskmanager.dao.repository.postgres.PostgresTaskJdbcRepository;
 import com.iyalynnyi.taskmanager.dao.repository.postgres.PostgresTaskRepository;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
 
 /**
  * Service for managing database operations across H2 and PostgreSQL repositories
  * with specific transaction management per database.
  */
 @Service
-@RequiredArgsConstructor
 public class TaskTransactionManagementService {
 
   private final H2TaskRepository h2TaskRepository;
   private final PostgresTaskRepository postgresTaskRepository;
+  private final H2TaskJdbcRepository h2TaskJdbcRepository;
+  private final PostgresTaskJdbcRepository postgresTaskJdbcRepository;
+  private final PlatformTransactionManager h2TransactionManager;
+  private final PlatformTransactionManager postgresTransactionManager;
+
+  public TaskTransactionManagementService(H2TaskRepository h2TaskRepository,
+      PostgresTaskRepository postgresTaskRepository, H2TaskJdbcRepository h2TaskJdbcRepository,
+      PostgresTaskJdbcRepository postgresTaskJdbcRepository,
+      @Qualifier("h2TransactionManager") PlatformTransactionManager h2TransactionManager,
+      @Qualifier("postgresTransactionManager") PlatformTransactionManager postgresTransactionManager) {
+    this.h2TaskRepository = h2TaskRepository;
+    this.postgresTaskRepository = postgresTaskRepository;
+    this.h2TaskJdbcRepository = h2TaskJdbcRepository;
+    this.postgresTaskJdbcRepository = postgresTaskJdbcRepository;
+    this.h2TransactionManager = h2TransactionManager;
+    this.postgresTransactionManager = postgresTransactionManager;
+  }
 
   /**
    * Executes an action within an H2 transaction context.
@@ -41,6 +62,32 @@ public class TaskTransactionManagementService {
     return action.perform(postgresTaskRepository);
   }
 
+  /**
+   * Executes a read-only action within an H2 transaction bounded by a timeout. The timeout is applied to every
+   * JDBC statement as its query timeout, so the database cancels a query still running when it expires.
+   *
+   * @param timeout the time the action may take, rounded up to whole seconds, the unit of JDBC query timeouts
+   * @param action  the action to perform on the H2 repository
+   * @param <T> the type of result returned by the action
+   * @return the result of the action
+   */
+  public <T> T readInH2(Duration timeout, H2Action<T> action) {
+    return readOnly(h2TransactionManager, timeout).execute(status -> action.perform(h2TaskRepository));
+  }
+
+  /**
+   * Executes a read-only action within a PostgreSQL transaction bounded by a timeout. The timeout is applied to
+   * every JDBC statement as its query timeout, so the database cancels a query still running when it expires.
+   *
+   * @param timeout the time the action may take, rounded up to whole seconds, the unit of JDBC query timeouts
+   * @param action  the action to perform on the PostgreSQL repository
+   * @param <T> the type of result returned by the action
+   * @return the result of the action
+   */
+  public <T> T readInPostgres(Duration timeout, PostgresAction<T> action) {
+    return readOnly(postgresTransactionManager, timeout).execute(status -> action.perform(postgresTaskRepository));
+  }
+
   /**
    * Executes a void action within an H2 transaction context.
    *
@@ -61,6 +108,37 @@ public class TaskTransactionManagementService {
     action.perform(postgresTaskRepository);
   }
 
+  /**
+   * Executes a JDBC action within an H2 transaction context.
+   *
+   * @param action the action to perform on the H2 JDBC repository
+   * @param <T> the type of result returned by the action
+   * @return the result of the action
+   */
+  @Transactional(transactionManager = "h2TransactionManager")
+  public <T> T executeInH2Jdbc(H2JdbcAction<T> action) {
+    return action.perform(h2TaskJdbcRepository);
+  }
+
+  /**
+   * Executes a JDBC action within a PostgreSQL transaction context.
+   *
+   * @param action the action to perform on the PostgreSQL JDBC repository
+   * @param <T> the type of result returned by the action
+   * @return the result of the action
+   */
+  @Transactional(transactionManager = "postgresTransactionManager")
+  public <T> T executeInPostgresJdbc(PostgresJdbcAction<T> action) {
+    return action.perform(postgresTaskJdbcRepository);
+  }
+
+  private static TransactionTemplate readOnly(PlatformTransactionManager transactionManager, Duration timeout) {
+    TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+    transactionTemplate.setReadOnly(true);
+    transactionTemplate.setTimeout((int) Math.max(1, (timeout.toMillis() + 999) / 1000));
+    return transactionTemplate;
+  }
+
   /**
    * Functional interface for executing an action on the H2 repository.
    *
@@ -92,4 +170,22 @@ public class TaskTransactionManagementService {
   public interface PostgresVoidAction {
     void perform(PostgresTaskRepository repository);
   }
+
+  /**
+   * Functional interface for executing an action on the H2 JDBC repository.
+   *
+   * @param <T> the type of result returned by the action
+   */
+  public interface H2JdbcAction<T> {
+    T perform(H2TaskJdbcRepository repository);
+  }
+
+  /**
+   * Functional interface for executing an action on the PostgreSQL JDBC repository.
+   *
+   * @param <T> the type of result returned by the action
+   */
+  public interface PostgresJdbcAction<T> {
+    T perform(PostgresTaskJdbcRepository repository);
+  }
 }
@@ -0,0 +1,22 @@
+package com.iyalynnyi.taskmanager.service.event;
+
+import com.iyalynnyi.taskmanager.dto.TaskStore;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Application event published when the circuit breaker of a task store changes its state,
+ * e.g. when H2 becomes unavailable and its traffic is routed to PostgreSQL.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class TaskStoreCircuitStateChangedEvent {
+  private final TaskStore store;
+  private final CircuitBreaker.State fromState;
+  private final CircuitBreaker.State toState;
+}
@@ -0,0 +1,87 @@
+package com.iyalynnyi.taskmanager.service.impl;
+
+import com.iyalynnyi.taskmanager.dao.model.TaskEntity;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Merges sorted task lists read from several databases into one sorted list without duplicates.
+ */
+final class TaskMerger {
+
+  private TaskMerger() {
+  }
+
+  /**
+   * Performs a k-way merge of the sources, each of which must be sorted in {@code order}.
+   * Tasks comparing as equal are treated as copies of the same task: only the copy with the newest
+   * updated date is kept, and on a tie the copy from the earlier source. Only the first {@code limit}
+   * tasks are merged, the remaining elements of the sources are never visited.
+   *
+   * @param sources the sorted task lists, in order of precedence
+   * @param order   the order of the sources and of the result
+   * @param limit   the maximum number of tasks to return
+   * @return up to {@code limit} distinct tasks sorted in {@code order}
+   */
+  static List<TaskEntity> mergeSorted(List<List<TaskEntity>> sources, Comparator<TaskEntity> order, int limit) {
+    PriorityQueue<SourceCursor> heads = new PriorityQueue<>(
+        Comparator.<SourceCursor, TaskEntity>comparing(cursor -> cursor.head, order)
+            .thenComparingInt(cursor -> cursor.source));
+    int size = 0;
+    for (int source = 0; source < sources.size(); source++) {
+      size += sources.get(source).size();
+      SourceCursor cursor = new SourceCursor(source, sources.get(source).iterator());
+      if (cursor.advance()) {
+        heads.add(cursor);
+      }
+    }
+    List<TaskEntity> merged = new ArrayList<>(Math.min(limit, size));
+    while (!heads.isEmpty() && merged.size() < limit) {
+      SourceCursor cursor = heads.poll();
+      TaskEntity chosen = cursor.head;
+      requeue(cursor, heads);
+      while (!heads.isEmpty() && order.compare(heads.peek().head, chosen) == 0) {
+        SourceCursor duplicate = heads.poll();
+        if (isNewer(duplicate.head, chosen)) {
+          chosen = duplicate.head;
+        }
+        requeue(duplicate, heads);
+      }
+      merged.add(chosen);
+    }
+    return merged;
+  }
+
+  private static void requeue(SourceCursor cursor, PriorityQueue<SourceCursor> heads) {
+    if (cursor.advance()) {
+      heads.add(cursor);
+    }
+  }
+
+  private static boolean isNewer(TaskEntity candidate, TaskEntity current) {
+    LocalDateTime candidateUpdated = candidate.getUpdatedDate();
+    LocalDateTime currentUpdated = current.getUpdatedDate();
+    return candidateUpdated != null && (currentUpdated == null || candidateUpdated.isAfter(currentUpdated));
+  }
+
+  private static final class SourceCursor {
+    private final int source;
+    private final Iterator<TaskEntity> remaining;
+    private TaskEntity head;
+
+    private SourceCursor(int source, Iterator<TaskEntity> remaining) {
+      this.source = source;
+      this.remaining = remaining;
+    }
+
+    private boolean advance() {
+      head = remaining.hasNext() ? remaining.next() : null;
+      return head != null;
+    }
+  }
+}
@@ -1,84 +1,165 @@
 package com.iyalynnyi.taskmanager.service.impl;
 
+import com.iyalynnyi.taskmanager.config.properties.TaskUpdateProperties;
 import com.iyalynnyi.taskmanager.dao.model.TaskEntity;
+import com.iyalynnyi.taskmanager.dao.model.TaskOutboxMessage;
+import com.iyalynnyi.taskmanager.dao.repository.TaskJdbcRepository;
+import com.iyalynnyi.taskmanager.dao.specification.TaskSpecifications;
+import com.iyalynnyi.taskmanager.dto.ReadStrategy;
+import com.iyalynnyi.taskmanager.dto.TaskCursor;
+import com.iyalynnyi.taskmanager.dto.TaskFilter;
+import com.iyalynnyi.taskmanager.dto.TaskStatus;
+import com.iyalynnyi.taskmanager.dto.TaskStore;
 import com.iyalynnyi.taskmanager.exception.ApiResponseException;
+import com.iyalynnyi.taskmanager.service.HedgedReadService;
 import com.iyalynnyi.taskmanager.service.RepositoryManagementService;
+import com.iyalynnyi.taskmanager.service.TaskIdAllocator;
+import com.iyalynnyi.taskmanager.service.TaskLocationDirectory;
+import com.iyalynnyi.taskmanager.service.TaskMergeResult;
+import com.iyalynnyi.taskmanager.service.TaskOutboxService;
 import com.iyalynnyi.taskmanager.service.TaskTransactionManagementService;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.JdbcUpdateAffectedIncorrectNumberOfRowsException;
 import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class TaskRepositoryManagementServiceImpl implements RepositoryManagementService<TaskEntity> {
 
+  private static final Comparator<TaskEntity> KEYSET_ORDER =
+      Comparator.comparing(TaskEntity::getCreatedDate).thenComparing(TaskEntity::getId);
+  private static final Comparator<TaskEntity> ID_ORDER = Comparator.comparing(TaskEntity::getId);
+  private static final Sort ID_SORT = Sort.by("id");
+
   private final TaskTransactionManagementService transactionManagementService;
+  private final TaskIdAllocator taskIdAllocator;
+  private final CircuitBreaker h2CircuitBreaker;
+  private final CircuitBreaker postgresCircuitBreaker;
+  private final HedgedReadService hedgedReadService;
+  private final TaskLocationDirectory taskLocationDirectory;
+  private final TaskUpdateProperties taskUpdateProperties;
+  private final TaskOutboxService taskOutboxService;
 
   /**
    * Saves a task entity to the primary database (H2) and falls back to the secondary database (PostgreSQL) if an error occurs.
+   * A new task gets its ID allocated first, so it keeps the same ID whichever database it is saved to.
+   * The task is written together with its {@link com.iyalynnyi.taskmanager.dto.TaskEventType#CREATED} event in
+   * one transaction, and the event is relayed to Kafka later, see {@link TaskOutboxService}. The database the task was saved to is recorded in the
+   * {@link TaskLocationDirectory}.
    *
    * @param task the task entity to be saved
    * @return the saved task entity
    */
   public TaskEntity saveWithFallback(TaskEntity task) {
-    try {
-      TaskEntity taskEntity = transactionManagementService.executeInH2(repository -> repository.save(task));
-      log.trace("Task saved in H2.");
-      return taskEntity;
-    } catch (Exception e) {
-      log.trace("Error saving to primary database (H2), falling back to secondary database (Postgres)", e);
-      TaskEntity taskEntity = transactionManagementService.executeInPostgres(repository -> repository.save(task));
-      log.trace("Task saved in Postgres.");
-      return taskEntity;
-    }
+    saveAllWithFallback(List.of(task));
+    return task;
   }
 
   /**
    * Finds a task entity by its ID, falling back to the secondary database if not found in the primary database.
+   * The databases are queried with the configured {@link ReadStrategy}.
    *
    * @param taskId the ID of the task to find
    * @return the found task entity
    * @throws ApiResponseException if the task is not found in either database
    */
   public TaskEntity findByIdWithFallback(Long taskId) {
-    try {
-      Optional<TaskEntity> taskEntity = transactionManagementService.executeInH2(repository -> repository.findById(taskId));
-      if (taskEntity.isPresent()) {
-        log.trace("Found task with id {} in H2.", taskId);
-        return taskEntity.get();
-      }
-      log.error("Error finding task with id {} in H2. Trying to find in PostgreSQL.", taskId);
-      throw new RuntimeException("Task not found in primary database, searching in failover database.");
-    } catch (Exception e) {
-      TaskEntity taskEntity = transactionManagementService.executeInPostgres(repository -> repository.findById(taskId))
-          .orElseThrow(() -> new ApiResponseException("Task not found!", HttpStatus.BAD_REQUEST));
-      log.trace("Found task with id {} in PostgreSQL.", taskId);
-      return taskEntity;
+    return findByIdWithFallback(taskId, hedgedReadService.getDefaultStrategy());
+  }
+
+  /**
+   * Finds a task entity by its ID, querying the databases with the given strategy.
+   * Latency-critical callers can use {@link ReadStrategy#PARALLEL} to query both databases right away.
+   * A task located by the {@link TaskLocationDirectory} is read from its database only, the strategy applies
+   * to unknown tasks and to tasks missing from the located database.
+   *
+   * @param taskId   the ID of the task to find
+   * @param strategy how the two databases are queried
+   * @return the found task entity
+   * @throws ApiResponseException if the task is not found in either database
+   */
+  public TaskEntity findByIdWithFallback(Long taskId, ReadStrategy strategy) {
+    Supplier<Optional<TaskEntity>> h2Read =
+        () -> transactionManagementService.executeInH2(repository -> repository.findById(taskId));
+    Supplier<Optional<TaskEntity>> postgresRead =
+        () -> transactionManagementService.executeInPostgres(repository -> repository.findById(taskId));
+    Optional<TaskEntity> located = readFromLocatedStore(taskId, h2Read, postgresRead);
+    if (located.isPresent()) {
+      return located.get();
     }
+    TaskEntity taskEntity = hedgedReadService.read(h2Lookup(h2Read, taskId), () -> inPostgres(postgresRead), strategy)
+        .orElseThrow(() -> new ApiResponseException("Task not found!", HttpStatus.BAD_REQUEST));
+    log.trace("Found task with id {}.", taskId);
+    return taskEntity;
   }
 
   /**
-   * Retrieves all task entities, falling back to the secondary database if the primary database fails.
+   * Retrieves all task entities from both databases, ordered by ID. The databases are queried concurrently
+   * and a task stored in both is returned once, in its most recently updated version.
+   * Tasks of a database which fails or does not answer within its fetch timeout are left out.
    *
    * @return a list of all task entities
+   * @throws ApiResponseException if neither database is available
    */
   public List<TaskEntity> findAllWithFallback() {
-    List<TaskEntity> tasks = new ArrayList<>();
-    try {
-      tasks.addAll(transactionManagementService.executeInH2(repository -> repository.findAll()));
-      log.trace("Retrieved tasks from H2.");
-    } catch (Exception e) {
-      log.error("Error finding tasks in H2. Trying to find in PostgreSQL.", e);
-    } finally {
-      tasks.addAll(transactionManagementService.executeInPostgres(repository -> repository.findAll()));
-      log.trace("Retrieved tasks from PostgreSQL.");
-    }
-    return tasks;
+    TaskMergeResult result = fetchFromBothStores(
+        timeout -> transactionManagementService.readInH2(timeout, repository -> repository.findAll(ID_SORT)),
+        timeout -> transactionManagementService.readInPostgres(timeout, repository -> repository.findAll(ID_SORT)),
+        ID_ORDER, Integer.MAX_VALUE);
+    return result.getTasks();
+  }
+
+  /**
+   * Retrieves one keyset page of task entities matching the filter from both databases.
+   * Each database returns at most {@code limit} rows in keyset order and the two results are merged,
+   * so a page never loads more than twice the requested size regardless of the table size.
+   * The databases are queried concurrently and a task stored in both is returned once,
+   * in its most recently updated version.
+   *
+   * @param filter the criteria the tasks should match
+   * @param after  the position of the last task of the previous page, or null for the first page
+   * @param limit  the maximum number of tasks to return
+   * @return up to {@code limit} task entities ordered by creation date and ID, and the databases left out
+   *     because they failed or did not answer within their fetch timeout
+   * @throws ApiResponseException if neither database is available
+   */
+  public TaskMergeResult findPageWithFallback(TaskFilter filter, TaskCursor after, int limit) {
+    Specification<TaskEntity> specification = TaskSpecifications.matching(filter).and(TaskSpecifications.after(after));
+    return fetchFromBothStores(
+        timeout -> transactionManagementService.readInH2(timeout,
+            repository -> findPage(repository, specification, limit)),
+        timeout -> transactionManagementService.readInPostgres(timeout,
+            repository -> findPage(repository, specification, limit)),
+        KEYSET_ORDER, limit);
   }
 
   /**
@@ -88,34 +169,421 @@ public class TaskRepositoryManagementServiceImpl implements RepositoryManagement
    * @return true if the task exists, false otherwise
    */
   public boolean existsById(Long id) {
-    boolean exists;
-    try {
-      exists = transactionManagementService.executeInH2(repository -> repository.existsById(id));
-      log.trace("Checked existence of task with id {} in H2: {}", id, exists);
-      if (exists) {
-        return true;
-      }
-    } catch (Exception e) {
-      log.error("Error checking if Task with id {} exists in H2.", id, e);
+    Supplier<Optional<Boolean>> h2Read =
+        () -> existing(transactionManagementService.executeInH2(repository -> repository.existsById(id)));
+    Supplier<Optional<Boolean>> postgresRead =
+        () -> existing(transactionManagementService.executeInPostgres(repository -> repository.existsById(id)));
+    if (readFromLocatedStore(id, h2Read, postgresRead).isPresent()) {
+      return true;
     }
-    exists = transactionManagementService.executeInPostgres(repository -> repository.existsById(id));
-    log.trace("Checked existence of task with id {} in PostgreSQL: {}", id, exists);
+    boolean exists = hedgedReadService.read(h2Lookup(h2Read, id), () -> inPostgres(postgresRead)).isPresent();
+    log.trace("Checked existence of task with id {}: {}", id, exists);
     return exists;
   }
 
   /**
-   * Deletes a task entity by its ID, falling back to the secondary database if the deletion fails in the primary database.
+   * Deletes a task with a single DELETE statement, without reading it first. The statement is sent to
+   * the database the {@link TaskLocationDirectory} locates the task in, and to the other database
+   * if no row was deleted there. A deleted task has its DELETED event appended in the same transaction.
    *
    * @param id the ID of the task to be deleted
+   * @return true if the task was deleted in one of the databases, false if it was not found
+   */
+  public boolean deleteById(Long id) {
+    Boolean deleted = runInOwningStore(id, repository -> delete(repository, id) ? Boolean.TRUE : null,
+        store -> taskLocationDirectory.remove(id), "deleting");
+    return deleted != null;
+  }
+
+  /**
+   * Saves the task entities to the primary database (H2) with multi-row INSERT statements in one transaction
+   * and falls back to the secondary database (PostgreSQL) if an error occurs. The IDs are allocated up front.
+   * A task whose ID is already stored fails the whole batch with a {@link DataIntegrityViolationException},
+   * which is not retried in PostgreSQL, so an ID clash never goes unnoticed nor stores a task twice.
+   * The CREATED events of the tasks are appended in the same transaction.
+   *
+   * @param tasks the task entities to be saved
+   * @return the saved task entities with their IDs set
+   */
+  public List<TaskEntity> saveAllWithFallback(List<TaskEntity> tasks) {
+    tasks.forEach(this::allocateId);
+    List<TaskOutboxMessage> messages = taskOutboxService.created(tasks);
+    try {
+      inH2(() -> transactionManagementService.executeInH2Jdbc(repository -> save(repository, tasks, messages)));
+      taskLocationDirectory.recordAll(tasks.stream().map(TaskEntity::getId).toList(), TaskStore.H2);
+      log.trace("Saved {} tasks in H2.", tasks.size());
+    } catch (DataIntegrityViolationException e) {
+      throw e;
+    } catch (Exception e) {
+      logH2Failure(e, "Error saving tasks to primary database (H2), falling back to secondary database (Postgres).");
+      inPostgres(() -> transactionManagementService.executeInPostgresJdbc(repository -> save(repository, tasks, messages)));
+      taskLocationDirectory.recordAll(tasks.stream().map(TaskEntity::getId).toList(), TaskStore.POSTGRES);
+      log.trace("Saved {} tasks in Postgres.", tasks.size());
+    }
+    return tasks;
+  }
+
+  /**
+   * Updates all columns but the creation date of the task with a single UPDATE statement, without reading it first,
+   * and increments its version. The statement is sent to the database the {@link TaskLocationDirectory} locates
+   * the task in, and to the other database if no row was updated there. An updated task has its UPDATED event,
+   * carrying the new version, appended in the same transaction.
+   *
+   * @param task            the task entity to be updated, identified by its ID
+   * @param expectedVersion the version the task must still have, or null to overwrite any version
+   * @return the new version of the task, or null if it was not found in either database
+   * @throws ApiResponseException with status 412 if the task has a version other than the expected one
+   */
+  public Long updateWithFallback(TaskEntity task, Long expectedVersion) {
+    return updateInOwningStore(task.getId(), expectedVersion, repository -> repository.update(task, expectedVersion),
+        newVersion -> taskOutboxService.updated(task, newVersion));
+  }
+
+  /**
+   * Updates only the status of the task with a single UPDATE statement, in the same way as
+   * {@link #updateWithFallback(TaskEntity, Long)}, and appends a STATUS_CHANGED event carrying the status and the
+   * new version. Setting the status does not depend on the other columns,
+   * so a statement failing on a lock held by a concurrent update is retried up to
+   * {@link TaskUpdateProperties#getMaxStatusAttempts()} times with a randomized backoff.
+   *
+   * @param id              the ID of the task to be updated
+   * @param status          the new status of the task
+   * @param expectedVersion the version the task must still have, or null to overwrite any version
+   * @return the new version of the task, or null if it was not found in either database
+   * @throws ApiResponseException with status 412 if the task has a version other than the expected one
+   */
+  public Long updateStatusWithFallback(Long id, TaskStatus status, Long expectedVersion) {
+    for (int attempt = 1; ; attempt++) {
+      LocalDateTime updatedDate = LocalDateTime.now();
+      try {
+        return updateInOwningStore(id, expectedVersion,
+            repository -> repository.updateStatus(id, status, updatedDate, expectedVersion),
+            newVersion -> taskOutboxService.statusChanged(id, status, newVersion));
+      } catch (ConcurrencyFailureException e) {
+        if (attempt >= taskUpdateProperties.getMaxStatusAttempts()) {
+          throw e;
+        }
+        log.trace("Status update of task with id {} conflicted with a concurrent update on attempt {}, retrying.",
+            id, attempt, e);
+        backOff(attempt);
+      }
+    }
+  }
+
+  /**
+   * Updates the task entities as a JDBC batch in H2 and then updates the ones not found there
+   * as a JDBC batch in PostgreSQL. The UPDATED events of the updated tasks are appended in the transaction
+   * of their batch; they carry no version, since the batch does not return the new versions.
+   *
+   * @param tasks the task entities to be updated, identified by their IDs
+   * @return for every task, whether it was updated in one of the databases
+   */
+  public boolean[] updateAllWithFallback(List<TaskEntity> tasks) {
+    return applyWithFallback(tasks,
+        batch -> inH2(() -> transactionManagementService.executeInH2Jdbc(repository -> updateAll(repository, batch))),
+        batch -> inPostgres(
+            () -> transactionManagementService.executeInPostgresJdbc(repository -> updateAll(repository, batch))),
+        "updating");
+  }
+
+  /**
+   * Deletes the task entities with the given IDs as JDBC batches. The tasks the {@link TaskLocationDirectory}
+   * locates in PostgreSQL are deleted there first; the other tasks, and the located ones not found
+   * in PostgreSQL, are deleted as a batch in H2 and then, if not found there, as a batch in PostgreSQL.
+   * The DELETED events of the deleted tasks are appended in the transaction of their batch.
+   *
+   * @param ids the IDs of the tasks to be deleted
+   * @return for every ID, whether a task was deleted in one of the databases
+   */
+  public boolean[] deleteAllByIdWithFallback(List<Long> ids) {
+    boolean[] deleted = new boolean[ids.size()];
+    List<Integer> locatedInPostgres = IntStream.range(0, ids.size())
+        .filter(i -> taskLocationDirectory.locate(ids.get(i)) == TaskStore.POSTGRES)
+        .boxed()
+        .toList();
+    if (!locatedInPostgres.isEmpty()) {
+      List<Long> batch = locatedInPostgres.stream().map(ids::get).toList();
+      int[] postgresCounts = inPostgres(
+          () -> transactionManagementService.executeInPostgresJdbc(repository -> deleteAll(repository, batch)));
+      for (int i = 0; i < postgresCounts.length; i++) {
+        deleted[locatedInPostgres.get(i)] = postgresCounts[i] > 0;
+      }
+      log.trace("Finished deleting batch of {} tasks located in PostgreSQL.", batch.size());
+    }
+    List<Integer> remaining = IntStream.range(0, ids.size())
+        .filter(i -> !deleted[i])
+        .boxed()
+        .toList();
+    boolean[] remainingDeleted = applyWithFallback(remaining.stream().map(ids::get).toList(),
+        batch -> inH2(() -> transactionManagementService.executeInH2Jdbc(repository -> deleteAll(repository, batch))),
+        batch -> inPostgres(
+            () -> transactionManagementService.executeInPostgresJdbc(repository -> deleteAll(repository, batch))),
+        "deleting");
+    for (int i = 0; i < remainingDeleted.length; i++) {
+      deleted[remaining.get(i)] = remainingDeleted[i];
+    }
+    for (int i = 0; i < deleted.length; i++) {
+      if (deleted[i]) {
+        taskLocationDirectory.remove(ids.get(i));
+      }
+    }
+    return deleted;
+  }
+
+  /**
+   * Runs a single-row update in the database the task is located in, as {@link #runInOwningStore} does.
+   * When no row with the expected version was updated, the database is checked for the task in the same
+   * transaction, to tell a version conflict from a miss. When the row was updated, the event built from the new
+   * version is appended to the outbox in the same transaction.
+   */
+  private Long updateInOwningStore(Long id, Long expectedVersion, Function<TaskJdbcRepository, Long> update,
+      Function<Long, TaskOutboxMessage> event) {
+    Function<TaskJdbcRepository, Long> versionCheckedUpdate = repository -> {
+      Long newVersion = update.apply(repository);
+      if (newVersion == null) {
+        if (expectedVersion != null && repository.findVersion(id) != null) {
+          throw new ApiResponseException("Task was modified by another request!", HttpStatus.PRECONDITION_FAILED);
+        }
+        return null;
+      }
+      repository.insertOutboxMessages(List.of(event.apply(newVersion)));
+      return newVersion;
+    };
+    return runInOwningStore(id, versionCheckedUpdate, store -> taskLocationDirectory.record(id, store), "updating");
+  }
+
+  /**
+   * Runs a single-row statement in the database the task is located in, then in the other database
+   * while the statement returned null, i.e. did not find the task. A failure of H2 is treated as a miss there,
+   * unless the statement lost a conflict with a concurrent update.
+   *
+   * @param id        the ID of the task
+   * @param statement the statement, returning null if the task is not stored in the database
+   * @param onHit     called with the database the statement found the task in
+   * @param operation the operation, for logging
+   * @return the result of the statement, or null if the task was found in neither database
+   */
+  private <T> T runInOwningStore(Long id, Function<TaskJdbcRepository, T> statement, Consumer<TaskStore> onHit,
+      String operation) {
+    List<TaskStore> stores = taskLocationDirectory.locate(id) == TaskStore.POSTGRES
+        ? List.of(TaskStore.POSTGRES, TaskStore.H2)
+        : List.of(TaskStore.H2, TaskStore.POSTGRES);
+    for (TaskStore store : stores) {
+      T result;
+      if (store == TaskStore.H2) {
+        try {
+          result = inH2(() -> transactionManagementService.executeInH2Jdbc(statement::apply));
+        } catch (ApiResponseException | ConcurrencyFailureException e) {
+          throw e;
+        } catch (Exception e) {
+          logH2Failure(e, "Error {} task with id {} in H2.", operation, id);
+          continue;
+        }
+      } else {
+        result = inPostgres(() -> transactionManagementService.executeInPostgresJdbc(statement::apply));
+      }
+      if (result != null) {
+        onHit.accept(store);
+        log.trace("Finished {} task with id {} in {}: {}.", operation, id, store, result);
+        return result;
+      }
+    }
+    return null;
+  }
+
+  private void backOff(int attempt) {
+    long delayMillis = taskUpdateProperties.getRetryBackoff().toMillis() * attempt;
+    try {
+      Thread.sleep(delayMillis + ThreadLocalRandom.current().nextLong(delayMillis + 1));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ApiResponseException("Task update was interrupted.", HttpStatus.SERVICE_UNAVAILABLE);
+    }
+  }
+
+  /**
+   * Reads the task from the database the {@link TaskLocationDirectory} locates it in.
+   * Returns empty if the task is unknown, missing from that database or the read fails,
+   * in which case the caller probes both databases.
+   */
+  private <T> Optional<T> readFromLocatedStore(Long id, Supplier<Optional<T>> h2Read,
+      Supplier<Optional<T>> postgresRead) {
+    TaskStore store = taskLocationDirectory.locate(id);
+    if (store == null) {
+      return Optional.empty();
+    }
+    try {
+      Optional<T> result = store == TaskStore.H2 ? inH2(h2Read) : inPostgres(postgresRead);
+      log.trace("Read task with id {} from its database {}, found: {}.", id, store, result.isPresent());
+      return result;
+    } catch (Exception e) {
+      log.trace("Error reading task with id {} from its database {}. Probing both databases.", id, store, e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Wraps a lookup by ID in H2 with the H2 circuit breaker and logs its failure.
+   */
+  private <T> Supplier<Optional<T>> h2Lookup(Supplier<Optional<T>> lookup, Long id) {
+    return () -> {
+      try {
+        return inH2(lookup);
+      } catch (RuntimeException e) {
+        logH2Failure(e, "Error looking up task with id {} in H2. Trying in PostgreSQL.", id);
+        throw e;
+      }
+    };
+  }
+
+  private static Optional<Boolean> existing(boolean exists) {
+    return exists ? Optional.of(true) : Optional.empty();
+  }
+
+  private static Void save(TaskJdbcRepository repository, List<TaskEntity> tasks, List<TaskOutboxMessage> messages) {
+    int inserted = repository.insertAll(tasks);
+    if (inserted != tasks.size()) {
+      throw new JdbcUpdateAffectedIncorrectNumberOfRowsException("INSERT INTO task", tasks.size(), inserted);
+    }
+    repository.insertOutboxMessages(messages);
+    return null;
+  }
+
+  private boolean delete(TaskJdbcRepository repository, Long id) {
+    if (repository.deleteById(id) == 0) {
+      return false;
+    }
+    repository.insertOutboxMessages(List.of(taskOutboxService.deleted(id)));
+    return true;
+  }
+
+  private int[] updateAll(TaskJdbcRepository repository, List<TaskEntity> tasks) {
+    return appendEvents(repository, tasks, repository.updateAll(tasks), task -> taskOutboxService.updated(task, null));
+  }
+
+  private int[] deleteAll(TaskJdbcRepository repository, List<Long> ids) {
+    return appendEvents(repository, ids, repository.deleteAllById(ids), taskOutboxService::deleted);
+  }
+
+  /**
+   * Appends the events of the items a batch statement affected, i.e. those with a positive update count.
+   */
+  private static <T> int[] appendEvents(TaskJdbcRepository repository, List<T> items, int[] counts,
+      Function<T, TaskOutboxMessage> event) {
+    repository.insertOutboxMessages(IntStream.range(0, counts.length)
+        .filter(i -> counts[i] > 0)
+        .mapToObj(i -> event.apply(items.get(i)))
+        .toList());
+    return counts;
+  }
+
+  private void allocateId(TaskEntity task) {
+    if (task.getId() == null) {
+      task.setId(taskIdAllocator.nextId());
+    }
+  }
+
+  /**
+   * Runs the call through the H2 circuit breaker, failing fast with {@link CallNotPermittedException} while it is open.
    */
-  public void deleteById(Long id) {
+  private <T> T inH2(Supplier<T> call) {
+    return h2CircuitBreaker.executeSupplier(call);
+  }
+
+  private <T> T inPostgres(Supplier<T> call) {
+    return postgresCircuitBreaker.executeSupplier(call);
+  }
+
+  /**
+   * Logs why H2 was skipped. A rejected call of an open circuit carries no stack trace and is logged without one.
+   */
+  private static void logH2Failure(Exception e, String message, Object... arguments) {
+    if (e instanceof CallNotPermittedException) {
+      log.trace("H2 circuit breaker is open. " + message, arguments);
+      return;
+    }
+    Object[] argumentsWithException = Arrays.copyOf(arguments, arguments.length + 1);
+    argumentsWithException[arguments.length] = e;
+    log.error(message, argumentsWithException);
+  }
+
+  private static <T> boolean[] applyWithFallback(List<T> items, Function<List<T>, int[]> h2Batch,
+      Function<List<T>, int[]> postgresBatch, String operation) {
+    boolean[] applied = new boolean[items.size()];
+    if (items.isEmpty()) {
+      return applied;
+    }
     try {
-      transactionManagementService.executeInH2WithoutResult(repository -> repository.deleteById(id));
-      log.trace("Deleted task with id {} in H2.", id);
+      int[] h2Counts = h2Batch.apply(items);
+      for (int i = 0; i < h2Counts.length; i++) {
+        applied[i] = h2Counts[i] > 0;
+      }
+      log.trace("Finished {} batch of {} tasks in H2.", operation, items.size());
     } catch (Exception e) {
-      log.error("Error deleting task with id {} in H2. Trying to delete in PostgreSQL.", id, e);
-      transactionManagementService.executeInPostgresWithoutResult(repository -> repository.deleteById(id));
-      log.trace("Deleted task with id {} in PostgreSQL.", id);
+      logH2Failure(e, "Error {} batch of tasks in H2. Trying in PostgreSQL.", operation);
+    }
+    List<Integer> remaining = IntStream.range(0, items.size())
+        .filter(i -> !applied[i])
+        .boxed()
+        .toList();
+    if (remaining.isEmpty()) {
+      return applied;
+    }
+    int[] postgresCounts = postgresBatch.apply(remaining.stream().map(items::get).toList());
+    for (int i = 0; i < postgresCounts.length; i++) {
+      applied[remaining.get(i)] = postgresCounts[i] > 0;
     }
+    log.trace("Finished {} batch of {} tasks in PostgreSQL.", operation, remaining.size());
+    return applied;
+  }
+
+  /**
+   * Fetches the tasks from both databases concurrently and merges them. Both fetches must return
+   * their tasks sorted in {@code order}; tasks which compare as equal are the same task stored in both databases.
+   * Each fetch is given the fetch timeout of its database to apply to its queries, so a query still running
+   * when the listing stops waiting is cancelled in the database rather than holding a connection.
+   */
+  private TaskMergeResult fetchFromBothStores(Function<Duration, List<TaskEntity>> h2Fetch,
+      Function<Duration, List<TaskEntity>> postgresFetch, Comparator<TaskEntity> order, int limit) {
+    Duration h2Timeout = hedgedReadService.fetchTimeout(TaskStore.H2);
+    Duration postgresTimeout = hedgedReadService.fetchTimeout(TaskStore.POSTGRES);
+    CompletableFuture<List<TaskEntity>> h2Tasks =
+        hedgedReadService.readAsync(() -> inH2(() -> h2Fetch.apply(h2Timeout)), TaskStore.H2);
+    CompletableFuture<List<TaskEntity>> postgresTasks =
+        hedgedReadService.readAsync(() -> inPostgres(() -> postgresFetch.apply(postgresTimeout)), TaskStore.POSTGRES);
+    Set<TaskStore> unavailableStores = EnumSet.noneOf(TaskStore.class);
+    List<List<TaskEntity>> sources = new ArrayList<>(2);
+    sources.add(awaitStore(h2Tasks, TaskStore.H2, unavailableStores));
+    sources.add(awaitStore(postgresTasks, TaskStore.POSTGRES, unavailableStores));
+    if (unavailableStores.size() == 2) {
+      throw new ApiResponseException("Task storage is temporarily unavailable.", HttpStatus.SERVICE_UNAVAILABLE);
+    }
+    return new TaskMergeResult(TaskMerger.mergeSorted(sources, order, limit), unavailableStores);
+  }
+
+  private static List<TaskEntity> awaitStore(CompletableFuture<List<TaskEntity>> tasks, TaskStore store,
+      Set<TaskStore> unavailableStores) {
+    try {
+      List<TaskEntity> result = tasks.join();
+      log.trace("Retrieved {} tasks from {}.", result.size(), store);
+      return result;
+    } catch (CompletionException e) {
+      unavailableStores.add(store);
+      if (e.getCause() instanceof TimeoutException) {
+        log.warn("Timed out finding tasks in {}, leaving its tasks out.", store);
+      } else if (e.getCause() instanceof RejectedExecutionException) {
+        log.warn("Read thread pool is saturated, leaving the tasks of {} out.", store);
+      } else if (e.getCause() instanceof CallNotPermittedException) {
+        log.trace("{} circuit breaker is open, leaving its tasks out.", store);
+      } else {
+        log.error("Error finding tasks in {}, leaving its tasks out.", store, e.getCause());
+      }
+      return Collections.emptyList();
+    }
+  }
+
+  private static List<TaskEntity> findPage(JpaSpecificationExecutor<TaskEntity> repository,
+      Specification<TaskEntity> specification, int limit) {
+    return repository.findBy(specification, query -> query.sortBy(TaskSpecifications.KEYSET_SORT).limit(limit).all());
   }
 }
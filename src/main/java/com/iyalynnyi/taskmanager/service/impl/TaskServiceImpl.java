@@ -2,15 +2,21 @@ package com.iyalynnyi.taskmanager.service.impl;
 
 import com.iyalynnyi.taskmanager.converter.TaskConverter;
 import com.iyalynnyi.taskmanager.dao.model.TaskEntity;
+import com.iyalynnyi.taskmanager.dto.TaskBatchItemResult;
+import com.iyalynnyi.taskmanager.dto.TaskBatchRequest;
+import com.iyalynnyi.taskmanager.dto.TaskBatchResultDto;
 import com.iyalynnyi.taskmanager.dto.TaskDto;
+import com.iyalynnyi.taskmanager.dto.TaskFilter;
+import com.iyalynnyi.taskmanager.dto.TaskPageDto;
 import com.iyalynnyi.taskmanager.dto.TaskStatus;
 import com.iyalynnyi.taskmanager.exception.ApiResponseException;
-import com.iyalynnyi.taskmanager.service.TaskKafkaProducer;
+import com.iyalynnyi.taskmanager.service.TaskMergeResult;
 import com.iyalynnyi.taskmanager.service.TaskService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import java.util.ArrayList;
 import java.util.List;
 
 @Slf4j
@@ -18,9 +24,11 @@ import java.util.List;
 @RequiredArgsConstructor
 public class TaskServiceImpl implements TaskService {
 
+  static final int MAX_PAGE_SIZE = 500;
+  static final int MAX_BATCH_SIZE = 1000;
+
   private final TaskRepositoryManagementServiceImpl taskRepositoryManagementService;
   private final TaskConverter taskConverter;
-  private final TaskKafkaProducer taskKafkaProducer;
 
   /**
    * Creates a new task.
@@ -35,61 +43,83 @@ public class TaskServiceImpl implements TaskService {
     TaskEntity entity = taskConverter.toEntity(taskDto);
     taskRepositoryManagementService.saveWithFallback(entity);
     log.trace("Created task with id: {}", entity.getId());
-    taskKafkaProducer.sendTask(taskConverter.toDto(entity));
     return entity.getId();
   }
 
   /**
-   * Updates an existing task.
+   * Updates an existing task with a single UPDATE statement, without reading the task first.
    *
-   * @param taskDto the task data transfer object containing updated task details
-   * @return a success message indicating the task was updated
-   * @throws ApiResponseException if the task ID is null or not found
+   * @param taskDto         the task data transfer object containing updated task details
+   * @param expectedVersion the version the task must still have, or null to overwrite any version
+   * @return the new version of the task
+   * @throws ApiResponseException if the task ID is null, the task is not found or it has another version
    */
   @Override
-  public String updateTask(TaskDto taskDto) {
+  public Long updateTask(TaskDto taskDto, Long expectedVersion) {
     log.trace("Updating task: {}", taskDto);
     if (taskDto.getId() == null) {
       throw new ApiResponseException("Task Id is required to update the task!", HttpStatus.BAD_REQUEST);
     }
-    TaskEntity taskEntity = taskRepositoryManagementService.findByIdWithFallback(taskDto.getId());
-    TaskEntity updatedEntity = taskConverter.updateEntity(taskEntity, taskDto);
-    taskRepositoryManagementService.saveWithFallback(updatedEntity);
-    log.trace("Updated task with id: {}", updatedEntity.getId());
-    return "Task updated successfully.";
+    TaskEntity updatedEntity = taskConverter.updateEntity(TaskEntity.builder().id(taskDto.getId()).build(), taskDto);
+    Long version = taskRepositoryManagementService.updateWithFallback(updatedEntity, expectedVersion);
+    if (version == null) {
+      throw new ApiResponseException("Task not found!", HttpStatus.BAD_REQUEST);
+    }
+    log.trace("Updated task with id: {} to version: {}", updatedEntity.getId(), version);
+    return version;
   }
 
   /**
-   * Updates the status of a specific task.
+   * Updates the status of a specific task, changing only its status and update date in a single statement.
    *
-   * @param id the ID of the task to be updated
-   * @param taskStatus the new status for the task
-   * @return a success message indicating the status was updated
-   * @throws ApiResponseException if the task is not found
+   * @param id              the ID of the task to be updated
+   * @param taskStatus      the new status for the task
+   * @param expectedVersion the version the task must still have, or null to overwrite any version
+   * @return the new version of the task
+   * @throws ApiResponseException if the task is not found or it has another version
    */
   @Override
-  public String updateStatus(Long id, TaskStatus taskStatus) {
+  public Long updateStatus(Long id, TaskStatus taskStatus, Long expectedVersion) {
     log.trace("Updating status of task with id: {}", id);
-    TaskEntity taskEntity = taskRepositoryManagementService.findByIdWithFallback(id);
-    taskEntity.setStatus(taskStatus);
-    taskRepositoryManagementService.saveWithFallback(taskEntity);
-    log.trace("Updated status of task with id: {}", taskEntity.getId());
-    return "Status updated successfully.";
+    Long version = taskRepositoryManagementService.updateStatusWithFallback(id, taskStatus, expectedVersion);
+    if (version == null) {
+      throw new ApiResponseException("Task not found!", HttpStatus.BAD_REQUEST);
+    }
+    log.trace("Updated status of task with id: {} to version: {}", id, version);
+    return version;
   }
 
   /**
-   * Retrieves all tasks.
+   * Retrieves one page of tasks matching the filter, ordered by creation date and ID.
    *
-   * @return a list of tasks or an empty list
+   * @param filter the criteria the tasks should match
+   * @param cursor the cursor returned with the previous page, or null for the first page
+   * @param limit  the maximum number of tasks in the page
+   * @return the page of tasks, the cursor of the next page, which is null on the last page,
+   *     and the databases whose tasks are missing because they were unavailable
+   * @throws ApiResponseException if the limit is out of range or the cursor is malformed
    */
   @Override
-  public List<TaskDto> getTasks() {
-    log.trace("Retrieving all tasks");
-    return taskConverter.toDtos(taskRepositoryManagementService.findAllWithFallback());
+  public TaskPageDto getTasks(TaskFilter filter, String cursor, int limit) {
+    log.trace("Retrieving page of {} tasks after cursor {}", limit, cursor);
+    if (limit < 1 || limit > MAX_PAGE_SIZE) {
+      throw new ApiResponseException(String.format("Limit should be between 1 and %d.", MAX_PAGE_SIZE),
+          HttpStatus.BAD_REQUEST);
+    }
+    TaskMergeResult result = taskRepositoryManagementService.findPageWithFallback(filter,
+        taskConverter.decodeCursor(cursor), limit + 1);
+    List<TaskEntity> tasks = result.getTasks();
+    boolean hasNextPage = tasks.size() > limit;
+    List<TaskEntity> page = hasNextPage ? tasks.subList(0, limit) : tasks;
+    return TaskPageDto.builder()
+        .items(taskConverter.toDtos(page))
+        .nextCursor(hasNextPage ? taskConverter.encodeCursor(page.get(page.size() - 1)) : null)
+        .unavailableStores(new ArrayList<>(result.getUnavailableStores()))
+        .build();
   }
 
   /**
-   * Deletes a task by its ID.
+   * Deletes a task by its ID with a single DELETE statement, telling a missing task by the number of deleted rows.
    *
    * @param id the ID of the task to be deleted
    * @return a success message indicating the task was deleted
@@ -98,12 +128,151 @@ public class TaskServiceImpl implements TaskService {
   @Override
   public String deleteTaskById(Long id) {
     log.trace("Deleting task with id: {}", id);
-    if (!taskRepositoryManagementService.existsById(id)) {
+    if (!taskRepositoryManagementService.deleteById(id)) {
       throw new ApiResponseException("Task not found!", HttpStatus.NOT_FOUND);
     }
-    taskRepositoryManagementService.deleteById(id);
     log.trace("Deleted task with id: {}", id);
     return "Task deleted successfully.";
   }
 
+  /**
+   * Deletes the tasks with the given IDs as JDBC batches, without reading them first.
+   *
+   * @param ids the IDs of the tasks to be deleted
+   * @return the result of every ID, either deleted, not found or failed
+   * @throws ApiResponseException if there are too many IDs
+   */
+  @Override
+  public TaskBatchResultDto deleteTasksByIds(List<Long> ids) {
+    log.trace("Deleting {} tasks by id", ids.size());
+    if (ids.size() > MAX_BATCH_SIZE) {
+      throw new ApiResponseException(String.format("Batch should contain at most %d items.", MAX_BATCH_SIZE),
+          HttpStatus.BAD_REQUEST);
+    }
+    List<TaskBatchItemResult> results = new ArrayList<>(ids.size());
+    deleteBatch(ids, results);
+    return TaskBatchResultDto.builder().results(results).build();
+  }
+
+  /**
+   * Processes a batch of task creations, updates and deletions.
+   * Every kind of operation is executed as one JDBC batch per database, and the events of the created, updated
+   * and deleted tasks are appended to the outbox in the transaction of their batch.
+   *
+   * @param batchRequest the tasks to create and update and the IDs of the tasks to delete
+   * @return the result of every item of the batch
+   * @throws ApiResponseException if the batch contains too many items
+   */
+  @Override
+  public TaskBatchResultDto processBatch(TaskBatchRequest batchRequest) {
+    List<TaskDto> creates = batchRequest.getCreate() == null ? List.of() : batchRequest.getCreate();
+    List<TaskDto> updates = batchRequest.getUpdate() == null ? List.of() : batchRequest.getUpdate();
+    List<Long> deletes = batchRequest.getDelete() == null ? List.of() : batchRequest.getDelete();
+    log.trace("Processing batch of {} creates, {} updates and {} deletes", creates.size(), updates.size(), deletes.size());
+    if (creates.size() + updates.size() + deletes.size() > MAX_BATCH_SIZE) {
+      throw new ApiResponseException(String.format("Batch should contain at most %d items.", MAX_BATCH_SIZE),
+          HttpStatus.BAD_REQUEST);
+    }
+    List<TaskBatchItemResult> results = new ArrayList<>(creates.size() + updates.size() + deletes.size());
+    createBatch(creates, results);
+    updateBatch(updates, results);
+    deleteBatch(deletes, results);
+    return TaskBatchResultDto.builder().results(results).build();
+  }
+
+  private void createBatch(List<TaskDto> creates, List<TaskBatchItemResult> results) {
+    if (creates.isEmpty()) {
+      return;
+    }
+    List<TaskEntity> entities = creates.stream().map(taskConverter::toEntity).toList();
+    try {
+      taskRepositoryManagementService.saveAllWithFallback(entities);
+    } catch (Exception e) {
+      log.error("Error creating batch of {} tasks.", entities.size(), e);
+      for (int i = 0; i < creates.size(); i++) {
+        results.add(itemResult(TaskBatchItemResult.Operation.CREATE, i, null, TaskBatchItemResult.Status.FAILED,
+            "Failed to create task."));
+      }
+      return;
+    }
+    for (int i = 0; i < entities.size(); i++) {
+      results.add(itemResult(TaskBatchItemResult.Operation.CREATE, i, entities.get(i).getId(),
+          TaskBatchItemResult.Status.CREATED, null));
+    }
+    log.trace("Created batch of {} tasks", entities.size());
+  }
+
+  private void updateBatch(List<TaskDto> updates, List<TaskBatchItemResult> results) {
+    List<Integer> indexes = new ArrayList<>();
+    List<TaskEntity> entities = new ArrayList<>();
+    for (int i = 0; i < updates.size(); i++) {
+      TaskDto taskDto = updates.get(i);
+      if (taskDto.getId() == null) {
+        results.add(itemResult(TaskBatchItemResult.Operation.UPDATE, i, null, TaskBatchItemResult.Status.FAILED,
+            "Task Id is required to update the task!"));
+        continue;
+      }
+      TaskEntity entity = taskConverter.updateEntity(new TaskEntity(), taskDto);
+      entity.setId(taskDto.getId());
+      indexes.add(i);
+      entities.add(entity);
+    }
+    if (entities.isEmpty()) {
+      return;
+    }
+    boolean[] updated;
+    try {
+      updated = taskRepositoryManagementService.updateAllWithFallback(entities);
+    } catch (Exception e) {
+      log.error("Error updating batch of {} tasks.", entities.size(), e);
+      for (int i = 0; i < entities.size(); i++) {
+        results.add(itemResult(TaskBatchItemResult.Operation.UPDATE, indexes.get(i), entities.get(i).getId(),
+            TaskBatchItemResult.Status.FAILED, "Failed to update task."));
+      }
+      return;
+    }
+    for (int i = 0; i < entities.size(); i++) {
+      results.add(updated[i]
+          ? itemResult(TaskBatchItemResult.Operation.UPDATE, indexes.get(i), entities.get(i).getId(),
+              TaskBatchItemResult.Status.UPDATED, null)
+          : itemResult(TaskBatchItemResult.Operation.UPDATE, indexes.get(i), entities.get(i).getId(),
+              TaskBatchItemResult.Status.NOT_FOUND, "Task not found!"));
+    }
+    log.trace("Updated batch of {} tasks", entities.size());
+  }
+
+  private void deleteBatch(List<Long> deletes, List<TaskBatchItemResult> results) {
+    if (deletes.isEmpty()) {
+      return;
+    }
+    boolean[] deleted;
+    try {
+      deleted = taskRepositoryManagementService.deleteAllByIdWithFallback(deletes);
+    } catch (Exception e) {
+      log.error("Error deleting batch of {} tasks.", deletes.size(), e);
+      for (int i = 0; i < deletes.size(); i++) {
+        results.add(itemResult(TaskBatchItemResult.Operation.DELETE, i, deletes.get(i),
+            TaskBatchItemResult.Status.FAILED, "Failed to delete task."));
+      }
+      return;
+    }
+    for (int i = 0; i < deletes.size(); i++) {
+      results.add(deleted[i]
+          ? itemResult(TaskBatchItemResult.Operation.DELETE, i, deletes.get(i), TaskBatchItemResult.Status.DELETED, null)
+          : itemResult(TaskBatchItemResult.Operation.DELETE, i, deletes.get(i), TaskBatchItemResult.Status.NOT_FOUND,
+              "Task not found!"));
+    }
+    log.trace("Deleted batch of {} tasks", deletes.size());
+  }
+
+  private static TaskBatchItemResult itemResult(TaskBatchItemResult.Operation operation, int index, Long id,
+      TaskBatchItemResult.Status status, String message) {
+    return TaskBatchItemResult.builder()
+        .operation(operation)
+        .index(index)
+        .id(id)
+        .status(status)
+        .message(message)
+        .build();
+  }
 }
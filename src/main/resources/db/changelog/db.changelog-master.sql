@@ -1,3 +1,8 @@
+--liquibase formatted sql
+
+--changeset iyalynnyi:create-task-table
+--preconditions onFail:MARK_RAN
+--precondition-sql-check expectedResult:0 SELECT COUNT(*) FROM information_schema.tables WHERE LOWER(table_name) = 'task' AND table_schema = CURRENT_SCHEMA
 CREATE TABLE task (
                        id BIGSERIAL PRIMARY KEY,
                        title VARCHAR(100) NOT NULL,
@@ -10,3 +15,93 @@ CREATE TABLE task (
                        assignee VARCHAR(50),
                        reporter VARCHAR(50)
 );
+
+--changeset iyalynnyi:create-task-page-indexes
+CREATE INDEX idx_task_created_date_id ON task (created_date, id);
+CREATE INDEX idx_task_status_created_date_id ON task (status, created_date, id);
+CREATE INDEX idx_task_priority_created_date_id ON task (priority, created_date, id);
+CREATE INDEX idx_task_assignee_created_date_id ON task (assignee, created_date, id);
+CREATE INDEX idx_task_due_date ON task (due_date);
+
+--changeset iyalynnyi:add-task-version
+ALTER TABLE task ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+
+--changeset iyalynnyi:create-task-sync-checkpoint
+CREATE TABLE task_sync_checkpoint (
+                       name VARCHAR(50) PRIMARY KEY,
+                       last_id BIGINT NOT NULL,
+                       moved_count BIGINT NOT NULL,
+                       updated_date TIMESTAMP NOT NULL
+);
+
+--changeset iyalynnyi:add-task-sync-checkpoint-max-id
+ALTER TABLE task_sync_checkpoint ADD COLUMN max_id BIGINT;
+
+--changeset iyalynnyi:create-task-sync-lease
+CREATE TABLE task_sync_lease (
+                       name VARCHAR(50) PRIMARY KEY,
+                       owner VARCHAR(100),
+                       fencing_token BIGINT NOT NULL,
+                       expires_at TIMESTAMP NOT NULL
+);
+INSERT INTO task_sync_lease (name, owner, fencing_token, expires_at)
+VALUES ('postgres-to-h2', NULL, 0, TIMESTAMP '1970-01-01 00:00:00');
+ALTER TABLE task_sync_checkpoint ADD COLUMN fencing_token BIGINT DEFAULT 0 NOT NULL;
+
+--changeset iyalynnyi:create-task-change-log dbms:postgresql
+CREATE TABLE task_change_log (
+                       seq BIGSERIAL PRIMARY KEY,
+                       task_id BIGINT NOT NULL,
+                       operation CHAR(1) NOT NULL,
+                       changed_at TIMESTAMP DEFAULT LOCALTIMESTAMP NOT NULL
+);
+
+--changeset iyalynnyi:create-task-change-log-function dbms:postgresql splitStatements:false
+CREATE FUNCTION log_task_change() RETURNS TRIGGER AS $$
+BEGIN
+    IF current_setting('taskmanager.sync', true) = 'on' THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP = 'DELETE' THEN
+        INSERT INTO task_change_log (task_id, operation) VALUES (OLD.id, 'D');
+    ELSE
+        INSERT INTO task_change_log (task_id, operation) VALUES (NEW.id, substr(TG_OP, 1, 1));
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+--changeset iyalynnyi:create-task-change-log-trigger dbms:postgresql
+CREATE TRIGGER task_change_log_trigger AFTER INSERT OR UPDATE OR DELETE ON task
+    FOR EACH ROW EXECUTE FUNCTION log_task_change();
+INSERT INTO task_change_log (task_id, operation) SELECT id, 'I' FROM task ORDER BY id;
+
+--changeset iyalynnyi:reset-task-sync-checkpoint
+DELETE FROM task_sync_checkpoint;
+
+--changeset iyalynnyi:create-task-outbox
+CREATE TABLE task_outbox (
+                       seq BIGSERIAL PRIMARY KEY,
+                       task_id BIGINT NOT NULL,
+                       payload TEXT NOT NULL,
+                       created_at TIMESTAMP DEFAULT LOCALTIMESTAMP NOT NULL,
+                       sent_at TIMESTAMP
+);
+CREATE INDEX idx_task_outbox_sent_at_seq ON task_outbox (sent_at, seq);
+
+--changeset iyalynnyi:add-task-outbox-event-type
+ALTER TABLE task_outbox ADD COLUMN event_type VARCHAR(20) DEFAULT 'CREATED' NOT NULL;
+
+--changeset iyalynnyi:add-task-outbox-relay-lease
+INSERT INTO task_sync_lease (name, owner, fencing_token, expires_at)
+VALUES ('task-outbox-relay', NULL, 0, TIMESTAMP '1970-01-01 00:00:00');
+CREATE INDEX idx_task_outbox_task_id ON task_outbox (task_id);
+
+--changeset iyalynnyi:set-task-change-log-commit-clock dbms:postgresql
+ALTER TABLE task_change_log ALTER COLUMN changed_at SET DEFAULT clock_timestamp()::timestamp;
+
+--changeset iyalynnyi:create-task-legacy-id dbms:h2
+CREATE TABLE task_legacy_id (
+                       legacy_id BIGINT PRIMARY KEY,
+                       task_id BIGINT NOT NULL
+);
@@ -2,9 +2,14 @@ package com.iyalynnyi.taskmanager.controller;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -12,11 +17,20 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 
+import com.iyalynnyi.taskmanager.dto.TaskBatchItemResult;
+import com.iyalynnyi.taskmanager.dto.TaskBatchRequest;
+import com.iyalynnyi.taskmanager.dto.TaskBatchResultDto;
 import com.iyalynnyi.taskmanager.dto.TaskDto;
+import com.iyalynnyi.taskmanager.dto.TaskFilter;
+import com.iyalynnyi.taskmanager.dto.TaskPageDto;
+import com.iyalynnyi.taskmanager.dto.TaskPriority;
 import com.iyalynnyi.taskmanager.dto.TaskStatus;
+import com.iyalynnyi.taskmanager.exception.ApiResponseException;
+import com.iyalynnyi.taskmanager.service.TaskExportService;
 import com.iyalynnyi.taskmanager.service.TaskService;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -24,8 +38,11 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 
@@ -34,35 +51,129 @@ class TaskControllerTest {
 
   private TaskService taskService;
 
+  private TaskExportService taskExportService;
+
   private TaskController taskController;
 
   @BeforeEach
   void setUp() {
     taskService = Mockito.mock(TaskService.class);
-    taskController = new TaskController(taskService);
+    taskExportService = Mockito.mock(TaskExportService.class);
+    taskController = new TaskController(taskService, taskExportService);
     mockMvc = MockMvcBuilders.standaloneSetup(taskController).build();
   }
 
   @Test
-  void getAll_shouldReturnListOfTasks() throws Exception {
+  void getAll_shouldReturnPageOfTasks() throws Exception {
     // Given
     List<TaskDto> tasks = Arrays.asList(
         TaskDto.builder().id(1L).title("Task 1").build(),
         TaskDto.builder().id(2L).title("Task 2").build()
     );
-    when(taskService.getTasks()).thenReturn(tasks);
+    when(taskService.getTasks(any(TaskFilter.class), isNull(), eq(50)))
+        .thenReturn(TaskPageDto.builder().items(tasks).nextCursor("next").build());
 
     // When & Then
     mockMvc.perform(get("/api/v1/tasks")
             .accept(MediaType.APPLICATION_JSON))
         .andExpect(status().isOk())
         .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-        .andExpect(jsonPath("$[0].id").value(1L))
-        .andExpect(jsonPath("$[0].title").value("Task 1"))
-        .andExpect(jsonPath("$[1].id").value(2L))
-        .andExpect(jsonPath("$[1].title").value("Task 2"));
+        .andExpect(jsonPath("$.items[0].id").value(1L))
+        .andExpect(jsonPath("$.items[0].title").value("Task 1"))
+        .andExpect(jsonPath("$.items[1].id").value(2L))
+        .andExpect(jsonPath("$.items[1].title").value("Task 2"))
+        .andExpect(jsonPath("$.nextCursor").value("next"));
+
+    verify(taskService, times(1)).getTasks(any(TaskFilter.class), isNull(), eq(50));
+  }
+
+  @Test
+  void getAll_shouldPassFilterCursorAndLimit() throws Exception {
+    // Given
+    when(taskService.getTasks(any(TaskFilter.class), eq("abc"), eq(10)))
+        .thenReturn(TaskPageDto.builder().items(List.of()).build());
+
+    // When & Then
+    mockMvc.perform(get("/api/v1/tasks")
+            .param("status", "DONE")
+            .param("priority", "HIGH")
+            .param("assignee", "user1")
+            .param("dueFrom", "2024-10-01T00:00:00")
+            .param("dueTo", "2024-10-31T23:59:59")
+            .param("cursor", "abc")
+            .param("limit", "10"))
+        .andExpect(status().isOk());
+
+    verify(taskService).getTasks(argThat(filter -> filter.getStatus() == TaskStatus.DONE
+        && filter.getPriority() == TaskPriority.HIGH
+        && "user1".equals(filter.getAssignee())
+        && filter.getDueFrom() != null
+        && filter.getDueTo() != null), eq("abc"), eq(10));
+  }
+
+  @Test
+  void exportTasks_shouldStreamNdjson() throws Exception {
+    // Given
+    doAnswer(invocation -> {
+      OutputStream outputStream = invocation.getArgument(0);
+      outputStream.write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+      return null;
+    }).when(taskExportService).exportTasks(any(OutputStream.class));
+
+    // When
+    MvcResult mvcResult = mockMvc.perform(get("/api/v1/tasks/export"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    // Then
+    mockMvc.perform(asyncDispatch(mvcResult))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+        .andExpect(header().doesNotExist("Content-Encoding"))
+        .andExpect(content().string("{\"id\":1}\n"));
+  }
+
+  @Test
+  void exportTasks_shouldGzipWhenAccepted() throws Exception {
+    // When
+    MvcResult mvcResult = mockMvc.perform(get("/api/v1/tasks/export")
+            .header("Accept-Encoding", "gzip, deflate"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    // Then
+    mockMvc.perform(asyncDispatch(mvcResult))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Content-Encoding", "gzip"));
+    verify(taskExportService).exportTasks(any(OutputStream.class));
+  }
+
+  @Test
+  void exportTasks_shouldNotGzipWhenGzipHasZeroQuality() throws Exception {
+    // When
+    MvcResult mvcResult = mockMvc.perform(get("/api/v1/tasks/export")
+            .header("Accept-Encoding", "gzip;q=0, deflate"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    // Then
+    mockMvc.perform(asyncDispatch(mvcResult))
+        .andExpect(status().isOk())
+        .andExpect(header().doesNotExist("Content-Encoding"));
+  }
 
-    verify(taskService, times(1)).getTasks();
+  @Test
+  void exportTasks_shouldGzipWhenAcceptedThroughWildcard() throws Exception {
+    // When
+    MvcResult mvcResult = mockMvc.perform(get("/api/v1/tasks/export")
+            .header("Accept-Encoding", "br;q=0.9, *;q=0.5"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    // Then
+    mockMvc.perform(asyncDispatch(mvcResult))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Content-Encoding", "gzip"));
   }
 
   @Test
@@ -107,11 +218,29 @@ class TaskControllerTest {
     verify(taskService, times(1)).deleteTaskById(taskId);
   }
 
+  @Test
+  void deleteTasks_shouldReturnResultPerId() throws Exception {
+    // Given
+    when(taskService.deleteTasksByIds(List.of(1L, 2L))).thenReturn(TaskBatchResultDto.builder()
+        .results(List.of(
+            TaskBatchItemResult.builder().operation(TaskBatchItemResult.Operation.DELETE).index(0).id(1L)
+                .status(TaskBatchItemResult.Status.DELETED).build(),
+            TaskBatchItemResult.builder().operation(TaskBatchItemResult.Operation.DELETE).index(1).id(2L)
+                .status(TaskBatchItemResult.Status.NOT_FOUND).build()))
+        .build());
+
+    // When & Then
+    mockMvc.perform(delete("/api/v1/tasks").param("ids", "1,2"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.results[0].status").value("DELETED"))
+        .andExpect(jsonPath("$.results[1].status").value("NOT_FOUND"));
+  }
+
   @Test
   void updateTask_shouldReturnOk() throws Exception {
     // Given
     Long taskId = 1L;
-    when(taskService.updateTask(any(TaskDto.class))).thenReturn("Task updated");
+    when(taskService.updateTask(any(TaskDto.class), isNull())).thenReturn(2L);
 
     // When & Then
     mockMvc.perform(patch("/api/v1/tasks/{id}", taskId)
@@ -129,9 +258,37 @@ class TaskControllerTest {
                         "tags": ["authentication", "backend"]
                     }
                 """)).andExpect(status().isOk())
-        .andExpect(content().string("Task updated"));
+        .andExpect(header().string("ETag", "\"2\""))
+        .andExpect(content().string("Task updated successfully."));
+
+    verify(taskService, times(1)).updateTask(any(TaskDto.class), isNull());
+  }
+
+  @Test
+  void updateTask_shouldPassVersionOfIfMatchHeader() throws Exception {
+    // Given
+    when(taskService.updateTask(any(TaskDto.class), eq(3L))).thenReturn(4L);
+
+    // When & Then
+    mockMvc.perform(patch("/api/v1/tasks/{id}", 1L)
+            .header("If-Match", "\"3\"")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("""
+                {"title": "Implement authentication", "status": "IN_PROGRESS", "priority": "HIGH"}
+                """))
+        .andExpect(status().isOk())
+        .andExpect(header().string("ETag", "\"4\""));
+
+    verify(taskService).updateTask(argThat(taskDto -> taskDto.getId() == 1L), eq(3L));
+  }
 
-    verify(taskService, times(1)).updateTask(any(TaskDto.class));
+  @Test
+  void parseIfMatch_shouldAcceptStrongWeakAndWildcardTags() {
+    assertEquals(5L, TaskController.parseIfMatch("\"5\""));
+    assertEquals(5L, TaskController.parseIfMatch("W/\"5\""));
+    assertNull(TaskController.parseIfMatch("*"));
+    assertNull(TaskController.parseIfMatch(null));
+    assertThrows(ApiResponseException.class, () -> TaskController.parseIfMatch("\"abc\""));
   }
 
   @Test
@@ -139,14 +296,45 @@ class TaskControllerTest {
     // Given
     Long taskId = 1L;
     TaskStatus newStatus = TaskStatus.IN_PROGRESS; // предположим, что у вас есть статус IN_PROGRESS
-    when(taskService.updateStatus(taskId, newStatus)).thenReturn("Task status updated");
+    when(taskService.updateStatus(taskId, newStatus, 1L)).thenReturn(2L);
 
     // When & Then
     mockMvc.perform(put("/api/v1/tasks/{id}", taskId)
+            .header("If-Match", "\"1\"")
             .param("status", newStatus.name()))
         .andExpect(status().isOk())
-        .andExpect(content().string("Task status updated"));
+        .andExpect(header().string("ETag", "\"2\""))
+        .andExpect(content().string("Status updated successfully."));
+
+    verify(taskService, times(1)).updateStatus(taskId, newStatus, 1L);
+  }
+
+  @Test
+  void processBatch_shouldReturnItemResults() throws Exception {
+    // Given
+    when(taskService.processBatch(any(TaskBatchRequest.class))).thenReturn(TaskBatchResultDto.builder()
+        .results(List.of(TaskBatchItemResult.builder()
+            .operation(TaskBatchItemResult.Operation.DELETE)
+            .index(0)
+            .id(5L)
+            .status(TaskBatchItemResult.Status.DELETED)
+            .build()))
+        .build());
+
+    // When & Then
+    mockMvc.perform(post("/api/v1/tasks/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("""
+                {
+                  "create": [{"title": "Task", "status": "TODO", "priority": "LOW"}],
+                  "delete": [5]
+                }
+                """))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.results[0].id").value(5L))
+        .andExpect(jsonPath("$.results[0].status").value("DELETED"));
 
-    verify(taskService, times(1)).updateStatus(taskId, newStatus);
+    verify(taskService).processBatch(argThat(request -> request.getCreate().size() == 1
+        && request.getDelete().equals(List.of(5L))));
   }
 }
\ No newline at end of file
@@ -8,7 +8,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import com.iyalynnyi.taskmanager.dao.model.TaskEntity;
+import com.iyalynnyi.taskmanager.dto.TaskCursor;
 import com.iyalynnyi.taskmanager.dto.TaskDto;
+import com.iyalynnyi.taskmanager.exception.ApiResponseException;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -65,6 +67,19 @@ class TaskConverterTest {
     assertThat(result).isNull();
   }
 
+  @Test
+  void toDto_shouldKeepCreatedDateOfEntity() {
+    // Given
+    LocalDateTime createdDate = LocalDateTime.of(2024, 10, 1, 10, 0);
+    TaskEntity taskEntity = TaskEntity.builder().id(1L).createdDate(createdDate).build();
+
+    // When
+    TaskDto result = taskConverter.toDto(taskEntity);
+
+    // Then
+    assertThat(result.getCreatedDate()).isEqualTo(createdDate);
+  }
+
   @Test
   void toDtos_shouldConvertListOfTaskEntitiesToListOfTaskDtos() {
     // Given
@@ -141,4 +156,30 @@ class TaskConverterTest {
     // Then
     assertThrows(IllegalArgumentException.class, () -> taskConverter.updateEntity(taskEntity, null));
   }
+
+  @Test
+  void decodeCursor_shouldReturnPositionOfEncodedTask() {
+    // Given
+    TaskEntity taskEntity = TaskEntity.builder().id(42L).createdDate(LocalDateTime.of(2024, 10, 1, 10, 0)).build();
+
+    // When
+    TaskCursor cursor = taskConverter.decodeCursor(taskConverter.encodeCursor(taskEntity));
+
+    // Then
+    assertThat(cursor.getCreatedDate()).isEqualTo(taskEntity.getCreatedDate());
+    assertThat(cursor.getId()).isEqualTo(42L);
+  }
+
+  @Test
+  void decodeCursor_shouldReturnNullWhenCursorIsBlank() {
+    // When & Then
+    assertThat(taskConverter.decodeCursor(null)).isNull();
+    assertThat(taskConverter.decodeCursor("")).isNull();
+  }
+
+  @Test
+  void decodeCursor_shouldThrowExceptionWhenCursorIsMalformed() {
+    // When & Then
+    assertThrows(ApiResponseException.class, () -> taskConverter.decodeCursor("not-a-cursor"));
+  }
 }
\ No newline at end of file
@@ -0,0 +1,161 @@
+package com.iyalynnyi.taskmanager.converter.binary;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.iyalynnyi.taskmanager.dto.TaskDto;
+import com.iyalynnyi.taskmanager.dto.TaskEvent;
+import com.iyalynnyi.taskmanager.dto.TaskEventType;
+import com.iyalynnyi.taskmanager.dto.TaskPriority;
+import com.iyalynnyi.taskmanager.dto.TaskStatus;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+class TaskBinaryCodecTest {
+
+  private TaskSchemaRegistry schemaRegistry;
+  private TaskBinaryCodec codec;
+
+  @BeforeEach
+  void setUp() {
+    schemaRegistry = new TaskSchemaRegistry();
+    codec = new TaskBinaryCodec(schemaRegistry);
+  }
+
+  @Test
+  void decode_shouldReadEveryFieldWrittenByEncode() {
+    // Given
+    TaskDto task = fullTask();
+
+    // When
+    TaskDto decoded = codec.decode(codec.encode(task));
+
+    // Then
+    assertThat(decoded).usingRecursiveComparison().isEqualTo(task);
+  }
+
+  @Test
+  void decodeEvent_shouldReadEventTypeAndTask() {
+    // Given
+    TaskEvent event = new TaskEvent(TaskEventType.STATUS_CHANGED,
+        TaskDto.builder().id(5L).status(TaskStatus.DONE).version(2L).build());
+
+    // When
+    TaskEvent decoded = codec.decodeEvent(codec.encode(event));
+
+    // Then
+    assertEquals(TaskEventType.STATUS_CHANGED, decoded.getType());
+    assertThat(decoded.getTask()).usingRecursiveComparison().isEqualTo(event.getTask());
+    assertNull(codec.decodeEvent(codec.encode(event.getTask())).getType());
+  }
+
+  @Test
+  void decode_shouldKeepAbsentFieldsNull() {
+    // Given
+    TaskDto task = TaskDto.builder().title("Title").status(TaskStatus.TODO).build();
+
+    // When
+    TaskDto decoded = codec.decode(codec.encode(task));
+
+    // Then
+    assertEquals("Title", decoded.getTitle());
+    assertEquals(TaskStatus.TODO, decoded.getStatus());
+    assertNull(decoded.getId());
+    assertNull(decoded.getCreatedDate());
+    assertNull(decoded.getVersion());
+  }
+
+  @Test
+  void encode_shouldWriteFractionOfJsonSize() {
+    // Given
+    TaskDto task = fullTask();
+
+    // When
+    byte[] binary = codec.encode(task);
+    byte[] json;
+    try (JsonSerializer<TaskDto> jsonSerializer = new JsonSerializer<>()) {
+      json = jsonSerializer.serialize("tasks_topic", task);
+    }
+
+    // Then
+    assertThat(binary.length).isLessThan(json.length / 2);
+  }
+
+  @Test
+  void decode_shouldIgnoreFieldsAppendedByNewerSchema() {
+    // Given
+    byte[] v2 = codec.encode(fullTask());
+    byte[] newer = Arrays.copyOf(v2, v2.length + 4);
+    newer[1] = 3;
+    newer[3] = 0x17;
+    byte[] appendedField = {3, 'n', 'e', 'w'};
+    System.arraycopy(appendedField, 0, newer, v2.length, appendedField.length);
+
+    // When
+    TaskDto decoded = codec.decode(newer);
+
+    // Then
+    assertThat(decoded).usingRecursiveComparison().isEqualTo(fullTask());
+  }
+
+  @Test
+  void decode_shouldRejectTruncatedMessage() {
+    // Given
+    byte[] message = codec.encode(fullTask());
+
+    // When / Then
+    assertThrows(IllegalArgumentException.class, () -> codec.decode(Arrays.copyOf(message, message.length - 1)));
+    assertThrows(IllegalArgumentException.class, () -> codec.decode("{}".getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  void register_shouldRejectSchemaNotAppendingToLatest() {
+    // Given
+    List<TaskField> reordered = List.of(TaskField.TITLE, TaskField.ID, TaskField.DESCRIPTION, TaskField.STATUS,
+        TaskField.PRIORITY, TaskField.CREATED_DATE, TaskField.DUE_DATE, TaskField.ASSIGNEE, TaskField.REPORTER,
+        TaskField.VERSION);
+
+    // When / Then
+    assertThrows(IllegalArgumentException.class, () -> schemaRegistry.register(new TaskSchema(3, reordered)));
+    assertThrows(IllegalArgumentException.class,
+        () -> schemaRegistry.register(new TaskSchema(3, TaskSchemaRegistry.V1.fields())));
+    assertThrows(IllegalArgumentException.class,
+        () -> schemaRegistry.register(new TaskSchema(2, TaskSchemaRegistry.V2.fields())));
+    assertEquals(TaskSchemaRegistry.V2, schemaRegistry.latest());
+  }
+
+  @Test
+  void enumOrdinals_shouldOnlyBeAppendedTo() {
+    // Enums are written as ordinals, so the existing constants must keep their positions.
+    assertEquals(List.of(TaskStatus.TODO, TaskStatus.IN_PROGRESS, TaskStatus.DONE),
+        List.of(TaskStatus.values()).subList(0, 3));
+    assertEquals(List.of(TaskPriority.LOW, TaskPriority.MEDIUM, TaskPriority.HIGH),
+        List.of(TaskPriority.values()).subList(0, 3));
+    assertEquals(List.of(TaskEventType.CREATED, TaskEventType.UPDATED, TaskEventType.STATUS_CHANGED,
+        TaskEventType.DELETED), List.of(TaskEventType.values()).subList(0, 4));
+  }
+
+  private static TaskDto fullTask() {
+    return TaskDto.builder()
+        .id(7_234_567_890_123_456L)
+        .title("Prepare the quarterly report")
+        .description("Collect the figures of all departments \u2013 and summarize them.")
+        .status(TaskStatus.IN_PROGRESS)
+        .priority(TaskPriority.HIGH)
+        .createdDate(LocalDateTime.of(2024, 11, 4, 9, 30, 15, 123_456_000))
+        .dueDate(LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_000))
+        .assignee("j.doe")
+        .reporter("a.smith")
+        .version(3L)
+        .build();
+  }
+}
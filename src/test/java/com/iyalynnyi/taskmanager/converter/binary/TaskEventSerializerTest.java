@@ -0,0 +1,83 @@
+package com.iyalynnyi.taskmanager.converter.binary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.iyalynnyi.taskmanager.dto.TaskDto;
+import com.iyalynnyi.taskmanager.dto.TaskEvent;
+import com.iyalynnyi.taskmanager.dto.TaskEventFormat;
+import com.iyalynnyi.taskmanager.dto.TaskEventType;
+import com.iyalynnyi.taskmanager.dto.TaskStatus;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+class TaskEventSerializerTest {
+
+  private TaskBinaryCodec codec;
+  private TaskEventSerializer serializer;
+  private TaskEventDeserializer deserializer;
+
+  @BeforeEach
+  void setUp() {
+    codec = new TaskBinaryCodec(new TaskSchemaRegistry());
+    serializer = new TaskEventSerializer(Map.of("binary_topic", TaskEventFormat.BINARY), TaskEventFormat.JSON, codec);
+    deserializer = new TaskEventDeserializer(codec);
+  }
+
+  @Test
+  void serialize_shouldWriteEveryTopicInItsFormat() {
+    // Given
+    TaskEvent event = new TaskEvent(TaskEventType.CREATED,
+        TaskDto.builder().id(1L).title("Title").status(TaskStatus.DONE).build());
+
+    // When
+    byte[] binary = serializer.serialize("binary_topic", event);
+    byte[] json = serializer.serialize("json_topic", event);
+
+    // Then
+    assertTrue(TaskBinaryCodec.isBinary(binary));
+    assertFalse(TaskBinaryCodec.isBinary(json));
+    assertEquals(TaskEventType.CREATED, deserializer.deserialize("binary_topic", binary).getType());
+    assertEquals("Title", deserializer.deserialize("binary_topic", binary).getTask().getTitle());
+    assertEquals(TaskEventType.CREATED, deserializer.deserialize("json_topic", json).getType());
+    assertEquals(TaskStatus.DONE, deserializer.deserialize("json_topic", json).getTask().getStatus());
+  }
+
+  @Test
+  void serialize_shouldWriteNullForTombstone() {
+    // When / Then
+    assertNull(serializer.serialize("binary_topic", null));
+    assertNull(deserializer.deserialize("binary_topic", null));
+  }
+
+  @Test
+  void deserialize_shouldFailOnMalformedBinaryMessage() {
+    // When / Then
+    assertThrows(SerializationException.class,
+        () -> deserializer.deserialize("binary_topic", new byte[] {TaskBinaryCodec.MAGIC, 1}));
+  }
+
+  @Test
+  void taskDtoDeserializer_shouldReadPlainTaskInEitherFormat() {
+    // Given
+    TaskDtoDeserializer taskDeserializer = new TaskDtoDeserializer(codec);
+    TaskDto task = TaskDto.builder().id(2L).title("Title").build();
+
+    // When
+    TaskDto fromBinary = taskDeserializer.deserialize("ingest_topic", codec.encode(task));
+    TaskDto fromJson = taskDeserializer.deserialize("ingest_topic",
+        "{\"id\":2,\"title\":\"Title\"}".getBytes(StandardCharsets.UTF_8));
+
+    // Then
+    assertEquals("Title", fromBinary.getTitle());
+    assertEquals(2L, fromJson.getId());
+  }
+}
@@ -0,0 +1,243 @@
+package com.iyalynnyi.taskmanager.job;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.iyalynnyi.taskmanager.config.properties.DataSyncProperties;
+import com.iyalynnyi.taskmanager.dao.model.TaskEntity;
+import com.iyalynnyi.taskmanager.dao.model.TaskSyncCheckpointEntity;
+import com.iyalynnyi.taskmanager.dto.TaskStore;
+import com.iyalynnyi.taskmanager.exception.SyncLeaseLostException;
+import com.iyalynnyi.taskmanager.service.DataSyncLeaseService;
+import com.iyalynnyi.taskmanager.service.DataSyncService;
+import com.iyalynnyi.taskmanager.service.SyncLease;
+import com.iyalynnyi.taskmanager.service.TaskChangeBatch;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+class DataSyncJobTest {
+
+  private static final long TOKEN = 7L;
+  private static final String PARTITION_0 = "postgres-to-h2/0";
+  private static final String PARTITION_1 = "postgres-to-h2/1";
+
+  private DataSyncService dataSyncService;
+  private DataSyncLeaseService dataSyncLeaseService;
+  private SyncLease lease;
+  private DataSyncJob dataSyncJob;
+
+  @BeforeEach
+  void setUp() {
+    dataSyncService = Mockito.mock(DataSyncService.class);
+    dataSyncLeaseService = Mockito.mock(DataSyncLeaseService.class);
+    lease = new SyncLease(TaskStore.POSTGRES, "postgres-to-h2", "node", TOKEN);
+    DataSyncProperties properties = new DataSyncProperties();
+    properties.setChunkSize(2);
+    properties.setMaxInFlightChunks(1);
+    properties.setWorkers(2);
+    dataSyncJob = new DataSyncJob(dataSyncService, dataSyncLeaseService, properties);
+    when(dataSyncService.isH2RepositoryAvailable()).thenReturn(true);
+    when(dataSyncLeaseService.runWithLease(any())).thenAnswer(invocation -> {
+      invocation.<Consumer<SyncLease>>getArgument(0).accept(lease);
+      return true;
+    });
+    when(dataSyncService.startPartitions(anyInt(), anyLong(), anyLong(), eq(TOKEN))).thenAnswer(invocation -> {
+      int count = invocation.getArgument(0);
+      List<TaskSyncCheckpointEntity> partitions = new ArrayList<>();
+      for (int i = 0; i < count; i++) {
+        partitions.add(partition(i, invocation.getArgument(1), invocation.getArgument(2)));
+      }
+      return partitions;
+    });
+  }
+
+  @Test
+  public void synchronize_shouldApplyChangesPastWatermarkAndPurgeThem() {
+    // Given
+    when(dataSyncService.loadWatermark()).thenReturn(10L);
+    when(dataSyncService.findChangeHorizon(any())).thenReturn(20L);
+    streamChunks(10L, 0, batch(12L, task(11L), task(12L)), batch(15L, task(15L)));
+    when(dataSyncService.deleteDataFromPostgres(List.of(11L, 12L), List.of(0L, 0L))).thenReturn(new boolean[] {true, true});
+    when(dataSyncService.deleteDataFromPostgres(List.of(15L), List.of(0L))).thenReturn(new boolean[] {true});
+
+    // When
+    dataSyncJob.synchronize();
+
+    // Then
+    verify(dataSyncService).startPartitions(2, 10L, 20L, TOKEN);
+    verify(dataSyncService).saveWatermark(PARTITION_0, 12L, 2, TOKEN);
+    verify(dataSyncService).saveWatermark(PARTITION_0, 15L, 1, TOKEN);
+    verify(dataSyncService).completePartitions(20L, TOKEN);
+    verify(dataSyncService).purgeChanges(20L);
+  }
+
+  @Test
+  public void synchronize_shouldDrainEveryPartitionWithItsOwnCheckpoint() {
+    // Given
+    when(dataSyncService.loadWatermark()).thenReturn(10L);
+    when(dataSyncService.findChangeHorizon(any())).thenReturn(20L);
+    streamChunks(10L, 0, batch(12L, task(12L)));
+    streamChunks(10L, 1, batch(15L, task(15L)));
+    when(dataSyncService.deleteDataFromPostgres(List.of(12L), List.of(0L))).thenReturn(new boolean[] {true});
+    when(dataSyncService.deleteDataFromPostgres(List.of(15L), List.of(0L))).thenReturn(new boolean[] {true});
+
+    // When
+    dataSyncJob.synchronize();
+
+    // Then
+    verify(dataSyncService).streamChangesFromPostgres(eq(10L), eq(20L), eq(0), eq(2), eq(2), any());
+    verify(dataSyncService).streamChangesFromPostgres(eq(10L), eq(20L), eq(1), eq(2), eq(2), any());
+    verify(dataSyncService).saveWatermark(PARTITION_0, 12L, 1, TOKEN);
+    verify(dataSyncService).saveWatermark(PARTITION_1, 15L, 1, TOKEN);
+    verify(dataSyncService).completePartitions(20L, TOKEN);
+  }
+
+  @Test
+  public void synchronize_shouldResumePartitionsOfInterruptedRun() {
+    // Given
+    when(dataSyncService.claimPartitions(TOKEN)).thenReturn(List.of(partition(0, 20L, 20L), partition(1, 13L, 20L)));
+    streamChunks(13L, 1, batch(15L, task(15L)));
+    when(dataSyncService.deleteDataFromPostgres(List.of(15L), List.of(0L))).thenReturn(new boolean[] {true});
+
+    // When
+    dataSyncJob.synchronize();
+
+    // Then
+    verify(dataSyncService, never()).loadWatermark();
+    verify(dataSyncService, never()).startPartitions(anyInt(), anyLong(), anyLong(), anyLong());
+    verify(dataSyncService, never()).streamChangesFromPostgres(anyLong(), anyLong(), eq(0), anyInt(), anyInt(), any());
+    verify(dataSyncService).saveWatermark(PARTITION_1, 15L, 1, TOKEN);
+    verify(dataSyncService).completePartitions(20L, TOKEN);
+  }
+
+  @Test
+  public void synchronize_shouldAdvanceWatermarkPastDeletesWithoutDeletingFromPostgres() {
+    // Given
+    when(dataSyncService.loadWatermark()).thenReturn(0L);
+    when(dataSyncService.findChangeHorizon(any())).thenReturn(5L);
+    streamChunks(0L, 0, new TaskChangeBatch(4L, List.of(), List.of(2L)));
+
+    // When
+    dataSyncJob.synchronize();
+
+    // Then
+    verify(dataSyncService).saveDataToH2(any(TaskChangeBatch.class), eq(PARTITION_0), eq(TOKEN));
+    verify(dataSyncService, never()).deleteDataFromPostgres(any(), any());
+    verify(dataSyncService).saveWatermark(PARTITION_0, 4L, 0, TOKEN);
+    verify(dataSyncService).completePartitions(5L, TOKEN);
+  }
+
+  @Test
+  public void synchronize_shouldCountOnlyTasksDeletedFromPostgresAsMoved() {
+    // Given
+    when(dataSyncService.loadWatermark()).thenReturn(0L);
+    when(dataSyncService.findChangeHorizon(any())).thenReturn(5L);
+    streamChunks(0L, 0, batch(3L, task(11L), task(12L)));
+    when(dataSyncService.deleteDataFromPostgres(List.of(11L, 12L), List.of(0L, 0L))).thenReturn(new boolean[] {true, false});
+
+    // When
+    dataSyncJob.synchronize();
+
+    // Then
+    verify(dataSyncService).saveWatermark(PARTITION_0, 3L, 1, TOKEN);
+    verify(dataSyncService).completePartitions(5L, TOKEN);
+  }
+
+  @Test
+  public void synchronize_shouldStopReaderWhenWriterFails() {
+    // Given
+    when(dataSyncService.loadWatermark()).thenReturn(0L);
+    when(dataSyncService.findChangeHorizon(any())).thenReturn(5L);
+    streamChunks(0L, 0, batch(2L, task(1L), task(2L)), batch(4L, task(3L), task(4L)), batch(5L, task(5L)));
+    doThrow(new IllegalStateException("H2 error")).when(dataSyncService).saveDataToH2(any(), any(), anyLong());
+
+    // When & Then
+    assertThrows(CompletionException.class, () -> dataSyncJob.synchronize());
+    verify(dataSyncService, never()).deleteDataFromPostgres(any(), any());
+    verify(dataSyncService, never()).saveWatermark(any(), anyLong(), anyInt(), anyLong());
+    verify(dataSyncService, never()).completePartitions(anyLong(), anyLong());
+    verify(dataSyncService, never()).purgeChanges(anyLong());
+  }
+
+  @Test
+  public void synchronize_shouldSkipWhenAnotherNodeHoldsLease() {
+    // Given
+    when(dataSyncLeaseService.runWithLease(any())).thenReturn(false);
+
+    // When
+    SyncOutcome outcome = dataSyncJob.synchronize();
+
+    // Then
+    assertEquals(SyncOutcome.LEASE_HELD_ELSEWHERE, outcome);
+    verify(dataSyncService, never()).claimPartitions(anyLong());
+    verify(dataSyncService, never()).streamChangesFromPostgres(anyLong(), anyLong(), anyInt(), anyInt(), anyInt(), any());
+  }
+
+  @Test
+  public void synchronize_shouldStopWritingWhenLeaseIsLost() {
+    // Given
+    when(dataSyncService.loadWatermark()).thenReturn(0L);
+    when(dataSyncService.findChangeHorizon(any())).thenReturn(5L);
+    streamChunks(0L, 0, batch(2L, task(1L), task(2L)));
+    lease.markLost();
+
+    // When & Then
+    CompletionException exception = assertThrows(CompletionException.class, () -> dataSyncJob.synchronize());
+    assertInstanceOf(SyncLeaseLostException.class, exception.getCause());
+    verify(dataSyncService, never()).saveDataToH2(any(), any(), anyLong());
+    verify(dataSyncService, never()).completePartitions(anyLong(), anyLong());
+  }
+
+  @Test
+  public void synchronize_shouldSkipWhenH2IsUnavailable() {
+    // Given
+    when(dataSyncService.isH2RepositoryAvailable()).thenReturn(false);
+
+    // When
+    SyncOutcome outcome = dataSyncJob.synchronize();
+
+    // Then
+    assertEquals(SyncOutcome.H2_UNAVAILABLE, outcome);
+    verify(dataSyncLeaseService, never()).runWithLease(any());
+    verify(dataSyncService, never()).streamChangesFromPostgres(anyLong(), anyLong(), anyInt(), anyInt(), anyInt(), any());
+  }
+
+  private void streamChunks(long watermark, int partition, TaskChangeBatch... chunks) {
+    doAnswer(invocation -> {
+      Consumer<TaskChangeBatch> consumer = invocation.getArgument(5);
+      for (TaskChangeBatch chunk : chunks) {
+        consumer.accept(chunk);
+      }
+      return null;
+    }).when(dataSyncService).streamChangesFromPostgres(eq(watermark), anyLong(), eq(partition), anyInt(), eq(2), any());
+  }
+
+  private static TaskSyncCheckpointEntity partition(int index, long lastSeq, long maxSeq) {
+    return TaskSyncCheckpointEntity.builder().name("postgres-to-h2/" + index).lastId(lastSeq).maxId(maxSeq).build();
+  }
+
+  private static TaskChangeBatch batch(long lastSeq, TaskEntity... tasks) {
+    return new TaskChangeBatch(lastSeq, List.of(tasks), List.of());
+  }
+
+  private static TaskEntity task(long id) {
+    return TaskEntity.builder().id(id).version(0L).build();
+  }
+}
@@ -0,0 +1,219 @@
+package com.iyalynnyi.taskmanager.job;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.iyalynnyi.taskmanager.config.properties.DataSyncProperties;
+import com.iyalynnyi.taskmanager.dto.TaskStore;
+import com.iyalynnyi.taskmanager.service.DataSyncService;
+import com.iyalynnyi.taskmanager.service.SyncBacklog;
+import com.iyalynnyi.taskmanager.service.event.TaskStoreCircuitStateChangedEvent;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+class DataSyncSchedulerTest {
+
+  private static final long NOW = 1_000_000_000L;
+
+  private DataSyncJob dataSyncJob;
+  private DataSyncService dataSyncService;
+  private TaskScheduler taskScheduler;
+  private SimpleMeterRegistry meterRegistry;
+  private AtomicReference<Double> requestLoad;
+  private AtomicLong clock;
+  private DataSyncScheduler dataSyncScheduler;
+
+  @BeforeEach
+  void setUp() {
+    dataSyncJob = Mockito.mock(DataSyncJob.class);
+    dataSyncService = Mockito.mock(DataSyncService.class);
+    taskScheduler = Mockito.mock(TaskScheduler.class);
+    meterRegistry = new SimpleMeterRegistry();
+    requestLoad = new AtomicReference<>(0.0);
+    clock = new AtomicLong(NOW);
+    DataSyncProperties properties = new DataSyncProperties();
+    properties.setInterval(Duration.ofMinutes(5));
+    properties.setBacklogThreshold(100);
+    properties.setBacklogInterval(Duration.ofSeconds(30));
+    properties.setLoadThreshold(0.75);
+    properties.setMaxDeferral(Duration.ofMinutes(1));
+    properties.setLeaseTtl(Duration.ofSeconds(20));
+    when(dataSyncJob.synchronize()).thenReturn(SyncOutcome.COMPLETED);
+    dataSyncScheduler = new DataSyncScheduler(dataSyncJob, dataSyncService, properties, taskScheduler, meterRegistry,
+        requestLoad::get, clock::get);
+  }
+
+  @Test
+  public void checkAndRun_shouldRunAtStartupAndPublishBacklogMetrics() {
+    // Given
+    when(dataSyncService.measureBacklog()).thenReturn(new SyncBacklog(5, 60_000L));
+
+    // When
+    dataSyncScheduler.checkAndRun();
+
+    // Then
+    verify(dataSyncJob).synchronize();
+    assertEquals(5.0, meterRegistry.get(DataSyncScheduler.BACKLOG_GAUGE).gauge().value());
+    assertEquals(60.0, meterRegistry.get(DataSyncScheduler.LAG_GAUGE).timeGauge().value(TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void checkAndRun_shouldNotRunWhenBacklogIsEmpty() {
+    // Given
+    when(dataSyncService.measureBacklog()).thenReturn(new SyncBacklog(0, 0L));
+
+    // When
+    dataSyncScheduler.checkAndRun();
+
+    // Then
+    verify(dataSyncJob, never()).synchronize();
+    assertEquals(0.0, meterRegistry.get(DataSyncScheduler.LAG_GAUGE).timeGauge().value(TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void checkAndRun_shouldWaitForIntervalWhileBacklogIsSmall() {
+    // Given
+    when(dataSyncService.measureBacklog()).thenReturn(new SyncBacklog(5, 0L));
+    dataSyncScheduler.checkAndRun();
+
+    // When
+    clock.addAndGet(Duration.ofMinutes(1).toMillis());
+    dataSyncScheduler.checkAndRun();
+    clock.addAndGet(Duration.ofMinutes(4).toMillis());
+    dataSyncScheduler.checkAndRun();
+
+    // Then
+    verify(dataSyncJob, times(2)).synchronize();
+  }
+
+  @Test
+  public void checkAndRun_shouldRunSoonerWhileBacklogIsLarge() {
+    // Given
+    when(dataSyncService.measureBacklog()).thenReturn(new SyncBacklog(500, 0L));
+    dataSyncScheduler.checkAndRun();
+
+    // When
+    clock.addAndGet(Duration.ofSeconds(30).toMillis());
+    dataSyncScheduler.checkAndRun();
+
+    // Then
+    verify(dataSyncJob, times(2)).synchronize();
+  }
+
+  @Test
+  public void checkAndRun_shouldDeferUnderHeavyLoadUpToMaxDeferral() {
+    // Given
+    when(dataSyncService.measureBacklog()).thenReturn(new SyncBacklog(5, 0L));
+    requestLoad.set(0.9);
+
+    // When
+    dataSyncScheduler.checkAndRun();
+    clock.addAndGet(Duration.ofSeconds(30).toMillis());
+    dataSyncScheduler.checkAndRun();
+
+    // Then
+    verify(dataSyncJob, never()).synchronize();
+
+    // When
+    clock.addAndGet(Duration.ofSeconds(30).toMillis());
+    dataSyncScheduler.checkAndRun();
+
+    // Then
+    verify(dataSyncJob).synchronize();
+  }
+
+  @Test
+  public void checkAndRun_shouldRetryAfterLeaseTtlWhenAnotherNodeHoldsLease() {
+    // Given
+    when(dataSyncService.measureBacklog()).thenReturn(new SyncBacklog(5, 0L));
+    when(dataSyncJob.synchronize()).thenReturn(SyncOutcome.LEASE_HELD_ELSEWHERE, SyncOutcome.COMPLETED);
+    dataSyncScheduler.checkAndRun();
+
+    // When
+    clock.addAndGet(Duration.ofSeconds(10).toMillis());
+    dataSyncScheduler.checkAndRun();
+    clock.addAndGet(Duration.ofSeconds(10).toMillis());
+    dataSyncScheduler.checkAndRun();
+
+    // Then
+    verify(dataSyncJob, times(2)).synchronize();
+  }
+
+  @Test
+  public void checkAndRun_shouldKeepRunDueWhenRunFails() {
+    // Given
+    when(dataSyncService.measureBacklog()).thenReturn(new SyncBacklog(5, 0L));
+    when(dataSyncJob.synchronize()).thenThrow(new IllegalStateException("Writer failed"))
+        .thenReturn(SyncOutcome.COMPLETED);
+    assertThrows(IllegalStateException.class, () -> dataSyncScheduler.checkAndRun());
+
+    // When
+    clock.addAndGet(Duration.ofSeconds(10).toMillis());
+    dataSyncScheduler.checkAndRun();
+    clock.addAndGet(Duration.ofSeconds(10).toMillis());
+    dataSyncScheduler.checkAndRun();
+
+    // Then
+    verify(dataSyncJob, times(2)).synchronize();
+  }
+
+  @Test
+  public void checkAndRun_shouldKeepRunDueWhileH2IsUnavailable() {
+    // Given
+    when(dataSyncService.measureBacklog()).thenReturn(new SyncBacklog(5, 0L));
+    when(dataSyncJob.synchronize()).thenReturn(SyncOutcome.H2_UNAVAILABLE, SyncOutcome.COMPLETED);
+    dataSyncScheduler.checkAndRun();
+
+    // When
+    clock.addAndGet(Duration.ofSeconds(10).toMillis());
+    dataSyncScheduler.checkAndRun();
+
+    // Then
+    verify(dataSyncJob, times(2)).synchronize();
+  }
+
+  @Test
+  public void onStoreCircuitStateChanged_shouldRunRightAwayWhenH2Recovers() {
+    // Given
+    when(dataSyncService.measureBacklog()).thenReturn(new SyncBacklog(5, 0L));
+    dataSyncScheduler.checkAndRun();
+
+    // When
+    dataSyncScheduler.onStoreCircuitStateChanged(new TaskStoreCircuitStateChangedEvent(TaskStore.H2,
+        CircuitBreaker.State.HALF_OPEN, CircuitBreaker.State.CLOSED));
+    dataSyncScheduler.checkAndRun();
+
+    // Then
+    verify(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+    verify(dataSyncJob, times(2)).synchronize();
+  }
+
+  @Test
+  public void onStoreCircuitStateChanged_shouldIgnorePostgresAndOpenedCircuits() {
+    // When
+    dataSyncScheduler.onStoreCircuitStateChanged(new TaskStoreCircuitStateChangedEvent(TaskStore.POSTGRES,
+        CircuitBreaker.State.HALF_OPEN, CircuitBreaker.State.CLOSED));
+    dataSyncScheduler.onStoreCircuitStateChanged(new TaskStoreCircuitStateChangedEvent(TaskStore.H2,
+        CircuitBreaker.State.CLOSED, CircuitBreaker.State.OPEN));
+
+    // Then
+    verify(taskScheduler, never()).schedule(any(Runnable.class), any(Instant.class));
+  }
+}
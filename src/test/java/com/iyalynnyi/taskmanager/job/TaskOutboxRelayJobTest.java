@@ -0,0 +1,112 @@
+package com.iyalynnyi.taskmanager.job;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.iyalynnyi.taskmanager.config.properties.DataSyncProperties;
+import com.iyalynnyi.taskmanager.dto.TaskStore;
+import com.iyalynnyi.taskmanager.service.DataSyncLeaseService;
+import com.iyalynnyi.taskmanager.service.SyncLease;
+import com.iyalynnyi.taskmanager.service.TaskOutboxService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.util.Optional;
+
+class TaskOutboxRelayJobTest {
+
+  private TaskOutboxService taskOutboxService;
+  private DataSyncLeaseService dataSyncLeaseService;
+  private TaskOutboxRelayJob taskOutboxRelayJob;
+  private SyncLease postgresLease;
+  private SyncLease h2Lease;
+
+  @BeforeEach
+  void setUp() {
+    taskOutboxService = Mockito.mock(TaskOutboxService.class);
+    dataSyncLeaseService = Mockito.mock(DataSyncLeaseService.class);
+    taskOutboxRelayJob = new TaskOutboxRelayJob(taskOutboxService, dataSyncLeaseService, new DataSyncProperties());
+    postgresLease = new SyncLease(TaskStore.POSTGRES, TaskOutboxRelayJob.LEASE_NAME, "node", 3L);
+    h2Lease = new SyncLease(TaskStore.H2, TaskOutboxRelayJob.LEASE_NAME, "node", 5L);
+  }
+
+  @AfterEach
+  void tearDown() {
+    taskOutboxRelayJob.stop();
+  }
+
+  @Test
+  public void relay_shouldRelayPostgresBeforeH2() {
+    // Given
+    when(dataSyncLeaseService.tryAcquire(TaskStore.POSTGRES, TaskOutboxRelayJob.LEASE_NAME))
+        .thenReturn(Optional.of(postgresLease));
+    when(dataSyncLeaseService.tryAcquire(TaskStore.H2, TaskOutboxRelayJob.LEASE_NAME)).thenReturn(Optional.of(h2Lease));
+    when(taskOutboxService.relay(TaskStore.POSTGRES, postgresLease))
+        .thenThrow(new IllegalStateException("Broker unavailable"));
+
+    // When
+    taskOutboxRelayJob.relay();
+
+    // Then
+    InOrder inOrder = Mockito.inOrder(taskOutboxService);
+    inOrder.verify(taskOutboxService).relay(TaskStore.POSTGRES, postgresLease);
+    inOrder.verify(taskOutboxService).relay(TaskStore.H2, h2Lease);
+    verify(taskOutboxService).purge(TaskStore.H2);
+  }
+
+  @Test
+  public void relay_shouldKeepRelayingH2WhenPostgresIsUnreachable() {
+    // Given
+    when(dataSyncLeaseService.tryAcquire(TaskStore.POSTGRES, TaskOutboxRelayJob.LEASE_NAME))
+        .thenThrow(new QueryTimeoutException("Postgres unavailable"));
+    when(dataSyncLeaseService.tryAcquire(TaskStore.H2, TaskOutboxRelayJob.LEASE_NAME)).thenReturn(Optional.of(h2Lease));
+
+    // When
+    taskOutboxRelayJob.relay();
+
+    // Then
+    verify(taskOutboxService, never()).relay(Mockito.eq(TaskStore.POSTGRES), any());
+    verify(taskOutboxService).relay(TaskStore.H2, h2Lease);
+  }
+
+  @Test
+  public void relay_shouldKeepLeaseAcrossRunsUntilItIsLost() {
+    // Given
+    when(dataSyncLeaseService.tryAcquire(TaskStore.H2, TaskOutboxRelayJob.LEASE_NAME)).thenReturn(Optional.of(h2Lease));
+    when(dataSyncLeaseService.tryAcquire(TaskStore.POSTGRES, TaskOutboxRelayJob.LEASE_NAME))
+        .thenReturn(Optional.empty());
+
+    // When
+    taskOutboxRelayJob.relay();
+    taskOutboxRelayJob.relay();
+    h2Lease.markLost();
+    taskOutboxRelayJob.relay();
+
+    // Then
+    verify(dataSyncLeaseService, times(2)).tryAcquire(TaskStore.H2, TaskOutboxRelayJob.LEASE_NAME);
+    verify(taskOutboxService, never()).relay(Mockito.eq(TaskStore.POSTGRES), any());
+  }
+
+  @Test
+  public void stop_shouldReleaseHeldLeases() {
+    // Given
+    when(dataSyncLeaseService.tryAcquire(TaskStore.H2, TaskOutboxRelayJob.LEASE_NAME)).thenReturn(Optional.of(h2Lease));
+    when(dataSyncLeaseService.tryAcquire(TaskStore.POSTGRES, TaskOutboxRelayJob.LEASE_NAME))
+        .thenReturn(Optional.empty());
+    taskOutboxRelayJob.relay();
+
+    // When
+    taskOutboxRelayJob.stop();
+
+    // Then
+    verify(dataSyncLeaseService).release(h2Lease);
+  }
+}
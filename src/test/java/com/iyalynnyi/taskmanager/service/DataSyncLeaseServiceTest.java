@@ -0,0 +1,151 @@
+package com.iyalynnyi.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.iyalynnyi.taskmanager.config.properties.DataSyncProperties;
+import com.iyalynnyi.taskmanager.dao.repository.h2.H2TaskSyncLeaseRepository;
+import com.iyalynnyi.taskmanager.dao.repository.postgres.PostgresTaskSyncLeaseRepository;
+import com.iyalynnyi.taskmanager.dto.TaskStore;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class DataSyncLeaseServiceTest {
+
+  private PostgresTaskSyncLeaseRepository leaseRepository;
+  private H2TaskSyncLeaseRepository h2LeaseRepository;
+  private DataSyncProperties properties;
+  private DataSyncLeaseService dataSyncLeaseService;
+
+  @BeforeEach
+  void setUp() {
+    leaseRepository = Mockito.mock(PostgresTaskSyncLeaseRepository.class);
+    h2LeaseRepository = Mockito.mock(H2TaskSyncLeaseRepository.class);
+    properties = new DataSyncProperties();
+    properties.setLeaseTtl(Duration.ofSeconds(30));
+    dataSyncLeaseService = new DataSyncLeaseService(leaseRepository, h2LeaseRepository, properties);
+  }
+
+  @Test
+  public void tryAcquire_shouldReturnLeaseWithNewFencingToken() {
+    // Given
+    when(leaseRepository.acquire(eq(DataSyncLeaseService.LEASE_NAME), anyString(), eq(30_000L)))
+        .thenReturn(Optional.of(8L));
+
+    // When
+    Optional<SyncLease> lease = dataSyncLeaseService.tryAcquire();
+
+    // Then
+    assertTrue(lease.isPresent());
+    assertEquals(8L, lease.get().getFencingToken());
+  }
+
+  @Test
+  public void tryAcquire_shouldReturnEmptyWhenLeaseIsHeld() {
+    // Given
+    when(leaseRepository.acquire(any(), any(), anyLong())).thenReturn(Optional.empty());
+
+    // When & Then
+    assertTrue(dataSyncLeaseService.tryAcquire().isEmpty());
+  }
+
+  @Test
+  public void tryAcquireAndRenew_shouldUseDatabaseHoldingLease() {
+    // Given
+    when(h2LeaseRepository.acquire(eq("task-outbox-relay"), anyString(), eq(30_000L))).thenReturn(Optional.of(3L));
+    when(h2LeaseRepository.renew(eq("task-outbox-relay"), anyString(), eq(3L), eq(30_000L))).thenReturn(true);
+
+    // When
+    SyncLease lease = dataSyncLeaseService.tryAcquire(TaskStore.H2, "task-outbox-relay").orElseThrow();
+    boolean renewed = dataSyncLeaseService.renew(lease);
+
+    // Then
+    assertEquals(TaskStore.H2, lease.getStore());
+    assertTrue(renewed);
+    Mockito.verifyNoInteractions(leaseRepository);
+  }
+
+  @Test
+  public void renew_shouldMarkLeaseLostWhenTakenOver() {
+    // Given
+    SyncLease lease = new SyncLease(TaskStore.POSTGRES, DataSyncLeaseService.LEASE_NAME, "node", 8L);
+    when(leaseRepository.renew(DataSyncLeaseService.LEASE_NAME, "node", 8L, 30_000L)).thenReturn(false);
+
+    // When
+    boolean renewed = dataSyncLeaseService.renew(lease);
+
+    // Then
+    assertFalse(renewed);
+    assertTrue(lease.isLost());
+  }
+
+  @Test
+  public void renew_shouldKeepLeaseOnTransientFailureWithinTtl() {
+    // Given
+    SyncLease lease = new SyncLease(TaskStore.POSTGRES, DataSyncLeaseService.LEASE_NAME, "node", 8L);
+    when(leaseRepository.renew(any(), any(), anyLong(), anyLong())).thenThrow(new QueryTimeoutException("timeout"));
+
+    // When
+    boolean renewed = dataSyncLeaseService.renew(lease);
+
+    // Then
+    assertTrue(renewed);
+    assertFalse(lease.isLost());
+  }
+
+  @Test
+  public void renew_shouldMarkLeaseLostWhenFailingForWholeTtl() {
+    // Given
+    properties.setLeaseTtl(Duration.ZERO);
+    SyncLease lease = new SyncLease(TaskStore.POSTGRES, DataSyncLeaseService.LEASE_NAME, "node", 8L);
+    when(leaseRepository.renew(any(), any(), anyLong(), anyLong())).thenThrow(new QueryTimeoutException("timeout"));
+
+    // When
+    boolean renewed = dataSyncLeaseService.renew(lease);
+
+    // Then
+    assertFalse(renewed);
+    assertTrue(lease.isLost());
+  }
+
+  @Test
+  public void runWithLease_shouldReleaseLeaseWhenActionFails() {
+    // Given
+    when(leaseRepository.acquire(any(), any(), anyLong())).thenReturn(Optional.of(8L));
+
+    // When & Then
+    assertThrows(IllegalStateException.class, () -> dataSyncLeaseService.runWithLease(lease -> {
+      throw new IllegalStateException("H2 error");
+    }));
+    verify(leaseRepository).release(eq(DataSyncLeaseService.LEASE_NAME), anyString(), eq(8L));
+  }
+
+  @Test
+  public void runWithLease_shouldNotRunActionWhenLeaseIsHeld() {
+    // Given
+    when(leaseRepository.acquire(any(), any(), anyLong())).thenReturn(Optional.empty());
+    AtomicBoolean ran = new AtomicBoolean();
+
+    // When
+    boolean acquired = dataSyncLeaseService.runWithLease(lease -> ran.set(true));
+
+    // Then
+    assertFalse(acquired);
+    assertFalse(ran.get());
+  }
+}
@@ -0,0 +1,166 @@
+package com.iyalynnyi.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.iyalynnyi.taskmanager.dao.model.TaskChange;
+import com.iyalynnyi.taskmanager.dao.model.TaskEntity;
+import com.iyalynnyi.taskmanager.dao.repository.h2.H2TaskJdbcRepository;
+import com.iyalynnyi.taskmanager.dao.repository.h2.H2TaskRepository;
+import com.iyalynnyi.taskmanager.dao.repository.h2.H2TaskSyncCheckpointRepository;
+import com.iyalynnyi.taskmanager.dao.repository.postgres.PostgresTaskJdbcRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+class DataSyncServiceTest {
+
+  private static final String PARTITION = DataSyncService.PARTITION_NAME_PREFIX + "0";
+  private static final long ALLOCATED_ID = 1L << 40;
+
+  private PostgresTaskJdbcRepository postgresTaskJdbcRepository;
+  private H2TaskJdbcRepository h2TaskJdbcRepository;
+  private TaskIdAllocator taskIdAllocator;
+  private DataSyncService dataSyncService;
+
+  @BeforeEach
+  void setUp() {
+    postgresTaskJdbcRepository = Mockito.mock(PostgresTaskJdbcRepository.class);
+    h2TaskJdbcRepository = Mockito.mock(H2TaskJdbcRepository.class);
+    taskIdAllocator = new TaskIdAllocator(1, () -> TaskIdAllocator.EPOCH_MILLIS + 1_000L);
+    dataSyncService = new DataSyncService(postgresTaskJdbcRepository, Mockito.mock(H2TaskRepository.class),
+        h2TaskJdbcRepository, Mockito.mock(H2TaskSyncCheckpointRepository.class), taskIdAllocator,
+        Mockito.mock(TaskLocationDirectory.class));
+  }
+
+  @Test
+  void streamChangesFromPostgres_shouldSkipUpdateOfTaskAlreadyMovedToH2() {
+    // Given
+    givenChanges(List.of(new TaskChange(1, 7L, false)));
+    when(postgresTaskJdbcRepository.findAllById(List.of(7L))).thenReturn(List.of());
+
+    // When
+    TaskChangeBatch batch = streamSingleBatch();
+
+    // Then
+    assertTrue(batch.getTasks().isEmpty());
+    assertTrue(batch.getDeletedIds().isEmpty());
+    assertEquals(1, batch.getLastSeq());
+  }
+
+  @Test
+  void streamChangesFromPostgres_shouldDeleteOnlyTasksWhoseLastChangeIsDelete() {
+    // Given
+    TaskEntity recreated = TaskEntity.builder().id(8L).build();
+    givenChanges(List.of(new TaskChange(1, 7L, false), new TaskChange(2, 7L, true), new TaskChange(3, 8L, true),
+        new TaskChange(4, 8L, false)));
+    when(postgresTaskJdbcRepository.findAllById(List.of(8L))).thenReturn(List.of(recreated));
+
+    // When
+    TaskChangeBatch batch = streamSingleBatch();
+
+    // Then
+    assertEquals(List.of(recreated), batch.getTasks());
+    assertEquals(List.of(7L), batch.getDeletedIds());
+  }
+
+  @Test
+  void findChangeHorizon_shouldReturnLastChangeOnceTransactionsInFlightComplete() {
+    // Given
+    when(postgresTaskJdbcRepository.findLastAllocatedChangeSeq()).thenReturn(42L);
+    when(postgresTaskJdbcRepository.findNextTransactionId()).thenReturn(100L);
+    when(postgresTaskJdbcRepository.findOldestRunningTransactionId()).thenReturn(98L, 99L, 100L);
+
+    // When
+    long horizon = dataSyncService.findChangeHorizon(Duration.ofSeconds(5));
+
+    // Then
+    assertEquals(42L, horizon);
+    verify(postgresTaskJdbcRepository, times(3)).findOldestRunningTransactionId();
+  }
+
+  @Test
+  void findChangeHorizon_shouldApplyNothingWhenTransactionInFlightOutlastsWait() {
+    // Given
+    when(postgresTaskJdbcRepository.findLastAllocatedChangeSeq()).thenReturn(42L);
+    when(postgresTaskJdbcRepository.findNextTransactionId()).thenReturn(100L);
+    when(postgresTaskJdbcRepository.findOldestRunningTransactionId()).thenReturn(98L);
+
+    // When
+    long horizon = dataSyncService.findChangeHorizon(Duration.ZERO);
+
+    // Then
+    assertEquals(0L, horizon);
+  }
+
+  @Test
+  void saveDataToH2_shouldReuseIdRecordedForTaskWithSequenceId() {
+    // Given
+    when(h2TaskJdbcRepository.findLegacyIdMappings(List.of(7L))).thenReturn(Map.of(7L, ALLOCATED_ID));
+    TaskEntity task = TaskEntity.builder().id(7L).version(2L).build();
+
+    // When
+    dataSyncService.saveDataToH2(new TaskChangeBatch(1, List.of(task), List.of()), PARTITION, 1L);
+
+    // Then
+    assertEquals(ALLOCATED_ID, task.getId());
+    verify(h2TaskJdbcRepository, never()).insertLegacyIdMappings(any());
+    verify(h2TaskJdbcRepository).upsertAll(List.of(task));
+  }
+
+  @Test
+  void saveDataToH2_shouldRecordNewIdOfTaskWithSequenceId() {
+    // Given
+    TaskEntity task = TaskEntity.builder().id(7L).version(0L).build();
+
+    // When
+    dataSyncService.saveDataToH2(new TaskChangeBatch(1, List.of(task), List.of()), PARTITION, 1L);
+
+    // Then
+    assertTrue(taskIdAllocator.isAllocated(task.getId()));
+    verify(h2TaskJdbcRepository).insertLegacyIdMappings(Map.of(7L, task.getId()));
+  }
+
+  @Test
+  void saveDataToH2_shouldDeleteTaskWithSequenceIdUnderRecordedId() {
+    // Given
+    when(h2TaskJdbcRepository.findLegacyIdMappings(List.of(7L, 8L))).thenReturn(Map.of(7L, ALLOCATED_ID));
+
+    // When
+    dataSyncService.saveDataToH2(new TaskChangeBatch(1, List.of(), List.of(7L, 8L, ALLOCATED_ID + 1)), PARTITION,
+        1L);
+
+    // Then
+    verify(h2TaskJdbcRepository).deleteAllById(List.of(ALLOCATED_ID, ALLOCATED_ID + 1));
+  }
+
+  private void givenChanges(List<TaskChange> changes) {
+    doAnswer(invocation -> {
+      invocation.<Consumer<List<TaskChange>>>getArgument(5).accept(changes);
+      return null;
+    }).when(postgresTaskJdbcRepository)
+        .forEachChangeChunk(anyLong(), anyLong(), anyInt(), anyInt(), anyInt(), any());
+  }
+
+  private TaskChangeBatch streamSingleBatch() {
+    List<TaskChangeBatch> batches = new ArrayList<>();
+    dataSyncService.streamChangesFromPostgres(0, 10, 0, 1, 100, batches::add);
+    assertEquals(1, batches.size());
+    return batches.get(0);
+  }
+}
@@ -0,0 +1,180 @@
+package com.iyalynnyi.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.iyalynnyi.taskmanager.config.properties.TaskStoreReadProperties;
+import com.iyalynnyi.taskmanager.dto.ReadStrategy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+class HedgedReadServiceTest {
+
+  private ExecutorService executor;
+  private TaskStoreReadProperties properties;
+  private HedgedReadService hedgedReadService;
+
+  @BeforeEach
+  void setUp() {
+    executor = Executors.newFixedThreadPool(4);
+    properties = new TaskStoreReadProperties();
+    properties.setInitialHedgeDelay(Duration.ofMillis(20));
+    hedgedReadService = new HedgedReadService(properties, executor, new SimpleMeterRegistry());
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void read_shouldNotQuerySecondaryWhenPrimaryAnswersWithinHedgeDelay() {
+    // Given
+    AtomicBoolean secondaryQueried = new AtomicBoolean();
+
+    // When
+    Optional<String> result = hedgedReadService.read(() -> Optional.of("h2"), () -> {
+      secondaryQueried.set(true);
+      return Optional.of("postgres");
+    }, ReadStrategy.HEDGED);
+
+    // Then
+    assertEquals(Optional.of("h2"), result);
+    assertFalse(secondaryQueried.get());
+  }
+
+  @Test
+  public void read_shouldReturnSecondaryHitWhenPrimaryIsSlowerThanHedgeDelay() {
+    // Given
+    CountDownLatch primaryReleased = new CountDownLatch(1);
+
+    // When
+    Optional<String> result = hedgedReadService.read(() -> {
+      await(primaryReleased);
+      return Optional.of("h2");
+    }, () -> Optional.of("postgres"), ReadStrategy.HEDGED);
+    primaryReleased.countDown();
+
+    // Then
+    assertEquals(Optional.of("postgres"), result);
+  }
+
+  @Test
+  public void read_shouldSkipHedgeWhenPoolIsSaturated() {
+    // Given
+    AtomicInteger submitted = new AtomicInteger();
+    Executor saturatedAfterPrimary = runnable -> {
+      if (submitted.incrementAndGet() > 1) {
+        throw new RejectedExecutionException("Pool is saturated");
+      }
+      executor.execute(runnable);
+    };
+    hedgedReadService = new HedgedReadService(properties, saturatedAfterPrimary, new SimpleMeterRegistry());
+    AtomicReference<String> secondaryThread = new AtomicReference<>();
+
+    // When
+    Optional<String> result = hedgedReadService.read(() -> {
+      sleep(100);
+      return Optional.of("h2");
+    }, () -> {
+      secondaryThread.set(Thread.currentThread().getName());
+      return Optional.of("postgres");
+    }, ReadStrategy.HEDGED);
+
+    // Then
+    assertEquals(Optional.of("h2"), result);
+    assertNull(secondaryThread.get());
+  }
+
+  @Test
+  public void read_shouldQuerySecondaryWhenPrimaryMisses() {
+    // When
+    Optional<String> result = hedgedReadService.read(Optional::empty, () -> Optional.of("postgres"), ReadStrategy.HEDGED);
+
+    // Then
+    assertEquals(Optional.of("postgres"), result);
+  }
+
+  @Test
+  public void read_shouldQuerySecondaryWhenPrimaryFails() {
+    // When
+    Optional<String> result = hedgedReadService.read(() -> {
+      throw new IllegalStateException("H2 error");
+    }, () -> Optional.of("postgres"), ReadStrategy.SEQUENTIAL);
+
+    // Then
+    assertEquals(Optional.of("postgres"), result);
+  }
+
+  @Test
+  public void read_shouldReturnPrimaryHitInParallelModeWhenSecondaryMisses() {
+    // When
+    Optional<String> result = hedgedReadService.read(() -> Optional.of("h2"), Optional::empty, ReadStrategy.PARALLEL);
+
+    // Then
+    assertEquals(Optional.of("h2"), result);
+  }
+
+  @Test
+  public void read_shouldReturnEmptyWhenBothMiss() {
+    // When
+    Optional<String> result = hedgedReadService.read(Optional::empty, Optional::empty, ReadStrategy.PARALLEL);
+
+    // Then
+    assertTrue(result.isEmpty());
+  }
+
+  @Test
+  public void read_shouldRethrowSecondaryFailureWhenPrimaryMisses() {
+    // When / Then
+    assertThrows(IllegalStateException.class, () -> hedgedReadService.read(Optional::empty, () -> {
+      throw new IllegalStateException("Postgres error");
+    }, ReadStrategy.PARALLEL));
+  }
+
+  @Test
+  public void hedgeDelayMillis_shouldUseInitialDelayWithoutMeasurements() {
+    // When / Then
+    assertEquals(20L, hedgedReadService.hedgeDelayMillis());
+  }
+
+  @Test
+  public void hedgeDelayMillis_shouldStayWithinBounds() {
+    // Given
+    properties.setMaxHedgeDelay(Duration.ofMillis(10));
+
+    // When / Then
+    assertEquals(10L, hedgedReadService.hedgeDelayMillis());
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package com.iyalynnyi.taskmanager.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.iyalynnyi.taskmanager.converter.TaskConverter;
+import com.iyalynnyi.taskmanager.dao.model.TaskEntity;
+import com.iyalynnyi.taskmanager.dao.repository.TaskJdbcRepository;
+import com.iyalynnyi.taskmanager.dao.repository.h2.H2TaskJdbcRepository;
+import com.iyalynnyi.taskmanager.dao.repository.postgres.PostgresTaskJdbcRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+class TaskExportServiceTest {
+
+  private TaskTransactionManagementService transactionManagementService;
+  private H2TaskJdbcRepository h2TaskJdbcRepository;
+  private PostgresTaskJdbcRepository postgresTaskJdbcRepository;
+  private TaskExportService taskExportService;
+
+  @BeforeEach
+  void setUp() {
+    transactionManagementService = Mockito.mock(TaskTransactionManagementService.class);
+    h2TaskJdbcRepository = Mockito.mock(H2TaskJdbcRepository.class);
+    postgresTaskJdbcRepository = Mockito.mock(PostgresTaskJdbcRepository.class);
+    when(transactionManagementService.executeInH2Jdbc(any()))
+        .thenAnswer(invocation -> invocation.<TaskTransactionManagementService.H2JdbcAction<?>>getArgument(0)
+            .perform(h2TaskJdbcRepository));
+    when(transactionManagementService.executeInPostgresJdbc(any()))
+        .thenAnswer(invocation -> invocation.<TaskTransactionManagementService.PostgresJdbcAction<?>>getArgument(0)
+            .perform(postgresTaskJdbcRepository));
+    ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    taskExportService = new TaskExportService(transactionManagementService, new TaskConverter(), objectMapper, 100);
+  }
+
+  @Test
+  void exportTasks_shouldWriteOneLinePerTaskFromBothDatabases() throws IOException {
+    // Given
+    streamTasks(h2TaskJdbcRepository, TaskEntity.builder().id(1L).title("Task 1").build());
+    streamTasks(postgresTaskJdbcRepository, TaskEntity.builder().id(2L).title("Task 2").build());
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+    // When
+    taskExportService.exportTasks(outputStream);
+
+    // Then
+    String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+    assertThat(lines).hasSize(2);
+    assertThat(lines[0]).contains("\"id\":1").contains("\"title\":\"Task 1\"");
+    assertThat(lines[1]).contains("\"id\":2").contains("\"title\":\"Task 2\"");
+    verify(h2TaskJdbcRepository).forEach(eq(100), any());
+  }
+
+  @Test
+  void exportTasks_shouldContinueWithPostgresWhenH2Fails() throws IOException {
+    // Given
+    doAnswer(invocation -> {
+      throw new RuntimeException("H2 error");
+    }).when(h2TaskJdbcRepository).forEach(anyInt(), any());
+    streamTasks(postgresTaskJdbcRepository, TaskEntity.builder().id(2L).title("Task 2").build());
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+    // When
+    taskExportService.exportTasks(outputStream);
+
+    // Then
+    assertThat(outputStream.toString(StandardCharsets.UTF_8)).contains("\"id\":2").endsWith("\n");
+  }
+
+  @Test
+  void exportTasks_shouldPropagateWriteFailure() {
+    // Given
+    streamTasks(h2TaskJdbcRepository, TaskEntity.builder().id(1L).title("Task 1").build());
+    OutputStream brokenStream = new OutputStream() {
+      @Override
+      public void write(int b) throws IOException {
+        throw new IOException("Broken pipe");
+      }
+    };
+
+    // When & Then
+    assertThrows(IOException.class, () -> taskExportService.exportTasks(brokenStream));
+  }
+
+  private void streamTasks(TaskJdbcRepository repository, TaskEntity... tasks) {
+    doAnswer(invocation -> {
+      Consumer<TaskEntity> consumer = invocation.getArgument(1);
+      for (TaskEntity task : tasks) {
+        consumer.accept(task);
+      }
+      return null;
+    }).when(repository).forEach(anyInt(), any());
+  }
+}
@@ -0,0 +1,88 @@
+package com.iyalynnyi.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+class TaskIdAllocatorTest {
+
+  private static final long NOW = TaskIdAllocator.EPOCH_MILLIS + 1_000_000L;
+
+  @Test
+  public void nextId_shouldReturnIncreasingUniqueIds() {
+    // Given
+    TaskIdAllocator allocator = new TaskIdAllocator(3L, () -> NOW);
+    Set<Long> ids = new HashSet<>();
+
+    // When
+    long previous = -1L;
+    for (int i = 0; i < 10_000; i++) {
+      long id = allocator.nextId();
+
+      // Then
+      assertTrue(id > previous);
+      assertTrue(ids.add(id));
+      previous = id;
+    }
+  }
+
+  @Test
+  public void nextId_shouldEncodeTimestampAndNodeId() {
+    // Given
+    TaskIdAllocator allocator = new TaskIdAllocator(5L, () -> NOW);
+
+    // When
+    long id = allocator.nextId();
+
+    // Then
+    assertEquals(1_000_000L, id >>> (TaskIdAllocator.NODE_ID_BITS + TaskIdAllocator.SEQUENCE_BITS));
+    assertEquals(5L, (id >>> TaskIdAllocator.SEQUENCE_BITS) & TaskIdAllocator.MAX_NODE_ID);
+  }
+
+  @Test
+  public void nextId_shouldNotGoBackwardsWhenClockDoes() {
+    // Given
+    AtomicLong clock = new AtomicLong(NOW);
+    TaskIdAllocator allocator = new TaskIdAllocator(0L, clock::get);
+    long first = allocator.nextId();
+
+    // When
+    clock.set(NOW - 10_000L);
+    long second = allocator.nextId();
+
+    // Then
+    assertTrue(second > first);
+  }
+
+  @Test
+  public void nextId_shouldDifferBetweenNodes() {
+    // Given
+    TaskIdAllocator first = new TaskIdAllocator(1L, () -> NOW);
+    TaskIdAllocator second = new TaskIdAllocator(2L, () -> NOW);
+
+    // When / Then
+    assertNotEquals(first.nextId(), second.nextId());
+  }
+
+  @Test
+  public void constructor_shouldRejectInvalidNodeId() {
+    // When / Then
+    assertThrows(IllegalArgumentException.class, () -> new TaskIdAllocator(TaskIdAllocator.MAX_NODE_ID + 1, () -> NOW));
+    assertThrows(IllegalArgumentException.class, () -> new TaskIdAllocator(-1L, () -> NOW));
+  }
+
+  @Test
+  public void isAllocated_shouldRejectSequenceIds() {
+    // Given
+    TaskIdAllocator allocator = new TaskIdAllocator(0L, () -> NOW);
+
+    // When / Then
+    assertTrue(allocator.isAllocated(allocator.nextId()));
+    assertFalse(allocator.isAllocated(42L));
+    assertFalse(allocator.isAllocated(null));
+  }
+}
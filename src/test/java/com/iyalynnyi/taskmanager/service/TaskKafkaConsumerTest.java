@@ -0,0 +1,216 @@
+package com.iyalynnyi.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+
+import com.iyalynnyi.taskmanager.config.KafkaConsumerConfig;
+import com.iyalynnyi.taskmanager.config.properties.KafkaConsumerProperties;
+import com.iyalynnyi.taskmanager.converter.TaskConverter;
+import com.iyalynnyi.taskmanager.converter.binary.TaskBinaryCodec;
+import com.iyalynnyi.taskmanager.converter.binary.TaskSchemaRegistry;
+import com.iyalynnyi.taskmanager.dao.model.TaskEntity;
+import com.iyalynnyi.taskmanager.dto.TaskDto;
+import com.iyalynnyi.taskmanager.dto.TaskPriority;
+import com.iyalynnyi.taskmanager.dto.TaskStatus;
+import com.iyalynnyi.taskmanager.service.impl.TaskRepositoryManagementServiceImpl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+@SpringJUnitConfig
+@EmbeddedKafka(partitions = 1, topics = TaskKafkaConsumerTest.TOPIC)
+@TestPropertySource(properties = {
+    "kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+    "task.kafka.consumer.topic=" + TaskKafkaConsumerTest.TOPIC,
+    "task.kafka.consumer.group-id=" + TaskKafkaConsumerTest.GROUP,
+    "task.kafka.consumer.retry-backoff=100ms"
+})
+class TaskKafkaConsumerTest {
+
+  static final String TOPIC = "tasks_ingest_test_topic";
+  static final String GROUP = "task-manager-ingest-test";
+
+  @Configuration
+  @EnableConfigurationProperties(KafkaConsumerProperties.class)
+  @Import({KafkaConsumerConfig.class, TaskKafkaConsumer.class, TaskConverter.class, TaskBinaryCodec.class,
+      TaskSchemaRegistry.class})
+  static class Config {
+
+    @Bean
+    MeterRegistry meterRegistry() {
+      return new SimpleMeterRegistry();
+    }
+
+    @Bean
+    LocalValidatorFactoryBean validator() {
+      return new LocalValidatorFactoryBean();
+    }
+  }
+
+  @Autowired
+  private EmbeddedKafkaBroker embeddedKafka;
+
+  @Autowired
+  private TaskBinaryCodec codec;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @MockBean
+  private TaskRepositoryManagementServiceImpl taskRepositoryManagementService;
+
+  private final BlockingQueue<List<TaskEntity>> savedBatches = new LinkedBlockingQueue<>();
+
+  private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+  @BeforeEach
+  void setUp() {
+    kafkaTemplate = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(KafkaTestUtils.producerProps(embeddedKafka),
+        new StringSerializer(), new ByteArraySerializer()));
+  }
+
+  @AfterEach
+  void tearDown() {
+    kafkaTemplate.destroy();
+  }
+
+  @Test
+  void ingest_shouldSaveValidTasksOfPollAsOneBatchAndSkipInvalidRecords() throws Exception {
+    // Given
+    saveSucceeds();
+    double rejectedBefore = meterRegistry.get(TaskKafkaConsumer.REJECTED_COUNTER).counter().count();
+
+    // When
+    send(json("{\"title\":\"From JSON\",\"status\":\"TODO\",\"priority\":\"LOW\"}"));
+    send(codec.encode(TaskDto.builder().title("From binary").status(TaskStatus.IN_PROGRESS)
+        .priority(TaskPriority.HIGH).build()));
+    send(json("{\"title\":\" \",\"status\":\"TODO\",\"priority\":\"LOW\"}"));
+    send(new byte[] {TaskBinaryCodec.MAGIC, 1});
+    send(json("{\"title\":\"" + "x".repeat(101) + "\",\"status\":\"TODO\",\"priority\":\"LOW\"}"));
+    RecordMetadata last = send(json("{\"title\":\"Last\",\"status\":\"DONE\",\"priority\":\"MEDIUM\"}"));
+
+    // Then
+    List<String> titles = savedTitles(3);
+    assertEquals(List.of("From JSON", "From binary", "Last"), titles);
+    assertEquals(rejectedBefore + 3, meterRegistry.get(TaskKafkaConsumer.REJECTED_COUNTER).counter().count());
+    awaitCommittedOffset(last.offset() + 1);
+  }
+
+  @Test
+  void ingest_shouldCommitOffsetsOnlyAfterBatchIsSaved() throws Exception {
+    // Given
+    long[] committedAfterFailure = new long[1];
+    doAnswer(invocation -> {
+      throw new IllegalStateException("Task storage is temporarily unavailable.");
+    }).doAnswer(invocation -> {
+      committedAfterFailure[0] = committedOffset();
+      savedBatches.add(List.copyOf(invocation.<List<TaskEntity>>getArgument(0)));
+      return invocation.getArgument(0);
+    }).when(taskRepositoryManagementService).saveAllWithFallback(anyList());
+
+    // When
+    RecordMetadata sent = send(json("{\"title\":\"Retried\",\"status\":\"TODO\",\"priority\":\"LOW\"}"));
+
+    // Then
+    assertEquals(List.of("Retried"), savedTitles(1));
+    assertEquals(sent.offset(), committedAfterFailure[0]);
+    awaitCommittedOffset(sent.offset() + 1);
+  }
+
+  @Test
+  void ingest_shouldSkipOnlyTasksRejectedByDatabase() throws Exception {
+    // Given
+    doAnswer(invocation -> {
+      List<TaskEntity> tasks = invocation.getArgument(0);
+      if (tasks.stream().anyMatch(task -> "Clashing".equals(task.getTitle()))) {
+        throw new DuplicateKeyException("Unique index or primary key violation");
+      }
+      savedBatches.add(List.copyOf(tasks));
+      return tasks;
+    }).when(taskRepositoryManagementService).saveAllWithFallback(anyList());
+    double rejectedBefore = meterRegistry.get(TaskKafkaConsumer.REJECTED_COUNTER).counter().count();
+
+    // When
+    send(json("{\"title\":\"Clashing\",\"status\":\"TODO\",\"priority\":\"LOW\"}"));
+    RecordMetadata last = send(json("{\"title\":\"Fine\",\"status\":\"TODO\",\"priority\":\"LOW\"}"));
+
+    // Then
+    assertEquals(List.of("Fine"), savedTitles(1));
+    awaitCommittedOffset(last.offset() + 1);
+    assertEquals(rejectedBefore + 1, meterRegistry.get(TaskKafkaConsumer.REJECTED_COUNTER).counter().count());
+  }
+
+  private void saveSucceeds() {
+    doAnswer(invocation -> {
+      savedBatches.add(List.copyOf(invocation.<List<TaskEntity>>getArgument(0)));
+      return invocation.getArgument(0);
+    }).when(taskRepositoryManagementService).saveAllWithFallback(anyList());
+  }
+
+  private RecordMetadata send(byte[] value) throws Exception {
+    return kafkaTemplate.send(TOPIC, value).get(10, TimeUnit.SECONDS).getRecordMetadata();
+  }
+
+  private static byte[] json(String document) {
+    return document.getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Collects the titles of the saved batches until the expected number of tasks is saved.
+   */
+  private List<String> savedTitles(int expected) throws InterruptedException {
+    List<String> titles = new ArrayList<>();
+    while (titles.size() < expected) {
+      List<TaskEntity> batch = savedBatches.poll(30, TimeUnit.SECONDS);
+      assertTrue(batch != null, "Timed out waiting for the tasks to be saved.");
+      batch.forEach(task -> titles.add(task.getTitle()));
+    }
+    return titles;
+  }
+
+  private long committedOffset() throws Exception {
+    OffsetAndMetadata committed =
+        KafkaTestUtils.getCurrentOffset(embeddedKafka.getBrokersAsString(), GROUP, TOPIC, 0);
+    return committed == null ? 0 : committed.offset();
+  }
+
+  private void awaitCommittedOffset(long expected) throws Exception {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+    while (committedOffset() < expected && System.nanoTime() < deadline) {
+      Thread.sleep(100);
+    }
+    assertEquals(expected, committedOffset());
+  }
+}
@@ -2,42 +2,147 @@ package com.iyalynnyi.taskmanager.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import com.iyalynnyi.taskmanager.config.properties.KafkaProducerProperties;
 import com.iyalynnyi.taskmanager.dto.TaskDto;
+import com.iyalynnyi.taskmanager.dto.TaskEvent;
+import com.iyalynnyi.taskmanager.dto.TaskEventType;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 class TaskKafkaProducerTest {
 
-  private KafkaTemplate<String, TaskDto> kafkaTemplate;
+  private KafkaTemplate<String, TaskEvent> kafkaTemplate;
+
+  private KafkaProducerProperties properties;
+
+  private SimpleMeterRegistry meterRegistry;
 
   private TaskKafkaProducer taskKafkaProducer;
 
   @BeforeEach
   void setUp() {
     kafkaTemplate = Mockito.mock(KafkaTemplate.class);
-    taskKafkaProducer = new TaskKafkaProducer(kafkaTemplate);
+    properties = new KafkaProducerProperties();
+    meterRegistry = new SimpleMeterRegistry();
+    when(kafkaTemplate.send(any(String.class), any(String.class), any(TaskEvent.class)))
+        .thenReturn(CompletableFuture.completedFuture(Mockito.mock(SendResult.class)));
+    taskKafkaProducer = new TaskKafkaProducer(kafkaTemplate, properties, meterRegistry, Runnable::run);
   }
 
   @Test
-  void sendTask_shouldSendTaskDtoToKafkaTopic() {
+  void sendEvent_shouldSendEventKeyedByTaskIdToKafkaTopic() {
     // Given
     TaskDto taskDto = TaskDto.builder()
+        .id(42L)
         .title("Sample Title")
         .description("Sample Description")
         .build();
+    TaskEvent event = new TaskEvent(TaskEventType.CREATED, taskDto);
 
     // When
-    taskKafkaProducer.sendTask(taskDto);
+    taskKafkaProducer.sendEvent(event);
 
     // Then
-    verify(kafkaTemplate).send(eq("tasks_topic"), eq(taskDto));
+    verify(kafkaTemplate).send(eq("tasks_topic"), eq("42"), eq(event));
     assertThat(taskDto.getTitle()).isEqualTo("Sample Title");
     assertThat(taskDto.getDescription()).isEqualTo("Sample Description");
+    assertEquals(1, meterRegistry.get(TaskKafkaProducer.SEND_TIMER).tag("result", "success").timer().count());
+    assertEquals(0.0, meterRegistry.get(TaskKafkaProducer.IN_FLIGHT_GAUGE).gauge().value());
+  }
+
+  @Test
+  void sendEvents_shouldSendEveryEventToKafkaTopic() {
+    // Given
+    TaskEvent first = event(1L, TaskEventType.UPDATED);
+    TaskEvent second = event(2L, TaskEventType.DELETED);
+
+    // When
+    CompletableFuture<Void> acknowledged = taskKafkaProducer.sendEvents(List.of(first, second));
+
+    // Then
+    verify(kafkaTemplate).send(eq("tasks_topic"), eq("1"), eq(first));
+    verify(kafkaTemplate).send(eq("tasks_topic"), eq("2"), eq(second));
+    assertTrue(acknowledged.isDone());
+    assertFalse(acknowledged.isCompletedExceptionally());
+  }
+
+  @Test
+  void sendEvent_shouldFailFutureAndRecordFailureWithoutThrowing() {
+    // Given
+    TaskEvent event = event(1L, TaskEventType.CREATED);
+    when(kafkaTemplate.send(any(String.class), any(String.class), any(TaskEvent.class)))
+        .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Broker unavailable")))
+        .thenThrow(new IllegalStateException("Metadata not available"));
+
+    // When
+    CompletableFuture<Void> failedSend = taskKafkaProducer.sendEvent(event);
+    CompletableFuture<Void> failedHandOver = taskKafkaProducer.sendEvent(event);
+
+    // Then
+    assertTrue(failedSend.isCompletedExceptionally());
+    assertTrue(failedHandOver.isCompletedExceptionally());
+    assertEquals(2, meterRegistry.get(TaskKafkaProducer.SEND_TIMER).tag("result", "failure").timer().count());
+    assertEquals(0.0, meterRegistry.get(TaskKafkaProducer.IN_FLIGHT_GAUGE).gauge().value());
+  }
+
+  @Test
+  void sendEvent_shouldRejectEventsBeyondInFlightLimit() {
+    // Given
+    properties.setMaxInFlight(1);
+    taskKafkaProducer = new TaskKafkaProducer(kafkaTemplate, properties, new SimpleMeterRegistry(), Runnable::run);
+    CompletableFuture<SendResult<String, TaskEvent>> pending = new CompletableFuture<>();
+    when(kafkaTemplate.send(any(String.class), any(String.class), any(TaskEvent.class))).thenReturn(pending);
+    TaskEvent first = event(1L, TaskEventType.CREATED);
+    TaskEvent second = event(2L, TaskEventType.CREATED);
+
+    // When
+    CompletableFuture<Void> accepted = taskKafkaProducer.sendEvent(first);
+    CompletableFuture<Void> rejected = taskKafkaProducer.sendEvent(second);
+    pending.complete(Mockito.mock(SendResult.class));
+    taskKafkaProducer.sendEvent(second);
+
+    // Then
+    assertTrue(accepted.isDone());
+    assertFalse(accepted.isCompletedExceptionally());
+    assertTrue(rejected.isCompletedExceptionally());
+    verify(kafkaTemplate).send(eq("tasks_topic"), eq("1"), eq(first));
+    verify(kafkaTemplate, times(1)).send(eq("tasks_topic"), eq("2"), eq(second));
+  }
+
+  @Test
+  void sendEvents_shouldRejectWholeBatchWhenItDoesNotFit() {
+    // Given
+    properties.setMaxInFlight(1);
+    meterRegistry = new SimpleMeterRegistry();
+    taskKafkaProducer = new TaskKafkaProducer(kafkaTemplate, properties, meterRegistry, Runnable::run);
+
+    // When
+    CompletableFuture<Void> rejected =
+        taskKafkaProducer.sendEvents(List.of(event(1L, TaskEventType.CREATED), event(2L, TaskEventType.CREATED)));
+
+    // Then
+    assertTrue(rejected.isCompletedExceptionally());
+    verify(kafkaTemplate, never()).send(any(String.class), any(String.class), any(TaskEvent.class));
+    assertEquals(2.0, meterRegistry.get(TaskKafkaProducer.REJECTED_COUNTER).counter().count());
+  }
+
+  private static TaskEvent event(Long id, TaskEventType type) {
+    return new TaskEvent(type, TaskDto.builder().id(id).title("Title " + id).build());
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,118 @@
+package com.iyalynnyi.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+import com.iyalynnyi.taskmanager.dao.repository.TaskJdbcRepository;
+import com.iyalynnyi.taskmanager.dao.repository.h2.H2TaskJdbcRepository;
+import com.iyalynnyi.taskmanager.dao.repository.postgres.PostgresTaskJdbcRepository;
+import com.iyalynnyi.taskmanager.dto.TaskStore;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+
+class TaskLocationDirectoryTest {
+
+  private TaskTransactionManagementService transactionManagementService;
+  private TaskLocationDirectory taskLocationDirectory;
+
+  @BeforeEach
+  void setUp() {
+    transactionManagementService = Mockito.mock(TaskTransactionManagementService.class);
+    taskLocationDirectory = new TaskLocationDirectory(transactionManagementService, 1000);
+  }
+
+  @Test
+  public void locate_shouldReturnRecordedStore() {
+    // Given
+    taskLocationDirectory.record(1L, TaskStore.H2);
+    taskLocationDirectory.record(2L, TaskStore.POSTGRES);
+
+    // When / Then
+    assertEquals(TaskStore.H2, taskLocationDirectory.locate(1L));
+    assertEquals(TaskStore.POSTGRES, taskLocationDirectory.locate(2L));
+    assertNull(taskLocationDirectory.locate(3L));
+    assertNull(taskLocationDirectory.locate(null));
+  }
+
+  @Test
+  public void record_shouldOverwriteStoreOfKnownTask() {
+    // Given
+    taskLocationDirectory.record(1L, TaskStore.POSTGRES);
+
+    // When
+    taskLocationDirectory.record(1L, TaskStore.H2);
+
+    // Then
+    assertEquals(TaskStore.H2, taskLocationDirectory.locate(1L));
+    assertEquals(1, taskLocationDirectory.size());
+  }
+
+  @Test
+  public void shouldKeepAllEntriesReachableWhileGrowingAndRemoving() {
+    // Given
+    List<Long> ids = LongStream.rangeClosed(1, 10_000).map(id -> id * 4096).boxed().toList();
+    taskLocationDirectory.recordAll(ids, TaskStore.H2);
+
+    // When
+    ids.stream().filter(id -> id % 3 == 0).forEach(taskLocationDirectory::remove);
+
+    // Then
+    for (Long id : ids) {
+      assertEquals(id % 3 == 0 ? null : TaskStore.H2, taskLocationDirectory.locate(id));
+    }
+    assertEquals(ids.stream().filter(id -> id % 3 != 0).count(), taskLocationDirectory.size());
+  }
+
+  @Test
+  public void rebuild_shouldLocateTasksOfBothDatabasesPreferringH2() {
+    // Given
+    H2TaskJdbcRepository h2Repository = Mockito.mock(H2TaskJdbcRepository.class);
+    PostgresTaskJdbcRepository postgresRepository = Mockito.mock(PostgresTaskJdbcRepository.class);
+    streamIds(h2Repository, 1L, 2L);
+    streamIds(postgresRepository, 2L, 3L);
+    when(transactionManagementService.executeInH2Jdbc(any()))
+        .thenAnswer(invocation -> invocation.<TaskTransactionManagementService.H2JdbcAction<?>>getArgument(0)
+            .perform(h2Repository));
+    when(transactionManagementService.executeInPostgresJdbc(any()))
+        .thenAnswer(invocation -> invocation.<TaskTransactionManagementService.PostgresJdbcAction<?>>getArgument(0)
+            .perform(postgresRepository));
+
+    // When
+    taskLocationDirectory.rebuild();
+
+    // Then
+    assertEquals(TaskStore.H2, taskLocationDirectory.locate(1L));
+    assertEquals(TaskStore.H2, taskLocationDirectory.locate(2L));
+    assertEquals(TaskStore.POSTGRES, taskLocationDirectory.locate(3L));
+  }
+
+  @Test
+  public void rebuild_shouldKeepEntriesRecordedMeanwhileAndSkipFailingDatabase() {
+    // Given
+    taskLocationDirectory.record(1L, TaskStore.POSTGRES);
+    when(transactionManagementService.executeInH2Jdbc(any())).thenThrow(new RuntimeException("H2 error"));
+
+    // When
+    taskLocationDirectory.rebuild();
+
+    // Then
+    assertEquals(TaskStore.POSTGRES, taskLocationDirectory.locate(1L));
+  }
+
+  private static void streamIds(TaskJdbcRepository repository, long... ids) {
+    doAnswer(invocation -> {
+      LongConsumer consumer = invocation.getArgument(1);
+      LongStream.of(ids).forEach(consumer);
+      return null;
+    }).when(repository).forEachId(anyInt(), any());
+  }
+}
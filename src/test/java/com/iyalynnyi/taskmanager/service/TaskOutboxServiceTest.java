@@ -0,0 +1,254 @@
+package com.iyalynnyi.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iyalynnyi.taskmanager.config.properties.KafkaProducerProperties;
+import com.iyalynnyi.taskmanager.config.properties.TaskOutboxProperties;
+import com.iyalynnyi.taskmanager.converter.TaskConverter;
+import com.iyalynnyi.taskmanager.dao.model.TaskEntity;
+import com.iyalynnyi.taskmanager.dao.model.TaskOutboxMessage;
+import com.iyalynnyi.taskmanager.dao.repository.h2.H2TaskJdbcRepository;
+import com.iyalynnyi.taskmanager.dao.repository.postgres.PostgresTaskJdbcRepository;
+import com.iyalynnyi.taskmanager.dto.TaskDto;
+import com.iyalynnyi.taskmanager.dto.TaskEvent;
+import com.iyalynnyi.taskmanager.dto.TaskEventType;
+import com.iyalynnyi.taskmanager.dto.TaskStatus;
+import com.iyalynnyi.taskmanager.dto.TaskStore;
+import com.iyalynnyi.taskmanager.exception.SyncLeaseLostException;
+import com.iyalynnyi.taskmanager.service.TaskTransactionManagementService.H2JdbcAction;
+import com.iyalynnyi.taskmanager.service.TaskTransactionManagementService.PostgresJdbcAction;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class TaskOutboxServiceTest {
+
+  private H2TaskJdbcRepository h2Repository;
+  private PostgresTaskJdbcRepository postgresRepository;
+  private TaskKafkaProducer taskKafkaProducer;
+  private TaskConverter taskConverter;
+  private TaskOutboxProperties properties;
+  private SyncLease lease;
+  private TaskTransactionManagementService transactionManagementService;
+  private TaskOutboxService taskOutboxService;
+
+  @BeforeEach
+  void setUp() {
+    h2Repository = Mockito.mock(H2TaskJdbcRepository.class);
+    postgresRepository = Mockito.mock(PostgresTaskJdbcRepository.class);
+    taskKafkaProducer = Mockito.mock(TaskKafkaProducer.class);
+    taskConverter = Mockito.mock(TaskConverter.class);
+    properties = new TaskOutboxProperties();
+    properties.setBatchSize(2);
+    lease = new SyncLease(TaskStore.POSTGRES, "task-outbox-relay", "node", 1L);
+    transactionManagementService = Mockito.mock(TaskTransactionManagementService.class);
+    when(transactionManagementService.executeInH2Jdbc(any()))
+        .thenAnswer(invocation -> invocation.<H2JdbcAction<Integer>>getArgument(0).perform(h2Repository));
+    when(transactionManagementService.executeInPostgresJdbc(any()))
+        .thenAnswer(invocation -> invocation.<PostgresJdbcAction<Integer>>getArgument(0).perform(postgresRepository));
+    taskOutboxService = new TaskOutboxService(transactionManagementService, taskKafkaProducer, taskConverter,
+        new ObjectMapper().findAndRegisterModules(), properties, new KafkaProducerProperties());
+  }
+
+  @Test
+  public void constructor_shouldRejectBatchSizeAboveEventsInFlight() {
+    // Given
+    KafkaProducerProperties producerProperties = new KafkaProducerProperties();
+    producerProperties.setMaxInFlight(1);
+
+    // When / Then
+    assertThrows(IllegalArgumentException.class, () -> new TaskOutboxService(transactionManagementService,
+        taskKafkaProducer, taskConverter, new ObjectMapper(), properties, producerProperties));
+  }
+
+  @Test
+  public void created_shouldWriteTaskAsJsonPayload() {
+    // Given
+    TaskEntity task = TaskEntity.builder().id(5L).build();
+    when(taskConverter.toDto(task)).thenReturn(TaskDto.builder().id(5L).title("Title").build());
+
+    // When
+    List<TaskOutboxMessage> messages = taskOutboxService.created(List.of(task));
+
+    // Then
+    assertEquals(1, messages.size());
+    assertEquals(5L, messages.get(0).getTaskId());
+    assertEquals(TaskEventType.CREATED, messages.get(0).getEventType());
+    assertTrue(messages.get(0).getPayload().contains("\"title\":\"Title\""));
+  }
+
+  @Test
+  public void updated_shouldCarryNewVersion() {
+    // Given
+    TaskEntity task = TaskEntity.builder().id(5L).version(1L).build();
+    when(taskConverter.toDto(task)).thenReturn(TaskDto.builder().id(5L).version(1L).build());
+
+    // When
+    TaskOutboxMessage message = taskOutboxService.updated(task, 2L);
+
+    // Then
+    assertEquals(TaskEventType.UPDATED, message.getEventType());
+    assertTrue(message.getPayload().contains("\"version\":2"));
+  }
+
+  @Test
+  public void statusChangedAndDeleted_shouldCarryOnlyChangedFields() {
+    // When
+    TaskOutboxMessage statusChanged = taskOutboxService.statusChanged(5L, TaskStatus.DONE, 3L);
+    TaskOutboxMessage deleted = taskOutboxService.deleted(6L);
+
+    // Then
+    assertEquals(TaskEventType.STATUS_CHANGED, statusChanged.getEventType());
+    assertTrue(statusChanged.getPayload().contains("\"status\":\"DONE\""));
+    assertTrue(statusChanged.getPayload().contains("\"title\":null"));
+    assertEquals(TaskEventType.DELETED, deleted.getEventType());
+    assertEquals(6L, deleted.getTaskId());
+    Mockito.verifyNoInteractions(taskConverter);
+  }
+
+  @Test
+  public void relay_shouldSendBatchesInOrderAndMarkThemSent() {
+    // Given
+    when(h2Repository.findUnsentOutboxMessages(2))
+        .thenReturn(List.of(message(1, 10), message(2, 11)), List.of(message(3, 12)));
+    when(taskKafkaProducer.sendEvents(anyList())).thenReturn(CompletableFuture.completedFuture(null));
+
+    // When
+    int relayed = taskOutboxService.relay(TaskStore.H2, lease);
+
+    // Then
+    assertEquals(3, relayed);
+    ArgumentCaptor<List<TaskEvent>> sent = ArgumentCaptor.forClass(List.class);
+    verify(taskKafkaProducer, Mockito.times(2)).sendEvents(sent.capture());
+    assertEquals(List.of(10L, 11L), sent.getAllValues().get(0).stream().map(event -> event.getTask().getId()).toList());
+    assertEquals(List.of(12L), sent.getAllValues().get(1).stream().map(event -> event.getTask().getId()).toList());
+    assertEquals(TaskEventType.UPDATED, sent.getAllValues().get(0).get(0).getType());
+    verify(h2Repository).markOutboxMessagesSent(eq(List.of(1L, 2L)), any(LocalDateTime.class));
+    verify(h2Repository).markOutboxMessagesSent(eq(List.of(3L)), any(LocalDateTime.class));
+  }
+
+  @Test
+  public void relay_shouldSendBatchOutsideOfTransaction() {
+    // Given
+    AtomicBoolean inTransaction = new AtomicBoolean();
+    when(transactionManagementService.executeInPostgresJdbc(any())).thenAnswer(invocation -> {
+      inTransaction.set(true);
+      try {
+        return invocation.<PostgresJdbcAction<Object>>getArgument(0).perform(postgresRepository);
+      } finally {
+        inTransaction.set(false);
+      }
+    });
+    when(postgresRepository.findUnsentOutboxMessages(2)).thenReturn(List.of(message(1, 10)));
+    AtomicBoolean sentInTransaction = new AtomicBoolean();
+    when(taskKafkaProducer.sendEvents(anyList())).thenAnswer(invocation -> {
+      sentInTransaction.set(inTransaction.get());
+      return CompletableFuture.completedFuture(null);
+    });
+
+    // When
+    taskOutboxService.relay(TaskStore.POSTGRES, lease);
+
+    // Then
+    assertFalse(sentInTransaction.get());
+    verify(transactionManagementService, Mockito.times(2)).executeInPostgresJdbc(any());
+    verify(postgresRepository).markOutboxMessagesSent(eq(List.of(1L)), any(LocalDateTime.class));
+  }
+
+  @Test
+  public void relay_shouldLeaveBatchUnsentWhenKafkaDoesNotAcknowledgeIt() {
+    // Given
+    when(postgresRepository.findUnsentOutboxMessages(2)).thenReturn(List.of(message(1, 10)));
+    when(taskKafkaProducer.sendEvents(anyList()))
+        .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Broker unavailable")));
+
+    // When / Then
+    assertThrows(IllegalStateException.class, () -> taskOutboxService.relay(TaskStore.POSTGRES, lease));
+    verify(postgresRepository, never()).markOutboxMessagesSent(anyList(), any());
+  }
+
+  @Test
+  public void relay_shouldHoldBackH2EventsOfTasksWithUnsentEventsInPostgres() {
+    // Given
+    when(h2Repository.findUnsentOutboxMessages(2)).thenReturn(List.of(message(1, 10), message(2, 11)));
+    when(postgresRepository.findTaskIdsWithUnsentOutboxMessages(List.of(10L, 11L))).thenReturn(Set.of(11L));
+    when(taskKafkaProducer.sendEvents(anyList())).thenReturn(CompletableFuture.completedFuture(null));
+
+    // When
+    int relayed = taskOutboxService.relay(TaskStore.H2, lease);
+
+    // Then
+    assertEquals(1, relayed);
+    ArgumentCaptor<List<TaskEvent>> sent = ArgumentCaptor.forClass(List.class);
+    verify(taskKafkaProducer).sendEvents(sent.capture());
+    assertEquals(List.of(10L), sent.getValue().stream().map(event -> event.getTask().getId()).toList());
+    verify(h2Repository).markOutboxMessagesSent(eq(List.of(1L)), any(LocalDateTime.class));
+  }
+
+  @Test
+  public void relay_shouldRelayH2WithoutHoldingBackWhenPostgresIsUnreachable() {
+    // Given
+    when(h2Repository.findUnsentOutboxMessages(2)).thenReturn(List.of(message(1, 10), message(2, 11)), List.of());
+    when(transactionManagementService.executeInPostgresJdbc(any()))
+        .thenThrow(new CannotCreateTransactionException("Connection refused"));
+    when(taskKafkaProducer.sendEvents(anyList())).thenReturn(CompletableFuture.completedFuture(null));
+
+    // When
+    int relayed = taskOutboxService.relay(TaskStore.H2, lease);
+
+    // Then
+    assertEquals(2, relayed);
+    verify(h2Repository).markOutboxMessagesSent(eq(List.of(1L, 2L)), any(LocalDateTime.class));
+  }
+
+  @Test
+  public void relay_shouldStopWhenLeaseIsLost() {
+    // Given
+    lease.markLost();
+
+    // When / Then
+    assertThrows(SyncLeaseLostException.class, () -> taskOutboxService.relay(TaskStore.POSTGRES, lease));
+    verify(postgresRepository, never()).findUnsentOutboxMessages(Mockito.anyInt());
+    verify(taskKafkaProducer, never()).sendEvents(anyList());
+  }
+
+  @Test
+  public void purge_shouldDeleteMessagesSentBeforeRetention() {
+    // Given
+    LocalDateTime earliestCutoff = LocalDateTime.now().minus(properties.getRetention());
+    when(postgresRepository.deleteSentOutboxMessages(any())).thenReturn(4);
+
+    // When
+    int purged = taskOutboxService.purge(TaskStore.POSTGRES);
+
+    // Then
+    assertEquals(4, purged);
+    verify(postgresRepository).deleteSentOutboxMessages(argThat(sentBefore -> !sentBefore.isBefore(earliestCutoff)
+        && sentBefore.isBefore(LocalDateTime.now().minus(properties.getRetention()).plusSeconds(1))));
+    verify(h2Repository, never()).deleteSentOutboxMessages(any());
+  }
+
+  private static TaskOutboxMessage message(long seq, long taskId) {
+    return new TaskOutboxMessage(seq, taskId, TaskEventType.UPDATED, "{\"id\":" + taskId + ",\"title\":\"Task " + taskId + "\"}");
+  }
+}
@@ -0,0 +1,148 @@
+package com.iyalynnyi.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.iyalynnyi.taskmanager.config.properties.TaskReconciliationProperties;
+import com.iyalynnyi.taskmanager.dao.model.TaskEntity;
+import com.iyalynnyi.taskmanager.dao.model.TaskRangeDigest;
+import com.iyalynnyi.taskmanager.dao.repository.h2.H2TaskJdbcRepository;
+import com.iyalynnyi.taskmanager.dao.repository.postgres.PostgresTaskJdbcRepository;
+import com.iyalynnyi.taskmanager.dto.TaskReconciliationReportDto;
+import com.iyalynnyi.taskmanager.dto.TaskStore;
+import com.iyalynnyi.taskmanager.service.TaskTransactionManagementService.H2JdbcAction;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+class TaskReconciliationServiceTest {
+
+  private static final long ROOT_WIDTH = 1L << 59;
+  private static final long LEAF_TO_ID = ROOT_WIDTH - 1;
+
+  private H2TaskJdbcRepository h2Repository;
+  private PostgresTaskJdbcRepository postgresRepository;
+  private DataSyncService dataSyncService;
+  private DataSyncLeaseService dataSyncLeaseService;
+  private TaskLocationDirectory taskLocationDirectory;
+  private TaskReconciliationProperties properties;
+  private TaskReconciliationService taskReconciliationService;
+  private long firstId;
+  private long secondId;
+  private long thirdId;
+
+  @BeforeEach
+  void setUp() {
+    h2Repository = Mockito.mock(H2TaskJdbcRepository.class);
+    postgresRepository = Mockito.mock(PostgresTaskJdbcRepository.class);
+    dataSyncService = Mockito.mock(DataSyncService.class);
+    dataSyncLeaseService = Mockito.mock(DataSyncLeaseService.class);
+    TaskTransactionManagementService transactionManagementService = Mockito.mock(TaskTransactionManagementService.class);
+    taskLocationDirectory = new TaskLocationDirectory(transactionManagementService, 1000);
+    properties = new TaskReconciliationProperties();
+    TaskIdAllocator taskIdAllocator = new TaskIdAllocator(0L);
+    firstId = taskIdAllocator.nextId();
+    secondId = taskIdAllocator.nextId();
+    thirdId = taskIdAllocator.nextId();
+    taskReconciliationService = new TaskReconciliationService(h2Repository, postgresRepository,
+        transactionManagementService, dataSyncService, dataSyncLeaseService, taskIdAllocator, taskLocationDirectory,
+        properties);
+    when(dataSyncLeaseService.runWithLease(any())).thenAnswer(invocation -> {
+      invocation.<Consumer<SyncLease>>getArgument(0)
+          .accept(new SyncLease(TaskStore.POSTGRES, DataSyncLeaseService.LEASE_NAME, "node", 7L));
+      return true;
+    });
+    when(transactionManagementService.executeInH2Jdbc(any()))
+        .thenAnswer(invocation -> invocation.<H2JdbcAction<Integer>>getArgument(0).perform(h2Repository));
+  }
+
+  @Test
+  public void reconcile_shouldRepairTasksStoredInBothDatabases() {
+    // Given
+    when(h2Repository.findRangeDigests(0, Long.MAX_VALUE, ROOT_WIDTH)).thenReturn(List.of(new TaskRangeDigest(0, 5, 100)));
+    when(postgresRepository.findRangeDigests(0, Long.MAX_VALUE, ROOT_WIDTH))
+        .thenReturn(List.of(new TaskRangeDigest(0, 3, 200), new TaskRangeDigest(1, 1, 300)));
+    when(postgresRepository.findVersionsBetween(0, LEAF_TO_ID)).thenReturn(Map.of(firstId, 2L, secondId, 1L, thirdId, 1L));
+    when(h2Repository.findVersions(Set.of(firstId, secondId, thirdId)))
+        .thenReturn(Map.of(firstId, 1L, secondId, 1L, thirdId, 1L));
+    when(postgresRepository.findChangedTaskIds(List.of(firstId, secondId, thirdId))).thenReturn(Set.of(thirdId));
+    List<TaskEntity> newerTasks = List.of(TaskEntity.builder().id(firstId).version(2L).build());
+    when(postgresRepository.findAllById(List.of(firstId))).thenReturn(newerTasks);
+    when(dataSyncService.deleteDataFromPostgres(List.of(firstId, secondId), List.of(2L, 1L)))
+        .thenReturn(new boolean[] {true, true});
+
+    // When
+    Optional<TaskReconciliationReportDto> report = taskReconciliationService.reconcile();
+
+    // Then
+    assertTrue(report.isPresent());
+    assertEquals(2, report.get().getRangesCompared());
+    assertEquals(1, report.get().getRangesDiffering());
+    assertEquals(3, report.get().getRowsDiffering());
+    assertEquals(2, report.get().getRowsRepaired());
+    verify(h2Repository).upsertAll(newerTasks);
+    assertEquals(TaskStore.H2, taskLocationDirectory.locate(secondId));
+  }
+
+  @Test
+  public void reconcile_shouldNotReadVerifiedLeafAgainUntilItsDigestChanges() {
+    // Given
+    when(h2Repository.findRangeDigests(0, Long.MAX_VALUE, ROOT_WIDTH)).thenReturn(List.of(new TaskRangeDigest(0, 1, 100)));
+    when(postgresRepository.findRangeDigests(0, Long.MAX_VALUE, ROOT_WIDTH))
+        .thenReturn(List.of(new TaskRangeDigest(0, 1, 200)), List.of(new TaskRangeDigest(0, 1, 200)),
+            List.of(new TaskRangeDigest(0, 2, 250)));
+    when(h2Repository.findVersionsBetween(0, LEAF_TO_ID)).thenReturn(Map.of(firstId, 1L));
+    when(postgresRepository.findVersions(Set.of(firstId))).thenReturn(Map.of());
+
+    // When
+    taskReconciliationService.reconcile();
+    taskReconciliationService.reconcile();
+    taskReconciliationService.reconcile();
+
+    // Then
+    verify(h2Repository, times(2)).findVersionsBetween(0, LEAF_TO_ID);
+    verify(dataSyncService, never()).deleteDataFromPostgres(any(), any());
+  }
+
+  @Test
+  public void reconcile_shouldSplitRangesHoldingManyTasksInBothDatabases() {
+    // Given
+    properties.setLeafRows(2);
+    when(h2Repository.findRangeDigests(0, Long.MAX_VALUE, ROOT_WIDTH)).thenReturn(List.of(new TaskRangeDigest(0, 5, 100)));
+    when(postgresRepository.findRangeDigests(0, Long.MAX_VALUE, ROOT_WIDTH)).thenReturn(List.of(new TaskRangeDigest(0, 3, 200)));
+
+    // When
+    taskReconciliationService.reconcile();
+
+    // Then
+    verify(h2Repository).findRangeDigests(0, LEAF_TO_ID, 1L << 55);
+    verify(postgresRepository).findRangeDigests(0, LEAF_TO_ID, 1L << 55);
+    verify(h2Repository, never()).findVersionsBetween(anyLong(), anyLong());
+  }
+
+  @Test
+  public void reconcile_shouldSkipWhenAnotherNodeHoldsLease() {
+    // Given
+    when(dataSyncLeaseService.runWithLease(any())).thenReturn(false);
+
+    // When
+    Optional<TaskReconciliationReportDto> report = taskReconciliationService.reconcile();
+
+    // Then
+    assertTrue(report.isEmpty());
+    verify(h2Repository, never()).findRangeDigests(anyLong(), anyLong(), anyLong());
+  }
+}
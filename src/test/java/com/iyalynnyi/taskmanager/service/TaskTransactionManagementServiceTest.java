@@ -7,23 +7,38 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.iyalynnyi.taskmanager.dao.model.TaskEntity;
+import com.iyalynnyi.taskmanager.dao.repository.h2.H2TaskJdbcRepository;
 import com.iyalynnyi.taskmanager.dao.repository.h2.H2TaskRepository;
+import com.iyalynnyi.taskmanager.dao.repository.postgres.PostgresTaskJdbcRepository;
 import com.iyalynnyi.taskmanager.dao.repository.postgres.PostgresTaskRepository;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.time.Duration;
 
 class TaskTransactionManagementServiceTest {
   private H2TaskRepository h2TaskRepository;
   private PostgresTaskRepository postgresTaskRepository;
+  private H2TaskJdbcRepository h2TaskJdbcRepository;
+  private PostgresTaskJdbcRepository postgresTaskJdbcRepository;
+  private PlatformTransactionManager h2TransactionManager;
   private TaskTransactionManagementService transactionManagementService;
 
   @BeforeEach
   void setUp() {
     h2TaskRepository = Mockito.mock(H2TaskRepository.class);
     postgresTaskRepository = Mockito.mock(PostgresTaskRepository.class);
-    transactionManagementService = new TaskTransactionManagementService(h2TaskRepository, postgresTaskRepository);
+    h2TaskJdbcRepository = Mockito.mock(H2TaskJdbcRepository.class);
+    postgresTaskJdbcRepository = Mockito.mock(PostgresTaskJdbcRepository.class);
+    h2TransactionManager = Mockito.mock(PlatformTransactionManager.class);
+    transactionManagementService = new TaskTransactionManagementService(h2TaskRepository, postgresTaskRepository,
+        h2TaskJdbcRepository, postgresTaskJdbcRepository, h2TransactionManager,
+        Mockito.mock(PlatformTransactionManager.class));
   }
 
   @Test
@@ -55,6 +70,22 @@ class TaskTransactionManagementServiceTest {
     assertEquals(expectedTask, result);
   }
 
+  @Test
+  void readInH2_shouldBoundReadOnlyTransactionByTimeoutRoundedUpToSeconds() {
+    // Given
+    ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+    when(h2TaskRepository.count()).thenReturn(3L);
+
+    // When
+    long result = transactionManagementService.readInH2(Duration.ofMillis(1500), repository -> repository.count());
+
+    // Then
+    assertEquals(3L, result);
+    verify(h2TransactionManager).getTransaction(definition.capture());
+    assertEquals(2, definition.getValue().getTimeout());
+    assertTrue(definition.getValue().isReadOnly());
+  }
+
   @Test
   void executeInH2WithoutResult_shouldExecuteVoidActionWithH2Repository() {
     // Given
@@ -82,4 +113,22 @@ class TaskTransactionManagementServiceTest {
     // Then
     verify(postgresTaskRepository, times(1)).deleteById(taskToDelete.getId());
   }
+
+  @Test
+  void executeInH2Jdbc_shouldExecuteActionWithH2JdbcRepository() {
+    // When
+    H2TaskJdbcRepository result = transactionManagementService.executeInH2Jdbc(repository -> repository);
+
+    // Then
+    assertSame(h2TaskJdbcRepository, result);
+  }
+
+  @Test
+  void executeInPostgresJdbc_shouldExecuteActionWithPostgresJdbcRepository() {
+    // When
+    PostgresTaskJdbcRepository result = transactionManagementService.executeInPostgresJdbc(repository -> repository);
+
+    // Then
+    assertSame(postgresTaskJdbcRepository, result);
+  }
 }
\ No newline at end of file
@@ -2,46 +2,100 @@ package com.iyalynnyi.taskmanager.service.impl;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doNothing;
-import static org.mockito.Mockito.doThrow;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.iyalynnyi.taskmanager.config.properties.TaskStoreReadProperties;
+import com.iyalynnyi.taskmanager.config.properties.TaskUpdateProperties;
 import com.iyalynnyi.taskmanager.dao.model.TaskEntity;
+import com.iyalynnyi.taskmanager.dao.model.TaskOutboxMessage;
+import com.iyalynnyi.taskmanager.dao.repository.h2.H2TaskJdbcRepository;
+import com.iyalynnyi.taskmanager.dao.repository.postgres.PostgresTaskJdbcRepository;
+import com.iyalynnyi.taskmanager.dto.ReadStrategy;
+import com.iyalynnyi.taskmanager.dto.TaskEventType;
+import com.iyalynnyi.taskmanager.dto.TaskFilter;
+import com.iyalynnyi.taskmanager.dto.TaskStatus;
+import com.iyalynnyi.taskmanager.dto.TaskStore;
 import com.iyalynnyi.taskmanager.exception.ApiResponseException;
+import com.iyalynnyi.taskmanager.service.HedgedReadService;
+import com.iyalynnyi.taskmanager.service.TaskIdAllocator;
+import com.iyalynnyi.taskmanager.service.TaskLocationDirectory;
+import com.iyalynnyi.taskmanager.service.TaskMergeResult;
+import com.iyalynnyi.taskmanager.service.TaskOutboxService;
 import com.iyalynnyi.taskmanager.service.TaskTransactionManagementService;
+import com.iyalynnyi.taskmanager.service.TaskTransactionManagementService.H2JdbcAction;
+import com.iyalynnyi.taskmanager.service.TaskTransactionManagementService.PostgresJdbcAction;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.JdbcUpdateAffectedIncorrectNumberOfRowsException;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 class TaskRepositoryManagementServiceImplTest {
 
   private TaskTransactionManagementService transactionManagementService;
+  private CircuitBreaker h2CircuitBreaker;
+  private CircuitBreaker postgresCircuitBreaker;
+  private TaskLocationDirectory taskLocationDirectory;
+  private TaskUpdateProperties taskUpdateProperties;
+  private TaskOutboxService taskOutboxService;
   private TaskRepositoryManagementServiceImpl taskRepositoryManagementService;
 
   @BeforeEach
   void setUp() {
     transactionManagementService = Mockito.mock(TaskTransactionManagementService.class);
-    taskRepositoryManagementService = new TaskRepositoryManagementServiceImpl(transactionManagementService);
+    h2CircuitBreaker = CircuitBreaker.ofDefaults("h2");
+    postgresCircuitBreaker = CircuitBreaker.ofDefaults("postgres");
+    taskLocationDirectory = new TaskLocationDirectory(transactionManagementService, 1000);
+    taskUpdateProperties = new TaskUpdateProperties();
+    taskUpdateProperties.setRetryBackoff(Duration.ofMillis(1));
+    taskOutboxService = Mockito.mock(TaskOutboxService.class);
+    taskRepositoryManagementService = new TaskRepositoryManagementServiceImpl(transactionManagementService,
+        new TaskIdAllocator(1L), h2CircuitBreaker, postgresCircuitBreaker,
+        new HedgedReadService(new TaskStoreReadProperties(), new SimpleMeterRegistry()), taskLocationDirectory,
+        taskUpdateProperties, taskOutboxService);
   }
 
   @Test
-  public void saveWithFallback_shouldSaveInH2() {
+  public void saveWithFallback_shouldSaveInH2WithOutboxMessage() {
     // Given
     TaskEntity task = new TaskEntity();
-    when(transactionManagementService.executeInH2(any())).thenReturn(task);
+    List<TaskOutboxMessage> messages = List.of(new TaskOutboxMessage(0, 1L, TaskEventType.CREATED, "{}"));
+    when(taskOutboxService.created(List.of(task))).thenReturn(messages);
+    H2TaskJdbcRepository h2Repository = Mockito.mock(H2TaskJdbcRepository.class);
+    when(h2Repository.insertAll(List.of(task))).thenReturn(1);
+    when(transactionManagementService.executeInH2Jdbc(any()))
+        .thenAnswer(invocation -> invocation.<H2JdbcAction<Void>>getArgument(0).perform(h2Repository));
 
     // When
     TaskEntity result = taskRepositoryManagementService.saveWithFallback(task);
 
     // Then
-    verify(transactionManagementService).executeInH2(any());
+    verify(transactionManagementService).executeInH2Jdbc(any());
+    verify(h2Repository).insertAll(List.of(task));
+    verify(h2Repository).insertOutboxMessages(messages);
+    verify(transactionManagementService, never()).executeInPostgresJdbc(any());
     assertEquals(task, result);
   }
 
@@ -49,18 +103,68 @@ class TaskRepositoryManagementServiceImplTest {
   public void saveWithFallback_shouldFallbackToPostgresWhenH2Fails() {
     // Given
     TaskEntity task = new TaskEntity();
-    when(transactionManagementService.executeInH2(any())).thenThrow(new RuntimeException("H2 error"));
-    when(transactionManagementService.executeInPostgres(any())).thenReturn(task);
+    when(transactionManagementService.executeInH2Jdbc(any())).thenThrow(new RuntimeException("H2 error"));
 
     // When
     TaskEntity result = taskRepositoryManagementService.saveWithFallback(task);
 
     // Then
-    verify(transactionManagementService).executeInH2(any());
-    verify(transactionManagementService).executeInPostgres(any());
+    verify(transactionManagementService).executeInH2Jdbc(any());
+    verify(transactionManagementService).executeInPostgresJdbc(any());
     assertEquals(task, result);
   }
 
+  @Test
+  public void saveWithFallback_shouldAllocateIdForNewTask() {
+    // Given
+    TaskEntity task = new TaskEntity();
+
+    // When
+    taskRepositoryManagementService.saveWithFallback(task);
+
+    // Then
+    assertNotNull(task.getId());
+  }
+
+  @Test
+  public void saveWithFallback_shouldKeepIdOfExistingTask() {
+    // Given
+    TaskEntity task = TaskEntity.builder().id(42L).build();
+
+    // When
+    taskRepositoryManagementService.saveWithFallback(task);
+
+    // Then
+    assertEquals(42L, task.getId());
+  }
+
+  @Test
+  public void saveWithFallback_shouldGoStraightToPostgresWhenH2CircuitIsOpen() {
+    // Given
+    TaskEntity task = new TaskEntity();
+    h2CircuitBreaker.transitionToOpenState();
+
+    // When
+    TaskEntity result = taskRepositoryManagementService.saveWithFallback(task);
+
+    // Then
+    verify(transactionManagementService, never()).executeInH2Jdbc(any());
+    verify(transactionManagementService).executeInPostgresJdbc(any());
+    assertEquals(task, result);
+  }
+
+  @Test
+  public void saveWithFallback_shouldThrowWhenBothCircuitsAreOpen() {
+    // Given
+    h2CircuitBreaker.transitionToOpenState();
+    postgresCircuitBreaker.transitionToOpenState();
+
+    // When / Then
+    assertThrows(CallNotPermittedException.class, () -> taskRepositoryManagementService.saveWithFallback(new TaskEntity()));
+    verify(transactionManagementService, never()).executeInH2Jdbc(any());
+    verify(transactionManagementService, never()).executeInPostgresJdbc(any());
+  }
+
   @Test
   public void findByIdWithFallback_shouldFindInH2() {
     // Given
@@ -102,38 +206,191 @@ class TaskRepositoryManagementServiceImplTest {
   }
 
   @Test
-  public void findAllWithFallback_shouldRetrieveFromBothDatabases() {
+  public void findByIdWithFallback_shouldNotQueryPostgresWhenFoundInH2Sequentially() {
     // Given
-    TaskEntity taskInH2 = new TaskEntity();
-    TaskEntity taskInPostgres = new TaskEntity();
-    when(transactionManagementService.executeInH2(any())).thenReturn(Collections.singletonList(taskInH2));
-    when(transactionManagementService.executeInPostgres(any())).thenReturn(Collections.singletonList(taskInPostgres));
+    TaskEntity task = new TaskEntity();
+    when(transactionManagementService.executeInH2(any())).thenReturn(Optional.of(task));
 
     // When
-    List<TaskEntity> results = taskRepositoryManagementService.findAllWithFallback();
+    TaskEntity result = taskRepositoryManagementService.findByIdWithFallback(1L, ReadStrategy.SEQUENTIAL);
+
+    // Then
+    verify(transactionManagementService, never()).executeInPostgres(any());
+    assertEquals(task, result);
+  }
+
+  @Test
+  public void findByIdWithFallback_shouldReturnPostgresHitInParallelMode() {
+    // Given
+    TaskEntity task = new TaskEntity();
+    when(transactionManagementService.executeInH2(any())).thenReturn(Optional.empty());
+    when(transactionManagementService.executeInPostgres(any())).thenReturn(Optional.of(task));
+
+    // When
+    TaskEntity result = taskRepositoryManagementService.findByIdWithFallback(1L, ReadStrategy.PARALLEL);
 
     // Then
     verify(transactionManagementService).executeInH2(any());
     verify(transactionManagementService).executeInPostgres(any());
-    assertEquals(2, results.size());
+    assertEquals(task, result);
+  }
+
+  @Test
+  public void findByIdWithFallback_shouldReadLocatedTaskFromItsDatabaseOnly() {
+    // Given
+    TaskEntity task = TaskEntity.builder().id(7L).build();
+    taskLocationDirectory.record(7L, TaskStore.POSTGRES);
+    when(transactionManagementService.executeInPostgres(any())).thenReturn(Optional.of(task));
+
+    // When
+    TaskEntity result = taskRepositoryManagementService.findByIdWithFallback(7L);
+
+    // Then
+    verify(transactionManagementService, never()).executeInH2(any());
+    assertEquals(task, result);
+  }
+
+  @Test
+  public void findByIdWithFallback_shouldProbeBothDatabasesWhenLocatedTaskIsMissing() {
+    // Given
+    TaskEntity task = TaskEntity.builder().id(7L).build();
+    taskLocationDirectory.record(7L, TaskStore.POSTGRES);
+    when(transactionManagementService.executeInPostgres(any())).thenReturn(Optional.empty());
+    when(transactionManagementService.executeInH2(any())).thenReturn(Optional.of(task));
+
+    // When
+    TaskEntity result = taskRepositoryManagementService.findByIdWithFallback(7L);
+
+    // Then
+    verify(transactionManagementService).executeInH2(any());
+    assertEquals(task, result);
+  }
+
+  @Test
+  public void findAllWithFallback_shouldRetrieveFromBothDatabases() {
+    // Given
+    TaskEntity taskInH2 = TaskEntity.builder().id(1L).build();
+    TaskEntity taskInPostgres = TaskEntity.builder().id(2L).build();
+    when(transactionManagementService.readInH2(any(), any())).thenReturn(Collections.singletonList(taskInH2));
+    when(transactionManagementService.readInPostgres(any(), any())).thenReturn(Collections.singletonList(taskInPostgres));
+
+    // When
+    List<TaskEntity> results = taskRepositoryManagementService.findAllWithFallback();
+
+    // Then
+    verify(transactionManagementService).readInH2(any(), any());
+    verify(transactionManagementService).readInPostgres(any(), any());
+    assertEquals(List.of(taskInH2, taskInPostgres), results);
+  }
+
+  @Test
+  public void findAllWithFallback_shouldKeepMostRecentlyUpdatedCopyOfTaskStoredInBothDatabases() {
+    // Given
+    LocalDateTime now = LocalDateTime.now();
+    TaskEntity staleInH2 = TaskEntity.builder().id(1L).updatedDate(now).build();
+    TaskEntity onlyInH2 = TaskEntity.builder().id(3L).build();
+    TaskEntity freshInPostgres = TaskEntity.builder().id(1L).updatedDate(now.plusMinutes(1)).build();
+    TaskEntity onlyInPostgres = TaskEntity.builder().id(2L).build();
+    when(transactionManagementService.readInH2(any(), any())).thenReturn(List.of(staleInH2, onlyInH2));
+    when(transactionManagementService.readInPostgres(any(), any())).thenReturn(List.of(freshInPostgres, onlyInPostgres));
+
+    // When
+    List<TaskEntity> results = taskRepositoryManagementService.findAllWithFallback();
+
+    // Then
+    assertEquals(List.of(freshInPostgres, onlyInPostgres, onlyInH2), results);
   }
 
   @Test
   public void findAllWithFallback_shouldRetrieveFromPostgresWhenH2Fails() {
     // Given
-    TaskEntity taskInPostgres = new TaskEntity();
-    when(transactionManagementService.executeInH2(any())).thenThrow(new RuntimeException("H2 error"));
-    when(transactionManagementService.executeInPostgres(any())).thenReturn(Collections.singletonList(taskInPostgres));
+    TaskEntity taskInPostgres = TaskEntity.builder().id(1L).build();
+    when(transactionManagementService.readInH2(any(), any())).thenThrow(new RuntimeException("H2 error"));
+    when(transactionManagementService.readInPostgres(any(), any())).thenReturn(Collections.singletonList(taskInPostgres));
 
     // When
     List<TaskEntity> results = taskRepositoryManagementService.findAllWithFallback();
 
     // Then
-    verify(transactionManagementService).executeInH2(any());
-    verify(transactionManagementService).executeInPostgres(any());
+    verify(transactionManagementService).readInH2(any(), any());
+    verify(transactionManagementService).readInPostgres(any(), any());
     assertEquals(1, results.size());
   }
 
+  @Test
+  public void findPageWithFallback_shouldMergeBothDatabasesInKeysetOrder() {
+    // Given
+    LocalDateTime now = LocalDateTime.now();
+    TaskEntity h2First = TaskEntity.builder().id(1L).createdDate(now).build();
+    TaskEntity h2Second = TaskEntity.builder().id(4L).createdDate(now.plusSeconds(2)).build();
+    TaskEntity postgresFirst = TaskEntity.builder().id(2L).createdDate(now).build();
+    TaskEntity postgresSecond = TaskEntity.builder().id(3L).createdDate(now.plusSeconds(1)).build();
+    when(transactionManagementService.readInH2(any(), any())).thenReturn(List.of(h2First, h2Second));
+    when(transactionManagementService.readInPostgres(any(), any())).thenReturn(List.of(postgresFirst, postgresSecond));
+
+    // When
+    TaskMergeResult results = taskRepositoryManagementService.findPageWithFallback(new TaskFilter(), null, 3);
+
+    // Then
+    assertEquals(List.of(h2First, postgresFirst, postgresSecond), results.getTasks());
+    assertTrue(results.getUnavailableStores().isEmpty());
+  }
+
+  @Test
+  public void findPageWithFallback_shouldRetrieveFromPostgresWhenH2Fails() {
+    // Given
+    TaskEntity taskInPostgres = TaskEntity.builder().id(1L).createdDate(LocalDateTime.now()).build();
+    when(transactionManagementService.readInH2(any(), any())).thenThrow(new RuntimeException("H2 error"));
+    when(transactionManagementService.readInPostgres(any(), any())).thenReturn(List.of(taskInPostgres));
+
+    // When
+    TaskMergeResult results = taskRepositoryManagementService.findPageWithFallback(new TaskFilter(), null, 10);
+
+    // Then
+    verify(transactionManagementService).readInPostgres(any(), any());
+    assertEquals(List.of(taskInPostgres), results.getTasks());
+    assertEquals(Set.of(TaskStore.H2), results.getUnavailableStores());
+  }
+
+  @Test
+  public void findPageWithFallback_shouldLeaveOutStoreWhichTimesOut() {
+    // Given
+    TaskStoreReadProperties properties = new TaskStoreReadProperties();
+    properties.setH2FetchTimeout(Duration.ofMillis(50));
+    taskRepositoryManagementService = new TaskRepositoryManagementServiceImpl(transactionManagementService,
+        new TaskIdAllocator(1L), h2CircuitBreaker, postgresCircuitBreaker,
+        new HedgedReadService(properties, new SimpleMeterRegistry()), taskLocationDirectory,
+        taskUpdateProperties, taskOutboxService);
+    TaskEntity taskInPostgres = TaskEntity.builder().id(1L).createdDate(LocalDateTime.now()).build();
+    CountDownLatch h2Released = new CountDownLatch(1);
+    when(transactionManagementService.readInH2(any(), any())).thenAnswer(invocation -> {
+      h2Released.await(5, TimeUnit.SECONDS);
+      return List.of();
+    });
+    when(transactionManagementService.readInPostgres(any(), any())).thenReturn(List.of(taskInPostgres));
+
+    // When
+    TaskMergeResult results = taskRepositoryManagementService.findPageWithFallback(new TaskFilter(), null, 10);
+    h2Released.countDown();
+
+    // Then
+    assertEquals(List.of(taskInPostgres), results.getTasks());
+    assertEquals(Set.of(TaskStore.H2), results.getUnavailableStores());
+    verify(transactionManagementService).readInH2(eq(Duration.ofMillis(50)), any());
+  }
+
+  @Test
+  public void findPageWithFallback_shouldFailWhenBothDatabasesAreUnavailable() {
+    // Given
+    when(transactionManagementService.readInH2(any(), any())).thenThrow(new RuntimeException("H2 error"));
+    when(transactionManagementService.readInPostgres(any(), any())).thenThrow(new RuntimeException("Postgres error"));
+
+    // When & Then
+    ApiResponseException exception = assertThrows(ApiResponseException.class,
+        () -> taskRepositoryManagementService.findPageWithFallback(new TaskFilter(), null, 10));
+    assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getHttpStatus());
+  }
+
   @Test
   public void existsById_shouldReturnTrueIfExistsInH2() {
     // Given
@@ -165,26 +422,396 @@ class TaskRepositoryManagementServiceImplTest {
   @Test
   public void deleteById_shouldDeleteInH2() {
     // Given
-    doNothing().when(transactionManagementService).executeInH2WithoutResult(any());
+    when(transactionManagementService.executeInH2Jdbc(any())).thenReturn(Boolean.TRUE);
 
     // When
-    taskRepositoryManagementService.deleteById(1L);
+    boolean deleted = taskRepositoryManagementService.deleteById(1L);
 
     // Then
-    verify(transactionManagementService).executeInH2WithoutResult(any());
+    assertTrue(deleted);
+    verify(transactionManagementService).executeInH2Jdbc(any());
+    verify(transactionManagementService, never()).executeInPostgresJdbc(any());
   }
 
   @Test
   public void deleteById_shouldFallbackToPostgresWhenH2Fails() {
     // Given
-    doThrow(new RuntimeException("H2 error")).when(transactionManagementService).executeInH2WithoutResult(any());
-    doNothing().when(transactionManagementService).executeInPostgresWithoutResult(any());
+    when(transactionManagementService.executeInH2Jdbc(any())).thenThrow(new RuntimeException("H2 error"));
+    when(transactionManagementService.executeInPostgresJdbc(any())).thenReturn(Boolean.TRUE);
+
+    // When
+    boolean deleted = taskRepositoryManagementService.deleteById(1L);
+
+    // Then
+    assertTrue(deleted);
+    verify(transactionManagementService).executeInH2Jdbc(any());
+    verify(transactionManagementService).executeInPostgresJdbc(any());
+  }
+
+  @Test
+  public void deleteById_shouldReturnFalseWhenNoRowIsDeleted() {
+    // Given
+    H2TaskJdbcRepository h2Repository = Mockito.mock(H2TaskJdbcRepository.class);
+    when(h2Repository.deleteById(1L)).thenReturn(0);
+    when(transactionManagementService.executeInH2Jdbc(any()))
+        .thenAnswer(invocation -> invocation.<H2JdbcAction<Boolean>>getArgument(0).perform(h2Repository));
+    when(transactionManagementService.executeInPostgresJdbc(any())).thenReturn(null);
+
+    // When
+    boolean deleted = taskRepositoryManagementService.deleteById(1L);
+
+    // Then
+    assertFalse(deleted);
+    verify(h2Repository).deleteById(1L);
+  }
+
+  @Test
+  public void deleteById_shouldDeleteLocatedTaskInPostgresOnly() {
+    // Given
+    taskLocationDirectory.record(7L, TaskStore.POSTGRES);
+    when(transactionManagementService.executeInPostgresJdbc(any())).thenReturn(Boolean.TRUE);
+
+    // When
+    taskRepositoryManagementService.deleteById(7L);
+
+    // Then
+    verify(transactionManagementService, never()).executeInH2Jdbc(any());
+    verify(transactionManagementService).executeInPostgresJdbc(any());
+    assertNull(taskLocationDirectory.locate(7L));
+  }
+
+  @Test
+  public void saveWithFallback_shouldRecordDatabaseOfSavedTask() {
+    // Given
+    TaskEntity task = new TaskEntity();
+    when(transactionManagementService.executeInH2Jdbc(any())).thenThrow(new RuntimeException("H2 error"));
+
+    // When
+    taskRepositoryManagementService.saveWithFallback(task);
+
+    // Then
+    assertEquals(TaskStore.POSTGRES, taskLocationDirectory.locate(task.getId()));
+  }
+
+  @Test
+  public void deleteById_shouldGoStraightToPostgresWhenH2CircuitIsOpen() {
+    // Given
+    h2CircuitBreaker.transitionToOpenState();
+
+    when(transactionManagementService.executeInPostgresJdbc(any())).thenReturn(Boolean.TRUE);
+
+    // When
+    taskRepositoryManagementService.deleteById(1L);
+
+    // Then
+    verify(transactionManagementService, never()).executeInH2Jdbc(any());
+    verify(transactionManagementService).executeInPostgresJdbc(any());
+  }
+
+  @Test
+  public void saveAllWithFallback_shouldInsertTasksInH2() {
+    // Given
+    List<TaskEntity> tasks = List.of(new TaskEntity(), new TaskEntity());
+    H2TaskJdbcRepository h2Repository = Mockito.mock(H2TaskJdbcRepository.class);
+    when(h2Repository.insertAll(tasks)).thenReturn(2);
+    when(transactionManagementService.executeInH2Jdbc(any()))
+        .thenAnswer(invocation -> invocation.<H2JdbcAction<Void>>getArgument(0).perform(h2Repository));
+
+    // When
+    taskRepositoryManagementService.saveAllWithFallback(tasks);
+
+    // Then
+    verify(h2Repository).insertAll(tasks);
+    verify(transactionManagementService, never()).executeInPostgresJdbc(any());
+    assertEquals(TaskStore.H2, taskLocationDirectory.locate(tasks.get(0).getId()));
+  }
+
+  @Test
+  public void saveAllWithFallback_shouldFailOnIdClashWithoutTryingPostgres() {
+    // Given
+    List<TaskEntity> tasks = List.of(TaskEntity.builder().id(42L).build());
+    when(transactionManagementService.executeInH2Jdbc(any()))
+        .thenThrow(new DuplicateKeyException("Unique index or primary key violation"));
+
+    // When / Then
+    assertThrows(DuplicateKeyException.class, () -> taskRepositoryManagementService.saveAllWithFallback(tasks));
+    verify(transactionManagementService, never()).executeInPostgresJdbc(any());
+    assertNull(taskLocationDirectory.locate(42L));
+  }
+
+  @Test
+  public void saveAllWithFallback_shouldNotAppendEventsWhenNotEveryTaskIsInserted() {
+    // Given
+    List<TaskEntity> tasks = List.of(new TaskEntity(), new TaskEntity());
+    H2TaskJdbcRepository h2Repository = Mockito.mock(H2TaskJdbcRepository.class);
+    PostgresTaskJdbcRepository postgresRepository = Mockito.mock(PostgresTaskJdbcRepository.class);
+    when(h2Repository.insertAll(tasks)).thenReturn(1);
+    when(postgresRepository.insertAll(tasks)).thenReturn(1);
+    when(transactionManagementService.executeInH2Jdbc(any()))
+        .thenAnswer(invocation -> invocation.<H2JdbcAction<Void>>getArgument(0).perform(h2Repository));
+    when(transactionManagementService.executeInPostgresJdbc(any()))
+        .thenAnswer(invocation -> invocation.<PostgresJdbcAction<Void>>getArgument(0).perform(postgresRepository));
+
+    // When / Then
+    assertThrows(JdbcUpdateAffectedIncorrectNumberOfRowsException.class,
+        () -> taskRepositoryManagementService.saveAllWithFallback(tasks));
+    verify(h2Repository, never()).insertOutboxMessages(anyList());
+    verify(postgresRepository, never()).insertOutboxMessages(anyList());
+  }
+
+  @Test
+  public void saveAllWithFallback_shouldFallbackToPostgresWhenH2Fails() {
+    // Given
+    List<TaskEntity> tasks = List.of(new TaskEntity(), new TaskEntity());
+    when(transactionManagementService.executeInH2Jdbc(any())).thenThrow(new RuntimeException("H2 error"));
+
+    // When
+    List<TaskEntity> result = taskRepositoryManagementService.saveAllWithFallback(tasks);
+
+    // Then
+    verify(transactionManagementService).executeInH2Jdbc(any());
+    verify(transactionManagementService).executeInPostgresJdbc(any());
+    assertEquals(tasks, result);
+    assertNotNull(tasks.get(0).getId());
+    assertNotEquals(tasks.get(0).getId(), tasks.get(1).getId());
+  }
+
+  @Test
+  public void updateStatusWithFallback_shouldUpdateInH2Only() {
+    // Given
+    when(transactionManagementService.executeInH2Jdbc(any())).thenReturn(1L);
+
+    // When
+    Long version = taskRepositoryManagementService.updateStatusWithFallback(1L, TaskStatus.DONE, null);
+
+    // Then
+    assertEquals(1L, version);
+    verify(transactionManagementService, never()).executeInPostgresJdbc(any());
+    assertEquals(TaskStore.H2, taskLocationDirectory.locate(1L));
+  }
+
+  @Test
+  public void updateWithFallback_shouldUpdateInPostgresWhenNotFoundInH2() {
+    // Given
+    when(transactionManagementService.executeInH2Jdbc(any())).thenReturn(null);
+    when(transactionManagementService.executeInPostgresJdbc(any())).thenReturn(5L);
+
+    // When
+    Long version = taskRepositoryManagementService.updateWithFallback(TaskEntity.builder().id(1L).build(), 4L);
+
+    // Then
+    assertEquals(5L, version);
+    assertEquals(TaskStore.POSTGRES, taskLocationDirectory.locate(1L));
+  }
+
+  @Test
+  public void updateWithFallback_shouldUpdateLocatedTaskInPostgresFirst() {
+    // Given
+    taskLocationDirectory.record(1L, TaskStore.POSTGRES);
+    when(transactionManagementService.executeInPostgresJdbc(any())).thenReturn(1L);
+
+    // When
+    Long version = taskRepositoryManagementService.updateWithFallback(TaskEntity.builder().id(1L).build(), null);
+
+    // Then
+    assertEquals(1L, version);
+    verify(transactionManagementService, never()).executeInH2Jdbc(any());
+  }
+
+  @Test
+  public void updateWithFallback_shouldFailWithPreconditionFailedWhenVersionDiffers() {
+    // Given
+    H2TaskJdbcRepository h2Repository = Mockito.mock(H2TaskJdbcRepository.class);
+    TaskEntity task = TaskEntity.builder().id(1L).build();
+    when(h2Repository.update(task, 2L)).thenReturn(null);
+    when(h2Repository.findVersion(1L)).thenReturn(3L);
+    when(transactionManagementService.executeInH2Jdbc(any()))
+        .thenAnswer(invocation -> invocation.<H2JdbcAction<Long>>getArgument(0).perform(h2Repository));
+
+    // When
+    ApiResponseException exception = assertThrows(ApiResponseException.class,
+        () -> taskRepositoryManagementService.updateWithFallback(task, 2L));
+
+    // Then
+    assertEquals(HttpStatus.PRECONDITION_FAILED, exception.getHttpStatus());
+    verify(transactionManagementService, never()).executeInPostgresJdbc(any());
+    verify(h2Repository, never()).insertOutboxMessages(anyList());
+  }
+
+  @Test
+  public void updateWithFallback_shouldAppendUpdatedEventWithNewVersion() {
+    // Given
+    H2TaskJdbcRepository h2Repository = Mockito.mock(H2TaskJdbcRepository.class);
+    TaskEntity task = TaskEntity.builder().id(1L).build();
+    TaskOutboxMessage message = new TaskOutboxMessage(0, 1L, TaskEventType.UPDATED, "{}");
+    when(h2Repository.update(task, 2L)).thenReturn(3L);
+    when(taskOutboxService.updated(task, 3L)).thenReturn(message);
+    when(transactionManagementService.executeInH2Jdbc(any()))
+        .thenAnswer(invocation -> invocation.<H2JdbcAction<Long>>getArgument(0).perform(h2Repository));
+
+    // When
+    Long version = taskRepositoryManagementService.updateWithFallback(task, 2L);
+
+    // Then
+    assertEquals(3L, version);
+    verify(h2Repository).insertOutboxMessages(List.of(message));
+  }
+
+  @Test
+  public void updateStatusWithFallback_shouldAppendStatusChangedEvent() {
+    // Given
+    PostgresTaskJdbcRepository postgresRepository = Mockito.mock(PostgresTaskJdbcRepository.class);
+    TaskOutboxMessage message = new TaskOutboxMessage(0, 1L, TaskEventType.STATUS_CHANGED, "{}");
+    taskLocationDirectory.record(1L, TaskStore.POSTGRES);
+    when(postgresRepository.updateStatus(eq(1L), eq(TaskStatus.DONE), any(), isNull())).thenReturn(4L);
+    when(taskOutboxService.statusChanged(1L, TaskStatus.DONE, 4L)).thenReturn(message);
+    when(transactionManagementService.executeInPostgresJdbc(any()))
+        .thenAnswer(invocation -> invocation.<PostgresJdbcAction<Long>>getArgument(0).perform(postgresRepository));
+
+    // When
+    taskRepositoryManagementService.updateStatusWithFallback(1L, TaskStatus.DONE, null);
+
+    // Then
+    verify(postgresRepository).insertOutboxMessages(List.of(message));
+  }
+
+  @Test
+  public void deleteById_shouldAppendDeletedEventOnlyWhenRowIsDeleted() {
+    // Given
+    H2TaskJdbcRepository h2Repository = Mockito.mock(H2TaskJdbcRepository.class);
+    TaskOutboxMessage message = new TaskOutboxMessage(0, 1L, TaskEventType.DELETED, "{}");
+    when(h2Repository.deleteById(1L)).thenReturn(1);
+    when(h2Repository.deleteById(2L)).thenReturn(0);
+    when(taskOutboxService.deleted(1L)).thenReturn(message);
+    when(transactionManagementService.executeInH2Jdbc(any()))
+        .thenAnswer(invocation -> invocation.<H2JdbcAction<Boolean>>getArgument(0).perform(h2Repository));
 
     // When
     taskRepositoryManagementService.deleteById(1L);
+    taskRepositoryManagementService.deleteById(2L);
+
+    // Then
+    verify(h2Repository).insertOutboxMessages(List.of(message));
+    verify(taskOutboxService, never()).deleted(2L);
+  }
+
+  @Test
+  public void updateAllWithFallback_shouldAppendUpdatedEventsOfUpdatedTasksOnly() {
+    // Given
+    H2TaskJdbcRepository h2Repository = Mockito.mock(H2TaskJdbcRepository.class);
+    TaskEntity updatedTask = TaskEntity.builder().id(1L).build();
+    TaskEntity missingTask = TaskEntity.builder().id(2L).build();
+    TaskOutboxMessage message = new TaskOutboxMessage(0, 1L, TaskEventType.UPDATED, "{}");
+    when(h2Repository.updateAll(List.of(updatedTask, missingTask))).thenReturn(new int[] {1, 0});
+    when(taskOutboxService.updated(updatedTask, null)).thenReturn(message);
+    when(transactionManagementService.executeInH2Jdbc(any()))
+        .thenAnswer(invocation -> invocation.<H2JdbcAction<int[]>>getArgument(0).perform(h2Repository));
+    when(transactionManagementService.executeInPostgresJdbc(any())).thenReturn(new int[] {0});
+
+    // When
+    taskRepositoryManagementService.updateAllWithFallback(List.of(updatedTask, missingTask));
+
+    // Then
+    verify(h2Repository).insertOutboxMessages(List.of(message));
+  }
+
+  @Test
+  public void updateStatusWithFallback_shouldRetryWhenLockIsHeldByConcurrentUpdate() {
+    // Given
+    when(transactionManagementService.executeInH2Jdbc(any()))
+        .thenThrow(new CannotAcquireLockException("Timeout trying to lock table"))
+        .thenReturn(7L);
+
+    // When
+    Long version = taskRepositoryManagementService.updateStatusWithFallback(1L, TaskStatus.DONE, null);
+
+    // Then
+    assertEquals(7L, version);
+    verify(transactionManagementService, times(2)).executeInH2Jdbc(any());
+    verify(transactionManagementService, never()).executeInPostgresJdbc(any());
+  }
+
+  @Test
+  public void updateStatusWithFallback_shouldGiveUpAfterMaxAttempts() {
+    // Given
+    when(transactionManagementService.executeInH2Jdbc(any()))
+        .thenThrow(new CannotAcquireLockException("Timeout trying to lock table"));
+
+    // When & Then
+    assertThrows(CannotAcquireLockException.class,
+        () -> taskRepositoryManagementService.updateStatusWithFallback(1L, TaskStatus.DONE, null));
+    verify(transactionManagementService, times(taskUpdateProperties.getMaxStatusAttempts())).executeInH2Jdbc(any());
+  }
+
+  @Test
+  public void updateStatusWithFallback_shouldReturnNullWhenTaskNotFound() {
+    // Given
+    when(transactionManagementService.executeInH2Jdbc(any())).thenThrow(new RuntimeException("H2 error"));
+    when(transactionManagementService.executeInPostgresJdbc(any())).thenReturn(null);
+
+    // When
+    Long version = taskRepositoryManagementService.updateStatusWithFallback(1L, TaskStatus.DONE, null);
+
+    // Then
+    assertNull(version);
+    assertNull(taskLocationDirectory.locate(1L));
+  }
+
+  @Test
+  public void updateAllWithFallback_shouldUpdateTasksNotFoundInH2InPostgres() {
+    // Given
+    List<TaskEntity> tasks = List.of(TaskEntity.builder().id(1L).build(), TaskEntity.builder().id(2L).build(),
+        TaskEntity.builder().id(3L).build());
+    when(transactionManagementService.executeInH2Jdbc(any())).thenReturn(new int[] {1, 0, 0});
+    when(transactionManagementService.executeInPostgresJdbc(any())).thenReturn(new int[] {1, 0});
+
+    // When
+    boolean[] updated = taskRepositoryManagementService.updateAllWithFallback(tasks);
+
+    // Then
+    assertArrayEquals(new boolean[] {true, true, false}, updated);
+  }
+
+  @Test
+  public void deleteAllByIdWithFallback_shouldDeleteInPostgresWhenH2Fails() {
+    // Given
+    when(transactionManagementService.executeInH2Jdbc(any())).thenThrow(new RuntimeException("H2 error"));
+    when(transactionManagementService.executeInPostgresJdbc(any())).thenReturn(new int[] {1, 0});
+
+    // When
+    boolean[] deleted = taskRepositoryManagementService.deleteAllByIdWithFallback(List.of(1L, 2L));
+
+    // Then
+    assertArrayEquals(new boolean[] {true, false}, deleted);
+  }
+
+  @Test
+  public void deleteAllByIdWithFallback_shouldSkipPostgresWhenAllDeletedInH2() {
+    // Given
+    when(transactionManagementService.executeInH2Jdbc(any())).thenReturn(new int[] {1, 1});
+
+    // When
+    boolean[] deleted = taskRepositoryManagementService.deleteAllByIdWithFallback(List.of(1L, 2L));
+
+    // Then
+    assertArrayEquals(new boolean[] {true, true}, deleted);
+    verify(transactionManagementService, never()).executeInPostgresJdbc(any());
+  }
+
+  @Test
+  public void deleteAllByIdWithFallback_shouldDeleteLocatedTasksInPostgresFirst() {
+    // Given
+    taskLocationDirectory.record(2L, TaskStore.POSTGRES);
+    when(transactionManagementService.executeInPostgresJdbc(any())).thenReturn(new int[] {1});
+    when(transactionManagementService.executeInH2Jdbc(any())).thenReturn(new int[] {1});
+
+    // When
+    boolean[] deleted = taskRepositoryManagementService.deleteAllByIdWithFallback(List.of(1L, 2L));
 
     // Then
-    verify(transactionManagementService).executeInH2WithoutResult(any());
-    verify(transactionManagementService).executeInPostgresWithoutResult(any());
+    assertArrayEquals(new boolean[] {true, true}, deleted);
+    verify(transactionManagementService, times(1)).executeInPostgresJdbc(any());
+    verify(transactionManagementService, times(1)).executeInH2Jdbc(any());
+    assertNull(taskLocationDirectory.locate(2L));
   }
-}
\ No newline at end of file
+}
@@ -5,43 +5,51 @@ import static com.iyalynnyi.taskmanager.dto.TaskStatus.DONE;
 import static com.iyalynnyi.taskmanager.dto.TaskStatus.IN_PROGRESS;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.iyalynnyi.taskmanager.converter.TaskConverter;
 import com.iyalynnyi.taskmanager.dao.model.TaskEntity;
+import com.iyalynnyi.taskmanager.dto.TaskBatchItemResult;
+import com.iyalynnyi.taskmanager.dto.TaskBatchRequest;
+import com.iyalynnyi.taskmanager.dto.TaskBatchResultDto;
+import com.iyalynnyi.taskmanager.dto.TaskCursor;
 import com.iyalynnyi.taskmanager.dto.TaskDto;
+import com.iyalynnyi.taskmanager.dto.TaskFilter;
+import com.iyalynnyi.taskmanager.dto.TaskPageDto;
 import com.iyalynnyi.taskmanager.dto.TaskStatus;
+import com.iyalynnyi.taskmanager.dto.TaskStore;
 import com.iyalynnyi.taskmanager.exception.ApiResponseException;
-import com.iyalynnyi.taskmanager.service.TaskKafkaProducer;
+import com.iyalynnyi.taskmanager.service.TaskMergeResult;
 import com.iyalynnyi.taskmanager.service.TaskService;
 import com.iyalynnyi.taskmanager.service.TaskTransactionManagementService;
 
-import org.apache.kafka.clients.producer.KafkaProducer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.stream.LongStream;
 
 class TaskServiceImplTest {
 
   private TaskService taskService;
   private TaskConverter taskConverter;
-  private TaskKafkaProducer kafkaProducer;
   private TaskRepositoryManagementServiceImpl taskRepositoryManagementService;
 
   @BeforeEach
   void setUp() {
     taskRepositoryManagementService = Mockito.mock(TaskRepositoryManagementServiceImpl.class);
     taskConverter = Mockito.mock(TaskConverter.class);
-    kafkaProducer = Mockito.mock(TaskKafkaProducer.class);
 
-    taskService = new TaskServiceImpl(taskRepositoryManagementService, taskConverter, kafkaProducer);
+    taskService = new TaskServiceImpl(taskRepositoryManagementService, taskConverter);
 
   }
 
@@ -63,14 +71,12 @@ class TaskServiceImplTest {
     taskEntity.setId(1L);
     when(taskConverter.toEntity(expectedTaskDto)).thenReturn(taskEntity);
     when(taskRepositoryManagementService.saveWithFallback(any(TaskEntity.class))).thenReturn(taskEntity);
-    when(taskConverter.toDto(taskEntity)).thenReturn(expectedTaskDto);
 
     Long createdTaskId = taskService.createTask(expectedTaskDto);
 
     //Then
     verify(taskConverter).toEntity(expectedTaskDto);
     verify(taskRepositoryManagementService).saveWithFallback(taskEntity);
-    verify(kafkaProducer).sendTask(expectedTaskDto);
     assertEquals(1L, createdTaskId);
   }
 
@@ -78,21 +84,32 @@ class TaskServiceImplTest {
   public void shouldUpdateTask() {
     // Given
     TaskDto taskDto = TaskDto.builder().id(1L).title("Updated Task").build();
-    TaskEntity existingTaskEntity = new TaskEntity();
-    existingTaskEntity.setId(1L);
-    existingTaskEntity.setTitle("Old Task");
-
-    when(taskRepositoryManagementService.findByIdWithFallback(taskDto.getId())).thenReturn(existingTaskEntity);
-    when(taskConverter.updateEntity(existingTaskEntity, taskDto)).thenReturn(existingTaskEntity);
+    TaskEntity updatedEntity = TaskEntity.builder().id(1L).title("Updated Task").build();
+    when(taskConverter.updateEntity(any(TaskEntity.class), eq(taskDto))).thenReturn(updatedEntity);
+    when(taskRepositoryManagementService.updateWithFallback(updatedEntity, 3L)).thenReturn(4L);
 
     // When
-    String response = taskService.updateTask(taskDto);
+    Long version = taskService.updateTask(taskDto, 3L);
 
     // Then
-    verify(taskRepositoryManagementService).findByIdWithFallback(taskDto.getId());
-    verify(taskConverter).updateEntity(existingTaskEntity, taskDto);
-    verify(taskRepositoryManagementService).saveWithFallback(existingTaskEntity);
-    assertEquals("Task updated successfully.", response);
+    verify(taskRepositoryManagementService).updateWithFallback(updatedEntity, 3L);
+    verify(taskRepositoryManagementService, never()).findByIdWithFallback(any());
+    verify(taskRepositoryManagementService, never()).saveWithFallback(any());
+    assertEquals(4L, version);
+  }
+
+  @Test
+  public void shouldFailToUpdateTaskWhenNotFound() {
+    // Given
+    TaskDto taskDto = TaskDto.builder().id(1L).title("Updated Task").build();
+    TaskEntity updatedEntity = TaskEntity.builder().id(1L).build();
+    when(taskConverter.updateEntity(any(TaskEntity.class), eq(taskDto))).thenReturn(updatedEntity);
+    when(taskRepositoryManagementService.updateWithFallback(updatedEntity, null)).thenReturn(null);
+
+    // When & Then
+    ApiResponseException exception =
+        assertThrows(ApiResponseException.class, () -> taskService.updateTask(taskDto, null));
+    assertEquals("Task not found!", exception.getErrorMessage());
   }
 
   @Test
@@ -100,20 +117,24 @@ class TaskServiceImplTest {
     // Given
     Long taskId = 1L;
     TaskStatus newStatus = TaskStatus.DONE;
-    TaskEntity existingTaskEntity = new TaskEntity();
-    existingTaskEntity.setId(taskId);
-    existingTaskEntity.setStatus(TaskStatus.IN_PROGRESS);
-
-    when(taskRepositoryManagementService.findByIdWithFallback(taskId)).thenReturn(existingTaskEntity);
+    when(taskRepositoryManagementService.updateStatusWithFallback(taskId, newStatus, null)).thenReturn(2L);
 
     // When
-    String response = taskService.updateStatus(taskId, newStatus);
+    Long version = taskService.updateStatus(taskId, newStatus, null);
 
     // Then
-    verify(taskRepositoryManagementService).findByIdWithFallback(taskId);
-    assertEquals(newStatus, existingTaskEntity.getStatus());
-    verify(taskRepositoryManagementService).saveWithFallback(existingTaskEntity);
-    assertEquals("Status updated successfully.", response);
+    verify(taskRepositoryManagementService).updateStatusWithFallback(taskId, newStatus, null);
+    verify(taskRepositoryManagementService, never()).findByIdWithFallback(any());
+    assertEquals(2L, version);
+  }
+
+  @Test
+  public void shouldFailToUpdateStatusWhenTaskNotFound() {
+    // Given
+    when(taskRepositoryManagementService.updateStatusWithFallback(1L, TaskStatus.DONE, null)).thenReturn(null);
+
+    // When & Then
+    assertThrows(ApiResponseException.class, () -> taskService.updateStatus(1L, TaskStatus.DONE, null));
   }
 
   @Test
@@ -122,30 +143,77 @@ class TaskServiceImplTest {
     TaskEntity taskEntity = new TaskEntity();
     taskEntity.setId(1L);
     List<TaskEntity> taskEntities = Collections.singletonList(taskEntity);
-    when(taskRepositoryManagementService.findAllWithFallback()).thenReturn(taskEntities);
+    TaskFilter filter = new TaskFilter();
+    when(taskRepositoryManagementService.findPageWithFallback(filter, null, 11))
+        .thenReturn(new TaskMergeResult(taskEntities, EnumSet.noneOf(TaskStore.class)));
     when(taskConverter.toDtos(taskEntities)).thenReturn(Collections.singletonList(TaskDto.builder().id(1L).build()));
 
     // When
-    List<TaskDto> tasks = taskService.getTasks();
+    TaskPageDto page = taskService.getTasks(filter, null, 10);
 
     // Then
-    verify(taskRepositoryManagementService).findAllWithFallback();
-    assertEquals(1, tasks.size());
-    assertEquals(1L, tasks.get(0).getId());
+    verify(taskRepositoryManagementService).findPageWithFallback(filter, null, 11);
+    assertEquals(1, page.getItems().size());
+    assertEquals(1L, page.getItems().get(0).getId());
+    assertNull(page.getNextCursor());
+    assertTrue(page.getUnavailableStores().isEmpty());
+  }
+
+  @Test
+  public void shouldFlagUnavailableStoresInPage() {
+    // Given
+    TaskFilter filter = new TaskFilter();
+    when(taskRepositoryManagementService.findPageWithFallback(filter, null, 11))
+        .thenReturn(new TaskMergeResult(Collections.emptyList(), EnumSet.of(TaskStore.H2)));
+
+    // When
+    TaskPageDto page = taskService.getTasks(filter, null, 10);
+
+    // Then
+    assertEquals(List.of(TaskStore.H2), page.getUnavailableStores());
+  }
+
+  @Test
+  public void shouldReturnNextCursorWhenMoreTasksExist() {
+    // Given
+    TaskEntity first = TaskEntity.builder().id(1L).build();
+    TaskEntity second = TaskEntity.builder().id(2L).build();
+    TaskEntity third = TaskEntity.builder().id(3L).build();
+    TaskFilter filter = new TaskFilter();
+    TaskCursor cursor = new TaskCursor(LocalDateTime.now(), 0L);
+    when(taskConverter.decodeCursor("cursor")).thenReturn(cursor);
+    when(taskRepositoryManagementService.findPageWithFallback(filter, cursor, 3))
+        .thenReturn(new TaskMergeResult(List.of(first, second, third), EnumSet.noneOf(TaskStore.class)));
+    when(taskConverter.encodeCursor(second)).thenReturn("next");
+
+    // When
+    TaskPageDto page = taskService.getTasks(filter, "cursor", 2);
+
+    // Then
+    verify(taskConverter).toDtos(List.of(first, second));
+    assertEquals("next", page.getNextCursor());
+  }
+
+  @Test
+  public void shouldFailToGetTasksWhenLimitIsOutOfRange() {
+    // When & Then
+    assertThrows(ApiResponseException.class, () -> taskService.getTasks(new TaskFilter(), null, 0));
+    assertThrows(ApiResponseException.class,
+        () -> taskService.getTasks(new TaskFilter(), null, TaskServiceImpl.MAX_PAGE_SIZE + 1));
   }
 
   @Test
   public void shouldDeleteTaskById() {
     // Given
     Long taskId = 1L;
-    when(taskRepositoryManagementService.existsById(taskId)).thenReturn(true);
+    when(taskRepositoryManagementService.deleteById(taskId)).thenReturn(true);
 
     // When
     String response = taskService.deleteTaskById(taskId);
 
     // Then
-    verify(taskRepositoryManagementService).existsById(taskId);
     verify(taskRepositoryManagementService).deleteById(taskId);
+    verify(taskRepositoryManagementService, never()).existsById(any());
     assertEquals("Task deleted successfully.", response);
   }
 
@@ -153,11 +221,77 @@ class TaskServiceImplTest {
   public void shouldFailToDeleteTaskWhenNotFound() {
     // Given
     Long taskId = 1L;
-    when(taskRepositoryManagementService.existsById(taskId)).thenReturn(false);
+    when(taskRepositoryManagementService.deleteById(taskId)).thenReturn(false);
+
+    // When & Then
+    ApiResponseException exception = assertThrows(ApiResponseException.class, () -> taskService.deleteTaskById(taskId));
+    assertEquals(HttpStatus.NOT_FOUND, exception.getHttpStatus());
+    verify(taskRepositoryManagementService, never()).existsById(any());
+  }
+
+  @Test
+  public void shouldDeleteTasksByIds() {
+    // Given
+    when(taskRepositoryManagementService.deleteAllByIdWithFallback(List.of(1L, 2L))).thenReturn(new boolean[] {true, false});
+
+    // When
+    TaskBatchResultDto result = taskService.deleteTasksByIds(List.of(1L, 2L));
+
+    // Then
+    assertEquals(List.of(TaskBatchItemResult.Status.DELETED, TaskBatchItemResult.Status.NOT_FOUND),
+        result.getResults().stream().map(TaskBatchItemResult::getStatus).toList());
+  }
+
+  @Test
+  public void shouldProcessBatch() {
+    // Given
+    TaskDto create = TaskDto.builder().title("New").status(IN_PROGRESS).priority(HIGH).build();
+    TaskDto update = TaskDto.builder().id(2L).title("Updated").status(DONE).priority(HIGH).build();
+    TaskDto updateWithoutId = TaskDto.builder().title("No id").status(DONE).priority(HIGH).build();
+    TaskEntity createdEntity = TaskEntity.builder().id(1L).build();
+    when(taskConverter.toEntity(create)).thenReturn(createdEntity);
+    when(taskConverter.updateEntity(any(TaskEntity.class), eq(update))).thenAnswer(invocation -> invocation.getArgument(0));
+    when(taskRepositoryManagementService.updateAllWithFallback(any())).thenReturn(new boolean[] {true});
+    when(taskRepositoryManagementService.deleteAllByIdWithFallback(List.of(3L, 4L))).thenReturn(new boolean[] {true, false});
+
+    // When
+    TaskBatchResultDto result = taskService.processBatch(TaskBatchRequest.builder()
+        .create(List.of(create))
+        .update(List.of(update, updateWithoutId))
+        .delete(List.of(3L, 4L))
+        .build());
+
+    // Then
+    verify(taskRepositoryManagementService).saveAllWithFallback(List.of(createdEntity));
+    assertEquals(List.of(TaskBatchItemResult.Status.CREATED, TaskBatchItemResult.Status.FAILED,
+            TaskBatchItemResult.Status.UPDATED, TaskBatchItemResult.Status.DELETED, TaskBatchItemResult.Status.NOT_FOUND),
+        result.getResults().stream().map(TaskBatchItemResult::getStatus).toList());
+    assertEquals(1, result.getResults().get(1).getIndex());
+    assertEquals(2L, result.getResults().get(2).getId());
+  }
+
+  @Test
+  public void shouldMarkCreatesAsFailedWhenBatchInsertFails() {
+    // Given
+    TaskDto create = TaskDto.builder().title("New").build();
+    when(taskConverter.toEntity(create)).thenReturn(new TaskEntity());
+    when(taskRepositoryManagementService.saveAllWithFallback(any())).thenThrow(new RuntimeException("DB error"));
+
+    // When
+    TaskBatchResultDto result = taskService.processBatch(TaskBatchRequest.builder().create(List.of(create)).build());
+
+    // Then
+    assertEquals(TaskBatchItemResult.Status.FAILED, result.getResults().get(0).getStatus());
+  }
+
+  @Test
+  public void shouldFailToProcessBatchWhenTooLarge() {
+    // Given
+    List<Long> ids = LongStream.rangeClosed(1, TaskServiceImpl.MAX_BATCH_SIZE + 1).boxed().toList();
 
     // When & Then
-    assertThrows(ApiResponseException.class, () -> taskService.deleteTaskById(taskId));
-    verify(taskRepositoryManagementService).existsById(taskId);
-    verify(taskRepositoryManagementService, never()).deleteById(taskId);
+    assertThrows(ApiResponseException.class,
+        () -> taskService.processBatch(TaskBatchRequest.builder().delete(ids).build()));
+    verify(taskRepositoryManagementService, never()).deleteAllByIdWithFallback(any());
   }
 }
\ No newline at end of file